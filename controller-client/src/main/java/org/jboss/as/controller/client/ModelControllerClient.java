@@ -24,11 +24,15 @@ package org.jboss.as.controller.client;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.UnknownHostException;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import javax.net.ssl.SSLContext;
 import javax.security.auth.callback.CallbackHandler;
@@ -178,6 +182,43 @@ public interface ModelControllerClient extends Closeable {
      */
     AsyncFuture<OperationResponse> executeOperationAsync(Operation operation, OperationMessageHandler messageHandler);
 
+    /**
+     * Execute a number of independent operations concurrently, for example reads that would otherwise each take a
+     * round trip to the server.
+     * <p>
+     * Unlike the steps of a {@code composite} operation the operations are not executed in any particular order, and
+     * each one succeeds or fails on its own. None of them is rolled back because another one failed.
+     *
+     * @param operations the operations to execute
+     * @return the results of the operations, in the same order as {@code operations}
+     * @throws IOException if an I/O error occurs while executing the operations
+     */
+    default List<ModelNode> executeConcurrently(List<ModelNode> operations) throws IOException {
+        final List<AsyncFuture<ModelNode>> futures = new ArrayList<>(operations.size());
+        final List<ModelNode> results = new ArrayList<>(operations.size());
+        try {
+            for (ModelNode operation : operations) {
+                futures.add(executeAsync(operation));
+            }
+            for (AsyncFuture<ModelNode> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException cause = new InterruptedIOException(e.getLocalizedMessage());
+            cause.initCause(e);
+            throw cause;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            // Don't leave anything running if a result could not be read
+            for (int i = results.size(); i < futures.size(); i++) {
+                futures.get(i).asyncCancel(true);
+            }
+        }
+        return results;
+    }
+
     /** Factory methods for creating a {@code ModelControllerClient}. */
     class Factory {
 
@@ -573,7 +573,16 @@ public abstract class AbstractControllerService implements Service<ModelControll
                     stopAsynchronous(context);
                 } finally {
                     try {
-                        authorizer.shutdown();
+                        try {
+                            // Write any configuration change whose write is still pending
+                            configurationPersister.shutdown();
+                        } finally {
+                            try {
+                                auditLogger.shutdown();
+                            } finally {
+                                authorizer.shutdown();
+                            }
+                        }
                     } finally {
                         context.complete();
                     }
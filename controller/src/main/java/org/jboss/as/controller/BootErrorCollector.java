@@ -20,7 +20,11 @@
  */
 package org.jboss.as.controller;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 import org.jboss.as.controller.access.Action;
 import org.jboss.as.controller.access.AuthorizationResult;
 
@@ -34,6 +38,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.POS
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVICES_MISSING_DEPENDENCIES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SERVICES_MISSING_TRANSITIVE_DEPENDENCIES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
 
 import java.util.HashSet;
 import org.jboss.as.controller.access.management.AuthorizedAddress;
@@ -43,18 +48,51 @@ import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
- * Collects boot errors.
+ * Collects boot errors, and the time each subsystem's boot operations took.
  * @author <a href="mailto:ehugonne@redhat.com">Emmanuel Hugonnet</a> (c) 2014 Red Hat, inc.
  */
 public class BootErrorCollector {
     private static final String COMPLETE_OP = "real-operation";
     private final ModelNode errors;
     private final OperationStepHandler listBootErrorsHandler;
+    /** Guarded by itself - the nanoseconds each subsystem spent in each stage, indexed by stage ordinal */
+    private final Map<String, long[]> subsystemBootTimes = new LinkedHashMap<>();
+    private final OperationStepHandler readSubsystemBootTimesHandler;
 
     public BootErrorCollector() {
         errors = new ModelNode();
         errors.setEmptyList();
         listBootErrorsHandler = new ListBootErrorsHandler(this);
+        readSubsystemBootTimesHandler = new ReadSubsystemBootTimesHandler(this);
+    }
+
+    void addSubsystemBootTime(final String subsystemName, final OperationContext.Stage stage, final long nanos) {
+        synchronized (subsystemBootTimes) {
+            long[] times = subsystemBootTimes.get(subsystemName);
+            if (times == null) {
+                times = new long[OperationContext.Stage.values().length];
+                subsystemBootTimes.put(subsystemName, times);
+            }
+            times[stage.ordinal()] = nanos;
+        }
+    }
+
+    ModelNode getSubsystemBootTimes() {
+        final ModelNode result = new ModelNode().setEmptyList();
+        synchronized (subsystemBootTimes) {
+            for (Map.Entry<String, long[]> entry : subsystemBootTimes.entrySet()) {
+                final ModelNode subsystem = result.add();
+                subsystem.get(SUBSYSTEM).set(entry.getKey());
+                subsystem.get(ReadSubsystemBootTimesHandler.MODEL_TIME.getName()).set(toMillis(entry.getValue(), OperationContext.Stage.MODEL));
+                subsystem.get(ReadSubsystemBootTimesHandler.RUNTIME_TIME.getName()).set(toMillis(entry.getValue(), OperationContext.Stage.RUNTIME));
+                subsystem.get(ReadSubsystemBootTimesHandler.VERIFY_TIME.getName()).set(toMillis(entry.getValue(), OperationContext.Stage.VERIFY));
+            }
+        }
+        return result;
+    }
+
+    private static long toMillis(final long[] times, final OperationContext.Stage stage) {
+        return TimeUnit.NANOSECONDS.toMillis(times[stage.ordinal()]);
     }
 
     void addFailureDescription(final ModelNode operation, final ModelNode failureDescription) {
@@ -100,6 +138,47 @@ public class BootErrorCollector {
         return this.listBootErrorsHandler;
     }
 
+    public OperationStepHandler getReadSubsystemBootTimesHandler() {
+        return this.readSubsystemBootTimesHandler;
+    }
+
+    /**
+     * Lists the time in milliseconds the boot operations of each subsystem took in each stage, for the subsystems
+     * whose boot operations were executed in parallel.
+     */
+    public static class ReadSubsystemBootTimesHandler implements OperationStepHandler {
+
+        private static final String OPERATION_NAME = "read-subsystem-boot-times";
+
+        private static final AttributeDefinition SUBSYSTEM_NAME = SimpleAttributeDefinitionBuilder.create(SUBSYSTEM, ModelType.STRING, false).build();
+        private static final AttributeDefinition MODEL_TIME = SimpleAttributeDefinitionBuilder.create("model-time", ModelType.LONG, false).build();
+        private static final AttributeDefinition RUNTIME_TIME = SimpleAttributeDefinitionBuilder.create("runtime-time", ModelType.LONG, false).build();
+        private static final AttributeDefinition VERIFY_TIME = SimpleAttributeDefinitionBuilder.create("verify-time", ModelType.LONG, false).build();
+
+        public static final SimpleOperationDefinition DEFINITION = new SimpleOperationDefinitionBuilder(OPERATION_NAME,
+                ControllerResolver.getResolver("boot"))
+                .setReadOnly()
+                .setRuntimeOnly()
+                .setReplyType(ModelType.LIST)
+                .setReplyParameters(SUBSYSTEM_NAME, MODEL_TIME, RUNTIME_TIME, VERIFY_TIME).build();
+
+        private final BootErrorCollector collector;
+
+        ReadSubsystemBootTimesHandler(final BootErrorCollector collector) {
+            this.collector = collector;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            context.addStep(new OperationStepHandler() {
+                @Override
+                public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+                    context.getResult().set(collector.getSubsystemBootTimes());
+                }
+            }, OperationContext.Stage.RUNTIME);
+        }
+    }
+
     public static class ListBootErrorsHandler implements OperationStepHandler {
 
         private static final String OPERATION_NAME = "read-boot-errors";
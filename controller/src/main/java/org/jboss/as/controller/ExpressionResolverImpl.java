@@ -21,16 +21,28 @@
 */
 package org.jboss.as.controller;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jboss.as.controller.logging.ControllerLogger;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.dmr.Property;
 import org.jboss.dmr.ValueExpression;
+import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
  * Basic {@link ExpressionResolver} implementation.
+ * <p>
+ * If the {@value #EXPRESSION_CACHE} system property is set to {@code true}, the resolution of each expression string
+ * is remembered together with the system properties it read, and reused for as long as those properties keep the
+ * same values, whether they are changed by a {@code system-property} resource or otherwise. Expressions resolved by
+ * {@link #resolvePluggableExpression(ModelNode) pluggable resolution} are never remembered, nor is anything when a
+ * security manager is checking access to the system properties.
+ * </p>
  *
  * @author <a href="kabir.khan@jboss.com">Kabir Khan</a>
  */
@@ -40,7 +52,18 @@ public class ExpressionResolverImpl implements ExpressionResolver {
     private static final int GOT_DOLLAR = 1;
     private static final int GOT_OPEN_BRACE = 2;
 
+    /**
+     * System property that turns on remembering the resolution of expression strings
+     */
+    static final String EXPRESSION_CACHE = "jboss.as.management.expression-cache";
+
+    private static final boolean CACHE_ENABLED = Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(EXPRESSION_CACHE, "false"));
+
+    /** The number of expression strings after which the cache starts over, so odd usage cannot make it grow forever */
+    private static final int MAX_CACHED_EXPRESSIONS = 4096;
+
     private final boolean lenient;
+    private final ConcurrentMap<String, CachedResolution> cache;
 
     /**
      * Creates a new {@code ExpressionResolverImpl} configured to throw an OFE
@@ -58,19 +81,32 @@ public class ExpressionResolverImpl implements ExpressionResolver {
      *                           if the node should be left as an unresolved expression
      */
     protected ExpressionResolverImpl(boolean lenient) {
+        this(lenient, CACHE_ENABLED);
+    }
+
+    ExpressionResolverImpl(boolean lenient, boolean cacheResolutions) {
         this.lenient = lenient;
+        this.cache = cacheResolutions ? new ConcurrentHashMap<String, CachedResolution>() : null;
     }
 
     @Override
     public final ModelNode resolveExpressions(final ModelNode node) throws OperationFailedException {
-        return resolveExpressionsRecursively(node);
+        final ModelNode resolved = resolveExpressionsRecursively(node);
+        if (resolved == node) {
+            // Nothing was resolved, but complex nodes are still expected to come back as a copy
+            final ModelType type = node.getType();
+            if (type == ModelType.OBJECT || type == ModelType.LIST || type == ModelType.PROPERTY) {
+                return node.clone();
+            }
+        }
+        return resolved;
     }
 
     /**
      * Examine the given model node, resolving any expressions found within, including within child nodes.
      *
      * @param node the node
-     * @return a node with all expressions resolved
+     * @return a node with all expressions resolved, or {@code node} itself if it contains no expressions
      * @throws OperationFailedException if an expression cannot be resolved
      */
     private ModelNode resolveExpressionsRecursively(final ModelNode node) throws OperationFailedException {
@@ -81,23 +117,61 @@ public class ExpressionResolverImpl implements ExpressionResolver {
         ModelType type = node.getType();
         ModelNode resolved;
         if (type == ModelType.EXPRESSION) {
-            resolved = resolveExpressionStringRecursively(node.asExpression().getExpressionString(), lenient, true);
+            resolved = resolveExpressionString(node.asExpression().getExpressionString());
         } else if (type == ModelType.OBJECT) {
-            resolved = node.clone();
-            for (Property prop : resolved.asPropertyList()) {
-                resolved.get(prop.getName()).set(resolveExpressionsRecursively(prop.getValue()));
+            // Only copy the node if something in it needs resolving, and then only once
+            // (asPropertyList() would copy every value, so the values are read by key)
+            final List<String> keys = new ArrayList<String>(node.keys());
+            List<ModelNode> values = null;
+            for (int i = 0; i < keys.size(); i++) {
+                final ModelNode value = node.get(keys.get(i));
+                final ModelNode resolvedValue = resolveExpressionsRecursively(value);
+                if (resolvedValue != value && values == null) {
+                    values = new ArrayList<ModelNode>(keys.size());
+                    for (int j = 0; j < i; j++) {
+                        values.add(node.get(keys.get(j)));
+                    }
+                }
+                if (values != null) {
+                    values.add(resolvedValue);
+                }
+            }
+            if (values == null) {
+                resolved = node;
+            } else {
+                resolved = new ModelNode();
+                resolved.setEmptyObject();
+                for (int i = 0; i < keys.size(); i++) {
+                    resolved.get(keys.get(i)).set(values.get(i));
+                }
             }
         } else if (type == ModelType.LIST) {
-            resolved = node.clone();
-            ModelNode list = new ModelNode();
-            list.setEmptyList();
-            for (ModelNode current : resolved.asList()) {
-                list.add(resolveExpressionsRecursively(current));
+            final List<ModelNode> elements = node.asList();
+            List<ModelNode> values = null;
+            for (int i = 0; i < elements.size(); i++) {
+                final ModelNode element = elements.get(i);
+                final ModelNode resolvedElement = resolveExpressionsRecursively(element);
+                if (resolvedElement != element && values == null) {
+                    values = new ArrayList<ModelNode>(elements.size());
+                    values.addAll(elements.subList(0, i));
+                }
+                if (values != null) {
+                    values.add(resolvedElement);
+                }
+            }
+            if (values == null) {
+                resolved = node;
+            } else {
+                resolved = new ModelNode();
+                resolved.setEmptyList();
+                for (ModelNode value : values) {
+                    resolved.add(value);
+                }
             }
-            resolved = list;
         } else if (type == ModelType.PROPERTY) {
-            resolved = node.clone();
-            resolved.set(resolved.asProperty().getName(), resolveExpressionsRecursively(resolved.asProperty().getValue()));
+            final Property property = node.asProperty();
+            final ModelNode resolvedValue = resolveExpressionsRecursively(property.getValue());
+            resolved = resolvedValue == property.getValue() ? node : new ModelNode().set(property.getName(), resolvedValue);
         } else {
             resolved = node;
         }
@@ -105,6 +179,33 @@ public class ExpressionResolverImpl implements ExpressionResolver {
         return resolved;
     }
 
+    /**
+     * Resolve the expression string of a node of {@link ModelType#EXPRESSION}, using the remembered resolution of
+     * the string if the system properties that resolution read still have the same values.
+     *
+     * @param expressionString the expression string
+     * @return the resolved node
+     * @throws OperationFailedException if the expression cannot be resolved
+     */
+    private ModelNode resolveExpressionString(final String expressionString) throws OperationFailedException {
+        if (cache == null || WildFlySecurityManager.isChecking()) {
+            return resolveExpressionStringRecursively(expressionString, lenient, true, null);
+        }
+        final CachedResolution cached = cache.get(expressionString);
+        if (cached != null && cached.isCurrent()) {
+            return cached.result.clone();
+        }
+        final Dependencies dependencies = new Dependencies();
+        final ModelNode resolved = resolveExpressionStringRecursively(expressionString, lenient, true, dependencies);
+        if (dependencies.cacheable) {
+            if (cache.size() >= MAX_CACHED_EXPRESSIONS) {
+                cache.clear();
+            }
+            cache.put(expressionString, new CachedResolution(resolved.clone(), dependencies));
+        }
+        return resolved;
+    }
+
     /**
      * Attempt to resolve the expression {@link org.jboss.dmr.ModelNode#asString() encapsulated in the given node},
      * setting the value of {@code node} to the resolved string if successful, or leaving {@code node} unaltered
@@ -131,6 +232,7 @@ public class ExpressionResolverImpl implements ExpressionResolver {
      * @param ignoreDMRResolutionFailure {@code false} if {@link org.jboss.dmr.ModelNode#resolve() basic DMR resolution}
      *                            failures should be ignored, and {@code new ModelNode(expressionType.asString())} returned
      * @param initial {@code true} if this call originated outside this method; {@code false} if it is a recursive call
+     * @param dependencies collects the system properties the resolution reads, or {@code null}
      *
      * @return a node of {@link ModelType#STRING} where the encapsulated string is the resolved expression, or a node
      *         of {@link ModelType#EXPRESSION} if {@code ignoreDMRResolutionFailure} and {@code initial} are
@@ -139,13 +241,13 @@ public class ExpressionResolverImpl implements ExpressionResolver {
      * @throws OperationFailedException if the expression cannot be resolved
      */
     private ModelNode resolveExpressionStringRecursively(final String expressionString, final boolean ignoreDMRResolutionFailure,
-                                                         final boolean initial) throws OperationFailedException {
-        ParseAndResolveResult resolved = parseAndResolve(expressionString, ignoreDMRResolutionFailure);
+                                                         final boolean initial, final Dependencies dependencies) throws OperationFailedException {
+        ParseAndResolveResult resolved = parseAndResolve(expressionString, ignoreDMRResolutionFailure, dependencies);
         if (resolved.recursive) {
             // Some part of expressionString resolved into a different expression.
             // So, start over, ignoring failures. Ignore failures because we don't require
             // that expressions must not resolve to something that *looks like* an expression but isn't
-            return resolveExpressionStringRecursively(resolved.result, true, false);
+            return resolveExpressionStringRecursively(resolved.result, true, false, dependencies);
         } else if (resolved.modified) {
             // Typical case
             return new ModelNode(resolved.result);
@@ -165,7 +267,7 @@ public class ExpressionResolverImpl implements ExpressionResolver {
         }
     }
 
-    private ParseAndResolveResult parseAndResolve(final String initialValue, boolean lenient) throws OperationFailedException {
+    private ParseAndResolveResult parseAndResolve(final String initialValue, boolean lenient, final Dependencies dependencies) throws OperationFailedException {
 
 
         final StringBuilder builder = new StringBuilder();
@@ -243,7 +345,7 @@ public class ExpressionResolverImpl implements ExpressionResolver {
                                 continue;
                             }
                             String toResolve = getStringToResolve(initialValue, stack, i);
-                            final String resolved = resolveExpressionString(toResolve); // TODO we could catch OFE here
+                            final String resolved = resolveExpressionPart(toResolve, dependencies); // TODO we could catch OFE here
                                                                                         // and if lenient respond with
                                                                                         // the initial value, else rethrow
                                                                                         // But for now it's a corner case
@@ -327,7 +429,7 @@ public class ExpressionResolverImpl implements ExpressionResolver {
     }
 
     /** Resolve the given string using any plugin and the DMR resolve method */
-    private String resolveExpressionString(final String unresolvedString) throws OperationFailedException {
+    private String resolveExpressionPart(final String unresolvedString, final Dependencies dependencies) throws OperationFailedException {
 
         // parseAndResolve should only be providing expressions with no leading or trailing chars
         assert unresolvedString.startsWith("${") && unresolvedString.endsWith("}");
@@ -342,6 +444,10 @@ public class ExpressionResolverImpl implements ExpressionResolver {
 
         if (resolveNode.getType() == ModelType.EXPRESSION ) {
             // resolvePluggableExpression did nothing. Try standard resolution
+            if (dependencies != null) {
+                // Read the properties before resolving, so a concurrent change can only make the record outdated
+                dependencies.record(unresolvedString);
+            }
             String resolvedString = resolveStandardExpression(resolveNode);
             if (!unresolvedString.equals(resolvedString)) {
                 // resolveStandardExpression made progress
@@ -349,6 +455,9 @@ public class ExpressionResolverImpl implements ExpressionResolver {
             } // else there is nothing more we can do with this string
         } else {
             // resolvePluggableExpression made progress
+            if (dependencies != null) {
+                dependencies.cacheable = false;
+            }
             result = resolveNode.asString();
         }
 
@@ -471,6 +580,59 @@ public class ExpressionResolverImpl implements ExpressionResolver {
         }
     }
 
+    /**
+     * The system properties read while resolving an expression string, and whether its resolution can be remembered.
+     */
+    private static final class Dependencies {
+        private final List<String> names = new ArrayList<String>();
+        private final List<String> values = new ArrayList<String>();
+        private boolean cacheable = true;
+
+        /**
+         * Records the system properties standard resolution reads for an expression without nested expressions,
+         * i.e. the comma separated names before the first {@code :}, other than {@code env.} names, as environment
+         * variables cannot change. The {@code /} and {@code :} expressions read nothing.
+         */
+        private void record(final String expression) {
+            final String content = expression.substring(2, expression.length() - 1);
+            if (content.equals("/") || content.equals(":")) {
+                return;
+            }
+            final int colon = content.indexOf(':');
+            for (String name : (colon < 0 ? content : content.substring(0, colon)).split(",", -1)) {
+                if (name.isEmpty() || !name.trim().equals(name)) {
+                    // Leave anything unusual to be resolved every time
+                    cacheable = false;
+                } else if (!name.startsWith("env.")) {
+                    names.add(name);
+                    values.add(System.getProperty(name));
+                }
+            }
+        }
+    }
+
+    private static final class CachedResolution {
+        private final ModelNode result;
+        private final String[] names;
+        private final String[] values;
+
+        private CachedResolution(final ModelNode result, final Dependencies dependencies) {
+            this.result = result;
+            this.names = dependencies.names.toArray(new String[dependencies.names.size()]);
+            this.values = dependencies.values.toArray(new String[dependencies.values.size()]);
+        }
+
+        private boolean isCurrent() {
+            for (int i = 0; i < names.length; i++) {
+                final String value = System.getProperty(names[i]);
+                if (value == null ? values[i] != null : !value.equals(values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private static class OpenExpression {
         private final int startIndex;
         private int endIndex = -1;
@@ -53,12 +53,12 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -81,6 +81,7 @@ import org.jboss.as.controller.logging.ControllerLogger;
 import org.jboss.as.controller.notification.NotificationSupport;
 import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
 import org.jboss.as.controller.persistence.ConfigurationPersister;
+import org.jboss.as.controller.registry.CopyOnWriteResourceTree;
 import org.jboss.as.controller.registry.DelegatingResource;
 import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -130,7 +131,6 @@ class ModelControllerImpl implements ModelController {
     private final Supplier<SecurityIdentity> securityIdentitySupplier;
 
     private final ConcurrentMap<Integer, OperationContextImpl> activeOperations = new ConcurrentHashMap<>();
-    private final Random random = new Random();
     private final ManagedAuditLogger auditLogger;
     private final BootErrorCollector bootErrorCollector;
 
@@ -396,8 +396,8 @@ class ModelControllerImpl implements ModelController {
 
         for (;;) {
             responseStreams = null;
-            // Create a random operation-id
-            final Integer operationID = random.nextInt();
+            // Create a random operation-id. A shared Random would make concurrent operations contend on its seed
+            final Integer operationID = ThreadLocalRandom.current().nextInt();
             final OperationContextImpl context = new OperationContextImpl(operationID, operation.get(OP).asString(),
                     operation.get(OP_ADDR), this, processType, runningModeControl.getRunningMode(),
                     headers, handler, attachments, managementModel.get(), originalResultTxControl, processState, auditLogger,
@@ -450,6 +450,14 @@ class ModelControllerImpl implements ModelController {
                     //noinspection deprecation
                     CurrentOperationIdHolder.setCurrentOperationID(null);
                 }
+                // Now that the controller lock is released, wait for any configuration change to be
+                // persisted, so persisters that coalesce writes can include those of following operations
+                try {
+                    persister.awaitCommitted();
+                } catch (ConfigurationPersistenceException e) {
+                    responseNode.get(OUTCOME).set(FAILED);
+                    responseNode.get(FAILURE_DESCRIPTION).set(e.getLocalizedMessage());
+                }
                 break;
             }
         }
@@ -473,7 +481,7 @@ class ModelControllerImpl implements ModelController {
                  final boolean rollbackOnRuntimeFailure, MutableRootResourceRegistrationProvider parallelBootRootResourceRegistrationProvider,
                  final boolean skipModelValidation, final boolean partialModel) {
 
-        final Integer operationID = random.nextInt();
+        final Integer operationID = ThreadLocalRandom.current().nextInt();
 
         OperationHeaders headers = OperationHeaders.forBoot(rollbackOnRuntimeFailure);
 
@@ -602,7 +610,8 @@ class ModelControllerImpl implements ModelController {
                 parallelBootRootResourceRegistrationProvider : getMutableRootResourceRegistrationProvider();
         ParallelExtensionAddHandler parallelExtensionAddHandler = executorService == null ? null : new ParallelExtensionAddHandler(executorService, parallellBRRRProvider);
         ParallelBootOperationStepHandler parallelSubsystemHandler = (executorService != null && processType.isServer() && runningModeControl.getRunningMode() == RunningMode.NORMAL)
-                ? new ParallelBootOperationStepHandler(executorService, rootRegistration, processState, this, lockPermit, extraValidationStepHandler) : null;
+                ? new ParallelBootOperationStepHandler(executorService, rootRegistration, processState, this, lockPermit, extraValidationStepHandler,
+                        bootErrorCollector) : null;
         boolean registeredParallelSubsystemHandler = false;
         int subsystemIndex = 0;
         for (ModelNode bootOp : bootList) {
@@ -1079,6 +1088,8 @@ class ModelControllerImpl implements ModelController {
         private final ManagementResourceRegistration resourceRegistration;
         // The possibly unpublished root Resource
         private final Resource rootResource;
+        // The structure through which rootResource is updated, or null if this is not a local copy
+        private final CopyOnWriteResourceTree resourceTree;
         // The root MRR we expose
         private final ManagementResourceRegistration delegatingResourceRegistration;
         // The root Resource we expose
@@ -1091,8 +1102,22 @@ class ModelControllerImpl implements ModelController {
         ManagementModelImpl(final ManagementResourceRegistration resourceRegistration,
                             final Resource rootResource,
                             final CapabilityRegistry capabilityRegistry) {
+            this(resourceRegistration, rootResource, null, capabilityRegistry);
+        }
+
+        private ManagementModelImpl(final ManagementResourceRegistration resourceRegistration,
+                                    final CopyOnWriteResourceTree resourceTree,
+                                    final CapabilityRegistry capabilityRegistry) {
+            this(resourceRegistration, resourceTree.getRoot(), resourceTree, capabilityRegistry);
+        }
+
+        private ManagementModelImpl(final ManagementResourceRegistration resourceRegistration,
+                                    final Resource rootResource,
+                                    final CopyOnWriteResourceTree resourceTree,
+                                    final CapabilityRegistry capabilityRegistry) {
             this.resourceRegistration = resourceRegistration;
             this.rootResource = rootResource;
+            this.resourceTree = resourceTree;
             assert capabilityRegistry != null;
             this.capabilityRegistry = capabilityRegistry;
             // What we expose depends on the state of our 'published' field. If 'true' we've been published
@@ -1176,10 +1201,15 @@ class ModelControllerImpl implements ModelController {
         */
 
         /**
-         * Creates a new {@code ManagementModelImpl} that uses a clone of this one's root {@link Resource}.
-         * The caller can safely modify that {@code Resource} without changes being exposed
-         * to other callers. Use {@link ModelControllerImpl#writeModel(ManagementModelImpl, Set, boolean, boolean, boolean)}
-         * to publish changes.
+         * Creates a new {@code ManagementModelImpl} that uses a copy of this one's root {@link Resource}.
+         * The caller can safely modify resources obtained from the copy's {@link #getResourceTreeForUpdate() resource tree}
+         * without changes being exposed to other callers. Use
+         * {@link ModelControllerImpl#writeModel(ManagementModelImpl, Set, boolean, boolean, boolean)} to publish changes.
+         * <p>
+         * If this model has been published, the copy shares all resources that are not modified with the
+         * published model, so the cost of the copy is proportional to the number of modified resources
+         * and not to the size of the model.
+         * </p>
          *
          * @return the new {@code ManagementModelImpl}. Will not return {@code null}
          */
@@ -1187,6 +1217,7 @@ class ModelControllerImpl implements ModelController {
             ManagementResourceRegistration mrr;
             Resource currentResource;
             CapabilityRegistry currentCaps;
+            CopyOnWriteResourceTree tree;
             if (published) {
                 // This is the first clone since this was published. Use the current stuff as the basis
                 // to ensure that the clone is based on the latest even if we are not the latest.
@@ -1194,19 +1225,33 @@ class ModelControllerImpl implements ModelController {
                 mrr = currentPublished.resourceRegistration;
                 currentResource = currentPublished.rootResource;
                 currentCaps = currentPublished.capabilityRegistry;
+                // Published resources are never modified, so we can share them
+                tree = CopyOnWriteResourceTree.copyOf(currentResource);
             } else {
                 // We've already been cloned, which means the thread calling this has the controller lock
                 // and our stuff hasn't been superceded by another thread. So use our stuff
                 mrr = resourceRegistration;
                 currentResource = rootResource;
                 currentCaps = capabilityRegistry;
+                // Our stuff may still get modified, so don't share it
+                tree = CopyOnWriteResourceTree.wrap(currentResource.clone());
             }
-            Resource clone = currentResource.clone();
-            ManagementModelImpl result = new ManagementModelImpl(mrr, clone, currentCaps);
-            ControllerLogger.MGMT_OP_LOGGER.tracef("cloned to %s to create %s and %s", currentResource, clone, result);
+            ManagementModelImpl result = new ManagementModelImpl(mrr, tree, currentCaps);
+            ControllerLogger.MGMT_OP_LOGGER.tracef("cloned to %s to create %s and %s", currentResource, tree.getRoot(), result);
             return result;
         }
 
+        /**
+         * Gets the structure via which the root resource of a model created by {@link #cloneRootResource()}
+         * can be modified.
+         *
+         * @return the resource tree. Will not return {@code null}
+         */
+        CopyOnWriteResourceTree getResourceTreeForUpdate() {
+            assert resourceTree != null : "not a local copy";
+            return resourceTree;
+        }
+
         /**
          * Compares the registered requirements to the registered capabilities, returning any missing
          * or inconsistent requirements.
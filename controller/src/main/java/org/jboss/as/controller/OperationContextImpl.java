@@ -199,7 +199,12 @@ final class OperationContextImpl extends AbstractOperationContext {
     private final AccessAuditContext accessAuditContext;
     private final ActiveOperationResource activeOperationResource;
     private final BooleanHolder done = new BooleanHolder();
-    private final boolean capabilitiesAlreadyBroken;
+    /**
+     * Whether the capability registry was already invalid before this operation modified anything. Only determined
+     * once the write lock is taken, as it is of no interest to operations that do not modify anything, and so
+     * read-only operations do not pay for validating the whole registry.
+     */
+    private boolean capabilitiesAlreadyBroken;
     private final boolean partialModel;
 
     private volatile ExecutionStatus executionStatus = ExecutionStatus.EXECUTING;
@@ -236,13 +241,6 @@ final class OperationContextImpl extends AbstractOperationContext {
         this.activeOperationResource = new ActiveOperationResource();
         this.accessAuditContext = accessAuditContext;
         this.partialModel = partialModel;
-        if(runningMode == RunningMode.ADMIN_ONLY) {
-            boolean hostXmlOnly = booting && !processType.isServer() && partialModel;
-            CapabilityRegistry.CapabilityValidation validation = managementModel.validateCapabilityRegistry(true, hostXmlOnly);
-            this.capabilitiesAlreadyBroken = !validation.isValid();
-        } else {
-            this.capabilitiesAlreadyBroken = false;
-        }
     }
 
     public InputStream getAttachmentStream(final int index) {
@@ -792,6 +790,11 @@ final class OperationContextImpl extends AbstractOperationContext {
 //                int timeout = blockingTimeout.getBlockingTimeout();
 //                if (timeout < 1) {
                 modelController.acquireWriteLock(operationId, respectInterruption);
+                if (getRunningMode() == RunningMode.ADMIN_ONLY) {
+                    // Nothing can have been modified by this operation before it held the lock
+                    boolean hostXmlOnly = isBooting() && !getProcessType().isServer() && partialModel;
+                    capabilitiesAlreadyBroken = !managementModel.validateCapabilityRegistry(true, hostXmlOnly).isValid();
+                }
 //                } else {
 //                    // Wait longer than the standard amount to get a chance to execute
 //                    // after whatever was holding the lock times out
@@ -968,6 +971,16 @@ final class OperationContextImpl extends AbstractOperationContext {
         authorize(false, runtimeOnly ? READ_WRITE_RUNTIME : READ_WRITE_CONFIG);
         ensureLocalRootResource();
         affectsModel.put(address, NULL);
+        checkResourceForUpdate(address);
+        return this.managementModel.getResourceTreeForUpdate().readResourceForUpdate(address);
+    }
+
+    /**
+     * Checks that a single resource exists at the given address, before the resource tree copies the path to it.
+     *
+     * @param address the absolute address of the resource
+     */
+    private void checkResourceForUpdate(PathAddress address) {
         Resource resource = this.managementModel.getRootResource();
         for (PathElement element : address) {
             if (element.isMultiTarget()) {
@@ -975,7 +988,6 @@ final class OperationContextImpl extends AbstractOperationContext {
             }
             resource = requireChild(resource, element, address);
         }
-        return resource;
     }
 
     private boolean isResourceRuntimeOnly(PathAddress fullAddress) {
@@ -1065,11 +1077,7 @@ final class OperationContextImpl extends AbstractOperationContext {
                     if(!childrenNames.contains(key)) {
                         throw ControllerLogger.ROOT_LOGGER.noChildType(key);
                     }
-                    if (index < 0) {
-                        model.registerChild(element, toAdd);
-                    } else {
-                        model.registerChild(element, index, toAdd);
-                    }
+                    this.managementModel.getResourceTreeForUpdate().registerChild(absoluteAddress, index, toAdd);
                     model = toAdd;
                 }
             } else {
@@ -1119,7 +1127,7 @@ final class OperationContextImpl extends AbstractOperationContext {
                 throw ControllerLogger.ROOT_LOGGER.cannotRemove("*");
             }
             if (!i.hasNext()) {
-                model = model.removeChild(element);
+                model = this.managementModel.getResourceTreeForUpdate().removeChild(address);
             } else {
                 model = requireChild(model, element, address);
             }
@@ -57,6 +57,7 @@ class ParallelBootOperationContext extends AbstractOperationContext {
 
     private final OperationContextImpl primaryContext;
     private final List<ParsedBootOp> runtimeOps;
+    private final List<ParsedBootOp> verifyOps;
     private final Thread controllingThread;
     private Step lockStep;
     private final int operationId;
@@ -64,13 +65,14 @@ class ParallelBootOperationContext extends AbstractOperationContext {
 
     ParallelBootOperationContext(final ModelController.OperationTransactionControl transactionControl,
                                  final ControlledProcessState processState, final OperationContextImpl primaryContext,
-                                 final List<ParsedBootOp> runtimeOps,
+                                 final List<ParsedBootOp> runtimeOps, final List<ParsedBootOp> verifyOps,
                                  final ModelControllerImpl controller, final int operationId, final AuditLogger auditLogger,
                                  final OperationStepHandler extraValidationStepHandler, final Supplier<SecurityIdentity> securityIdentitySupplier) {
         super(primaryContext.getProcessType(), primaryContext.getRunningMode(), transactionControl, processState, true, auditLogger,
                 controller.getNotificationSupport(), controller, true, extraValidationStepHandler, null, securityIdentitySupplier);
         this.primaryContext = primaryContext;
         this.runtimeOps = runtimeOps;
+        this.verifyOps = verifyOps;
         this.controller = controller;
         this.operationId = operationId;
         this.controllingThread = Thread.currentThread();
@@ -120,9 +122,13 @@ class ParallelBootOperationContext extends AbstractOperationContext {
             } else {
                 super.addStep(response, operation, step, stage);
             }
+        } else if (verifyOps != null) {
+            // Cache for use by the verify step from ParallelBootOperationStepHandler, which runs
+            // once the primary context has waited for the service container to be stable
+            ParsedBootOp parsedOp = new ParsedBootOp(operation, step, response);
+            verifyOps.add(parsedOp);
         } else {
-            // Handle VERIFY in the primary context, after parallel work is done
-            primaryContext.addStep(response, operation, step, stage);
+            super.addStep(response, operation, step, stage);
         }
     }
 
@@ -56,13 +56,15 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
     private final ModelControllerImpl controller;
     private final int operationId;
+    private final BootErrorCollector bootErrorCollector;
 
     private final Map<String, List<ParsedBootOp>> opsBySubsystem = new LinkedHashMap<String, List<ParsedBootOp>>();
     private ParsedBootOp ourOp;
 
     ParallelBootOperationStepHandler(final ExecutorService executorService, final ImmutableManagementResourceRegistration rootRegistration,
                                      final ControlledProcessState processState, final ModelControllerImpl controller,
-                                     final int operationId, final OperationStepHandler extraValidationStepHandler) {
+                                     final int operationId, final OperationStepHandler extraValidationStepHandler,
+                                     final BootErrorCollector bootErrorCollector) {
         this.executor = executorService;
         this.rootRegistration = rootRegistration;
         this.processState = processState;
@@ -70,6 +72,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         this.controller = controller;
         this.operationId = operationId;
         this.extraValidationStepHandler = extraValidationStepHandler;
+        this.bootErrorCollector = bootErrorCollector;
     }
 
     boolean addSubsystemOperation(final ParsedBootOp parsedOp) {
@@ -123,6 +126,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         context.acquireControllerLock();
 
         final Map<String, List<ParsedBootOp>> runtimeOpsBySubsystem = new LinkedHashMap<String, List<ParsedBootOp>>();
+        final Map<String, List<ParsedBootOp>> verifyOpsBySubsystem = new LinkedHashMap<String, List<ParsedBootOp>>();
         final Map<String, ParallelBootTransactionControl> transactionControls = new LinkedHashMap<String, ParallelBootTransactionControl>();
 
         final CountDownLatch preparedLatch = new CountDownLatch(opsBySubsystem.size());
@@ -139,6 +143,8 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
             String subsystemName = entry.getKey();
             List<ParsedBootOp> subsystemRuntimeOps = new ArrayList<ParsedBootOp>();
             runtimeOpsBySubsystem.put(subsystemName, subsystemRuntimeOps);
+            List<ParsedBootOp> subsystemVerifyOps = new ArrayList<ParsedBootOp>();
+            verifyOpsBySubsystem.put(subsystemName, subsystemVerifyOps);
 
             final ParallelBootTransactionControl txControl = new ParallelBootTransactionControl(preparedLatch, committedLatch, completeLatch);
             transactionControls.put(entry.getKey(), txControl);
@@ -147,7 +153,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
             List<ParsedBootOp> bootOps = entry.getValue();
             ParallelBootOperationContext pboc = bootOps.size() == 0
                     ? null
-                    : createOperationContext(primaryContext, bootSecurityDomain, txControl, subsystemRuntimeOps);
+                    : createOperationContext(primaryContext, bootSecurityDomain, txControl, subsystemRuntimeOps, subsystemVerifyOps);
             ParallelBootTask subsystemTask = new ParallelBootTask(subsystemName, bootOps, OperationContext.Stage.MODEL, txControl, pboc);
             executor.execute(subsystemTask);
         }
@@ -158,6 +164,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
             // See if all subsystems succeeded; if not report a failure to context
             checkForSubsystemFailures(context, transactionControls, OperationContext.Stage.MODEL);
+            recordSubsystemBootTimes(transactionControls, OperationContext.Stage.MODEL);
 
             // Add any logging subsystem steps so we get logging early in the boot
             List<ParsedBootOp> loggingOps = runtimeOpsBySubsystem.remove("logging");
@@ -181,8 +188,10 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
                 rootResource.registerChild(PathElement.pathElement(ModelDescriptionConstants.SUBSYSTEM, entry.getKey()), entry.getValue());
             }
 
-            // Add step to execute all the runtime ops recorded by the other subsystem tasks
-            context.addStep(getRuntimeStep(runtimeOpsBySubsystem, bootSecurityDomain), OperationContext.Stage.RUNTIME);
+            // Add step to execute all the runtime ops recorded by the other subsystem tasks. It in turn adds a
+            // step to execute all the verify ops recorded by the subsystem tasks of both stages
+            context.addStep(getStageStep(runtimeOpsBySubsystem, OperationContext.Stage.RUNTIME, verifyOpsBySubsystem, bootSecurityDomain),
+                    OperationContext.Stage.RUNTIME);
 
         } catch (InterruptedException e) {
             context.getFailureDescription().set(new ModelNode().set(ControllerLogger.ROOT_LOGGER.subsystemBootInterrupted()));
@@ -216,9 +225,10 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
     private ParallelBootOperationContext createOperationContext(final OperationContextImpl primaryContext,
                                                                 final SecurityDomain bootSecurityDomain,
                                                                 final ParallelBootTransactionControl txControl,
-                                                                final List<ParsedBootOp> runtimeOps) {
+                                                                final List<ParsedBootOp> runtimeOps,
+                                                                final List<ParsedBootOp> verifyOps) {
         return new ParallelBootOperationContext(txControl, processState,
-                primaryContext, runtimeOps, controller, operationId, controller.getAuditLogger(),
+                primaryContext, runtimeOps, verifyOps, controller, operationId, controller.getAuditLogger(),
                 extraValidationStepHandler, bootSecurityDomain::getAnonymousSecurityIdentity);
     }
 
@@ -248,6 +258,12 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         }
     }
 
+    private void recordSubsystemBootTimes(Map<String, ParallelBootTransactionControl> transactionControls, OperationContext.Stage stage) {
+        for (Map.Entry<String, ParallelBootTransactionControl> entry : transactionControls.entrySet()) {
+            bootErrorCollector.addSubsystemBootTime(entry.getKey(), stage, entry.getValue().elapsed);
+        }
+    }
+
     private void notifySubsystemTransactions(final Map<String, ParallelBootTransactionControl> transactionControls,
                                              final boolean rollback,
                                              final CountDownLatch committedLatch,
@@ -267,7 +283,18 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         committedLatch.countDown();
     }
 
-    private OperationStepHandler getRuntimeStep(final Map<String, List<ParsedBootOp>> runtimeOpsBySubsystem, final SecurityDomain bootSecurityDomain) {
+    /**
+     * Gets a step that executes the ops recorded for each subsystem in the given stage, in parallel.
+     *
+     * @param opsBySubsystem the ops to execute
+     * @param stage the stage, either {@code RUNTIME} or {@code VERIFY}
+     * @param verifyOpsBySubsystem where the subsystem tasks record their verify ops, or {@code null} if the
+     *                             tasks execute them themselves
+     * @param bootSecurityDomain the security domain providing the identity the ops are executed with
+     * @return the step
+     */
+    private OperationStepHandler getStageStep(final Map<String, List<ParsedBootOp>> opsBySubsystem, final OperationContext.Stage stage,
+                                              final Map<String, List<ParsedBootOp>> verifyOpsBySubsystem, final SecurityDomain bootSecurityDomain) {
 
         return new OperationStepHandler() {
             @Override
@@ -285,11 +312,11 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
                 final Map<String, ParallelBootTransactionControl> transactionControls = new LinkedHashMap<String, ParallelBootTransactionControl>();
 
-                final CountDownLatch preparedLatch = new CountDownLatch(runtimeOpsBySubsystem.size());
+                final CountDownLatch preparedLatch = new CountDownLatch(opsBySubsystem.size());
                 final CountDownLatch committedLatch = new CountDownLatch(1);
-                final CountDownLatch completeLatch = new CountDownLatch(runtimeOpsBySubsystem.size());
+                final CountDownLatch completeLatch = new CountDownLatch(opsBySubsystem.size());
 
-                for (Map.Entry<String, List<ParsedBootOp>> entry : runtimeOpsBySubsystem.entrySet()) {
+                for (Map.Entry<String, List<ParsedBootOp>> entry : opsBySubsystem.entrySet()) {
                     String subsystemName = entry.getKey();
                     final ParallelBootTransactionControl txControl = new ParallelBootTransactionControl(preparedLatch, committedLatch, completeLatch);
                     transactionControls.put(subsystemName, txControl);
@@ -298,8 +325,9 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
                     List<ParsedBootOp> bootOps = entry.getValue();
                     ParallelBootOperationContext pboc = bootOps.size() == 0
                         ? null
-                        : createOperationContext(primaryContext, bootSecurityDomain, txControl, null);
-                    ParallelBootTask subsystemTask = new ParallelBootTask(subsystemName, bootOps, OperationContext.Stage.RUNTIME, txControl, pboc);
+                        : createOperationContext(primaryContext, bootSecurityDomain, txControl, null,
+                                verifyOpsBySubsystem == null ? null : verifyOpsBySubsystem.get(subsystemName));
+                    ParallelBootTask subsystemTask = new ParallelBootTask(subsystemName, bootOps, stage, txControl, pboc);
                     executor.execute(subsystemTask);
                 }
 
@@ -308,7 +336,22 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
                     preparedLatch.await();
 
                     // See if all subsystems succeeded; if not report a failure to context
-                    checkForSubsystemFailures(context, transactionControls, OperationContext.Stage.RUNTIME);
+                    checkForSubsystemFailures(context, transactionControls, stage);
+                    recordSubsystemBootTimes(transactionControls, stage);
+
+                    if (verifyOpsBySubsystem != null) {
+                        // The verify ops of the different subsystems can also run in parallel, once the primary
+                        // context has waited for the service container to be stable
+                        final Map<String, List<ParsedBootOp>> verifyOps = new LinkedHashMap<String, List<ParsedBootOp>>();
+                        for (Map.Entry<String, List<ParsedBootOp>> entry : verifyOpsBySubsystem.entrySet()) {
+                            if (!entry.getValue().isEmpty()) {
+                                verifyOps.put(entry.getKey(), entry.getValue());
+                            }
+                        }
+                        if (!verifyOps.isEmpty()) {
+                            context.addStep(getStageStep(verifyOps, OperationContext.Stage.VERIFY, null, bootSecurityDomain), OperationContext.Stage.VERIFY);
+                        }
+                    }
 
                 } catch (InterruptedException e) {
                     context.getFailureDescription().set(new ModelNode().set(ControllerLogger.ROOT_LOGGER.subsystemBootInterrupted()));
@@ -317,7 +360,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
                 if (MGMT_OP_LOGGER.isDebugEnabled()) {
                     long elapsed = System.currentTimeMillis() - start;
-                    MGMT_OP_LOGGER.debugf("Ran subsystem runtime operations in [%d] ms", elapsed);
+                    MGMT_OP_LOGGER.debugf("Ran subsystem %s operations in [%d] ms", stage, elapsed);
                 }
 
 
@@ -327,7 +370,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
                     public void handleResult(OperationContext.ResultAction resultAction, OperationContext context, ModelNode operation) {
 
                         // Tell all the subsystem tasks the result of the operations
-                        notifySubsystemTransactions(transactionControls, resultAction == OperationContext.ResultAction.ROLLBACK, committedLatch, OperationContext.Stage.MODEL);
+                        notifySubsystemTransactions(transactionControls, resultAction == OperationContext.ResultAction.ROLLBACK, committedLatch, stage);
 
                         // Make sure all the subsystems have completed the out path before we return
                         try {
@@ -364,6 +407,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
         @Override
         public void run() {
+            transactionControl.start = System.nanoTime();
             try {
 
                 if (pboc == null) {
@@ -395,7 +439,9 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
                     if (bootOperations != null) {
                         for (ParsedBootOp op : bootOperations) {
-                            if (op.response.hasDefined(ModelDescriptionConstants.SUCCESS) && !op.response.get(ModelDescriptionConstants.SUCCESS).asBoolean()) {
+                            // Steps of a later stage record their failure description without a success flag
+                            if ((op.response.hasDefined(ModelDescriptionConstants.SUCCESS) && !op.response.get(ModelDescriptionConstants.SUCCESS).asBoolean())
+                                    || op.response.hasDefined(ModelDescriptionConstants.FAILURE_DESCRIPTION)) {
                                 transactionControl.operationFailed(op.response);
                                 break;
                             }
@@ -427,6 +473,9 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         private OperationResponse response;
         private ModelController.OperationTransaction transaction;
         private boolean signalled;
+        /** When the task started, and how long it took to prepare or fail; read once preparedLatch is released */
+        private long start;
+        private long elapsed;
 
         ParallelBootTransactionControl(CountDownLatch preparedLatch, CountDownLatch committedLatch, CountDownLatch completeLatch) {
             this.preparedLatch = preparedLatch;
@@ -438,6 +487,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         public void operationFailed(ModelNode response) {
             if (!signalled) {
                 this.response = OperationResponse.Factory.createSimple(response);
+                elapsed = System.nanoTime() - start;
                 preparedLatch.countDown();
                 completeLatch.countDown();
                 signalled = true;
@@ -448,6 +498,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         public void operationPrepared(ModelController.OperationTransaction transaction, ModelNode result) {
             if (!signalled) {
                 this.transaction = transaction;
+                elapsed = System.nanoTime() - start;
                 preparedLatch.countDown();
                 signalled = true;
 
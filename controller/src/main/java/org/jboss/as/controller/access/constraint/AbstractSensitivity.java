@@ -23,6 +23,7 @@
 package org.jboss.as.controller.access.constraint;
 
 import org.jboss.as.controller.access.Action;
+import org.jboss.as.controller.access.permission.AuthorizationDecisionCache;
 
 /**
  * Configuration of sensitive data. Typically {@link org.jboss.as.controller.AttributeDefinition}, {@link org.jboss.as.controller.OperationDefinition}
@@ -79,6 +80,7 @@ public class AbstractSensitivity {
 
     public void setConfiguredRequiresAccessPermission(Boolean requiresAccessPermission) {
         this.configuredRequiresAccessPermission = requiresAccessPermission;
+        AuthorizationDecisionCache.accessControlConfigurationChanged();
     }
 
     public boolean getRequiresReadPermission() {
@@ -92,6 +94,7 @@ public class AbstractSensitivity {
 
     public void setConfiguredRequiresReadPermission(Boolean requiresReadPermission) {
         this.configuredRequiresReadPermission = requiresReadPermission;
+        AuthorizationDecisionCache.accessControlConfigurationChanged();
     }
 
     public boolean getRequiresWritePermission() {
@@ -116,6 +119,7 @@ public class AbstractSensitivity {
 
     public void setConfiguredRequiresWritePermission(Boolean requiresWritePermission) {
         this.configuredRequiresWritePermission = requiresWritePermission;
+        AuthorizationDecisionCache.accessControlConfigurationChanged();
     }
 
     protected boolean isCompatibleWith(AbstractSensitivity other) {
@@ -35,6 +35,7 @@ import org.jboss.as.controller.access.JmxTarget;
 import org.jboss.as.controller.access.ServerGroupEffect;
 import org.jboss.as.controller.access.TargetAttribute;
 import org.jboss.as.controller.access.TargetResource;
+import org.jboss.as.controller.access.permission.AuthorizationDecisionCache;
 import org.jboss.as.controller.access.rbac.StandardRole;
 
 /**
@@ -135,6 +136,7 @@ public class ServerGroupEffectConstraint extends AbstractConstraint implements C
         assert !global : "constraint is global";
         assert readOnlyConstraint != null : "invalid cast";
         this.groupsHolder.specific = new LinkedHashSet<String>(allowed);
+        AuthorizationDecisionCache.accessControlConfigurationChanged();
     }
 
     @Override
@@ -34,6 +34,8 @@ import org.jboss.as.controller.access.JmxAction;
 import org.jboss.as.controller.access.JmxTarget;
 import org.jboss.as.controller.access.TargetAttribute;
 import org.jboss.as.controller.access.TargetResource;
+import org.jboss.as.controller.access.permission.AuthorizationDecisionCache;
+import org.jboss.as.controller.access.permission.ManagementPermissionAuthorizer;
 import org.jboss.as.controller.access.rbac.StandardRBACAuthorizer;
 import org.jboss.as.controller.access.rbac.SuperUserRoleMapper;
 
@@ -79,6 +81,16 @@ public final class DelegatingConfigurableAuthorizer implements JmxAuthorizer {
         }
     }
 
+    /**
+     * Gets the cache of the decisions of the current authorizer.
+     *
+     * @return the cache, or {@code null} if the current authorizer does not remember its decisions
+     */
+    public AuthorizationDecisionCache getDecisionCache() {
+        final Authorizer current = delegate;
+        return current instanceof ManagementPermissionAuthorizer ? ((ManagementPermissionAuthorizer) current).getDecisionCache() : null;
+    }
+
     @Override
     public Set<String> getCallerRoles(Caller caller, Environment callEnvironment, Set<String> runAsRoles) {
         return delegate.getCallerRoles(caller, callEnvironment, runAsRoles);
@@ -36,6 +36,7 @@ import org.jboss.as.controller.access.Authorizer;
 import org.jboss.as.controller.access.AuthorizerConfiguration;
 import org.jboss.as.controller.access.Caller;
 import org.jboss.as.controller.access.CombinationPolicy;
+import org.jboss.as.controller.access.permission.AuthorizationDecisionCache;
 import org.jboss.as.controller.access.rbac.StandardRBACAuthorizer;
 import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
 
@@ -256,6 +257,7 @@ public class WritableAuthorizerConfiguration implements AuthorizerConfiguration,
     public void setPermissionCombinationPolicy(CombinationPolicy combinationPolicy) {
         assert combinationPolicy != null : "combinationPolicy is null";
         this.combinationPolicy = combinationPolicy;
+        AuthorizationDecisionCache.accessControlConfigurationChanged();
     }
 
     void setNonFacadeMBeansSensitive(boolean nonFacadeMBeansSensitive) {
@@ -0,0 +1,244 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.access.permission;
+
+import java.security.PermissionCollection;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.as.controller.access.Action;
+import org.jboss.as.controller.access.AuthorizationResult;
+import org.jboss.as.controller.access.HostEffect;
+import org.jboss.as.controller.access.JmxAction;
+import org.jboss.as.controller.access.JmxTarget;
+import org.jboss.as.controller.access.ServerGroupEffect;
+import org.jboss.as.controller.access.TargetAttribute;
+import org.jboss.as.controller.access.TargetResource;
+import org.jboss.as.controller.logging.ControllerLogger;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Remembers the authorization decisions a {@link ManagementPermissionAuthorizer} made for read actions, so repeated
+ * reads of the same targets by callers with the same permissions, e.g. a management console polling a large model
+ * or a JMX client querying MBean names, do not evaluate the same constraints over and over.
+ * <p>
+ * A decision is keyed on the caller's permissions, which are shared by all callers with the same roles and replaced
+ * when the roles are reconfigured, on the action and on the target, including the access constraint definitions
+ * that apply to them. Only decisions that follow from nothing else are remembered: write actions depend on the
+ * operation parameters, targets that affect particular hosts or server groups depend on the model, and attributes
+ * whose value may be a vault expression depend on that value, so those are never remembered. The classification of
+ * the access constraints and the scope of scoped roles can be changed at runtime; any such change
+ * {@link #accessControlConfigurationChanged() discards} all remembered decisions.
+ * <p>
+ * Decisions are remembered if the {@value #DECISION_CACHE} system property is set to {@code true}.
+ */
+public final class AuthorizationDecisionCache {
+
+    /**
+     * System property that turns on remembering authorization decisions
+     */
+    public static final String DECISION_CACHE = "jboss.as.management.rbac.decision-cache";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(DECISION_CACHE, "false"));
+
+    /** The number of decisions after which the cache starts over, so it cannot grow forever */
+    private static final int MAX_DECISIONS = 16384;
+
+    private static final AtomicInteger configurationVersion = new AtomicInteger();
+
+    private final ConcurrentMap<Key, Decision> decisions = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    AuthorizationDecisionCache() {
+    }
+
+    /**
+     * Creates a cache, if remembering decisions is turned on.
+     *
+     * @return the cache, or {@code null} if the {@value #DECISION_CACHE} system property is not {@code true}
+     */
+    static AuthorizationDecisionCache create() {
+        return ENABLED ? new AuthorizationDecisionCache() : null;
+    }
+
+    /**
+     * Records that the configuration of access control changed in a way that can change authorization decisions,
+     * e.g. the classification of an access constraint or the hosts or server groups of a scoped role.
+     */
+    public static void accessControlConfigurationChanged() {
+        configurationVersion.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of authorization decisions that were found in the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of authorization decisions that could have been found in the cache, but were not.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the version of the access control configuration, to pass to {@link #put(Object, int, AuthorizationResult)}
+     * once a decision has been made. It must be read before the decision is made, so a decision made while the
+     * configuration changed is never taken as current.
+     *
+     * @return the version
+     */
+    static int getConfigurationVersion() {
+        return configurationVersion.get();
+    }
+
+    static Object keyFor(PermissionCollection userPermissions, Action action, TargetAttribute target) {
+        if (!isCacheable(action.getActionEffects(), target.getHostEffect(), target.getServerGroupEffect())
+                || mayBeExpression(target.getCurrentValue())) {
+            return null;
+        }
+        final TargetResource resource = target.getTargetResource();
+        return new Key(userPermissions, action.getActionEffects(), action.getAccessConstraints(), resource.getResourceAddress(),
+                resource.getAccessConstraints(), target.getAttributeName(), target.getAccessConstraints());
+    }
+
+    static Object keyFor(PermissionCollection userPermissions, Action action, TargetResource target) {
+        if (!isCacheable(action.getActionEffects(), target.getHostEffect(), target.getServerGroupEffect())) {
+            return null;
+        }
+        return new Key(userPermissions, action.getActionEffects(), action.getAccessConstraints(), target.getResourceAddress(),
+                target.getAccessConstraints());
+    }
+
+    static Object keyFor(PermissionCollection userPermissions, JmxAction action, JmxTarget target) {
+        if (!isCacheable(action.getActionEffects(), target.getHostEffect(), target.getServerGroupEffect())) {
+            return null;
+        }
+        return new Key(userPermissions, action.getActionEffects(), action.getImpact(), action.getMethodName(),
+                action.getAttributeName(), target.getMethod(), target.getObjectName(), target.isNonFacadeMBeansSensitive());
+    }
+
+    /**
+     * Gets a remembered decision.
+     *
+     * @param key the key of the decision
+     * @return the decision, or {@code null} if none is remembered for the current configuration
+     */
+    AuthorizationResult get(Object key) {
+        final Decision decision = decisions.get(key);
+        if (decision == null || decision.version != configurationVersion.get()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        // The explanation of a denial is a mutable node, so each caller gets its own
+        return decision.decision == AuthorizationResult.Decision.PERMIT
+                ? AuthorizationResult.PERMITTED
+                : new AuthorizationResult(AuthorizationResult.Decision.DENY, new ModelNode(ControllerLogger.ROOT_LOGGER.permissionDenied()));
+    }
+
+    /**
+     * Remembers a decision.
+     *
+     * @param key the key of the decision
+     * @param version the {@link #getConfigurationVersion() configuration version} from before the decision was made
+     * @param result the decision
+     */
+    void put(Object key, int version, AuthorizationResult result) {
+        if (decisions.size() >= MAX_DECISIONS) {
+            decisions.clear();
+        }
+        decisions.put((Key) key, new Decision(version, result.getDecision()));
+    }
+
+    private static boolean isCacheable(Set<Action.ActionEffect> actionEffects, HostEffect hostEffect, ServerGroupEffect serverGroupEffect) {
+        for (Action.ActionEffect actionEffect : actionEffects) {
+            if (actionEffect == Action.ActionEffect.WRITE_CONFIG || actionEffect == Action.ActionEffect.WRITE_RUNTIME) {
+                return false;
+            }
+        }
+        return (hostEffect == null || hostEffect.isHostEffectGlobal())
+                && (serverGroupEffect == null || serverGroupEffect.isServerGroupEffectGlobal());
+    }
+
+    private static boolean mayBeExpression(ModelNode value) {
+        if (value == null) {
+            return false;
+        }
+        final ModelType type = value.getType();
+        return type == ModelType.EXPRESSION || (type == ModelType.STRING && value.asString().contains("${"));
+    }
+
+    private static final class Key {
+        private final PermissionCollection userPermissions;
+        private final Object[] parts;
+        private final int hashCode;
+
+        private Key(PermissionCollection userPermissions, Object... parts) {
+            this.userPermissions = userPermissions;
+            this.parts = parts;
+            this.hashCode = 31 * System.identityHashCode(userPermissions) + Arrays.hashCode(parts);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            // The permissions of a set of roles are one instance until the roles are reconfigured
+            return userPermissions == other.userPermissions && hashCode == other.hashCode && Arrays.equals(parts, other.parts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class Decision {
+        private final int version;
+        private final AuthorizationResult.Decision decision;
+
+        private Decision(int version, AuthorizationResult.Decision decision) {
+            this.version = version;
+            this.decision = decision;
+        }
+    }
+}
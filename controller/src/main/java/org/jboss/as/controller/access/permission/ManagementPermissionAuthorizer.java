@@ -27,6 +27,7 @@ import java.security.PermissionCollection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.jboss.as.controller.ControlledProcessState;
 import org.jboss.as.controller.PathAddress;
@@ -50,9 +51,32 @@ import org.jboss.dmr.ModelNode;
  */
 public class ManagementPermissionAuthorizer implements Authorizer {
     private final PermissionFactory permissionFactory;
+    private final AuthorizationDecisionCache decisionCache;
 
     public ManagementPermissionAuthorizer(PermissionFactory permissionFactory) {
+        this(permissionFactory, false);
+    }
+
+    /**
+     * Creates a new {@code ManagementPermissionAuthorizer}.
+     *
+     * @param permissionFactory the permission factory
+     * @param cacheDecisions {@code true} if the permission factory returns the same permission collection for all
+     *                       callers with the same permissions, so read decisions can be
+     *                       {@link AuthorizationDecisionCache remembered} if that is turned on
+     */
+    protected ManagementPermissionAuthorizer(PermissionFactory permissionFactory, boolean cacheDecisions) {
         this.permissionFactory = permissionFactory;
+        this.decisionCache = cacheDecisions ? AuthorizationDecisionCache.create() : null;
+    }
+
+    /**
+     * Gets the cache of the decisions of this authorizer.
+     *
+     * @return the cache, or {@code null} if decisions are not remembered
+     */
+    public AuthorizationDecisionCache getDecisionCache() {
+        return decisionCache;
     }
 
     @Override
@@ -78,6 +102,10 @@ public class ManagementPermissionAuthorizer implements Authorizer {
             return AuthorizationResult.PERMITTED;
         }
         PermissionCollection userPerms = permissionFactory.getUserPermissions(caller, callEnvironment, action, target);
+        final Object key = decisionCache == null ? null : AuthorizationDecisionCache.keyFor(userPerms, action, target);
+        if (key != null) {
+            return authorize(key, userPerms, () -> permissionFactory.getRequiredPermissions(action, target));
+        }
         PermissionCollection requiredPerms = permissionFactory.getRequiredPermissions(action, target);
         return authorize(userPerms, requiredPerms);
     }
@@ -92,6 +120,10 @@ public class ManagementPermissionAuthorizer implements Authorizer {
         if (userPerms == AllPermissionsCollection.INSTANCE) {
             return AuthorizationResult.PERMITTED;
         }
+        final Object key = decisionCache == null ? null : AuthorizationDecisionCache.keyFor(userPerms, action, target);
+        if (key != null) {
+            return authorize(key, userPerms, () -> permissionFactory.getRequiredPermissions(action, target));
+        }
         PermissionCollection requiredPerms = permissionFactory.getRequiredPermissions(action, target);
         return authorize(userPerms, requiredPerms);
     }
@@ -102,6 +134,16 @@ public class ManagementPermissionAuthorizer implements Authorizer {
         return operation == null || target.getResourceAddress().equals(PathAddress.pathAddress(operation.get(ModelDescriptionConstants.OP_ADDR)));
     }
 
+    private AuthorizationResult authorize(Object key, PermissionCollection userPermissions, Supplier<PermissionCollection> requiredPermissions) {
+        AuthorizationResult result = decisionCache.get(key);
+        if (result == null) {
+            final int version = AuthorizationDecisionCache.getConfigurationVersion();
+            result = authorize(userPermissions, requiredPermissions.get());
+            decisionCache.put(key, version, result);
+        }
+        return result;
+    }
+
     private AuthorizationResult authorize(PermissionCollection userPermissions, PermissionCollection requiredPermissions) {
 
         final Enumeration<Permission> enumeration = requiredPermissions.elements();
@@ -121,6 +163,10 @@ public class ManagementPermissionAuthorizer implements Authorizer {
             return AuthorizationResult.PERMITTED;
         }
         PermissionCollection userPerms = permissionFactory.getUserPermissions(caller, callEnvironment, action, target);
+        final Object key = decisionCache == null ? null : AuthorizationDecisionCache.keyFor(userPerms, action, target);
+        if (key != null) {
+            return authorize(key, userPerms, () -> permissionFactory.getRequiredPermissions(action, target));
+        }
         PermissionCollection requiredPerms = permissionFactory.getRequiredPermissions(action, target);
         return authorize(userPerms, requiredPerms);
     }
@@ -88,7 +88,8 @@ public final class StandardRBACAuthorizer extends ManagementPermissionAuthorizer
 
     private StandardRBACAuthorizer(final AuthorizerConfiguration configuration,
                                    final DefaultPermissionFactory permissionFactory, final RoleMapper roleMapper) {
-        super(permissionFactory);
+        // The permission factory shares the permissions of a set of roles between callers, so decisions can be cached
+        super(permissionFactory, true);
         this.configuration = configuration;
         this.permissionFactory = permissionFactory;
         configuration.registerScopedRoleListener(permissionFactory);
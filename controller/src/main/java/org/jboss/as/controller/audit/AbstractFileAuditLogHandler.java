@@ -34,6 +34,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 
 /**
  *  All methods on this class should be called with {@link org.jboss.as.controller.audit.ManagedAuditLoggerImpl}'s lock taken.
@@ -91,13 +93,20 @@ public abstract class AbstractFileAuditLogHandler extends AuditLogHandler {
 
     @Override
     void writeLogItem(String formattedItem) throws IOException {
+        writeLogItemBatch(Collections.singletonList(formattedItem));
+    }
+
+    @Override
+    void writeLogItemBatch(List<String> formattedItems) throws IOException {
         final FileOutputStream fos = new FileOutputStream(file, true);
         final BufferedOutputStream output = new BufferedOutputStream(fos);
         try {
-            output.write(formattedItem.getBytes(StandardCharsets.UTF_8));
-            output.write(LINE_TERMINATOR);
+            for (String formattedItem : formattedItems) {
+                output.write(formattedItem.getBytes(StandardCharsets.UTF_8));
+                output.write(LINE_TERMINATOR);
+            }
 
-            //Flush and force the file to sync
+            //Flush and force the file to sync, once for the whole batch
             output.flush();
             fos.getFD().sync();
         } finally {
@@ -0,0 +1,266 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.audit;
+
+import static java.security.AccessController.doPrivileged;
+
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.jboss.as.controller.logging.ControllerLogger;
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Takes the writing of audit log records off the threads executing management operations. Records are put in a
+ * bounded queue, and a dedicated thread writes whatever has accumulated in the queue to the handlers as one batch.
+ * <p/>
+ * The writing thread only takes records out of the queue while holding {@link ManagedAuditLoggerImpl}'s lock, so a
+ * thread that holds that lock can write out the queue itself and the records still end up in the log in order.
+ * <p/>
+ * The writing thread is started when the first record is queued, and is stopped when the audit logger is shut down or
+ * is left without handlers. It is started again if more records are queued, e.g. once the controller is reloaded.
+ */
+final class AsyncAuditLogWriter implements Runnable {
+
+    /**
+     * System property that turns on the asynchronous writing of the management audit log
+     */
+    static final String ASYNC_PROPERTY = "jboss.as.management.audit-log.async";
+
+    /**
+     * System property with the maximum number of records waiting to be written
+     */
+    static final String QUEUE_SIZE_PROPERTY = "jboss.as.management.audit-log.async.queue-size";
+
+    /**
+     * System property with the {@link OverflowPolicy} to apply when the queue is full
+     */
+    static final String OVERFLOW_POLICY_PROPERTY = "jboss.as.management.audit-log.async.overflow-policy";
+
+    static final int DEFAULT_QUEUE_SIZE = 1024;
+
+    /**
+     * The longest the writing thread waits before checking the queue again, in case a wake up was missed
+     */
+    private static final long MAX_WAIT = TimeUnit.SECONDS.toNanos(1);
+
+    private static final ThreadFactory THREAD_FACTORY = doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+        public JBossThreadFactory run() {
+            return new JBossThreadFactory(new ThreadGroup("management-audit-log-writer"), Boolean.TRUE, null, "%G - %t", null, null);
+        }
+    });
+
+    /**
+     * What to do with a record when the queue is full
+     */
+    enum OverflowPolicy {
+        /** Wait until the queue has room for the record */
+        BLOCK,
+        /** Drop the record, and count it */
+        DISCARD
+    }
+
+    private final BlockingQueue<QueuedLogItem> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<AsyncAuditLogWriter> drainer;
+    private final LongAdder droppedRecords = new LongAdder();
+    private final AtomicBoolean dropping = new AtomicBoolean();
+    /** The writing thread, or {@code null} if none is running. Only changed while synchronized on this */
+    private volatile Thread thread;
+
+    /**
+     * @param queueSize the maximum number of records waiting to be written
+     * @param overflowPolicy what to do with a record when the queue is full
+     * @param drainer writes out the queue, with {@link ManagedAuditLoggerImpl}'s lock held
+     */
+    AsyncAuditLogWriter(final int queueSize, final OverflowPolicy overflowPolicy, final Consumer<AsyncAuditLogWriter> drainer) {
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.overflowPolicy = overflowPolicy;
+        this.drainer = drainer;
+    }
+
+    /**
+     * Creates a writer if the system properties ask for one.
+     *
+     * @param drainer writes out the queue, with {@link ManagedAuditLoggerImpl}'s lock held
+     * @return the writer, or {@code null} if the audit log should be written synchronously
+     */
+    static AsyncAuditLogWriter create(final Consumer<AsyncAuditLogWriter> drainer) {
+        if (!Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(ASYNC_PROPERTY, "false"))) {
+            return null;
+        }
+        final int queueSize = Integer.parseInt(WildFlySecurityManager.getPropertyPrivileged(QUEUE_SIZE_PROPERTY, String.valueOf(DEFAULT_QUEUE_SIZE)));
+        final OverflowPolicy overflowPolicy = OverflowPolicy.valueOf(
+                WildFlySecurityManager.getPropertyPrivileged(OVERFLOW_POLICY_PROPERTY, OverflowPolicy.BLOCK.name()).toUpperCase(Locale.ENGLISH));
+        return new AsyncAuditLogWriter(queueSize, overflowPolicy, drainer);
+    }
+
+    /**
+     * Queues a record to be written.
+     *
+     * @param logger the logger the record was logged with, whose handlers it should be written to
+     * @param item the record
+     */
+    void enqueue(final ManagedAuditLoggerImpl logger, final AuditLogItem item) {
+        final QueuedLogItem queued = new QueuedLogItem(logger, item);
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                queue.put(queued);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drop();
+                return;
+            }
+        } else if (!queue.offer(queued)) {
+            drop();
+            return;
+        }
+        dropping.set(false);
+        LockSupport.unpark(getThread());
+    }
+
+    private void drop() {
+        droppedRecords.increment();
+        if (dropping.compareAndSet(false, true)) {
+            ControllerLogger.MGMT_OP_LOGGER.auditLogQueueFull();
+        }
+    }
+
+    /**
+     * Takes the records waiting to be written out of the queue. Only call with {@link ManagedAuditLoggerImpl}'s lock
+     * held.
+     *
+     * @return the records, in the order they were queued
+     */
+    List<QueuedLogItem> drain() {
+        final List<QueuedLogItem> items = new ArrayList<>(queue.size());
+        queue.drainTo(items);
+        return items;
+    }
+
+    /**
+     * @return the number of records waiting to be written
+     */
+    int getQueuedRecordCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of records that have been dropped because the queue was full
+     */
+    long getDroppedRecordCount() {
+        return droppedRecords.sum();
+    }
+
+    /**
+     * @return whether the calling thread is the writing thread, and has not been asked to stop
+     */
+    boolean isWritingThread() {
+        return thread == Thread.currentThread();
+    }
+
+    /**
+     * Stops the writing thread and waits for it to finish. A new one is started if more records are queued.
+     * <p/>
+     * Only call with {@link ManagedAuditLoggerImpl}'s lock held. The writing thread then cannot be writing records, and
+     * anything left in the queue is for the caller to write out.
+     */
+    void stop() {
+        final Thread thread;
+        synchronized (this) {
+            thread = this.thread;
+            this.thread = null;
+        }
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        // Wakes the thread up, whether it is parked or waiting for the lock
+        thread.interrupt();
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Thread getThread() {
+        Thread thread = this.thread;
+        if (thread == null) {
+            synchronized (this) {
+                thread = this.thread;
+                if (thread == null) {
+                    thread = THREAD_FACTORY.newThread(this);
+                    this.thread = thread;
+                    thread.start();
+                }
+            }
+        }
+        return thread;
+    }
+
+    @Override
+    public void run() {
+        while (isWritingThread()) {
+            if (queue.isEmpty()) {
+                LockSupport.parkNanos(this, MAX_WAIT);
+            } else {
+                try {
+                    drainer.accept(this);
+                } catch (Throwable t) {
+                    ControllerLogger.MGMT_OP_LOGGER.failedToUpdateAuditLog(t instanceof Exception ? (Exception) t : new RuntimeException(t));
+                }
+            }
+        }
+    }
+
+    static final class QueuedLogItem {
+        final ManagedAuditLoggerImpl logger;
+        final AuditLogItem item;
+
+        private QueuedLogItem(final ManagedAuditLoggerImpl logger, final AuditLogItem item) {
+            this.logger = logger;
+            this.item = item;
+        }
+    }
+}
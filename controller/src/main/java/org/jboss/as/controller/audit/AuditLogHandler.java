@@ -88,6 +88,51 @@ abstract class AuditLogHandler {
         }
     }
 
+    /**
+     * Formats an item for {@link #writeLogItems(List)}. A failure to format the item counts as a failure of this
+     * handler.
+     *
+     * @param item the item
+     * @return the formatted item, or {@code null} if it could not be formatted
+     */
+    String formatLogItem(AuditLogItem item) {
+        try {
+            return item.format(formatter);
+        } catch (Throwable t) {
+            getFailureCountHandler().failure(t);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a batch of formatted items, in order. The batch counts as a single success or failure of this handler.
+     *
+     * @param formattedItems the formatted items
+     */
+    void writeLogItems(List<String> formattedItems) {
+        FailureCountHandler fch = getFailureCountHandler();
+        try {
+            initialize();
+            writeLogItemBatch(formattedItems);
+            fch.success();
+        } catch (Throwable t) {
+            fch.failure(t);
+        }
+    }
+
+    /**
+     * Writes a batch of formatted items, in order. Handlers that can write several items more cheaply than writing
+     * them one at a time should override this.
+     *
+     * @param formattedItems the formatted items
+     * @throws IOException if the items could not be written
+     */
+    void writeLogItemBatch(List<String> formattedItems) throws IOException {
+        for (String formattedItem : formattedItems) {
+            writeLogItem(formattedItem);
+        }
+    }
+
     void recycle() {
         this.failureCount = 0;
         stop();
@@ -21,6 +21,8 @@
  */
 package org.jboss.as.controller.audit;
 
+import java.util.BitSet;
+
 import org.jboss.as.controller.OperationContext.ResultAction;
 import org.jboss.as.controller.audit.AuditLogItem.JmxAccessAuditLogItem;
 import org.jboss.as.controller.audit.AuditLogItem.ModelControllerAuditLogItem;
@@ -33,10 +35,6 @@ import org.jboss.dmr.ModelNode;
  */
 public class JsonAuditLogItemFormatter extends AuditLogItemFormatter {
 
-    private static final ModelNode UNDEFINED = new ModelNode();
-    static {
-        UNDEFINED.protect();
-    }
     public static final String TYPE = "type";
     public static final String READ_ONLY = "r/o";
     public static final String BOOTING = "booting";
@@ -56,6 +54,9 @@ public class JsonAuditLogItemFormatter extends AuditLogItemFormatter {
     private volatile boolean escapeNewLine;
     private volatile boolean escapeControlCharacters;
 
+    /** Only used with {@link ManagedAuditLoggerImpl}'s lock taken, so it is reused for every record */
+    private final RecordWriter record = new RecordWriter();
+
     public JsonAuditLogItemFormatter(String name, boolean includeDate, String dateSeparator, String dateFormat,
             boolean compactJson, boolean escapeNewLine, boolean escapeControlCharacters) {
         super(name, includeDate, dateSeparator, dateFormat);
@@ -87,13 +88,15 @@ public class JsonAuditLogItemFormatter extends AuditLogItemFormatter {
             return formattedString;
         }
 
-        ModelNode formatted = new ModelNode();
-        formatted.get(TYPE).set(TYPE_CORE);
-        addCommonFields(item, formatted);
-        formatted.get(SUCCESS).set(item.getResultAction() == ResultAction.KEEP);
-        formatted.get(OPERATIONS).set(item.getOperations());
+        final RecordWriter record = startRecord(item, TYPE_CORE);
+        record.field(SUCCESS).value(item.getResultAction() == ResultAction.KEEP);
+        record.field(OPERATIONS).beginList();
+        for (ModelNode op : item.getOperations()) {
+            record.element().value(op);
+        }
+        record.endList();
 
-        return cacheString(createRecordText(item, formatted));
+        return cacheString(record.finish());
     }
 
     @Override
@@ -102,85 +105,268 @@ public class JsonAuditLogItemFormatter extends AuditLogItemFormatter {
         if (formattedString != null) {
             return formattedString;
         }
-        ModelNode formatted = new ModelNode();
-        formatted.get(TYPE).set(TYPE_JMX);
-        addCommonFields(item, formatted);
 
-        formatted.get(METHOD_NAME).set(item.getMethodName());
+        final RecordWriter record = startRecord(item, TYPE_JMX);
+        record.field(METHOD_NAME).value(item.getMethodName());
 
-        formatted.get(METHOD_SIGNATURE);
-        for (String sig : item.getMethodSignature()) {
-            formatted.get(METHOD_SIGNATURE).add(sig);
+        // An empty signature or parameter list is left undefined, as it always has been
+        if (item.getMethodSignature().length == 0) {
+            record.field(METHOD_SIGNATURE).value((String) null);
+        } else {
+            record.field(METHOD_SIGNATURE).beginList();
+            for (String sig : item.getMethodSignature()) {
+                record.element().value(sig);
+            }
+            record.endList();
         }
 
-        formatted.get(METHOD_PARAMETERS);
-        for (Object param : item.getMethodParams()) {
-            //TODO handle arrays better
-            formatted.get(METHOD_PARAMETERS).add(param == null ? UNDEFINED : new ModelNode(param.toString()));
+        if (item.getMethodParams().length == 0) {
+            record.field(METHOD_PARAMETERS).value((String) null);
+        } else {
+            record.field(METHOD_PARAMETERS).beginList();
+            for (Object param : item.getMethodParams()) {
+                //TODO handle arrays better
+                record.element().value(param == null ? null : param.toString());
+            }
+            record.endList();
         }
 
         final Throwable throwable = item.getError();
         if (throwable != null) {
             //TODO include stack trace?
-            formatted.get(ERROR).set(throwable.getMessage());
+            record.field(ERROR).value(throwable.getMessage());
         }
 
-        return cacheString(createRecordText(item, formatted));
+        return cacheString(record.finish());
     }
 
-    private String createRecordText(AuditLogItem item, ModelNode formatted) {
-        StringBuilder sb = new StringBuilder();
-
-        appendDate(sb, item);
-
-        sb.append(formatted.toJSONString(compactJson));
-
-        String formattedString;
-        if (escapeNewLine && !escapeControlCharacters) {
-            //Escape all instances of "\n" with "#012"
-            formattedString = sb.toString().replace("\n", "#012");
-        } else if (escapeControlCharacters) {
-            StringBuilder escaped = new StringBuilder();
-            for (int i = 0 ; i < sb.length() ; i++) {
-                char c = sb.charAt(i);
-                if (c >= 0 && c < 32) {
-                    escaped.append('#');
-                    if (c < 8) {
-                        escaped.append('0').append('0').append((int) c);
-                    } else {
-                        escaped.append('0').append(c >> 3).append(c & 0x07);
-                    }
-                } else {
-                    escaped.append(c);
+    private RecordWriter startRecord(AuditLogItem item, String type) {
+        final RecordWriter record = this.record;
+        record.start(compactJson, escapeNewLine, escapeControlCharacters);
+        final StringBuilder date = record.scratch();
+        appendDate(date, item);
+        record.append(date);
+        record.beginObject();
+        record.field(TYPE).value(type);
+        record.field(READ_ONLY).value(item.isReadOnly());
+        record.field(BOOTING).value(item.isBooting());
+        record.field(AS_VERSION).value(item.getAsVersion());
+        record.field(USER_ID).value(item.getUserId());
+        record.field(DOMAIN_UUID).value(item.getDomainUUID());
+        record.field(ACCESS_MECHANISM).value(item.getAccessMechanism() == null ? null : item.getAccessMechanism().toString());
+        record.field(REMOTE_ADDRESS).value(item.getRemoteAddress() == null ? null : item.getRemoteAddress().toString());
+        return record;
+    }
+
+    /**
+     * Writes the JSON text of a record straight into a buffer that is reused for every record, rather than building
+     * a {@link ModelNode} of the whole record and then rendering it. Only the operations, which already are
+     * {@link ModelNode}s, are rendered by DMR. The text is the same as {@link ModelNode#toJSONString(boolean)} of
+     * the whole record would be, including its separators, which in compact mode differ between objects and lists.
+     * <p/>
+     * The new line and control character escaping is applied as the text is written, so the record is only copied
+     * once, when it is turned into the {@code String} cached by the formatter.
+     */
+    private static final class RecordWriter {
+        private static final String INDENT = "    ";
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final StringBuilder buffer = new StringBuilder(512);
+        private final StringBuilder scratch = new StringBuilder();
+        /** Whether the object or list at each depth already has a member, so the next one needs a separator */
+        private final BitSet members = new BitSet();
+        /** Whether the value at each depth is a list rather than an object */
+        private final BitSet lists = new BitSet();
+        private int depth;
+        /** The indentation to add after each new line written by DMR when rendering a nested value */
+        private int valueIndent;
+        private boolean compact;
+        private boolean escapeNewLine;
+        private boolean escapeControlCharacters;
+
+        void start(boolean compact, boolean escapeNewLine, boolean escapeControlCharacters) {
+            buffer.setLength(0);
+            members.clear();
+            lists.clear();
+            depth = 0;
+            this.compact = compact;
+            this.escapeNewLine = escapeNewLine;
+            this.escapeControlCharacters = escapeControlCharacters;
+        }
+
+        /** An empty buffer for text that has to be built before it is written, such as the date */
+        StringBuilder scratch() {
+            scratch.setLength(0);
+            return scratch;
+        }
+
+        String finish() {
+            endObject();
+            return buffer.toString();
+        }
+
+        void beginObject() {
+            append('{');
+            members.clear(++depth);
+            lists.clear(depth);
+        }
+
+        void endObject() {
+            end('}');
+        }
+
+        RecordWriter beginList() {
+            append('[');
+            members.clear(++depth);
+            lists.set(depth);
+            return this;
+        }
+
+        void endList() {
+            end(']');
+        }
+
+        RecordWriter field(String name) {
+            element();
+            quote(name);
+            append(" : ");
+            return this;
+        }
+
+        RecordWriter element() {
+            if (members.get(depth)) {
+                append(',');
+                if (compact && !lists.get(depth)) {
+                    append(' ');
                 }
+            } else {
+                members.set(depth);
             }
-            formattedString = escaped.toString();
-        } else {
-            formattedString = sb.toString();
+            newLine(depth);
+            return this;
         }
 
-        return formattedString;
-    }
+        void value(boolean value) {
+            append(value ? "true" : "false");
+        }
 
-    private void addCommonFields(AuditLogItem item, ModelNode formatted) {
-        formatted.get(READ_ONLY).set(item.isReadOnly());
-        formatted.get(BOOTING).set(item.isBooting());
-        formatted.get(AS_VERSION).set(item.getAsVersion());
-        formatted.get(USER_ID);
-        if (item.getUserId() != null) {
-            formatted.get(USER_ID).set(item.getUserId());
-        }
-        formatted.get(DOMAIN_UUID);
-        if (item.getDomainUUID() != null) {
-            formatted.get(DOMAIN_UUID).set(item.getDomainUUID());
-        }
-        formatted.get(ACCESS_MECHANISM);
-        if (item.getAccessMechanism() != null) {
-            formatted.get(ACCESS_MECHANISM).set(item.getAccessMechanism().toString());
-        }
-        formatted.get(REMOTE_ADDRESS);
-        if (item.getRemoteAddress() != null) {
-            formatted.get(REMOTE_ADDRESS).set(item.getRemoteAddress().toString());
+        void value(String value) {
+            if (value == null) {
+                append("null");
+            } else {
+                quote(value);
+            }
+        }
+
+        void value(ModelNode value) {
+            valueIndent = depth;
+            try {
+                // Not writeJSONString(PrintWriter, boolean), as its compact text has no spaces after the separators
+                append(value.toJSONString(compact));
+            } finally {
+                valueIndent = 0;
+            }
+        }
+
+        private void end(char c) {
+            final boolean empty = !members.get(depth);
+            depth--;
+            if (!empty) {
+                newLine(depth);
+            }
+            append(c);
+        }
+
+        private void newLine(int indent) {
+            if (!compact) {
+                appendRaw('\n');
+                indent(indent);
+            }
+        }
+
+        private void indent(int indent) {
+            for (int i = 0; i < indent; i++) {
+                buffer.append(INDENT);
+            }
+        }
+
+        private void quote(String value) {
+            append('"');
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        append("\\\"");
+                        break;
+                    case '\\':
+                        append("\\\\");
+                        break;
+                    case '\b':
+                        append("\\b");
+                        break;
+                    case '\f':
+                        append("\\f");
+                        break;
+                    case '\n':
+                        append("\\n");
+                        break;
+                    case '\r':
+                        append("\\r");
+                        break;
+                    case '\t':
+                        append("\\t");
+                        break;
+                    default:
+                        if (c < 32) {
+                            append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+                        } else {
+                            append(c);
+                        }
+                }
+            }
+            append('"');
+        }
+
+        RecordWriter append(char c) {
+            appendRaw(c);
+            if (c == '\n') {
+                indent(valueIndent);
+            }
+            return this;
+        }
+
+        private void appendRaw(char c) {
+            if (c < 32) {
+                if (escapeControlCharacters) {
+                    appendEscaped(buffer, c);
+                    return;
+                } else if (c == '\n' && escapeNewLine) {
+                    //Escape all instances of "\n" with "#012"
+                    buffer.append("#012");
+                    return;
+                }
+            }
+            buffer.append(c);
+        }
+
+        RecordWriter append(CharSequence csq) {
+            for (int i = 0; i < csq.length(); i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        private static void appendEscaped(StringBuilder sb, char c) {
+            if (c >= 0 && c < 32) {
+                sb.append('#');
+                if (c < 8) {
+                    sb.append('0').append('0').append((int) c);
+                } else {
+                    sb.append('0').append(c >> 3).append(c & 0x07);
+                }
+            } else {
+                sb.append(c);
+            }
         }
     }
 
@@ -200,6 +200,24 @@ public interface ManagedAuditLogger extends AuditLogger {
         return Collections.emptyList();
     }
 
+    /**
+     * Gets the number of records waiting to be written by the asynchronous writer
+     *
+     * @return the number of records, or {@code 0} if records are written synchronously
+     */
+    default int getQueuedRecordCount() {
+        return 0;
+    }
+
+    /**
+     * Gets the number of records the asynchronous writer has dropped because its queue was full
+     *
+     * @return the number of records, or {@code 0} if records are written synchronously
+     */
+    default long getDroppedRecordCount() {
+        return 0;
+    }
+
     /**
      * Callback for the controller to call before the controller is booted
      */
@@ -210,6 +228,13 @@ public interface ManagedAuditLogger extends AuditLogger {
      */
     void bootDone();
 
+    /**
+     * Callback for the controller to call when the controller is stopped. Any thread writing records in the background
+     * is stopped, and any records still waiting to be written are written.
+     */
+    default void shutdown() {
+    }
+
     /**
      * <p>The audit log handler updater. Additive changes will be used for the audit log record as a result of
      * management operations causing updates here. Removals and updates will not take effect until the current audit log
@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,6 +40,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.jboss.as.controller.OperationContext.ResultAction;
 import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.audit.AsyncAuditLogWriter.QueuedLogItem;
 import org.jboss.as.controller.audit.SyslogAuditLogHandler.Facility;
 import org.jboss.as.controller.logging.ControllerLogger;
 import org.jboss.as.controller.registry.Resource;
@@ -63,6 +65,10 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
     /** Guarded by config's auditLock - updates to the handlers */
     private HandlerUpdateTask handlerUpdateTask;
 
+    /** Whether there is a handlerUpdateTask. Records are only queued for the asynchronous writer when there is not,
+      * since the updates are applied after the next record is logged. Only change with lock held */
+    private volatile boolean handlerUpdatePending;
+
     /** Guarded by config's auditLock - the messages logged while in the QUEUEING state */
     private final List<AuditLogItem> queuedItems = new ArrayList<AuditLogItem>();
 
@@ -92,8 +98,19 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         if (runDisabledFastPath.get())
             return;
 
+        final AsyncAuditLogWriter asyncWriter = config.getAsyncWriter();
+        if (asyncWriter != null && canQueueLogItem()) {
+            if (!skipQueuedLogging(readOnly)) {
+                asyncWriter.enqueue(this,
+                        AuditLogItem.createModelControllerItem(config.getAsVersion(), readOnly, config.isBooting(), resultAction, userId, domainUUID,
+                                accessMechanism, remoteAddress, resultantModel, operations));
+            }
+            return;
+        }
+
         config.lock();
         try {
+            writeQueuedLogItems();
             if (skipLogging(readOnly)) {
                 return;
             }
@@ -114,8 +131,19 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         if (runDisabledFastPath.get())
             return;
 
+        final AsyncAuditLogWriter asyncWriter = config.getAsyncWriter();
+        if (asyncWriter != null && canQueueLogItem()) {
+            if (!skipQueuedLogging(readOnly)) {
+                asyncWriter.enqueue(this,
+                        AuditLogItem.createMethodAccessItem(config.getAsVersion(), readOnly, config.isBooting(), userId, domainUUID, accessMechanism,
+                                remoteAddress, methodName, methodSignature, methodParams, error));
+            }
+            return;
+        }
+
         config.lock();
         try {
+            writeQueuedLogItems();
             if (skipLogging(readOnly)) {
                 return;
             }
@@ -141,6 +169,20 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         return false;
     }
 
+    /**
+     * Whether a record can be handed to the asynchronous writer without taking the lock. Only records that would be
+     * written straight away can be, and only while there are no handler updates waiting to be applied after the
+     * next record is logged.
+     */
+    private boolean canQueueLogItem() {
+        return config.getLoggerStatus() == Status.LOGGING && !handlerUpdatePending;
+    }
+
+    /** The same as {@link #skipLogging(boolean)}, for use without the lock when the status is LOGGING */
+    private boolean skipQueuedLogging(boolean readOnly) {
+        return config.isBooting() && !config.isLogBoot() || readOnly && !config.isLogReadOnly();
+    }
+
     public ManagedAuditLoggerImpl createNewConfiguration(boolean manualCommit) {
         if (childImpls == null) {
             throw ControllerLogger.ROOT_LOGGER.canOnlyCreateChildAuditLoggerForMainAuditLogger();
@@ -218,6 +260,8 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
             if (newStatus == Status.DISABLE_NEXT && config.getLoggerStatus() == Status.DISABLED) {
                 return;
             }
+            // Records queued for the asynchronous writer were logged under the old status
+            writeQueuedLogItems();
             config.setLoggerStatus(newStatus);
             if (newStatus == Status.LOGGING){
                 for (AuditLogItem record : queuedItems) {
@@ -272,6 +316,50 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         }
     }
 
+    /** protected by config's audit lock */
+    private void writeQueuedLogItems() {
+        final AsyncAuditLogWriter asyncWriter = config.getAsyncWriter();
+        if (asyncWriter != null) {
+            writeLogItems(asyncWriter.drain());
+        }
+    }
+
+    /**
+     * Writes the records queued for the asynchronous writer. All the records for a handler are formatted first and
+     * then written to it as one batch, so a file handler only needs to sync the file once for the whole batch.
+     * <p/>
+     * protected by config's audit lock
+     */
+    private static void writeLogItems(List<QueuedLogItem> queuedItems) {
+        if (queuedItems.isEmpty()) {
+            return;
+        }
+        final Map<AuditLogHandler, List<String>> formattedItems = new LinkedHashMap<>();
+        for (QueuedLogItem queued : queuedItems) {
+            final ManagedAuditLogConfiguration config = queued.logger.config;
+            if (config.getLoggerStatus() == Status.DISABLED) {
+                continue;
+            }
+            Set<String> formatterNames = new HashSet<String>();
+            try {
+                for (AuditLogHandler handler : config.getHandlersForLogging()) {
+                    formatterNames.add(handler.getFormatterName());
+                    String formattedItem = handler.formatLogItem(queued.item);
+                    if (formattedItem != null) {
+                        formattedItems.computeIfAbsent(handler, h -> new ArrayList<>()).add(formattedItem);
+                    }
+                }
+            } finally {
+                for (String formatterName : formatterNames) {
+                    config.getFormatter(formatterName).clear();
+                }
+            }
+        }
+        for (Map.Entry<AuditLogHandler, List<String>> entry : formattedItems.entrySet()) {
+            entry.getKey().writeLogItems(entry.getValue());
+        }
+    }
+
     /** protected by config's audit lock */
     private void handleLoggingException(final Exception e) {
         ControllerLogger.MGMT_OP_LOGGER.failedToUpdateAuditLog(e);
@@ -292,6 +380,7 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         try {
             if (handlerUpdateTask == null){
                 handlerUpdateTask = new HandlerUpdateTask();
+                handlerUpdatePending = true;
             }
             handlerUpdateTask.addHandler(handler);
             runDisabledFastPath.set(false);
@@ -308,6 +397,7 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
             if (handler.isDifferent(existing)){
                 if (handlerUpdateTask == null){
                     handlerUpdateTask = new HandlerUpdateTask();
+                    handlerUpdatePending = true;
                 }
                 handlerUpdateTask.replaceHandler(handler);
                 runDisabledFastPath.set(false);
@@ -323,6 +413,7 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         try {
             if (handlerUpdateTask == null){
                 handlerUpdateTask = new HandlerUpdateTask();
+                handlerUpdatePending = true;
             }
             handlerUpdateTask.removeHandler(name);
             runDisabledFastPath.set(false);
@@ -337,6 +428,7 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         try {
             if (handlerUpdateTask == null){
                 handlerUpdateTask = new HandlerUpdateTask();
+                handlerUpdatePending = true;
             }
             handlerUpdateTask.addHandlerReference(referenceAddress);
             runDisabledFastPath.set(false);
@@ -351,6 +443,7 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         try {
             if (handlerUpdateTask == null){
                 handlerUpdateTask = new HandlerUpdateTask();
+                handlerUpdatePending = true;
             }
             handlerUpdateTask.removeHandlerReference(referenceAddress);
             runDisabledFastPath.set(false);
@@ -366,6 +459,7 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
             if (handlerUpdateTask != null){
                 handlerUpdateTask.rollbackChanges();
                 handlerUpdateTask = null;
+                handlerUpdatePending = false;
             }
         } finally {
             config.unlock();
@@ -391,6 +485,27 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         if (handlerUpdateTask != null) {
             handlerUpdateTask.applyChanges();
             handlerUpdateTask = null;
+            handlerUpdatePending = false;
+            final AsyncAuditLogWriter asyncWriter = config.getAsyncWriter();
+            if (asyncWriter != null && config.sharedConfiguration.getConfiguredHandlers().isEmpty()) {
+                // Nothing left to write to, so there is no need to keep the writing thread around
+                asyncWriter.stop();
+                writeQueuedLogItems();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        final AsyncAuditLogWriter asyncWriter = config.getAsyncWriter();
+        if (asyncWriter != null) {
+            config.lock();
+            try {
+                asyncWriter.stop();
+                writeQueuedLogItems();
+            } finally {
+                config.unlock();
+            }
         }
     }
 
@@ -530,6 +645,18 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
     }
 
 
+    @Override
+    public int getQueuedRecordCount() {
+        final AsyncAuditLogWriter asyncWriter = config.getAsyncWriter();
+        return asyncWriter == null ? 0 : asyncWriter.getQueuedRecordCount();
+    }
+
+    @Override
+    public long getDroppedRecordCount() {
+        final AsyncAuditLogWriter asyncWriter = config.getAsyncWriter();
+        return asyncWriter == null ? 0 : asyncWriter.getDroppedRecordCount();
+    }
+
     /**
      * Abstract base class for core and new configuration
      *
@@ -611,6 +738,10 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
             sharedConfiguration.setBooting(booting);
         }
 
+        AsyncAuditLogWriter getAsyncWriter() {
+            return sharedConfiguration.getAsyncWriter();
+        }
+
         /** Call with lock taken */
         boolean isBooting() {
             return sharedConfiguration.isBooting();
@@ -748,13 +879,31 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
         /** Guarded by auditLock - the handlers configured in the global file-handlers and syslog-handlers section */
         private final Map<String, AuditLogHandler> configuredHandlers = new HashMap<String, AuditLogHandler>();
 
-        /** Guarded by auditLock - whether we are boothing or not */
-        private boolean booting = true;
+        /** Guarded by auditLock - whether we are boothing or not. Volatile so records can be queued without the lock */
+        private volatile boolean booting = true;
+
+        /** Writes the records of all the configurations, or {@code null} if records are written synchronously */
+        private final AsyncAuditLogWriter asyncWriter;
 
 
         SharedConfiguration(String asVersion, boolean server) {
             this.asVersion = asVersion;
             this.server = server;
+            this.asyncWriter = AsyncAuditLogWriter.create(writer -> {
+                try {
+                    // Interrupted when the writer is being stopped by a thread holding the lock
+                    auditLock.lockInterruptibly();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    if (writer.isWritingThread()) {
+                        writeLogItems(writer.drain());
+                    }
+                } finally {
+                    unlock();
+                }
+            });
         }
 
         public void recycleHandler(String name) {
@@ -814,6 +963,10 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
             return booting;
         }
 
+        AsyncAuditLogWriter getAsyncWriter() {
+            return asyncWriter;
+        }
+
     }
 
 
@@ -997,6 +1150,7 @@ public class ManagedAuditLoggerImpl implements ManagedAuditLogger, ManagedAuditL
     public void startBoot() {
         config.lock();
         try {
+            writeQueuedLogItems();
             config.setBooting(true);
             if (childImpls != null) {
                 childImpls.clear();
@@ -121,6 +121,8 @@ public class ModelDescriptionConstants {
     public static final String CUSTOM_DISCOVERY = "custom-discovery";
     public static final String DATE_FORMAT = "date-format";
     public static final String DATE_SEPARATOR = "date-separator";
+    public static final String DECISION_CACHE_HITS = "decision-cache-hits";
+    public static final String DECISION_CACHE_MISSES = "decision-cache-misses";
     public static final String DEFAULT = "default";
     public static final String DEFAULT_APPLICATION = "default-application";
     public static final String DEFAULT_INTERFACE = "default-interface";
@@ -511,6 +513,7 @@ public class ModelDescriptionConstants {
     public static final String STOP_SERVERS = "stop-servers";
     /** The key for {@link org.jboss.as.controller.registry.AttributeAccess.Storage} fields. */
     public static final String STORAGE = "storage";
+    public static final String STREAM = "stream";
     public static final String SUBDEPLOYMENT = "subdeployment";
     public static final String SUBSYSTEM = "subsystem";
     public static final String SUCCESS = "success";
@@ -3520,4 +3520,15 @@ public interface ControllerLogger extends BasicLogger {
     @Message(id = 448, value = "%s additional services are down due to their dependencies being missing or failed")
     String servicesWithTransitiveUnavailability(int count);
 
+    @Message(id = 449, value = "Failed to write the response to %s")
+    OperationFailedException failedToWriteResponseStream(@Cause Throwable cause, Path path);
+
+    @LogMessage(level = Level.WARN)
+    @Message(id = 450, value = "The management operation audit log queue is full, records are being dropped until it has room again")
+    void auditLogQueueFull();
+
+    @LogMessage(level = Level.WARN)
+    @Message(id = 451, value = "Failed to write the boot operation cache %s")
+    void failedToWriteBootOperationCache(@Cause Throwable cause, File file);
+
 }
@@ -91,8 +91,13 @@ public class ReadResourceHandler extends GlobalOperationHandlers.AbstractMultiTa
             .setDefaultValue(new ModelNode(false))
             .build();
 
+    private static final SimpleAttributeDefinition STREAM = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.STREAM, ModelType.BOOLEAN)
+            .setRequired(false)
+            .setDefaultValue(new ModelNode(false))
+            .build();
+
     public static final OperationDefinition DEFINITION = new SimpleOperationDefinitionBuilder(READ_RESOURCE_OPERATION, ControllerResolver.getResolver("global"))
-            .setParameters(RECURSIVE, RECURSIVE_DEPTH, PROXIES, INCLUDE_RUNTIME, INCLUDE_DEFAULTS, ATTRIBUTES_ONLY, INCLUDE_ALIASES)
+            .setParameters(RECURSIVE, RECURSIVE_DEPTH, PROXIES, INCLUDE_RUNTIME, INCLUDE_DEFAULTS, ATTRIBUTES_ONLY, INCLUDE_ALIASES, STREAM)
             .setReadOnly()
             .setReplyType(ModelType.OBJECT)
             .build();
@@ -105,7 +110,7 @@ public class ReadResourceHandler extends GlobalOperationHandlers.AbstractMultiTa
             .build();
 
     public static final OperationDefinition RESOLVE_DEFINITION = new SimpleOperationDefinitionBuilder(READ_RESOURCE_OPERATION, ControllerResolver.getResolver("global"))
-            .setParameters(RESOLVE, RECURSIVE, RECURSIVE_DEPTH, PROXIES, INCLUDE_RUNTIME, INCLUDE_DEFAULTS, ATTRIBUTES_ONLY, INCLUDE_ALIASES)
+            .setParameters(RESOLVE, RECURSIVE, RECURSIVE_DEPTH, PROXIES, INCLUDE_RUNTIME, INCLUDE_DEFAULTS, ATTRIBUTES_ONLY, INCLUDE_ALIASES, STREAM)
             .setReadOnly()
             .setReplyType(ModelType.OBJECT)
             .build();
@@ -160,6 +165,18 @@ public class ReadResourceHandler extends GlobalOperationHandlers.AbstractMultiTa
 
 
 
+    @Override
+    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+        if (getFilteredData() == null && STREAM.resolveModelAttribute(context, operation).asBoolean()) {
+            // The top level read of a streamed response. The resources are read by instances
+            // with FilteredData, which don't come back here
+            validator.validate(operation);
+            new ReadResourceStreamHandler(resolvable).execute(context, operation);
+        } else {
+            super.execute(context, operation);
+        }
+    }
+
     @Override
     void doExecute(OperationContext context, ModelNode operation, FilteredData filteredData, boolean ignoreMissingResource) throws OperationFailedException {
 
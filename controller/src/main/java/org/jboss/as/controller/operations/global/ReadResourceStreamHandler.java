@@ -0,0 +1,743 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.operations.global;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ACCESS_CONTROL;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADDRESS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES_ONLY;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INCLUDE_ALIASES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INCLUDE_RUNTIME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_HEADERS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROXIES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE_DEPTH;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STREAM;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.logging.ControllerLogger;
+import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Handles {@code read-resource} with {@code stream=true}. Rather than assembling the response for the whole subtree in
+ * a single {@link ModelNode}, each resource is read on its own and written out as JSON to a temporary file as soon as
+ * it has been read, after which it is no longer referenced. The file is attached to the response as a stream, and the
+ * result of the operation is the uuid of that stream.
+ * <p>
+ * Resources are visited depth first. Without {@code include-runtime} all reads complete in
+ * {@link OperationContext.Stage#MODEL}, so each resource is written as soon as its read completes. Runtime attributes
+ * may only be read in {@link OperationContext.Stage#RUNTIME} though, and a read with {@code include-runtime} only
+ * completes in {@link OperationContext.Stage#VERIFY}, where the reads complete in the reverse of the order the
+ * resources are visited. So with {@code include-runtime} each resource is written to a spill file as soon as its read
+ * completes, and the writes to the response are queued up in the order the resources are visited and performed at
+ * the end of {@link OperationContext.Stage#VERIFY}, copying each resource back from the spill file.
+ * <p>
+ * A resource behind a proxy is read with a single, possibly recursive, {@code read-resource} on the proxy, and a
+ * wildcard address is only resolved against the local model.
+ */
+class ReadResourceStreamHandler implements OperationStepHandler {
+
+    static final String MIME_TYPE = "application/json";
+    /** The properties naming the temp dir of a server and of a host controller */
+    private static final String SERVER_TEMP_DIR = "jboss.server.temp.dir";
+    private static final String DOMAIN_TEMP_DIR = "jboss.domain.temp.dir";
+
+    private final boolean resolvable;
+
+    ReadResourceStreamHandler(final boolean resolvable) {
+        this.resolvable = resolvable;
+    }
+
+    @Override
+    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final PathAddress address = context.getCurrentAddress();
+        if (!address.isMultiTarget() && !context.getResourceRegistration().isRemote()) {
+            // Fail as a read without the stream would, rather than attach a stream with nothing in it
+            context.readResource(PathAddress.EMPTY_ADDRESS, false);
+        }
+        final boolean queryRuntime = operation.get(INCLUDE_RUNTIME).asBoolean(false);
+        final Output output = new Output(queryRuntime);
+        final FilteredData filteredData = new FilteredData(address.isMultiTarget() ? PathAddress.EMPTY_ADDRESS : address);
+
+        // The read-resource each resource is read with, other than its address and how deep to recurse from it
+        final ModelNode template = operation.clone();
+        template.remove(STREAM);
+        template.remove(OPERATION_HEADERS);
+
+        final List<OperationStepHandler> steps = new ArrayList<>();
+        if (address.isMultiTarget()) {
+            steps.add(new EmitStep(output, c -> output.beginList()));
+            for (PathAddress target : resolveTargets(context, address)) {
+                steps.add(new VisitStep(new Node(target, targetOperation(template, target), null, Member.TARGET), output, filteredData));
+            }
+            steps.add(new EmitStep(output, c -> output.end(']')));
+        } else {
+            steps.add(new VisitStep(new Node(address, targetOperation(template, address), null, Member.ROOT), output, filteredData));
+        }
+        steps.add(new EmitStep(output, c -> output.attach(c, filteredData)));
+        addSteps(context, steps);
+
+        if (queryRuntime) {
+            // Added last to the VERIFY stage, so it runs after the read-resource steps have assembled their results there
+            context.addStep(output::drain, OperationContext.Stage.VERIFY, false);
+        }
+
+        context.completeStep(new OperationContext.ResultHandler() {
+            @Override
+            public void handleResult(OperationContext.ResultAction resultAction, OperationContext context, ModelNode operation) {
+                if (resultAction == OperationContext.ResultAction.ROLLBACK || !output.isAttached()) {
+                    output.discard();
+                } else {
+                    // The attached stream is still read from the file once it is gone
+                    output.delete();
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds the given steps so they are executed in order, before any step that has already been added.
+     */
+    private static void addSteps(OperationContext context, List<OperationStepHandler> steps) {
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            context.addStep(steps.get(i), OperationContext.Stage.MODEL, true);
+        }
+    }
+
+    private static ModelNode targetOperation(ModelNode template, PathAddress address) {
+        final ModelNode result = template.clone();
+        result.get(OP_ADDR).set(address.toModelNode());
+        return result;
+    }
+
+    private static List<PathAddress> resolveTargets(OperationContext context, PathAddress address) {
+        List<PathAddress> targets = Collections.singletonList(PathAddress.EMPTY_ADDRESS);
+        for (PathElement element : address) {
+            final List<PathAddress> next = new ArrayList<>();
+            for (PathAddress parent : targets) {
+                if (element.isWildcard()) {
+                    try {
+                        final Resource resource = context.readResourceFromRoot(parent, false);
+                        for (String name : resource.getChildrenNames(element.getKey())) {
+                            next.add(parent.append(PathElement.pathElement(element.getKey(), name)));
+                        }
+                    } catch (Resource.NoSuchResourceException e) {
+                        // nothing to read
+                    }
+                } else {
+                    next.add(parent.append(element));
+                }
+            }
+            targets = next;
+        }
+        return targets;
+    }
+
+    /**
+     * How a resource is placed in the response.
+     */
+    private enum Member {
+        /** The resource the operation targets */
+        ROOT,
+        /** One of the resources a wildcard address resolved to */
+        TARGET,
+        /** A child of another resource being read */
+        CHILD
+    }
+
+    /**
+     * A resource being read
+     */
+    private static final class Node {
+        private final PathAddress address;
+        private final ModelNode operation;
+        private final Node parent;
+        private final Member member;
+        private final ModelNode response = new ModelNode();
+        /** Whether the resource is left out of the response, as it is gone or the caller may not see it */
+        private boolean skipped;
+        /** Whether the response to the read is all there is to write for the resource, as its children are not visited */
+        private boolean wholeResource;
+        private Set<String> childTypes;
+        /** Whether the read has completed and what was read has been taken from the response */
+        private boolean captured;
+        private ModelNode failure;
+        /** What there is to write for the resource as JSON, or {@code null} if it was not found */
+        private Content content;
+
+        private Node(PathAddress address, ModelNode operation, Node parent, Member member) {
+            this.address = address;
+            this.operation = operation;
+            this.parent = parent;
+            this.member = member;
+        }
+
+        /**
+         * Takes what there is to write for the resource from the response once the read has completed, and releases
+         * the response.
+         */
+        private void capture(Output output) throws OperationFailedException {
+            if (captured) {
+                return;
+            }
+            captured = true;
+            if (response.hasDefined(FAILURE_DESCRIPTION)) {
+                failure = response.get(FAILURE_DESCRIPTION);
+            } else if (response.hasDefined(RESULT)) {
+                final ModelNode result = response.get(RESULT);
+                final StringWriter json = new StringWriter();
+                final PrintWriter writer = new PrintWriter(json);
+                boolean hasMembers = false;
+                if (wholeResource) {
+                    result.writeJSONString(writer, true);
+                } else {
+                    // Only the attributes, and the object is left open for the children
+                    writer.write('{');
+                    for (Property attribute : result.asPropertyList()) {
+                        if (!childTypes.contains(attribute.getName())) {
+                            if (hasMembers) {
+                                writer.write(", ");
+                            }
+                            Output.writeName(writer, attribute.getName());
+                            attribute.getValue().writeJSONString(writer, true);
+                            hasMembers = true;
+                        }
+                    }
+                }
+                writer.flush();
+                content = output.content(json.toString(), hasMembers);
+            }
+            response.clear();
+        }
+
+        /**
+         * Writes the start of the resource.
+         */
+        private void open(Output output) throws OperationFailedException {
+            if (parent != null && parent.skipped) {
+                skipped = true;
+                return;
+            }
+            capture(output);
+            if (failure != null) {
+                throw new OperationFailedException(failure);
+            }
+            if (content == null) {
+                if (member == Member.ROOT) {
+                    throw ControllerLogger.MGMT_OP_LOGGER.managementResourceNotFound(address);
+                }
+                skipped = true;
+                return;
+            }
+            switch (member) {
+                case TARGET:
+                    output.element();
+                    output.beginObject();
+                    output.name(ADDRESS);
+                    output.value(address.toModelNode());
+                    output.name(OUTCOME);
+                    output.value(new ModelNode(SUCCESS));
+                    output.name(RESULT);
+                    break;
+                case CHILD:
+                    output.name(address.getLastElement().getValue());
+                    break;
+                default:
+                    break;
+            }
+            if (wholeResource) {
+                output.json(content);
+                closeMember(output);
+            } else {
+                output.beginObject(content);
+            }
+            content = null;
+        }
+
+        private void close(Output output) {
+            if (!skipped) {
+                output.end('}');
+                closeMember(output);
+            }
+        }
+
+        private void closeMember(Output output) {
+            if (member == Member.TARGET) {
+                output.end('}');
+            }
+        }
+    }
+
+    /**
+     * Reads a resource, and has what was read written once it is available.
+     */
+    private class VisitStep implements OperationStepHandler {
+
+        private final Node node;
+        private final Output output;
+        private final FilteredData filteredData;
+
+        private VisitStep(Node node, Output output, FilteredData filteredData) {
+            this.node = node;
+            this.output = output;
+            this.filteredData = filteredData;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final ImmutableManagementResourceRegistration registration = context.getRootResourceRegistration().getSubModel(node.address);
+            if (registration == null) {
+                if (node.member == Member.ROOT) {
+                    throw ControllerLogger.MGMT_OP_LOGGER.managementResourceNotFound(node.address);
+                }
+                // Removed in the meantime
+                output.emit(context, c -> node.skipped = true);
+                return;
+            }
+            final ModelNode readOperation = node.operation.clone();
+            if (!registration.isRemote()) {
+                // Children are visited one by one rather than read along with the resource
+                readOperation.remove(RECURSIVE);
+                readOperation.remove(RECURSIVE_DEPTH);
+            }
+            // See if there was an override registered for the standard :read-resource handling (i.e. a proxy)
+            OperationStepHandler overrideHandler = registration.getOperationHandler(PathAddress.EMPTY_ADDRESS, READ_RESOURCE_OPERATION);
+            if (overrideHandler != null && overrideHandler.getClass() == ReadResourceHandler.class) {
+                // not an override
+                overrideHandler = null;
+            }
+            if (output.isDeferred()) {
+                // The read adds the step completing it to the front of VERIFY once it runs, so this follows that step
+                context.addStep((c, o) -> node.capture(output), OperationContext.Stage.VERIFY, true);
+            }
+            context.addStep(new WriteStep(node, registration, output, filteredData), OperationContext.Stage.MODEL, true);
+            context.addStep(node.response, readOperation, new ReadResourceHandler(filteredData, overrideHandler, resolvable),
+                    OperationContext.Stage.MODEL, true);
+        }
+    }
+
+    /**
+     * Writes a resource that has been read, and visits its children.
+     */
+    private class WriteStep implements OperationStepHandler {
+
+        private final Node node;
+        private final ImmutableManagementResourceRegistration registration;
+        private final Output output;
+        private final FilteredData filteredData;
+
+        private WriteStep(Node node, ImmutableManagementResourceRegistration registration, Output output, FilteredData filteredData) {
+            this.node = node;
+            this.registration = registration;
+            this.output = output;
+            this.filteredData = filteredData;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            final boolean visitChildren = !registration.isRemote()
+                    && !node.operation.get(ATTRIBUTES_ONLY).asBoolean(false)
+                    && GlobalOperationHandlers.getRecursive(context, node.operation);
+            node.childTypes = registration.getChildNames(PathAddress.EMPTY_ADDRESS);
+            node.wholeResource = !visitChildren;
+            output.emit(context, c -> node.open(output));
+            if (!visitChildren) {
+                return;
+            }
+
+            final boolean queryRuntime = node.operation.get(INCLUDE_RUNTIME).asBoolean(false);
+            final boolean proxies = node.operation.get(PROXIES).asBoolean(false);
+            final boolean aliases = node.operation.get(INCLUDE_ALIASES).asBoolean(false);
+
+            Resource resource;
+            try {
+                resource = context.readResourceFromRoot(node.address, false);
+            } catch (Resource.NoSuchResourceException e) {
+                resource = null;
+            }
+            final Map<String, Set<String>> childrenByType = new TreeMap<>(GlobalOperationHandlers.getChildAddresses(context, node.address, registration, resource, null));
+
+            // Decide which children to read in the same way a recursive read-resource does
+            final List<OperationStepHandler> steps = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> entry : childrenByType.entrySet()) {
+                final String childType = entry.getKey();
+                boolean alias = false;
+                final List<Node> children = new ArrayList<>();
+                for (String child : entry.getValue()) {
+                    final PathElement childPE = PathElement.pathElement(childType, child);
+                    final ImmutableManagementResourceRegistration childReg = registration.getSubModel(PathAddress.pathAddress(childPE));
+                    if (childReg == null) {
+                        continue;
+                    }
+                    if (!aliases && childReg.isAlias()) {
+                        alias = true;
+                        continue;
+                    }
+                    final boolean proxy = childReg.isRemote();
+                    if (!childReg.isRuntimeOnly() || (queryRuntime && !proxy) || (proxies && proxy)) {
+                        final PathAddress childAddress = node.address.append(childPE);
+                        final ModelNode childOperation = targetOperation(node.operation, childAddress);
+                        GlobalOperationHandlers.setNextRecursive(context, node.operation, childOperation);
+                        children.add(new Node(childAddress, childOperation, node, Member.CHILD));
+                    }
+                }
+                if (children.isEmpty()) {
+                    if (!alias) {
+                        steps.add(new EmitStep(output, c -> {
+                            if (!node.skipped) {
+                                output.name(childType);
+                                output.value(new ModelNode());
+                            }
+                        }));
+                    }
+                } else {
+                    steps.add(new EmitStep(output, c -> {
+                        if (!node.skipped) {
+                            output.name(childType);
+                            output.beginObject();
+                        }
+                    }));
+                    for (Node child : children) {
+                        steps.add(new VisitStep(child, output, filteredData));
+                    }
+                    steps.add(new EmitStep(output, c -> {
+                        if (!node.skipped) {
+                            output.end('}');
+                        }
+                    }));
+                }
+            }
+            steps.add(new EmitStep(output, c -> node.close(output)));
+            addSteps(context, steps);
+        }
+    }
+
+    /**
+     * Writes part of the response once everything before it has been written.
+     */
+    private static class EmitStep implements OperationStepHandler {
+
+        private final Output output;
+        private final Action action;
+
+        private EmitStep(Output output, Action action) {
+            this.output = output;
+            this.action = action;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            output.emit(context, action);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run(OperationContext context) throws OperationFailedException;
+    }
+
+    /**
+     * What there is to write for a resource, held either as is or as a segment of the spill file.
+     */
+    private static final class Content {
+
+        private final String json;
+        private final long position;
+        private final int length;
+        /** Whether the object left open for the children has a member yet */
+        private final boolean hasMembers;
+
+        private Content(String json, long position, int length, boolean hasMembers) {
+            this.json = json;
+            this.position = position;
+            this.length = length;
+            this.hasMembers = hasMembers;
+        }
+    }
+
+    /**
+     * The JSON document being written, along with any writes that have been deferred.
+     */
+    private static final class Output {
+
+        private final Path file;
+        private final PrintWriter writer;
+        /** Writes waiting for the VERIFY stage, or {@code null} if writes are performed straight away */
+        private final Deque<Action> deferred;
+        /** What has been read for the resources whose writes are deferred, or {@code null} if none are */
+        private final Path spillFile;
+        private final FileChannel spill;
+        /** Whether the object or list at each level of nesting has a member yet */
+        private final BitSet members = new BitSet();
+        private int depth;
+        private volatile InputStream stream;
+
+        private Output(boolean defer) throws OperationFailedException {
+            final Path dir = tempDir();
+            Path file = null;
+            Path spillFile = null;
+            try {
+                file = Files.createTempFile(dir, READ_RESOURCE_OPERATION, ".json");
+                this.file = file;
+                this.writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+                if (defer) {
+                    spillFile = Files.createTempFile(dir, READ_RESOURCE_OPERATION, ".spill");
+                    this.spill = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                } else {
+                    this.spill = null;
+                }
+                this.spillFile = spillFile;
+            } catch (IOException e) {
+                deleteSilently(file);
+                deleteSilently(spillFile);
+                throw ControllerLogger.MGMT_OP_LOGGER.failedToWriteResponseStream(e, file);
+            }
+            this.deferred = defer ? new ArrayDeque<>() : null;
+        }
+
+        /**
+         * Gets the temp dir of the server or host controller, falling back on the one of the JVM.
+         */
+        private static Path tempDir() {
+            String dir = WildFlySecurityManager.getPropertyPrivileged(SERVER_TEMP_DIR, null);
+            if (dir == null) {
+                dir = WildFlySecurityManager.getPropertyPrivileged(DOMAIN_TEMP_DIR, null);
+            }
+            if (dir == null) {
+                dir = WildFlySecurityManager.getPropertyPrivileged("java.io.tmpdir", null);
+            }
+            return Paths.get(dir);
+        }
+
+        private static void deleteSilently(Path path) {
+            if (path != null) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    ControllerLogger.MGMT_OP_LOGGER.debugf(e, "Failed to delete %s", path);
+                }
+            }
+        }
+
+        private boolean isDeferred() {
+            return deferred != null;
+        }
+
+        /**
+         * Holds on to what there is to write for a resource, spilling it to the spill file if the writes are deferred.
+         */
+        private Content content(String json, boolean hasMembers) throws OperationFailedException {
+            if (spill == null) {
+                return new Content(json, -1, -1, hasMembers);
+            }
+            final ByteBuffer bytes = StandardCharsets.UTF_8.encode(json);
+            try {
+                final long position = spill.size();
+                final int length = bytes.remaining();
+                long written = position;
+                while (bytes.hasRemaining()) {
+                    written += spill.write(bytes, written);
+                }
+                return new Content(null, position, length, hasMembers);
+            } catch (IOException e) {
+                throw ControllerLogger.MGMT_OP_LOGGER.failedToWriteResponseStream(e, spillFile);
+            }
+        }
+
+        private String read(Content content) throws OperationFailedException {
+            if (content.json != null) {
+                return content.json;
+            }
+            final ByteBuffer bytes = ByteBuffer.allocate(content.length);
+            try {
+                long position = content.position;
+                while (bytes.hasRemaining()) {
+                    final int read = spill.read(bytes, position);
+                    if (read < 0) {
+                        throw new EOFException();
+                    }
+                    position += read;
+                }
+            } catch (IOException e) {
+                throw ControllerLogger.MGMT_OP_LOGGER.failedToWriteResponseStream(e, spillFile);
+            }
+            bytes.flip();
+            return StandardCharsets.UTF_8.decode(bytes).toString();
+        }
+
+        private void emit(OperationContext context, Action action) throws OperationFailedException {
+            if (deferred == null) {
+                action.run(context);
+            } else {
+                deferred.add(action);
+            }
+        }
+
+        private void drain(OperationContext context, ModelNode operation) throws OperationFailedException {
+            Action action;
+            while ((action = deferred.poll()) != null) {
+                action.run(context);
+            }
+        }
+
+        private void beginObject() {
+            writer.write('{');
+            members.clear(++depth);
+        }
+
+        /**
+         * Writes the start of an object along with the members already held in the content.
+         */
+        private void beginObject(Content content) throws OperationFailedException {
+            writer.write(read(content));
+            members.set(++depth, content.hasMembers);
+        }
+
+        private void json(Content content) throws OperationFailedException {
+            writer.write(read(content));
+        }
+
+        private void beginList() {
+            writer.write('[');
+            members.clear(++depth);
+        }
+
+        private void end(char c) {
+            writer.write(c);
+            depth--;
+        }
+
+        private void name(String name) {
+            separate();
+            writeName(writer, name);
+        }
+
+        private static void writeName(PrintWriter writer, String name) {
+            new ModelNode(name).writeJSONString(writer, true);
+            writer.write(" : ");
+        }
+
+        private void element() {
+            separate();
+        }
+
+        private void value(ModelNode value) {
+            value.writeJSONString(writer, true);
+        }
+
+        private void separate() {
+            if (members.get(depth)) {
+                writer.write(", ");
+            } else {
+                members.set(depth);
+            }
+        }
+
+        private void attach(OperationContext context, FilteredData filteredData) throws OperationFailedException {
+            writer.close();
+            if (writer.checkError()) {
+                throw ControllerLogger.MGMT_OP_LOGGER.failedToWriteResponseStream(null, file);
+            }
+            try {
+                stream = Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException e) {
+                throw ControllerLogger.MGMT_OP_LOGGER.failedToWriteResponseStream(e, file);
+            }
+            if (filteredData.hasFilteredData()) {
+                context.getResponseHeaders().get(ACCESS_CONTROL).set(filteredData.toModelNode());
+            }
+            context.getResult().set(context.attachResultStream(MIME_TYPE, stream));
+        }
+
+        private boolean isAttached() {
+            return stream != null;
+        }
+
+        /**
+         * Removes the files once the operation has completed.
+         */
+        private void delete() {
+            closeSpill();
+            deleteSilently(spillFile);
+            deleteSilently(file);
+        }
+
+        private void closeSpill() {
+            if (spill != null) {
+                try {
+                    spill.close();
+                } catch (IOException e) {
+                    ControllerLogger.MGMT_OP_LOGGER.debugf(e, "Failed to close %s", spillFile);
+                }
+            }
+        }
+
+        private void discard() {
+            writer.close();
+            final InputStream stream = this.stream;
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    ControllerLogger.MGMT_OP_LOGGER.debugf(e, "Failed to close %s", file);
+                }
+            }
+            delete();
+        }
+    }
+}
@@ -27,11 +27,13 @@ import static org.jboss.as.controller.logging.ControllerLogger.ROOT_LOGGER;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.logging.ControllerLogger;
 import org.jboss.dmr.ModelNode;
 import org.jboss.staxmapper.XMLElementWriter;
@@ -47,6 +49,8 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
     private final XMLElementWriter<ModelMarshallingContext> rootDeparser;
     private final ConcurrentHashMap<String, XMLElementWriter<SubsystemMarshallingContext>> subsystemWriters = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Supplier<XMLElementWriter<SubsystemMarshallingContext>>> subsystemWriterSuppliers = new ConcurrentHashMap<>();
+    private final SubsystemMarshallingCache subsystemMarshallingCache = new SubsystemMarshallingCache();
+    private final boolean marshallingOverridden;
 
     /**
      * Construct a new instance.
@@ -55,27 +59,90 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
      */
     public AbstractConfigurationPersister(final XMLElementWriter<ModelMarshallingContext> rootDeparser) {
         this.rootDeparser = rootDeparser;
+        this.marshallingOverridden = isMarshallingOverridden(getClass());
     }
 
     @Override
     public void registerSubsystemWriter(String name, XMLElementWriter<SubsystemMarshallingContext> writer) {
         subsystemWriters.putIfAbsent(name, writer);
+        subsystemMarshallingCache.invalidate(name);
     }
 
     @Override
     public void registerSubsystemWriter(String name, Supplier<XMLElementWriter<SubsystemMarshallingContext>> writer) {
         subsystemWriterSuppliers.putIfAbsent(name, writer);
+        subsystemMarshallingCache.invalidate(name);
     }
 
     @Override
     public void unregisterSubsystemWriter(String name) {
         subsystemWriters.remove(name);
         subsystemWriterSuppliers.remove(name);
+        subsystemMarshallingCache.invalidate(name);
     }
 
     /** {@inheritDoc} */
     @Override
     public void marshallAsXml(final ModelNode model, final OutputStream output) throws ConfigurationPersistenceException {
+        marshallAsXml(model, output, null);
+    }
+
+    /**
+     * Marshals the given configuration model to XML, reusing the output of the subsystem writers from
+     * the previous invocation of this method for any subsystem not affected by the update being persisted.
+     * Callers should only use this variant when marshalling a model that is going to be persisted, as each call
+     * is assumed to follow on from the previous one. If a subclass overrides
+     * {@link #marshallAsXml(ModelNode, OutputStream)} that method is used instead, and nothing is reused.
+     *
+     * @param model the model to marshal
+     * @param affectedAddresses the addresses of the resources modified since the last call to this method,
+     *                          or {@code null} if they are unknown
+     * @param output the stream to write to
+     * @throws ConfigurationPersistenceException if a marshalling error occurs
+     */
+    protected void marshallAsXml(final ModelNode model, final Set<PathAddress> affectedAddresses, final OutputStream output) throws ConfigurationPersistenceException {
+        if (marshallingOverridden) {
+            marshallAsXml(model, output);
+            return;
+        }
+        synchronized (subsystemMarshallingCache) {
+            subsystemMarshallingCache.begin(affectedAddresses);
+            boolean ok = false;
+            try {
+                marshallAsXml(model, output, subsystemMarshallingCache);
+                ok = true;
+            } finally {
+                if (ok) {
+                    subsystemMarshallingCache.end();
+                } else {
+                    subsystemMarshallingCache.begin(null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the subsystem XML reused by {@link #marshallAsXml(ModelNode, Set, OutputStream)} for the given
+     * addresses, as the model it was marshalled from is not going to be persisted after all.
+     *
+     * @param affectedAddresses the addresses passed when the model was marshalled, or {@code null} if they are
+     *                          unknown, in which case nothing is reused by the next marshalling
+     */
+    protected void discardMarshalledSubsystems(final Set<PathAddress> affectedAddresses) {
+        synchronized (subsystemMarshallingCache) {
+            subsystemMarshallingCache.discard(affectedAddresses);
+        }
+    }
+
+    private static boolean isMarshallingOverridden(final Class<?> persisterClass) {
+        try {
+            return persisterClass.getMethod("marshallAsXml", ModelNode.class, OutputStream.class).getDeclaringClass() != AbstractConfigurationPersister.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void marshallAsXml(final ModelNode model, final OutputStream output, final SubsystemMarshallingCache cache) throws ConfigurationPersistenceException {
         final XMLMapper mapper = XMLMapper.Factory.create();
         final Map<String, XMLElementWriter<SubsystemMarshallingContext>> localSubsystemWriters = new HashMap<>(subsystemWriters);
         try {
@@ -100,7 +167,7 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
                                 localSubsystemWriters.put(extensionName, result);
                             }
                         }
-                        return result;
+                        return result == null || cache == null ? result : cache.wrap(extensionName, result);
                     }
                 };
                 mapper.deparseDocument(rootDeparser, extensibleModel, streamWriter);
@@ -22,7 +22,9 @@
 package org.jboss.as.controller.persistence;
 
 import java.io.BufferedOutputStream;
+import java.util.Set;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.logging.ControllerLogger;
 import org.jboss.dmr.ModelNode;
 import org.xnio.IoUtils;
@@ -33,13 +35,30 @@ import org.xnio.IoUtils;
  */
 public abstract class AbstractFilePersistenceResource implements ConfigurationPersister.PersistenceResource {
     private volatile ExposedByteArrayOutputStream marshalled;
+    private final Set<PathAddress> affectedAddresses;
+    private final AbstractConfigurationPersister persister;
 
     protected AbstractFilePersistenceResource(final ModelNode model, final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
+        this(model, null, persister);
+    }
+
+    /**
+     * Creates a resource that only re-marshals the subsystems affected by the update being persisted.
+     *
+     * @param model the model to persist
+     * @param affectedAddresses the addresses of the resources affected by the update, or {@code null} if unknown
+     * @param persister the persister
+     * @throws ConfigurationPersistenceException if the model cannot be marshalled
+     */
+    protected AbstractFilePersistenceResource(final ModelNode model, final Set<PathAddress> affectedAddresses,
+                                              final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
+        this.affectedAddresses = affectedAddresses;
+        this.persister = persister;
         marshalled = new ExposedByteArrayOutputStream(1024 * 8);
         try {
             try {
                 BufferedOutputStream output = new BufferedOutputStream(marshalled);
-                persister.marshallAsXml(model, output);
+                persister.marshallAsXml(model, affectedAddresses, output);
                 output.close();
                 marshalled.close();
             } finally {
@@ -61,6 +80,8 @@ public abstract class AbstractFilePersistenceResource implements ConfigurationPe
     @Override
     public void rollback() {
         marshalled = null;
+        // The subsystem XML reused by later writes must not include the changes that were rolled back
+        persister.discardMarshalledSubsystems(affectedAddresses);
     }
 
     protected abstract void doCommit(ExposedByteArrayOutputStream marshalled);
@@ -22,6 +22,7 @@
 
 package org.jboss.as.controller.persistence;
 
+import java.io.File;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -89,6 +90,17 @@ public class BackupXmlConfigurationPersister extends XmlConfigurationPersister {
         super.registerAdditionalRootElement(anotherRoot, parser);
     }
 
+    /**
+     * Overrides the default behavior to not cache the boot operations if the configuration is read-only, as nothing
+     * may be written on behalf of a read-only configuration.
+     */
+    @Override
+    public void allowBootOperationCache(final File cacheDir) {
+        if (configurationFile.getInteractionPolicy() != ConfigurationFile.InteractionPolicy.READ_ONLY) {
+            super.allowBootOperationCache(cacheDir);
+        }
+    }
+
     @Override
     public void successfulBoot() throws ConfigurationPersistenceException {
         if(successfulBoot.compareAndSet(false, true)) {
@@ -117,11 +129,12 @@ public class BackupXmlConfigurationPersister extends XmlConfigurationPersister {
                 }
             };
         }
-        return new ConfigurationFilePersistenceResource(model, configurationFile, this);
+        return groupCommit(new ConfigurationFilePersistenceResource(model, affectedAddresses, configurationFile, this));
     }
 
     @Override
     public String snapshot() throws ConfigurationPersistenceException {
+        flushCommits();
         return configurationFile.snapshot();
     }
 
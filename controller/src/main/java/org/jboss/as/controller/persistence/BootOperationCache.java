@@ -0,0 +1,283 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static java.nio.file.attribute.PosixFilePermission.OWNER_READ;
+import static java.nio.file.attribute.PosixFilePermission.OWNER_WRITE;
+import static org.jboss.as.controller.logging.ControllerLogger.ROOT_LOGGER;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.jboss.as.controller.Extension;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.jboss.modules.Module;
+import org.jboss.modules.ModuleLoadException;
+import org.jboss.modules.ModuleLoader;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Caches the boot operations parsed from a configuration file, in the DMR binary format, so that a later boot
+ * with the same configuration can read them back instead of parsing the file again.
+ * <p>
+ * The cache is only used if the SHA-256 digest of the configuration file is the one it was written for, and if
+ * the extension modules the operations add are still the ones that were installed when it was written, as an
+ * updated extension may parse the same XML into different operations. Otherwise the file is parsed and the cache
+ * rewritten.
+ * <p>
+ * The cache file is kept in a directory the server owns rather than next to the configuration file, and is only
+ * readable and writable by its owner, as the operations may hold values that are protected in the configuration.
+ * <p>
+ * The cache is disabled unless the {@value #BOOT_OPERATION_CACHE} system property is set to {@code true}.
+ */
+final class BootOperationCache {
+
+    /** System property that turns on the caching of the boot operations parsed from the configuration file. */
+    static final String BOOT_OPERATION_CACHE = "jboss.config.boot-operation-cache";
+
+    private static final int MAGIC = 0x424f4f54;
+    private static final int VERSION = 1;
+    private static final String EXTENSION_SERVICE = "META-INF/services/" + Extension.class.getName();
+
+    private final File configurationFile;
+    private final File cacheFile;
+    private final Function<String, String> extensionFingerprint;
+
+    /**
+     * @param configurationFile the configuration file the operations are parsed from
+     * @param cacheFile the file to cache the operations in
+     * @param extensionFingerprint gives a string that changes whenever the extension module with the given name is
+     *                             updated
+     */
+    BootOperationCache(final File configurationFile, final File cacheFile, final Function<String, String> extensionFingerprint) {
+        this.configurationFile = configurationFile;
+        this.cacheFile = cacheFile;
+        this.extensionFingerprint = extensionFingerprint;
+    }
+
+    /**
+     * Creates a cache for the given configuration file if it has been enabled via the {@value #BOOT_OPERATION_CACHE}
+     * system property. The operations are cached in a file named after the configuration file in the given directory.
+     *
+     * @param configurationFile the configuration file
+     * @param cacheDir the directory to cache the operations in
+     * @return the cache, or {@code null} if it is not enabled
+     */
+    static BootOperationCache create(final File configurationFile, final File cacheDir) {
+        if (!Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(BOOT_OPERATION_CACHE, "false"))) {
+            return null;
+        }
+        final File cacheFile = new File(cacheDir, configurationFile.getName() + ".boot-ops");
+        final ModuleLoader moduleLoader = Module.getBootModuleLoader();
+        return new BootOperationCache(configurationFile, cacheFile, moduleName -> getModuleFingerprint(moduleLoader, moduleName));
+    }
+
+    /**
+     * Computes the digest of the configuration file.
+     *
+     * @return the hex encoded digest
+     * @throws IOException if the file cannot be read
+     */
+    String digestConfiguration() throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = new FileInputStream(configurationFile)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads the cached operations, if they are still valid.
+     *
+     * @param configurationDigest the current digest of the configuration file
+     * @return the operations, or {@code null} if there are none or they are no longer valid
+     */
+    List<ModelNode> read(final String configurationDigest) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !configurationDigest.equals(in.readUTF())) {
+                ROOT_LOGGER.debugf("Boot operation cache %s is out of date for the configuration", cacheFile);
+                return null;
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                final String moduleName = in.readUTF();
+                if (!in.readUTF().equals(extensionFingerprint.apply(moduleName))) {
+                    ROOT_LOGGER.debugf("Boot operation cache %s is out of date as extension %s has changed", cacheFile, moduleName);
+                    return null;
+                }
+            }
+            final ModelNode operations = new ModelNode();
+            operations.readExternal(in);
+            ROOT_LOGGER.debugf("Read the boot operations from %s", cacheFile);
+            return new ArrayList<>(operations.asList());
+        } catch (Exception e) {
+            ROOT_LOGGER.debugf(e, "Could not read boot operation cache %s", cacheFile);
+            return null;
+        }
+    }
+
+    /**
+     * Caches the operations parsed from the configuration file. A failure is logged and otherwise ignored, as the
+     * next boot just parses the configuration file again.
+     *
+     * @param configurationDigest the digest of the configuration file the operations were parsed from
+     * @param operations the operations
+     */
+    void write(final String configurationDigest, final List<ModelNode> operations) {
+        final File tempFile = FilePersistenceUtils.createTempFile(cacheFile);
+        try {
+            final Map<String, String> extensions = new LinkedHashMap<>();
+            final ModelNode list = new ModelNode().setEmptyList();
+            for (ModelNode operation : operations) {
+                final String moduleName = getExtensionModule(operation);
+                if (moduleName != null) {
+                    extensions.put(moduleName, extensionFingerprint.apply(moduleName));
+                }
+                list.add(operation);
+            }
+            createOwnerOnlyFile(tempFile);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(configurationDigest);
+                out.writeInt(extensions.size());
+                for (Map.Entry<String, String> entry : extensions.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+                list.writeExternal(out);
+            }
+            FilePersistenceUtils.moveTempFileToMain(tempFile, cacheFile);
+        } catch (Exception e) {
+            ROOT_LOGGER.failedToWriteBootOperationCache(e, cacheFile);
+            try {
+                Files.deleteIfExists(tempFile.toPath());
+                Files.deleteIfExists(cacheFile.toPath());
+            } catch (IOException ignored) {
+                // the digest stops a stale cache being used anyway
+            }
+        }
+    }
+
+    /**
+     * Creates an empty file that only its owner can read and write, replacing any left over from an earlier failure.
+     */
+    private static void createOwnerOnlyFile(final File file) throws IOException {
+        final Path path = file.toPath();
+        Files.createDirectories(path.getParent());
+        Files.deleteIfExists(path);
+        if (path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(EnumSet.of(OWNER_READ, OWNER_WRITE)));
+        } else {
+            Files.createFile(path);
+            if (!(file.setReadable(false, false) && file.setReadable(true, true)
+                    && file.setWritable(false, false) && file.setWritable(true, true))) {
+                throw new IOException(file.toString());
+            }
+        }
+    }
+
+    /**
+     * Gets the module of an operation adding an extension, wherever in the model the extension is added.
+     */
+    private static String getExtensionModule(final ModelNode operation) {
+        if (!ADD.equals(operation.get(OP).asString()) || !operation.hasDefined(OP_ADDR)) {
+            return null;
+        }
+        final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+        final PathElement last = address.getLastElement();
+        return last != null && EXTENSION.equals(last.getKey()) ? last.getValue() : null;
+    }
+
+    /**
+     * Fingerprints the resource roots providing the extensions of a module, so that replacing or patching one of
+     * its jars changes the fingerprint.
+     */
+    private static String getModuleFingerprint(final ModuleLoader moduleLoader, final String moduleName) {
+        final StringBuilder sb = new StringBuilder();
+        try {
+            final Module module = moduleLoader.loadModule(moduleName);
+            final Enumeration<URL> resources = module.getClassLoader().getResources(EXTENSION_SERVICE);
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                if ("jar".equals(url.getProtocol())) {
+                    url = ((JarURLConnection) url.openConnection()).getJarFileURL();
+                }
+                sb.append(url);
+                if ("file".equals(url.getProtocol())) {
+                    final File file = new File(url.toURI());
+                    sb.append('@').append(file.lastModified()).append(':').append(file.length());
+                }
+                sb.append(';');
+            }
+        } catch (ModuleLoadException | IOException | URISyntaxException e) {
+            // A module that cannot be fingerprinted never matches, so the configuration is parsed and fails properly
+            sb.append(e);
+            sb.append('@').append(System.nanoTime());
+        }
+        return sb.toString();
+    }
+}
@@ -25,7 +25,9 @@ package org.jboss.as.controller.persistence;
 import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
 
 import java.io.File;
+import java.util.Set;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -40,9 +42,9 @@ public class ConfigurationFilePersistenceResource extends AbstractFilePersistenc
     protected final File fileName;
 
 
-    ConfigurationFilePersistenceResource(final ModelNode model, final ConfigurationFile configurationFile,
+    ConfigurationFilePersistenceResource(final ModelNode model, final Set<PathAddress> affectedAddresses, final ConfigurationFile configurationFile,
                                          final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
-        super(model, persister);
+        super(model, affectedAddresses, persister);
         this.configurationFile = configurationFile;
         this.fileName = configurationFile.getMainFile();
     }
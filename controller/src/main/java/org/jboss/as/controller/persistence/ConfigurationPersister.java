@@ -79,6 +79,27 @@ public interface ConfigurationPersister {
      */
     PersistenceResource store(ModelNode model, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException;
 
+    /**
+     * Blocks until any {@link PersistenceResource#commit() commit} made by the calling thread has been flushed to
+     * permanent storage. Implementations that coalesce commits use this to give each caller a durable completion
+     * without the controller lock being held while waiting.
+     * <p>
+     * The default implementation does nothing, as {@link PersistenceResource#commit()} normally writes synchronously.
+     *
+     * @throws ConfigurationPersistenceException if flushing the commit failed
+     */
+    default void awaitCommitted() throws ConfigurationPersistenceException {
+    }
+
+    /**
+     * Writes any {@link PersistenceResource#commit() commit} that is still pending, and stops any thread used for
+     * that. Called when the process using the persister stops.
+     * <p>
+     * The default implementation does nothing, as {@link PersistenceResource#commit()} normally writes synchronously.
+     */
+    default void shutdown() {
+    }
+
     /**
      * Marshals the given configuration model to XML, writing to the given stream.
      *
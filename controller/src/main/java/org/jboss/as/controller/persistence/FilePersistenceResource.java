@@ -25,7 +25,9 @@ package org.jboss.as.controller.persistence;
 import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
 
 import java.io.File;
+import java.util.Set;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -37,8 +39,9 @@ public class FilePersistenceResource extends AbstractFilePersistenceResource {
 
     protected final File fileName;
 
-    FilePersistenceResource(final ModelNode model, final File fileName, final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
-        super(model, persister);
+    FilePersistenceResource(final ModelNode model, final Set<PathAddress> affectedAddresses, final File fileName,
+                            final AbstractConfigurationPersister persister) throws ConfigurationPersistenceException {
+        super(model, affectedAddresses, persister);
         this.fileName = fileName;
 
     }
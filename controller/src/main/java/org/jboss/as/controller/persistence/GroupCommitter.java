@@ -0,0 +1,427 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.persistence;
+
+import static java.security.AccessController.doPrivileged;
+import static org.jboss.as.controller.logging.ControllerLogger.MGMT_OP_LOGGER;
+
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.logging.ControllerLogger;
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Coalesces the {@link ConfigurationPersister.PersistenceResource#commit() commits} of configuration changes
+ * arriving within a configurable window into a single write to permanent storage.
+ * <p>
+ * Each resource passed to {@link #wrap(ConfigurationPersister.PersistenceResource)} holds a complete snapshot
+ * of the configuration, so when several commits are pending only the most recent one is written and the
+ * earlier ones are discarded. Committing a wrapped resource only queues it; the committing thread gets its
+ * durable completion from {@link #awaitCommitted()}, which the model controller calls once the controller
+ * lock has been released. This is what allows operations serialized by the controller lock to share a write.
+ * <p>
+ * The batch is written by a flusher thread, which only runs while commits are pending. Once the committer has been
+ * {@link #shutdown() shut down}, anything still pending is written straight away and later commits are written
+ * by the committing thread.
+ * <p>
+ * Group commit is disabled unless the {@value #GROUP_COMMIT_WINDOW} system property is set to a positive
+ * number of milliseconds.
+ */
+public final class GroupCommitter {
+
+    /** System property giving the length in milliseconds of the window within which commits are coalesced. */
+    public static final String GROUP_COMMIT_WINDOW = "jboss.config.group-commit-window";
+
+    private static final ThreadFactory THREAD_FACTORY = doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+        public JBossThreadFactory run() {
+            return new JBossThreadFactory(new ThreadGroup("configuration-persister-group-commit"), Boolean.TRUE, null, "%G - %t", null, null);
+        }
+    });
+
+    private final String name;
+    private final long windowNanos;
+    private final ThreadLocal<Pending> threadPending = new ThreadLocal<>();
+
+    // Guarded by this
+    private List<Pending> batch = new ArrayList<>();
+    private Pending lastPending;
+    private long batchDeadline;
+    private boolean flushRequested;
+    private boolean stopped;
+    private Thread flusher;
+
+    // Only written by the flusher thread
+    private volatile long batchCount;
+    private volatile long commitCount;
+    private volatile long failedCommitCount;
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+    private volatile long totalCommitLatency;
+    private volatile long maxCommitLatency;
+
+    GroupCommitter(final String name, final long window, final TimeUnit unit) {
+        this.name = name;
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    /**
+     * Creates a group committer for the given file if group commit has been enabled via the
+     * {@value #GROUP_COMMIT_WINDOW} system property.
+     *
+     * @param name the name of the file being persisted, used for logging
+     * @return the group committer, or {@code null} if group commit is not enabled
+     */
+    static GroupCommitter create(final String name) {
+        final String val = WildFlySecurityManager.getPropertyPrivileged(GROUP_COMMIT_WINDOW, null);
+        long window;
+        try {
+            window = val == null ? 0 : Long.parseLong(val.trim());
+        } catch (NumberFormatException ignored) {
+            window = 0;
+        }
+        return window > 0 ? new GroupCommitter(name, window, TimeUnit.MILLISECONDS) : null;
+    }
+
+    /**
+     * Wraps a persistence resource so its commit joins the current batch rather than writing immediately.
+     *
+     * @param delegate the resource holding the snapshot to persist. Cannot be {@code null}
+     * @return the wrapping resource
+     */
+    ConfigurationPersister.PersistenceResource wrap(final ConfigurationPersister.PersistenceResource delegate) {
+        return new ConfigurationPersister.PersistenceResource() {
+            @Override
+            public void commit() {
+                final Pending pending = enqueue(delegate);
+                if (pending == null) {
+                    // Shut down, so there is no one else to write it
+                    delegate.commit();
+                } else {
+                    threadPending.set(pending);
+                }
+            }
+
+            @Override
+            public void rollback() {
+                delegate.rollback();
+            }
+        };
+    }
+
+    /**
+     * Blocks until any commit queued by the calling thread has been written.
+     *
+     * @throws ConfigurationPersistenceException if writing the batch the commit was part of failed
+     */
+    void awaitCommitted() throws ConfigurationPersistenceException {
+        final Pending pending = threadPending.get();
+        if (pending != null) {
+            threadPending.remove();
+            await(pending, false);
+        }
+    }
+
+    /**
+     * Writes any pending commits without waiting for the window to elapse, blocking until they are written.
+     *
+     * @throws ConfigurationPersistenceException if writing the last of the pending commits failed
+     */
+    void flush() throws ConfigurationPersistenceException {
+        final Pending pending;
+        synchronized (this) {
+            pending = lastPending;
+        }
+        if (pending != null) {
+            await(pending, true);
+        }
+    }
+
+    /**
+     * Writes any pending commits straight away and stops the flusher thread, waiting for it to finish. Commits made
+     * after this are written by the committing thread.
+     */
+    void shutdown() {
+        final Thread thread;
+        synchronized (this) {
+            stopped = true;
+            thread = flusher;
+            notifyAll();
+        }
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of writes performed.
+     *
+     * @return the number of batches written
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Gets the number of commits written, including those coalesced into another commit's write.
+     *
+     * @return the number of commits
+     */
+    public long getCommitCount() {
+        return commitCount;
+    }
+
+    /**
+     * Gets the number of commits that failed, as writing the batch they were part of failed.
+     *
+     * @return the number of failed commits
+     */
+    public long getFailedCommitCount() {
+        return failedCommitCount;
+    }
+
+    /**
+     * Gets the number of commits coalesced into the most recent write.
+     *
+     * @return the size of the last batch
+     */
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    /**
+     * Gets the largest number of commits coalesced into a single write.
+     *
+     * @return the size of the largest batch
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Gets the average time between a commit being queued and its batch having been written.
+     *
+     * @param unit the unit in which to return the latency
+     * @return the average commit latency
+     */
+    public long getAverageCommitLatency(final TimeUnit unit) {
+        final long commits = commitCount;
+        return commits == 0 ? 0 : unit.convert(totalCommitLatency / commits, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time between a commit being queued and its batch having been written.
+     *
+     * @param unit the unit in which to return the latency
+     * @return the maximum commit latency
+     */
+    public long getMaxCommitLatency(final TimeUnit unit) {
+        return unit.convert(maxCommitLatency, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Queues a commit, starting the flusher if it is not running.
+     *
+     * @return the queued commit, or {@code null} if the committer has been shut down and the commit is not queued
+     */
+    private synchronized Pending enqueue(final ConfigurationPersister.PersistenceResource delegate) {
+        if (stopped && flusher == null) {
+            return null;
+        }
+        final long now = System.nanoTime();
+        if (batch.isEmpty()) {
+            batchDeadline = now + windowNanos;
+        }
+        final Pending pending = new Pending(delegate, now);
+        batch.add(pending);
+        lastPending = pending;
+        if (flusher == null) {
+            flusher = THREAD_FACTORY.newThread(this::flushLoop);
+            flusher.start();
+        }
+        notifyAll();
+        return pending;
+    }
+
+    private void await(final Pending pending, final boolean requestFlush) throws ConfigurationPersistenceException {
+        boolean interrupted = false;
+        try {
+            synchronized (this) {
+                if (requestFlush && !pending.written) {
+                    flushRequested = true;
+                    notifyAll();
+                }
+                while (!pending.written) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // The change is already applied to the model, so the caller must not
+                        // return before it is persisted
+                        interrupted = true;
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (pending.failure != null) {
+            throw ControllerLogger.ROOT_LOGGER.failedToWriteConfiguration(pending.failure);
+        }
+    }
+
+    private void flushLoop() {
+        List<Pending> toCommit = null;
+        try {
+            for (;;) {
+                synchronized (this) {
+                    if (batch.isEmpty()) {
+                        // Nothing left to write. The next commit starts a new flusher
+                        flusher = null;
+                        return;
+                    }
+                    long remaining = batchDeadline - System.nanoTime();
+                    try {
+                        while (!flushRequested && !stopped && remaining > 0) {
+                            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                            remaining = batchDeadline - System.nanoTime();
+                        }
+                    } catch (InterruptedException e) {
+                        // Only our own code can reach this thread; just flush what we have
+                    }
+                    toCommit = batch;
+                    batch = new ArrayList<>();
+                    flushRequested = false;
+                }
+                commit(toCommit);
+                toCommit = null;
+            }
+        } catch (Throwable t) {
+            // The flusher itself failed. Fail the commits it had taken and those still queued rather than leave
+            // their threads, and with them every management write, waiting forever; the next commit starts a new
+            // flusher.
+            MGMT_OP_LOGGER.failedToStoreConfiguration(t, name);
+            final List<Pending> abandoned = new ArrayList<>();
+            synchronized (this) {
+                if (toCommit != null) {
+                    abandoned.addAll(toCommit);
+                }
+                abandoned.addAll(batch);
+                batch = new ArrayList<>();
+                flushRequested = false;
+                flusher = null;
+            }
+            for (Pending pending : abandoned) {
+                try {
+                    pending.delegate.rollback();
+                } catch (Throwable ignored) {
+                    // nothing more we can do
+                }
+            }
+            written(abandoned, t);
+        }
+    }
+
+    private void commit(final List<Pending> toCommit) {
+        final int size = toCommit.size();
+        Throwable failure = null;
+        try {
+            // Each snapshot supersedes the ones queued before it
+            for (int i = 0; i < size - 1; i++) {
+                toCommit.get(i).delegate.rollback();
+            }
+            toCommit.get(size - 1).delegate.commit();
+        } catch (Throwable t) {
+            // Whatever went wrong, the flusher must carry on or every later commit would wait forever
+            MGMT_OP_LOGGER.failedToStoreConfiguration(t, name);
+            failure = t;
+        }
+
+        final long now = System.nanoTime();
+        long latency = 0;
+        long maxLatency = maxCommitLatency;
+        for (Pending pending : toCommit) {
+            final long l = now - pending.queued;
+            latency += l;
+            maxLatency = Math.max(maxLatency, l);
+        }
+        batchCount++;
+        commitCount += size;
+        if (failure != null) {
+            failedCommitCount += size;
+        }
+        lastBatchSize = size;
+        maxBatchSize = Math.max(maxBatchSize, size);
+        totalCommitLatency += latency;
+        maxCommitLatency = maxLatency;
+        MGMT_OP_LOGGER.tracef("Wrote %d coalesced commit(s) to %s in %d ms", Integer.valueOf(size), name,
+                Long.valueOf(TimeUnit.NANOSECONDS.toMillis(latency / size)));
+
+        written(toCommit, failure);
+    }
+
+    /**
+     * Releases the threads waiting for the given commits to be written.
+     *
+     * @param failure why writing the commits failed, or {@code null} if they were written
+     */
+    private synchronized void written(final List<Pending> commits, final Throwable failure) {
+        for (Pending pending : commits) {
+            pending.failure = failure;
+            pending.written = true;
+        }
+        notifyAll();
+    }
+
+    private static final class Pending {
+        private final ConfigurationPersister.PersistenceResource delegate;
+        private final long queued;
+        // Guarded by the GroupCommitter
+        private boolean written;
+        private Throwable failure;
+
+        private Pending(final ConfigurationPersister.PersistenceResource delegate, final long queued) {
+            this.delegate = delegate;
+            this.queued = queued;
+        }
+    }
+}
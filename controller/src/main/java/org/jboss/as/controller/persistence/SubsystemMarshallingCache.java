@@ -0,0 +1,256 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.HOST;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROFILE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.staxmapper.XMLElementWriter;
+import org.jboss.staxmapper.XMLExtendedStreamWriter;
+
+/**
+ * Cache of the XML written by subsystem writers, allowing subsystems that have not been modified since the
+ * configuration was last marshalled to be written without invoking their writers again.
+ * <p>
+ * What is cached is the sequence of calls a subsystem writer made against the {@link XMLExtendedStreamWriter},
+ * rather than the resulting text, so the replayed content is formatted exactly as if the writer had been invoked.
+ * An entry is keyed by the subsystem name and the position of the subsystem among the subsystems of that name
+ * written by a marshalling, so a single subsystem can have different entries for different domain profiles. The
+ * model itself is not part of the key, as hashing and comparing the model of every subsystem on every marshalling
+ * would cost about as much as invoking the writers. Instead the cache relies on the addresses reported as affected
+ * by an update: entries for subsystems under an affected address are discarded, and all entries are discarded if
+ * a resource that may contain subsystems, i.e. the root resource, a profile or a host, is affected, as adding or
+ * removing one changes the positions of the subsystems. Entries not used by the most recent marshalling are evicted.
+ * If the model a marshalling was done for is not persisted after all, the entries for the addresses affected by it
+ * have to be {@link #discard(Set) discarded}, as they hold the XML of changes that were rolled back.
+ * </p>
+ *
+ * <p>Concurrency note: this class is thread safe, although a single marshalling is expected to use it
+ * from a single thread.</p>
+ */
+final class SubsystemMarshallingCache {
+
+    private final Map<String, List<List<Invocation>>> entries = new HashMap<>();
+    private final Map<String, List<List<Invocation>>> used = new HashMap<>();
+
+    /**
+     * Prepares for a new marshalling of the configuration.
+     *
+     * @param affectedAddresses the addresses of the resources modified since the previous marshalling, or {@code null}
+     *                          if they are unknown, in which case all entries are discarded
+     */
+    synchronized void begin(final Set<PathAddress> affectedAddresses) {
+        used.clear();
+        discard(affectedAddresses);
+    }
+
+    /**
+     * Discards the entries for the subsystems under the given addresses.
+     *
+     * @param affectedAddresses the addresses of the resources whose XML must not be reused, or {@code null} to
+     *                          discard all entries
+     */
+    synchronized void discard(final Set<PathAddress> affectedAddresses) {
+        if (affectedAddresses == null) {
+            entries.clear();
+            return;
+        }
+        final Set<String> affectedSubsystems = getAffectedSubsystems(affectedAddresses);
+        if (affectedSubsystems == null) {
+            entries.clear();
+            return;
+        }
+        for (String name : affectedSubsystems) {
+            entries.remove(name);
+        }
+    }
+
+    /**
+     * Completes a marshalling, evicting the entries it did not use.
+     */
+    synchronized void end() {
+        entries.clear();
+        entries.putAll(used);
+        used.clear();
+    }
+
+    /**
+     * Discards any entries for the given subsystem, for example because the writer for it has changed.
+     *
+     * @param name the name of the subsystem
+     */
+    synchronized void invalidate(final String name) {
+        entries.remove(name);
+        used.remove(name);
+    }
+
+    /**
+     * Wraps a subsystem writer so its output is served from or recorded into this cache.
+     *
+     * @param name the name of the subsystem
+     * @param writer the writer
+     * @return the caching writer
+     */
+    XMLElementWriter<SubsystemMarshallingContext> wrap(final String name, final XMLElementWriter<SubsystemMarshallingContext> writer) {
+        return (streamWriter, context) -> writeContent(name, writer, streamWriter, context);
+    }
+
+    private void writeContent(final String name, final XMLElementWriter<SubsystemMarshallingContext> writer,
+                              final XMLExtendedStreamWriter streamWriter, final SubsystemMarshallingContext context) throws XMLStreamException {
+        final int position;
+        List<Invocation> invocations;
+        synchronized (this) {
+            final List<List<Invocation>> usedForName = used.get(name);
+            position = usedForName == null ? 0 : usedForName.size();
+            final List<List<Invocation>> forName = entries.get(name);
+            invocations = forName == null || forName.size() <= position ? null : forName.get(position);
+        }
+        if (invocations != null) {
+            for (Invocation invocation : invocations) {
+                invocation.replay(streamWriter);
+            }
+        } else {
+            final Recorder recorder = new Recorder(streamWriter);
+            final XMLExtendedStreamWriter recording = (XMLExtendedStreamWriter) Proxy.newProxyInstance(
+                    XMLExtendedStreamWriter.class.getClassLoader(), new Class<?>[] {XMLExtendedStreamWriter.class}, recorder);
+            writer.writeContent(recording, new SubsystemMarshallingContext(context.getModelNode(), recording));
+            invocations = recorder.invocations;
+        }
+        synchronized (this) {
+            final List<List<Invocation>> usedForName = used.computeIfAbsent(name, k -> new ArrayList<>());
+            assert usedForName.size() == position;
+            usedForName.add(invocations);
+        }
+    }
+
+    /**
+     * Gets the names of the subsystems under the affected addresses.
+     *
+     * @return the names, or {@code null} if a resource containing subsystems is affected
+     */
+    private static Set<String> getAffectedSubsystems(final Set<PathAddress> affectedAddresses) {
+        final Set<String> result = new HashSet<>();
+        for (PathAddress address : affectedAddresses) {
+            if (address.size() == 0 || (address.size() == 1 && (PROFILE.equals(address.getElement(0).getKey())
+                    || HOST.equals(address.getElement(0).getKey())))) {
+                return null;
+            }
+            for (PathElement element : address) {
+                if (SUBSYSTEM.equals(element.getKey())) {
+                    result.add(element.getValue());
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forwards calls to the real stream writer, recording those that modify its state.
+     */
+    private static final class Recorder implements InvocationHandler {
+
+        private final XMLExtendedStreamWriter delegate;
+        private final List<Invocation> invocations = new ArrayList<>();
+
+        private Recorder(final XMLExtendedStreamWriter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if (method.getDeclaringClass() != Object.class && method.getReturnType() == void.class) {
+                invocations.add(new Invocation(method, copy(args)));
+            }
+            return Invocation.invoke(method, delegate, args);
+        }
+
+        private static Object[] copy(final Object[] args) {
+            if (args == null) {
+                return null;
+            }
+            final Object[] result = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                final Object arg = args[i];
+                if (arg instanceof char[]) {
+                    result[i] = ((char[]) arg).clone();
+                } else if (arg instanceof String[]) {
+                    result[i] = ((String[]) arg).clone();
+                } else if (arg instanceof Iterable) {
+                    final List<Object> list = new ArrayList<>();
+                    for (Object o : (Iterable<?>) arg) {
+                        list.add(o);
+                    }
+                    result[i] = list;
+                } else {
+                    result[i] = arg;
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class Invocation {
+
+        private final Method method;
+        private final Object[] args;
+
+        private Invocation(final Method method, final Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+
+        private void replay(final XMLExtendedStreamWriter streamWriter) throws XMLStreamException {
+            try {
+                invoke(method, streamWriter, args);
+            } catch (XMLStreamException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new XMLStreamException(t);
+            }
+        }
+
+        private static Object invoke(final Method method, final Object target, final Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
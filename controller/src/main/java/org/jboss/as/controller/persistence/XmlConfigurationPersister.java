@@ -28,6 +28,7 @@ import java.io.BufferedInputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -60,6 +61,8 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
     private final XMLElementReader<List<ModelNode>> rootParser;
     private final Map<QName, XMLElementReader<List<ModelNode>>> additionalParsers;
     private final boolean suppressLoad;
+    private final GroupCommitter groupCommitter;
+    private volatile BootOperationCache bootOperationCache;
 
     /**
      * Construct a new instance.
@@ -89,6 +92,7 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
         this.rootParser = rootParser;
         this.additionalParsers = new HashMap<QName, XMLElementReader<List<ModelNode>>>();
         this.suppressLoad = suppressLoad;
+        this.groupCommitter = GroupCommitter.create(fileName.getName());
     }
 
     public void registerAdditionalRootElement(final QName anotherRoot, final XMLElementReader<List<ModelNode>> parser){
@@ -97,10 +101,67 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
         }
     }
 
+    /**
+     * Allows the operations parsed from the configuration file to be cached, so a later {@link #load()} of the
+     * same configuration does not need to parse it again. Caching only happens if it has been enabled via the
+     * {@value BootOperationCache#BOOT_OPERATION_CACHE} system property. Only call this if the operations the root
+     * parser produces depend on nothing but the content of the file and the installed extensions.
+     *
+     * @param cacheDir the directory to cache the operations in, such as the data directory of the process
+     */
+    public void allowBootOperationCache(final File cacheDir) {
+        this.bootOperationCache = BootOperationCache.create(fileName, cacheDir);
+    }
+
     /** {@inheritDoc} */
     @Override
     public PersistenceResource store(final ModelNode model, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
-        return new FilePersistenceResource(model, fileName, this);
+        return groupCommit(new FilePersistenceResource(model, affectedAddresses, fileName, this));
+    }
+
+    /**
+     * Wraps the given resource so its commit is coalesced with others arriving within the group commit window,
+     * if group commit is enabled.
+     *
+     * @param resource the resource to wrap
+     * @return the wrapped resource, or {@code resource} itself if group commit is not enabled
+     */
+    protected PersistenceResource groupCommit(final PersistenceResource resource) {
+        return groupCommitter == null ? resource : groupCommitter.wrap(resource);
+    }
+
+    /**
+     * Writes any commits still waiting for the group commit window to elapse.
+     *
+     * @throws ConfigurationPersistenceException if writing them failed
+     */
+    protected void flushCommits() throws ConfigurationPersistenceException {
+        if (groupCommitter != null) {
+            groupCommitter.flush();
+        }
+    }
+
+    /**
+     * Gets the group committer used to coalesce commits, which provides batch size and commit latency metrics.
+     *
+     * @return the group committer, or {@code null} if group commit is not enabled
+     */
+    public GroupCommitter getGroupCommitter() {
+        return groupCommitter;
+    }
+
+    @Override
+    public void awaitCommitted() throws ConfigurationPersistenceException {
+        if (groupCommitter != null) {
+            groupCommitter.awaitCommitted();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (groupCommitter != null) {
+            groupCommitter.shutdown();
+        }
     }
 
     /** {@inheritDoc} */
@@ -110,6 +171,23 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
             return new ArrayList<>();
         }
 
+        final BootOperationCache cache = bootOperationCache;
+        String digest = null;
+        if (cache != null) {
+            try {
+                digest = cache.digestConfiguration();
+            } catch (IOException e) {
+                // Let the parsing report the problem with the file
+                ROOT_LOGGER.debugf(e, "Could not digest %s", fileName);
+            }
+            if (digest != null) {
+                final List<ModelNode> cached = cache.read(digest);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
         final XMLMapper mapper = XMLMapper.Factory.create();
         mapper.registerRootElement(rootElement, rootParser);
         synchronized (additionalParsers) {
@@ -144,6 +222,9 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
         } catch (Exception e) {
             throw ControllerLogger.ROOT_LOGGER.failedToParseConfiguration(e);
         }
+        if (digest != null) {
+            cache.write(digest, updates);
+        }
         return updates;
     }
 
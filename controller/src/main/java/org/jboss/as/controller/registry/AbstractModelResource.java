@@ -259,6 +259,41 @@ public abstract class AbstractModelResource extends ResourceProvider.ResourcePro
         }
     }
 
+    /**
+     * Registers copies of this resource's child providers with {@code copy}, where the copies reference the
+     * same child {@code Resource} instances as this resource does rather than clones of them.
+     *
+     * @param copy the resource to register the providers with
+     * @return {@code true} if the providers were copied; {@code false} if this resource has a custom
+     *         {@link ResourceProvider} whose children cannot be shared, in which case {@code copy} is not modified
+     */
+    boolean shareProviders(AbstractModelResource copy) {
+        synchronized (children) {
+            for (final ResourceProvider provider : children.values()) {
+                if (!(provider instanceof DefaultResourceProvider)) {
+                    return false;
+                }
+            }
+            for (final Map.Entry<String, ResourceProvider> entry : children.entrySet()) {
+                copy.registerResourceProvider(entry.getKey(), ((DefaultResourceProvider) entry.getValue()).shareChildren());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Replaces an existing child with another resource, retaining the position of the child.
+     * Only valid for resources whose providers were created by {@link #shareProviders(AbstractModelResource)}.
+     *
+     * @param address the address of the existing child
+     * @param resource the replacement
+     */
+    void replaceChild(final PathElement address, final Resource resource) {
+        final ResourceProvider provider = getProvider(address.getKey());
+        assert provider instanceof DefaultResourceProvider;
+        ((DefaultResourceProvider) provider).replace(address.getValue(), resource);
+    }
+
     private static class DefaultResourceProvider implements ResourceProvider {
 
         private final Map<String, Resource> children = new LinkedHashMap<String, Resource>();
@@ -340,6 +375,22 @@ public abstract class AbstractModelResource extends ResourceProvider.ResourcePro
             }
         }
 
+        void replace(String name, Resource resource) {
+            synchronized (children) {
+                if (children.put(name, resource) == null) {
+                    throw new IllegalStateException();
+                }
+            }
+        }
+
+        DefaultResourceProvider shareChildren() {
+            final DefaultResourceProvider provider = new DefaultResourceProvider();
+            synchronized (children) {
+                provider.children.putAll(children);
+            }
+            return provider;
+        }
+
         @Override
         public ResourceProvider clone() {
             final DefaultResourceProvider provider = new DefaultResourceProvider();
@@ -77,17 +77,34 @@ class BasicResource extends AbstractModelResource implements Resource {
     @SuppressWarnings({"CloneDoesntCallSuperClone"})
     @Override
     public Resource clone() {
-        final BasicResource clone = new BasicResource(isRuntime(), getOrderedChildTypes(), true);
+        final BasicResource clone = copyModel();
+        cloneProviders(clone);
+        return clone;
+    }
+
+    /**
+     * Creates a copy of this resource that has its own model and child registry but that references
+     * the same child resources as this one. Neither this resource nor the children can be modified
+     * via the copy without first replacing the child in the copy.
+     *
+     * @return the copy, or {@code null} if the children of this resource cannot be shared
+     */
+    BasicResource copyWithSharedChildren() {
+        final BasicResource copy = copyModel();
+        return shareProviders(copy) ? copy : null;
+    }
+
+    private BasicResource copyModel() {
+        final BasicResource copy = new BasicResource(isRuntime(), getOrderedChildTypes(), true);
         for (;;) {
             try {
-                clone.writeModel(model);
+                copy.writeModel(model);
                 break;
             } catch (ConcurrentModificationException ignore) {
                 // TODO horrible hack :(
             }
         }
-        cloneProviders(clone);
-        return clone;
+        return copy;
     }
 
 }
@@ -0,0 +1,226 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+
+/**
+ * A private, modifiable copy of a {@link Resource} tree that shares structure with the tree it was copied from.
+ * <p>
+ * Rather than cloning the entire source tree up front, only the resources on the path to a resource that is
+ * about to be modified are copied, so the cost of a write is proportional to the depth of the modified resource
+ * and not to the size of the whole model. Resources that have not been copied remain shared with the source tree
+ * and must not be modified; callers therefore must only modify resources obtained via
+ * {@link #readResourceForUpdate(PathAddress)}, {@link #registerChild(PathAddress, int, Resource)} or
+ * {@link #removeChild(PathAddress)}.
+ * </p>
+ * <p>
+ * Resources other than those created by {@link Resource.Factory} cannot have their children shared, so when
+ * one of those is encountered on a path it is {@link Resource#clone() cloned} along with its entire subtree,
+ * which is equivalent to the behavior of cloning the whole tree.
+ * </p>
+ * <p>Once a resource in this tree has been copied, the copy is never replaced by another instance, so
+ * references handed out to callers remain valid for the life of the tree.</p>
+ *
+ * <p>Concurrency note: the methods that modify the tree structure are synchronized, as during boot multiple threads
+ * may update the tree concurrently. The source tree must not be modified once this tree has been created.</p>
+ */
+public final class CopyOnWriteResourceTree {
+
+    private final Resource root;
+    /** Addresses of resources that have been copied, but whose children may still be shared */
+    private final Set<PathAddress> copied = new HashSet<>();
+    /** Addresses of resources whose entire subtree is private to this tree */
+    private final Set<PathAddress> owned = new HashSet<>();
+
+    private CopyOnWriteResourceTree(final Resource root, final boolean rootShared) {
+        this.root = root;
+        if (rootShared) {
+            copied.add(PathAddress.EMPTY_ADDRESS);
+        } else {
+            owned.add(PathAddress.EMPTY_ADDRESS);
+        }
+    }
+
+    /**
+     * Creates a tree that shares as much structure as possible with {@code source}.
+     *
+     * @param source the root of the source tree. Cannot be {@code null}
+     * @return the copy. Will not be {@code null}
+     */
+    public static CopyOnWriteResourceTree copyOf(final Resource source) {
+        final Resource copy = copyWithSharedChildren(source);
+        return copy == null ? new CopyOnWriteResourceTree(source.clone(), false) : new CopyOnWriteResourceTree(copy, true);
+    }
+
+    /**
+     * Creates a tree whose entire content is {@code root}, which must not be shared with any other tree.
+     *
+     * @param root the root resource. Cannot be {@code null}
+     * @return the tree. Will not be {@code null}
+     */
+    public static CopyOnWriteResourceTree wrap(final Resource root) {
+        return new CopyOnWriteResourceTree(root, false);
+    }
+
+    /**
+     * Gets the root resource of the tree. The returned resource, and any resource reached by navigating from it,
+     * may only be read.
+     *
+     * @return the root resource. Will not be {@code null}
+     */
+    public Resource getRoot() {
+        return root;
+    }
+
+    /**
+     * Gets the resource at the given address, ensuring that it and all its descendants are private to this tree.
+     *
+     * @param address the address of the resource. A resource must exist at that address
+     * @return the resource, which may be modified by the caller
+     */
+    public synchronized Resource readResourceForUpdate(final PathAddress address) {
+        final Resource resource = copyPath(address);
+        if (!isOwned(address)) {
+            own(address, resource);
+        }
+        return resource;
+    }
+
+    /**
+     * Registers a new child resource.
+     *
+     * @param address the address of the child. The parent resource must exist
+     * @param index the index at which to register the child, or {@code -1} to append it
+     * @param resource the child, which will be treated as private to this tree
+     */
+    public synchronized void registerChild(final PathAddress address, final int index, final Resource resource) {
+        final Resource parent = copyPath(address.getParent());
+        final PathElement element = address.getLastElement();
+        if (index < 0) {
+            parent.registerChild(element, resource);
+        } else {
+            parent.registerChild(element, index, resource);
+        }
+        if (!isOwned(address)) {
+            owned.add(address);
+        }
+    }
+
+    /**
+     * Removes a child resource.
+     *
+     * @param address the address of the child. The parent resource must exist
+     * @return the removed resource, or {@code null} if there was none
+     */
+    public synchronized Resource removeChild(final PathAddress address) {
+        final Resource parent = copyPath(address.getParent());
+        final Resource removed = parent.removeChild(address.getLastElement());
+        forget(address, copied);
+        forget(address, owned);
+        return removed;
+    }
+
+    /**
+     * Ensures the resource at the given address and its ancestors are private to this tree.
+     * The children of the resource may remain shared.
+     */
+    private Resource copyPath(final PathAddress address) {
+        Resource current = root;
+        PathAddress currentAddress = PathAddress.EMPTY_ADDRESS;
+        for (int i = 0; i < address.size(); i++) {
+            if (owned.contains(currentAddress)) {
+                return Resource.Tools.navigate(current, address.subAddress(i));
+            }
+            final PathElement element = address.getElement(i);
+            final PathAddress childAddress = currentAddress.append(element);
+            Resource child = current.requireChild(element);
+            if (!copied.contains(childAddress) && !owned.contains(childAddress)) {
+                final Resource copy = copyWithSharedChildren(child);
+                if (copy == null) {
+                    child = child.clone();
+                    owned.add(childAddress);
+                } else {
+                    child = copy;
+                    copied.add(childAddress);
+                }
+                ((AbstractModelResource) current).replaceChild(element, child);
+            }
+            current = child;
+            currentAddress = childAddress;
+        }
+        return current;
+    }
+
+    /**
+     * Replaces any still shared descendants of a copied resource with clones.
+     * Descendants that have already been copied are retained.
+     */
+    private void own(final PathAddress address, final Resource resource) {
+        for (final String type : resource.getChildTypes()) {
+            for (final String name : resource.getChildrenNames(type)) {
+                final PathElement element = PathElement.pathElement(type, name);
+                final PathAddress childAddress = address.append(element);
+                if (owned.contains(childAddress)) {
+                    continue;
+                }
+                final Resource child = resource.getChild(element);
+                if (copied.contains(childAddress)) {
+                    own(childAddress, child);
+                } else {
+                    ((AbstractModelResource) resource).replaceChild(element, child.clone());
+                    owned.add(childAddress);
+                }
+            }
+        }
+        copied.remove(address);
+        owned.add(address);
+    }
+
+    private boolean isOwned(final PathAddress address) {
+        for (int i = address.size(); i >= 0; i--) {
+            if (owned.contains(address.subAddress(0, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void forget(final PathAddress address, final Set<PathAddress> addresses) {
+        for (Iterator<PathAddress> it = addresses.iterator(); it.hasNext(); ) {
+            final PathAddress candidate = it.next();
+            if (candidate.size() >= address.size() && candidate.subAddress(0, address.size()).equals(address)) {
+                it.remove();
+            }
+        }
+    }
+
+    private static Resource copyWithSharedChildren(final Resource resource) {
+        return resource.getClass() == BasicResource.class ? ((BasicResource) resource).copyWithSharedChildren() : null;
+    }
+}
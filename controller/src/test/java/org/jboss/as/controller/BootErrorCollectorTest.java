@@ -28,15 +28,19 @@ import static org.jboss.as.controller.access.Action.ActionEffect.READ_CONFIG;
 import static org.jboss.as.controller.access.Action.ActionEffect.READ_RUNTIME;
 import static org.jboss.as.controller.access.Action.ActionEffect.WRITE_CONFIG;
 import static org.jboss.as.controller.access.Action.ActionEffect.WRITE_RUNTIME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
 import static org.junit.Assert.assertThat;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.as.controller.access.Action;
 import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResolver;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.dmr.ModelNode;
 import org.junit.Test;
 
 /**
@@ -74,6 +78,33 @@ public class BootErrorCollectorTest {
         assertThat(effects, hasItems(ADDRESS, READ_RUNTIME, WRITE_RUNTIME));
     }
 
+    /**
+     * Test of the result of the read-subsystem-boot-times operation.
+     */
+    @Test
+    public void testSubsystemBootTimes() throws Exception {
+        BootErrorCollector instance = new BootErrorCollector();
+        assertThat(instance.getReadSubsystemBootTimesHandler(), is(notNullValue()));
+        assertThat(instance.getSubsystemBootTimes().asList().size(), is(0));
+
+        instance.addSubsystemBootTime("b", OperationContext.Stage.MODEL, TimeUnit.MILLISECONDS.toNanos(5));
+        instance.addSubsystemBootTime("a", OperationContext.Stage.MODEL, TimeUnit.MILLISECONDS.toNanos(3));
+        instance.addSubsystemBootTime("b", OperationContext.Stage.RUNTIME, TimeUnit.MILLISECONDS.toNanos(7) + 1);
+        instance.addSubsystemBootTime("b", OperationContext.Stage.VERIFY, TimeUnit.MILLISECONDS.toNanos(2));
+
+        List<ModelNode> times = instance.getSubsystemBootTimes().asList();
+        assertThat(times.size(), is(2));
+        // In the order the subsystems were first recorded, with the stages not recorded at 0
+        assertThat(times.get(0).get(SUBSYSTEM).asString(), is("b"));
+        assertThat(times.get(0).get("model-time").asLong(), is(5L));
+        assertThat(times.get(0).get("runtime-time").asLong(), is(7L));
+        assertThat(times.get(0).get("verify-time").asLong(), is(2L));
+        assertThat(times.get(1).get(SUBSYSTEM).asString(), is("a"));
+        assertThat(times.get(1).get("model-time").asLong(), is(3L));
+        assertThat(times.get(1).get("runtime-time").asLong(), is(0L));
+        assertThat(times.get(1).get("verify-time").asLong(), is(0L));
+    }
+
     private OperationEntry createOperationEntry(boolean readOnly, boolean runtimeOnly) throws NoSuchMethodException,
             SecurityException, InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
         Constructor<OperationEntry> constructor = OperationEntry.class.getDeclaredConstructor(OperationDefinition.class,
@@ -0,0 +1,201 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INCLUDE_RUNTIME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResolver;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.controller.operations.global.GlobalNotifications;
+import org.jboss.as.controller.operations.global.GlobalOperationHandlers;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that read-only operations run concurrently with each other, and are not held up by an operation holding
+ * the controller lock.
+ */
+public class ConcurrentReadOperationsTestCase {
+
+    private static final int THREADS = 16;
+    private static final int READS_PER_THREAD = 500;
+
+    private static volatile CountDownLatch locked;
+    private static volatile CountDownLatch release;
+
+    private ServiceContainer container;
+    private ModelController controller;
+    private ModelControllerClient client;
+    private ExecutorService executor;
+
+    @Before
+    public void setupController() throws InterruptedException {
+        locked = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        executor = Executors.newFixedThreadPool(THREADS + 1);
+        container = ServiceContainer.Factory.create("test");
+        ServiceTarget target = container.subTarget();
+        ModelControllerService svc = new ModelControllerService();
+        ServiceBuilder<ModelController> builder = target.addService(ServiceName.of("ModelController"), svc);
+        builder.install();
+        svc.awaitStartup(30, TimeUnit.SECONDS);
+        controller = svc.getValue();
+        controller.execute(Util.getEmptyOperation("setup", new ModelNode()), null, null, null);
+        client = controller.createClient(executor);
+    }
+
+    @After
+    public void shutdownServiceContainer() throws IOException, InterruptedException {
+        release.countDown();
+        if (client != null) {
+            client.close();
+        }
+        executor.shutdownNow();
+        if (container != null) {
+            container.shutdown();
+            container.awaitTermination(5, TimeUnit.SECONDS);
+            container = null;
+        }
+    }
+
+    @Test
+    public void testReadsAreNotBlockedByControllerLock() throws Exception {
+        final Future<ModelNode> write = client.executeAsync(Util.getEmptyOperation("block-write", new ModelNode()), null);
+        assertTrue(locked.await(30, TimeUnit.SECONDS));
+
+        final ModelNode read = Util.createEmptyOperation(READ_RESOURCE_OPERATION, PathAddress.EMPTY_ADDRESS);
+        read.get(RECURSIVE).set(true);
+        read.get(INCLUDE_RUNTIME).set(true);
+        final List<Future<Void>> readers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            readers.add(executor.submit(() -> {
+                for (int j = 0; j < READS_PER_THREAD; j++) {
+                    final ModelNode response = controller.execute(read.clone(), null, null, null);
+                    assertEquals(response.toString(), SUCCESS, response.get(OUTCOME).asString());
+                    assertEquals(1, response.get(RESULT, "attr1").asInt());
+                    assertTrue(response.get(RESULT, "child").has("one"));
+                }
+                return null;
+            }));
+        }
+        // All the reads must complete while the write still holds the lock
+        for (Future<Void> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        assertFalse(write.isDone());
+
+        release.countDown();
+        assertEquals(SUCCESS, write.get(30, TimeUnit.SECONDS).get(OUTCOME).asString());
+        final ModelNode response = controller.execute(read.clone(), null, null, null);
+        assertEquals(3, response.get(RESULT, "attr1").asInt());
+    }
+
+    @Test
+    public void testExecuteConcurrently() throws Exception {
+        final List<ModelNode> operations = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            operations.add(Util.createEmptyOperation(READ_RESOURCE_OPERATION, PathAddress.EMPTY_ADDRESS));
+            operations.add(Util.createEmptyOperation(READ_RESOURCE_OPERATION, PathAddress.pathAddress("child", "missing")));
+        }
+        final List<ModelNode> results = client.executeConcurrently(operations);
+        assertEquals(operations.size(), results.size());
+        for (int i = 0; i < results.size(); i += 2) {
+            assertEquals(SUCCESS, results.get(i).get(OUTCOME).asString());
+            assertEquals(1, results.get(i).get(RESULT, "attr1").asInt());
+            assertEquals(FAILED, results.get(i + 1).get(OUTCOME).asString());
+        }
+    }
+
+    public static class ModelControllerService extends TestModelControllerService {
+
+        @Override
+        protected void initModel(ManagementModel managementModel, Resource modelControllerResource) {
+            ManagementResourceRegistration rootRegistration = managementModel.getRootResourceRegistration();
+            rootRegistration.registerOperationHandler(getOD("setup"), new OperationCancellationUnitTestCase.SetupHandler());
+            rootRegistration.registerOperationHandler(getOD("block-write"), new BlockingWriteHandler());
+
+            GlobalOperationHandlers.registerGlobalOperations(rootRegistration, processType);
+
+            GlobalNotifications.registerGlobalNotifications(rootRegistration, processType);
+
+            // The attributes the setup op stores in the model, which read-resource only reads if they are registered
+            rootRegistration.registerReadOnlyAttribute(attribute("attr1"), null);
+            rootRegistration.registerReadOnlyAttribute(attribute("attr2"), null);
+
+            ManagementResourceRegistration childRegistration = rootRegistration.registerSubModel(
+                    new SimpleResourceDefinition(PathElement.pathElement("child"), new NonResolvingResourceDescriptionResolver()));
+            childRegistration.registerReadOnlyAttribute(attribute("attribute1"), null);
+            childRegistration.registerReadOnlyAttribute(attribute("attribute2"), null);
+        }
+
+        private static AttributeDefinition attribute(String name) {
+            return new SimpleAttributeDefinitionBuilder(name, ModelType.INT, true).build();
+        }
+    }
+
+    /**
+     * Takes the controller lock by modifying the model, and holds it until released by the test
+     */
+    private static class BlockingWriteHandler implements OperationStepHandler {
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            context.readResourceForUpdate(PathAddress.EMPTY_ADDRESS).getModel().get("attr1").set(3);
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationFailedException(e.toString());
+            }
+        }
+    }
+}
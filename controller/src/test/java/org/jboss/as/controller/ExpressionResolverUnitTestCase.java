@@ -22,6 +22,7 @@
 package org.jboss.as.controller;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.fail;
 
 import java.io.File;
@@ -444,6 +445,80 @@ public class ExpressionResolverUnitTestCase {
         }
     }
 
+    @Test
+    public void testCachedResolutionFollowsSystemProperties() throws OperationFailedException {
+        final ExpressionResolver resolver = new ExpressionResolverImpl(false, true);
+        System.setProperty("test.prop.expr", "EXPR");
+        System.setProperty("test.prop.b", "B");
+        System.setProperty("test.prop.c", "C");
+        System.setProperty("test.prop.two", "TWO");
+        System.setProperty("test.prop.three", "THREE");
+        System.setProperty("test.prop.prop", "${test.prop.prop.intermediate}");
+        System.setProperty("test.prop.prop.intermediate", "PROP");
+        try {
+            checkResolved(resolver.resolveExpressions(createModelNode()));
+            checkResolved(resolver.resolveExpressions(createModelNode()));
+
+            // Changes to properties read directly, through a default or through another property are all seen
+            System.setProperty("test.prop.b", "B2");
+            System.setProperty("test.prop.prop.intermediate", "PROP2");
+            ModelNode node = resolver.resolveExpressions(createModelNode());
+            assertEquals("B2", node.get("map", "prop.b").asString());
+            assertEquals("PROP2", node.get("prop").asProperty().getValue().asString());
+
+            assertEquals("default", resolver.resolveExpressions(expression("${test.prop.unset:default}")).asString());
+            System.setProperty("test.prop.unset", "set");
+            assertEquals("set", resolver.resolveExpressions(expression("${test.prop.unset:default}")).asString());
+            System.clearProperty("test.prop.unset");
+            assertEquals("default", resolver.resolveExpressions(expression("${test.prop.unset:default}")).asString());
+
+            // A cached result is not shared with the caller
+            final ModelNode expression = expression("${test.prop.expr}");
+            resolver.resolveExpressions(expression).set("changed");
+            assertEquals("EXPR", resolver.resolveExpressions(expression).asString());
+        } finally {
+            System.clearProperty("test.prop.expr");
+            System.clearProperty("test.prop.b");
+            System.clearProperty("test.prop.c");
+            System.clearProperty("test.prop.two");
+            System.clearProperty("test.prop.three");
+            System.clearProperty("test.prop.prop");
+            System.clearProperty("test.prop.prop.intermediate");
+            System.clearProperty("test.prop.unset");
+        }
+    }
+
+    @Test
+    public void testCachedFailureIsNotRemembered() throws OperationFailedException {
+        final ExpressionResolver resolver = new ExpressionResolverImpl(false, true);
+        try {
+            resolver.resolveExpressions(expression("${test.prop.missing}"));
+            fail("Did not fail with OFE");
+        } catch (OperationFailedException expected) {
+            // expected
+        }
+        System.setProperty("test.prop.missing", "present");
+        try {
+            assertEquals("present", resolver.resolveExpressions(expression("${test.prop.missing}")).asString());
+        } finally {
+            System.clearProperty("test.prop.missing");
+        }
+    }
+
+    @Test
+    public void testNodeWithoutExpressionsIsCopied() throws OperationFailedException {
+        final ModelNode node = new ModelNode();
+        node.get("map", "plain").set("a");
+        node.get("list").add("one");
+        node.get("prop").set("name", "value");
+        node.protect();
+        final ModelNode resolved = ExpressionResolver.TEST_RESOLVER.resolveExpressions(node);
+        assertNotSame(node, resolved);
+        assertEquals(node, resolved);
+        resolved.get("map", "plain").set("b");
+        assertEquals("a", node.get("map", "plain").asString());
+    }
+
     private ModelNode expression(String str) {
         return new ModelNode(new ValueExpression(str));
     }
@@ -0,0 +1,116 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.access.permission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.security.PermissionCollection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ProcessType;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.access.Action;
+import org.jboss.as.controller.access.AuthorizationResult;
+import org.jboss.as.controller.access.TargetAttribute;
+import org.jboss.as.controller.access.TargetResource;
+import org.jboss.as.controller.access.management.AccessConstraintDefinition;
+import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResolver;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ValueExpression;
+import org.junit.Test;
+
+/**
+ * Tests of {@link AuthorizationDecisionCache}.
+ */
+public class AuthorizationDecisionCacheTestCase {
+
+    private static final ManagementResourceRegistration ROOT_RR = ManagementResourceRegistration.Factory.forProcessType(ProcessType.EMBEDDED_SERVER).createRegistration(new SimpleResourceDefinition(null, new NonResolvingResourceDescriptionResolver()) {
+        @Override
+        public List<AccessConstraintDefinition> getAccessConstraints() {
+            return Collections.emptyList();
+        }
+    });
+
+    private static final Action READ = new Action(null, null, EnumSet.of(Action.ActionEffect.ADDRESS, Action.ActionEffect.READ_CONFIG));
+    private static final Action WRITE = new Action(null, null, EnumSet.of(Action.ActionEffect.ADDRESS,
+            Action.ActionEffect.READ_CONFIG, Action.ActionEffect.WRITE_CONFIG));
+
+    private final PermissionCollection permissions = new ManagementPermissionCollection("test", ManagementPermission.class);
+
+    @Test
+    public void testDecisionIsRemembered() {
+        final AuthorizationDecisionCache cache = new AuthorizationDecisionCache();
+        final TargetResource target = TargetResource.forStandalone(PathAddress.EMPTY_ADDRESS, ROOT_RR, null);
+        final Object key = AuthorizationDecisionCache.keyFor(permissions, READ, target);
+        assertNotNull(key);
+        assertNull(cache.get(key));
+
+        cache.put(key, AuthorizationDecisionCache.getConfigurationVersion(), AuthorizationResult.PERMITTED);
+        assertEquals(AuthorizationResult.Decision.PERMIT, cache.get(AuthorizationDecisionCache.keyFor(permissions, READ, target)).getDecision());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // Other permissions, i.e. other roles, and other targets have their own decisions
+        final PermissionCollection otherPermissions = new ManagementPermissionCollection("test", ManagementPermission.class);
+        assertNull(cache.get(AuthorizationDecisionCache.keyFor(otherPermissions, READ, target)));
+        final TargetResource otherTarget = TargetResource.forStandalone(PathAddress.pathAddress(PathElement.pathElement("subsystem", "test")), ROOT_RR, null);
+        assertNull(cache.get(AuthorizationDecisionCache.keyFor(permissions, READ, otherTarget)));
+    }
+
+    @Test
+    public void testConfigurationChangeDiscardsDecisions() {
+        final AuthorizationDecisionCache cache = new AuthorizationDecisionCache();
+        final TargetResource target = TargetResource.forStandalone(PathAddress.EMPTY_ADDRESS, ROOT_RR, null);
+        final Object key = AuthorizationDecisionCache.keyFor(permissions, READ, target);
+        final AuthorizationResult denied = new AuthorizationResult(AuthorizationResult.Decision.DENY);
+        cache.put(key, AuthorizationDecisionCache.getConfigurationVersion(), denied);
+        assertEquals(AuthorizationResult.Decision.DENY, cache.get(key).getDecision());
+
+        AuthorizationDecisionCache.accessControlConfigurationChanged();
+        assertNull(cache.get(key));
+
+        // A decision made while the configuration changed is not taken as current either
+        final int version = AuthorizationDecisionCache.getConfigurationVersion();
+        AuthorizationDecisionCache.accessControlConfigurationChanged();
+        cache.put(key, version, denied);
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testDecisionsThatDependOnMoreAreNotRemembered() {
+        final TargetResource target = TargetResource.forStandalone(PathAddress.EMPTY_ADDRESS, ROOT_RR, null);
+        assertNull(AuthorizationDecisionCache.keyFor(permissions, WRITE, target));
+
+        assertNotNull(AuthorizationDecisionCache.keyFor(permissions, READ, new TargetAttribute("test", null, new ModelNode("plain"), target)));
+        assertNull(AuthorizationDecisionCache.keyFor(permissions, READ, new TargetAttribute("test", null, new ModelNode(new ValueExpression("${vault::a::b::1}")), target)));
+        assertNull(AuthorizationDecisionCache.keyFor(permissions, READ, new TargetAttribute("test", null, new ModelNode("${vault::a::b::1}"), target)));
+        assertNull(AuthorizationDecisionCache.keyFor(permissions, WRITE, new TargetAttribute("test", null, new ModelNode("plain"), target)));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.audit.AsyncAuditLogWriter.OverflowPolicy;
+import org.jboss.as.controller.audit.AsyncAuditLogWriter.QueuedLogItem;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of the queueing of {@link AsyncAuditLogWriter}, without any handlers.
+ */
+public class AsyncAuditLogWriterUnitTestCase {
+
+    @Test
+    public void testRecordsDrainedInOrder() throws Exception {
+        final LinkedBlockingQueue<List<QueuedLogItem>> batches = new LinkedBlockingQueue<>();
+        final AsyncAuditLogWriter writer = new AsyncAuditLogWriter(16, OverflowPolicy.BLOCK, w -> batches.add(w.drain()));
+        final List<AuditLogItem> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final AuditLogItem item = createItem(i);
+            items.add(item);
+            writer.enqueue(null, item);
+        }
+
+        final List<AuditLogItem> written = new ArrayList<>();
+        while (written.size() < items.size()) {
+            final List<QueuedLogItem> batch = batches.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(batch);
+            for (QueuedLogItem queued : batch) {
+                written.add(queued.item);
+            }
+        }
+        Assert.assertEquals(items, written);
+        Assert.assertEquals(0, writer.getQueuedRecordCount());
+        Assert.assertEquals(0, writer.getDroppedRecordCount());
+    }
+
+    @Test
+    public void testRecordsDiscardedWhenFull() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AsyncAuditLogWriter writer = new AsyncAuditLogWriter(2, OverflowPolicy.DISCARD, w -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            w.drain();
+        });
+        try {
+            writer.enqueue(null, createItem(0));
+            Assert.assertTrue(writing.await(10, TimeUnit.SECONDS));
+            // The writer is stuck, so the queue fills up
+            for (int i = 1; i <= 5; i++) {
+                writer.enqueue(null, createItem(i));
+            }
+            Assert.assertEquals(2, writer.getQueuedRecordCount());
+            Assert.assertEquals(4, writer.getDroppedRecordCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        final LinkedBlockingQueue<Thread> threads = new LinkedBlockingQueue<>();
+        final AsyncAuditLogWriter writer = new AsyncAuditLogWriter(16, OverflowPolicy.BLOCK, w -> {
+            w.drain();
+            threads.add(Thread.currentThread());
+        });
+        writer.enqueue(null, createItem(0));
+        final Thread first = threads.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(first);
+        writer.stop();
+        Assert.assertFalse(first.isAlive());
+
+        // Queueing another record starts another thread
+        writer.enqueue(null, createItem(1));
+        final Thread second = threads.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(second);
+        Assert.assertNotSame(first, second);
+        writer.stop();
+        Assert.assertFalse(second.isAlive());
+    }
+
+    private static AuditLogItem createItem(int i) {
+        return AuditLogItem.createMethodAccessItem("test", false, false, "user" + i, null, null, null, "method", new String[0], new Object[0], null);
+    }
+}
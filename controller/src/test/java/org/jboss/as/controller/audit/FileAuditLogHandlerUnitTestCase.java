@@ -25,6 +25,9 @@ package org.jboss.as.controller.audit;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 import org.jboss.as.controller.services.path.PathManagerService;
 import org.junit.After;
@@ -65,6 +68,17 @@ public class FileAuditLogHandlerUnitTestCase {
         Assert.assertEquals("Log file was rotated but shouldn't have been", 1, confDir.list().length);
     }
 
+    @Test
+    public void testBatchWrittenInOrder() throws IOException {
+        FileAuditLogHandler auditLogHandler =
+                new FileAuditLogHandler("name", "formatter", 0, pathManager, logFile.getPath(), null, false);
+        auditLogHandler.writeLogItems(Arrays.asList("one", "two"));
+        auditLogHandler.writeLogItems(Arrays.asList("three"));
+
+        Assert.assertEquals(0, auditLogHandler.getFailureCount());
+        Assert.assertEquals(Arrays.asList("one", "two", "three"), Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8));
+    }
+
     private void initializeHandler(boolean rotateAtStartup) {
         FileAuditLogHandler auditLogHandler =
                 new FileAuditLogHandler("name", "formatter", 0, pathManager, logFile.getPath(), null, rotateAtStartup);
@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.audit;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.as.controller.OperationContext.ResultAction;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.audit.AuditLogItem.JmxAccessAuditLogItem;
+import org.jboss.as.controller.audit.AuditLogItem.ModelControllerAuditLogItem;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.core.security.AccessMechanism;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ValueExpression;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of the JSON text written by {@link JsonAuditLogItemFormatter}.
+ */
+public class JsonAuditLogItemFormatterUnitTestCase {
+
+    @Test
+    public void testModelControllerItem() {
+        final ModelNode op = Util.createAddOperation(PathAddress.pathAddress(PathElement.pathElement("test", "a\"b")));
+        op.get("value").set("line1\nline2");
+        final AuditLogItem item = AuditLogItem.createModelControllerItem("1.0", false, false, ResultAction.KEEP, "user",
+                null, AccessMechanism.NATIVE, null, null, Arrays.asList(op, op));
+
+        for (boolean compact : new boolean[] {true, false}) {
+            final JsonAuditLogItemFormatter formatter = new JsonAuditLogItemFormatter("json", false, " - ", "yyyy-MM-dd", compact, false, false);
+            final String formatted = item.format(formatter);
+            Assert.assertSame(formatted, item.format(formatter));
+            Assert.assertEquals(compact, formatted.indexOf('\n') == -1);
+
+            final ModelNode record = ModelNode.fromJSONString(formatted);
+            Assert.assertEquals(AuditLogItemFormatter.TYPE_CORE, record.get(JsonAuditLogItemFormatter.TYPE).asString());
+            Assert.assertTrue(record.get(JsonAuditLogItemFormatter.SUCCESS).asBoolean());
+            Assert.assertEquals("user", record.get(JsonAuditLogItemFormatter.USER_ID).asString());
+            Assert.assertFalse(record.get(JsonAuditLogItemFormatter.DOMAIN_UUID).isDefined());
+            Assert.assertEquals("NATIVE", record.get(JsonAuditLogItemFormatter.ACCESS_MECHANISM).asString());
+            Assert.assertEquals(2, record.get(JsonAuditLogItemFormatter.OPERATIONS).asList().size());
+            Assert.assertEquals("line1\nline2", record.get(JsonAuditLogItemFormatter.OPERATIONS).get(1).get("value").asString());
+
+            formatter.clear();
+            Assert.assertNotSame(formatted, item.format(formatter));
+        }
+    }
+
+    @Test
+    public void testJmxItemEscaped() {
+        final AuditLogItem item = AuditLogItem.createMethodAccessItem("1.0", true, false, null, null, null, null,
+                "invoke", new String[] {"java.lang.String"}, new Object[] {"a\tb", null}, new Exception("failed"));
+        final JsonAuditLogItemFormatter formatter = new JsonAuditLogItemFormatter("json", true, " - ", "yyyy-MM-dd", false, false, true);
+        final String formatted = item.format(formatter);
+        for (int i = 0; i < formatted.length(); i++) {
+            Assert.assertTrue(formatted, formatted.charAt(i) >= 32);
+        }
+
+        final ModelNode record = ModelNode.fromJSONString(formatted.substring(formatted.indexOf('{')).replace("#012", ""));
+        Assert.assertEquals(AuditLogItemFormatter.TYPE_JMX, record.get(JsonAuditLogItemFormatter.TYPE).asString());
+        Assert.assertEquals("invoke", record.get(JsonAuditLogItemFormatter.METHOD_NAME).asString());
+        Assert.assertEquals("java.lang.String", record.get(JsonAuditLogItemFormatter.METHOD_SIGNATURE).get(0).asString());
+        Assert.assertEquals("a\tb", record.get(JsonAuditLogItemFormatter.METHOD_PARAMETERS).get(0).asString());
+        Assert.assertFalse(record.get(JsonAuditLogItemFormatter.METHOD_PARAMETERS).get(1).isDefined());
+        Assert.assertEquals("failed", record.get(JsonAuditLogItemFormatter.ERROR).asString());
+    }
+
+    @Test
+    public void testSameTextAsModelNode() throws Exception {
+        final ModelNode op = Util.createAddOperation(PathAddress.pathAddress(PathElement.pathElement("test", "a\"b/c")));
+        op.get("value").set("line1\nline2\ttab \u0001 \u00e9\u4e2d");
+        op.get("list").add(1).add(2L).add(true).add(new ModelNode()).add(new ModelNode().setEmptyList());
+        op.get("object", "nested", "deeper").set(new ModelNode().setEmptyObject());
+        op.get("big").set(new BigDecimal("1.5"));
+        op.get("expression").set(new ValueExpression("${a:b}"));
+        op.get("property").set("key", new ModelNode("value"));
+        final InetAddress address = InetAddress.getByAddress("host", new byte[] {127, 0, 0, 1});
+        final List<AuditLogItem> items = Arrays.asList(
+                AuditLogItem.createModelControllerItem("1.0", false, true, ResultAction.KEEP, "user\n",
+                        "uuid", AccessMechanism.HTTP, address, null, Arrays.asList(op, new ModelNode())),
+                AuditLogItem.createModelControllerItem("1.0", true, false, ResultAction.ROLLBACK, null,
+                        null, null, null, null, Collections.emptyList()),
+                AuditLogItem.createMethodAccessItem("1.0", true, false, "user", "uuid", AccessMechanism.JMX, address,
+                        "invoke", new String[] {"java.lang.String", "int"}, new Object[] {"a\tb\r\n", null, 1}, new Exception("line1\nline2")),
+                AuditLogItem.createMethodAccessItem("1.0", false, false, null, null, null, null,
+                        "get", new String[0], new Object[0], null));
+
+        for (AuditLogItem item : items) {
+            for (int flags = 0; flags < 8; flags++) {
+                final boolean compact = (flags & 1) != 0;
+                final boolean escapeNewLine = (flags & 2) != 0;
+                final boolean escapeControlCharacters = (flags & 4) != 0;
+                final JsonAuditLogItemFormatter formatter = new JsonAuditLogItemFormatter("json", false, " - ", "yyyy-MM-dd",
+                        compact, escapeNewLine, escapeControlCharacters);
+                Assert.assertEquals(modelNodeText(item, compact, escapeNewLine, escapeControlCharacters), item.format(formatter));
+            }
+        }
+    }
+
+    /**
+     * The text of the record as it was written when the record was built as a {@link ModelNode}.
+     */
+    private static String modelNodeText(AuditLogItem item, boolean compact, boolean escapeNewLine, boolean escapeControlCharacters) {
+        final ModelNode formatted = new ModelNode();
+        if (item instanceof ModelControllerAuditLogItem) {
+            formatted.get(JsonAuditLogItemFormatter.TYPE).set(AuditLogItemFormatter.TYPE_CORE);
+        } else {
+            formatted.get(JsonAuditLogItemFormatter.TYPE).set(AuditLogItemFormatter.TYPE_JMX);
+        }
+        formatted.get(JsonAuditLogItemFormatter.READ_ONLY).set(item.isReadOnly());
+        formatted.get(JsonAuditLogItemFormatter.BOOTING).set(item.isBooting());
+        formatted.get(JsonAuditLogItemFormatter.AS_VERSION).set(item.getAsVersion());
+        formatted.get(JsonAuditLogItemFormatter.USER_ID);
+        if (item.getUserId() != null) {
+            formatted.get(JsonAuditLogItemFormatter.USER_ID).set(item.getUserId());
+        }
+        formatted.get(JsonAuditLogItemFormatter.DOMAIN_UUID);
+        if (item.getDomainUUID() != null) {
+            formatted.get(JsonAuditLogItemFormatter.DOMAIN_UUID).set(item.getDomainUUID());
+        }
+        formatted.get(JsonAuditLogItemFormatter.ACCESS_MECHANISM);
+        if (item.getAccessMechanism() != null) {
+            formatted.get(JsonAuditLogItemFormatter.ACCESS_MECHANISM).set(item.getAccessMechanism().toString());
+        }
+        formatted.get(JsonAuditLogItemFormatter.REMOTE_ADDRESS);
+        if (item.getRemoteAddress() != null) {
+            formatted.get(JsonAuditLogItemFormatter.REMOTE_ADDRESS).set(item.getRemoteAddress().toString());
+        }
+        if (item instanceof ModelControllerAuditLogItem) {
+            final ModelControllerAuditLogItem controllerItem = (ModelControllerAuditLogItem) item;
+            formatted.get(JsonAuditLogItemFormatter.SUCCESS).set(controllerItem.getResultAction() == ResultAction.KEEP);
+            formatted.get(JsonAuditLogItemFormatter.OPERATIONS).set(controllerItem.getOperations());
+        } else {
+            final JmxAccessAuditLogItem jmxItem = (JmxAccessAuditLogItem) item;
+            formatted.get(JsonAuditLogItemFormatter.METHOD_NAME).set(jmxItem.getMethodName());
+            formatted.get(JsonAuditLogItemFormatter.METHOD_SIGNATURE);
+            for (String sig : jmxItem.getMethodSignature()) {
+                formatted.get(JsonAuditLogItemFormatter.METHOD_SIGNATURE).add(sig);
+            }
+            formatted.get(JsonAuditLogItemFormatter.METHOD_PARAMETERS);
+            for (Object param : jmxItem.getMethodParams()) {
+                formatted.get(JsonAuditLogItemFormatter.METHOD_PARAMETERS).add(param == null ? new ModelNode() : new ModelNode(param.toString()));
+            }
+            if (jmxItem.getError() != null) {
+                formatted.get(JsonAuditLogItemFormatter.ERROR).set(jmxItem.getError().getMessage());
+            }
+        }
+
+        final String text = formatted.toJSONString(compact);
+        if (escapeNewLine && !escapeControlCharacters) {
+            return text.replace("\n", "#012");
+        } else if (escapeControlCharacters) {
+            final StringBuilder escaped = new StringBuilder();
+            for (int i = 0; i < text.length(); i++) {
+                final char c = text.charAt(i);
+                if (c < 32) {
+                    escaped.append('#');
+                    if (c < 8) {
+                        escaped.append('0').append('0').append((int) c);
+                    } else {
+                        escaped.append('0').append(c >> 3).append(c & 0x07);
+                    }
+                } else {
+                    escaped.append(c);
+                }
+            }
+            return escaped.toString();
+        }
+        return text;
+    }
+}
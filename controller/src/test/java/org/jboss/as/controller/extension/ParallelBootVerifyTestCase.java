@@ -0,0 +1,280 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.extension;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.BootErrorCollector;
+import org.jboss.as.controller.ControlledProcessState;
+import org.jboss.as.controller.ManagementModel;
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.ProcessType;
+import org.jboss.as.controller.ReloadRequiredRemoveStepHandler;
+import org.jboss.as.controller.RunningMode;
+import org.jboss.as.controller.RunningModeControl;
+import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.TestModelControllerService;
+import org.jboss.as.controller.descriptions.NonResolvingResourceDescriptionResolver;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.controller.operations.global.GlobalNotifications;
+import org.jboss.as.controller.operations.global.GlobalOperationHandlers;
+import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
+import org.jboss.as.controller.persistence.NullConfigurationPersister;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the verify steps of subsystem boot operations executed in parallel still run in the order they were
+ * added for each subsystem, after all the runtime steps, and that a failing verify step fails a boot that rolls back on runtime failures.
+ */
+public class ParallelBootVerifyTestCase {
+
+    private static final List<String> SUBSYSTEMS = Arrays.asList("a", "b", "c");
+
+    private ServiceContainer container;
+    private ExecutorService executor;
+    /** What the steps of the subsystems did, in the order they did it */
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() {
+        container = ServiceContainer.Factory.create("test");
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void shutdown() throws InterruptedException {
+        container.shutdown();
+        container.awaitTermination(5, TimeUnit.SECONDS);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testVerifyStepOrdering() throws Exception {
+        final ParallelBootModelControllerService svc = boot(null, false);
+        assertTrue(svc.booted);
+
+        int lastRuntime = -1;
+        int firstVerify = Integer.MAX_VALUE;
+        for (String subsystem : SUBSYSTEMS) {
+            lastRuntime = Math.max(lastRuntime, events.indexOf(subsystem + ":runtime"));
+            final int verify0 = events.indexOf(subsystem + ":verify0");
+            final int verify1 = events.indexOf(subsystem + ":verify1");
+            final int verify2 = events.indexOf(subsystem + ":verify2");
+            assertTrue(events.toString(), verify0 >= 0);
+            // The verify step added in the model stage comes first, then those added in the runtime stage in order
+            assertTrue(events.toString(), verify0 < verify1);
+            assertTrue(events.toString(), verify1 < verify2);
+            firstVerify = Math.min(firstVerify, verify0);
+        }
+        assertTrue(events.toString(), lastRuntime >= 0);
+        assertTrue(events.toString(), lastRuntime < firstVerify);
+
+        final ModelNode result = svc.getValue().execute(Util.createEmptyOperation("read-subsystem-boot-times", PathAddress.EMPTY_ADDRESS), null, null, null);
+        assertEquals(result.toString(), SUCCESS, result.get(OUTCOME).asString());
+        final Set<String> timed = new HashSet<>();
+        for (ModelNode subsystem : result.get(RESULT).asList()) {
+            timed.add(subsystem.get(SUBSYSTEM).asString());
+            for (String time : Arrays.asList("model-time", "runtime-time", "verify-time")) {
+                assertTrue(subsystem.toString(), subsystem.get(time).asLong() >= 0);
+            }
+        }
+        assertEquals(new HashSet<>(SUBSYSTEMS), timed);
+    }
+
+    @Test
+    public void testVerifyStepFailure() throws Exception {
+        final ParallelBootModelControllerService svc = boot("b", true);
+        assertFalse(svc.booted);
+
+        // The other subsystems still ran their verify steps, and the failing one stopped at its failing step
+        for (String subsystem : Arrays.asList("a", "c")) {
+            assertTrue(events.toString(), events.contains(subsystem + ":verify2"));
+        }
+        assertTrue(events.toString(), events.contains("b:verify1"));
+        assertFalse(events.toString(), events.contains("b:verify2"));
+    }
+
+    @Test
+    public void testVerifyStepFailureWithoutRollback() throws Exception {
+        // As for the runtime steps, a failed verify step only fails the boot if runtime failures roll back
+        final ParallelBootModelControllerService svc = boot("b", false);
+        assertTrue(svc.booted);
+        assertTrue(events.toString(), events.contains("b:verify1"));
+        assertFalse(events.toString(), events.contains("b:verify2"));
+    }
+
+    private ParallelBootModelControllerService boot(String failingSubsystem, boolean rollbackOnRuntimeFailure) throws Exception {
+        final ServiceTarget target = container.subTarget();
+        final ParallelBootModelControllerService svc = new ParallelBootModelControllerService(failingSubsystem, rollbackOnRuntimeFailure);
+        final ServiceBuilder<ModelController> builder = target.addService(ServiceName.of("ModelController"), svc);
+        builder.addInjection(svc.getExecutorServiceInjector(), executor);
+        builder.install();
+        svc.awaitStartup(30, TimeUnit.SECONDS);
+        return svc;
+    }
+
+    private class ParallelBootModelControllerService extends TestModelControllerService {
+
+        private final String failingSubsystem;
+        private final boolean rollbackOnRuntimeFailure;
+        private volatile boolean booted;
+
+        ParallelBootModelControllerService(String failingSubsystem, boolean rollbackOnRuntimeFailure) {
+            super(ProcessType.EMBEDDED_SERVER, new NullConfigurationPersister(), new ControlledProcessState(true));
+            this.failingSubsystem = failingSubsystem;
+            this.rollbackOnRuntimeFailure = rollbackOnRuntimeFailure;
+        }
+
+        @Override
+        protected boolean boot(List<ModelNode> bootOperations, boolean rollbackOnRuntimeFailure) throws ConfigurationPersistenceException {
+            final List<ModelNode> ops = new ArrayList<>();
+            for (String subsystem : SUBSYSTEMS) {
+                ops.add(Util.createEmptyOperation(ADD, PathAddress.pathAddress(EXTENSION, subsystem)));
+            }
+            for (String subsystem : SUBSYSTEMS) {
+                ops.add(Util.createEmptyOperation(ADD, PathAddress.pathAddress(SUBSYSTEM, subsystem)));
+            }
+            ops.addAll(bootOperations);
+            booted = super.boot(ops, this.rollbackOnRuntimeFailure);
+            return booted;
+        }
+
+        @Override
+        protected void initModel(ManagementModel managementModel, Resource modelControllerResource) {
+            ManagementResourceRegistration rootRegistration = managementModel.getRootResourceRegistration();
+            GlobalOperationHandlers.registerGlobalOperations(rootRegistration, processType);
+            GlobalNotifications.registerGlobalNotifications(rootRegistration, processType);
+            rootRegistration.registerOperationHandler(BootErrorCollector.ReadSubsystemBootTimesHandler.DEFINITION,
+                    getBootErrorCollector().getReadSubsystemBootTimesHandler());
+            rootRegistration.registerSubModel(new SimpleResourceDefinition(
+                    PathElement.pathElement(EXTENSION),
+                    new NonResolvingResourceDescriptionResolver(),
+                    new FakeExtensionAddHandler(getMutableRootResourceRegistrationProvider(), failingSubsystem),
+                    ReloadRequiredRemoveStepHandler.INSTANCE));
+        }
+    }
+
+    /**
+     * Registers a subsystem named after the extension, rather than loading the extension's module.
+     */
+    private class FakeExtensionAddHandler extends ExtensionAddHandler {
+
+        private final String failingSubsystem;
+
+        private FakeExtensionAddHandler(MutableRootResourceRegistrationProvider rootResourceRegistrationProvider, String failingSubsystem) {
+            super(new ExtensionRegistry(ProcessType.EMBEDDED_SERVER, new RunningModeControl(RunningMode.NORMAL), null, null, null, RuntimeHostControllerInfoAccessor.SERVER),
+                    true, ExtensionRegistryType.SERVER, rootResourceRegistrationProvider);
+            this.failingSubsystem = failingSubsystem;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            context.createResource(PathAddress.EMPTY_ADDRESS);
+        }
+
+        @Override
+        void initializeExtension(String module, ManagementResourceRegistration rootRegistration) {
+            rootRegistration.registerSubModel(new SimpleResourceDefinition(
+                    PathElement.pathElement(SUBSYSTEM, module),
+                    new NonResolvingResourceDescriptionResolver(),
+                    new SubsystemAddHandler(module, module.equals(failingSubsystem)),
+                    ReloadRequiredRemoveStepHandler.INSTANCE));
+        }
+    }
+
+    /**
+     * Adds a verify step in the model stage, and two more from a runtime step.
+     */
+    private class SubsystemAddHandler implements OperationStepHandler {
+
+        private final String name;
+        private final boolean failing;
+
+        private SubsystemAddHandler(String name, boolean failing) {
+            this.name = name;
+            this.failing = failing;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            context.createResource(PathAddress.EMPTY_ADDRESS);
+            context.addStep(new RecordingStep(name + ":verify0"), OperationContext.Stage.VERIFY);
+            context.addStep((runtimeContext, runtimeOperation) -> {
+                events.add(name + ":runtime");
+                runtimeContext.addStep(new RecordingStep(name + ":verify1"), OperationContext.Stage.VERIFY);
+                runtimeContext.addStep((verifyContext, verifyOperation) -> {
+                    if (failing) {
+                        throw new OperationFailedException(name + " failed");
+                    }
+                    events.add(name + ":verify2");
+                }, OperationContext.Stage.VERIFY);
+            }, OperationContext.Stage.RUNTIME);
+        }
+    }
+
+    private class RecordingStep implements OperationStepHandler {
+
+        private final String event;
+
+        private RecordingStep(String event) {
+            this.event = event;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) {
+            events.add(event);
+        }
+    }
+}
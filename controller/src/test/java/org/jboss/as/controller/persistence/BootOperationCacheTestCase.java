@@ -0,0 +1,130 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ValueExpression;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link BootOperationCache}.
+ */
+public class BootOperationCacheTestCase {
+
+    private File dir;
+    private File configurationFile;
+    private File cacheFile;
+    private final Map<String, String> fingerprints = new HashMap<>();
+    private BootOperationCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("boot-operation-cache").toFile();
+        configurationFile = new File(dir, "standalone.xml");
+        writeConfiguration("<server/>");
+        fingerprints.put("org.test.extension", "1");
+        cacheFile = new File(new File(dir, "data"), "standalone.xml.boot-ops");
+        cache = new BootOperationCache(configurationFile, cacheFile, fingerprints::get);
+    }
+
+    @After
+    public void tearDown() {
+        cacheFile.delete();
+        cacheFile.getParentFile().delete();
+        configurationFile.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void testOperationsAreReadBack() throws IOException {
+        final List<ModelNode> operations = createOperations();
+        final String digest = cache.digestConfiguration();
+        assertNull(cache.read(digest));
+
+        cache.write(digest, operations);
+        assertEquals(operations, cache.read(cache.digestConfiguration()));
+    }
+
+    @Test
+    public void testChangedConfigurationInvalidatesCache() throws IOException {
+        cache.write(cache.digestConfiguration(), createOperations());
+
+        writeConfiguration("<server name=\"changed\"/>");
+        assertNull(cache.read(cache.digestConfiguration()));
+    }
+
+    @Test
+    public void testChangedExtensionInvalidatesCache() throws IOException {
+        final String digest = cache.digestConfiguration();
+        cache.write(digest, createOperations());
+
+        fingerprints.put("org.test.extension", "2");
+        assertNull(cache.read(digest));
+    }
+
+    @Test
+    public void testCacheFileIsOwnerOnly() throws IOException {
+        assumeTrue(cacheFile.toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+        cache.write(cache.digestConfiguration(), createOperations());
+
+        assertEquals(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE),
+                Files.getPosixFilePermissions(cacheFile.toPath()));
+    }
+
+    private void writeConfiguration(final String content) throws IOException {
+        Files.write(configurationFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<ModelNode> createOperations() {
+        final List<ModelNode> operations = new ArrayList<>();
+        operations.add(Util.createAddOperation(PathAddress.pathAddress(EXTENSION, "org.test.extension")));
+        final ModelNode subsystemAdd = Util.createEmptyOperation(ADD, PathAddress.pathAddress(PathElement.pathElement(SUBSYSTEM, "test")));
+        subsystemAdd.get("value").set(new ValueExpression("${test.value:1}"));
+        subsystemAdd.get("list").add(1).add("two");
+        operations.add(subsystemAdd);
+        return operations;
+    }
+}
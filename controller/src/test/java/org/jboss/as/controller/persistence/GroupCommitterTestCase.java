@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link GroupCommitter}.
+ */
+public class GroupCommitterTestCase {
+
+    @Test
+    public void testCommitsWithinWindowAreCoalesced() throws Exception {
+        GroupCommitter committer = new GroupCommitter("test.xml", 1, TimeUnit.HOURS);
+        List<TestResource> resources = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            TestResource resource = new TestResource();
+            resources.add(resource);
+            committer.wrap(resource).commit();
+        }
+        for (TestResource resource : resources) {
+            assertFalse(resource.committed);
+            assertFalse(resource.rolledBack);
+        }
+
+        committer.flush();
+
+        for (int i = 0; i < 4; i++) {
+            assertFalse(resources.get(i).committed);
+            assertTrue(resources.get(i).rolledBack);
+        }
+        assertTrue(resources.get(4).committed);
+    }
+
+    @Test
+    public void testAwaitCommitted() throws Exception {
+        GroupCommitter committer = new GroupCommitter("test.xml", 10, TimeUnit.MILLISECONDS);
+        TestResource first = new TestResource();
+        committer.wrap(first).commit();
+        committer.awaitCommitted();
+        assertTrue(first.committed);
+
+        TestResource second = new TestResource();
+        committer.wrap(second).commit();
+        committer.awaitCommitted();
+        assertTrue(second.committed);
+    }
+
+    @Test
+    public void testRollbackIsNotQueued() throws Exception {
+        GroupCommitter committer = new GroupCommitter("test.xml", 1, TimeUnit.HOURS);
+        TestResource resource = new TestResource();
+        committer.wrap(resource).rollback();
+        assertTrue(resource.rolledBack);
+        // Nothing is pending, so neither of these block
+        committer.awaitCommitted();
+        committer.flush();
+        assertFalse(resource.committed);
+    }
+
+    @Test
+    public void testFailedCommitFailsWaiters() throws Exception {
+        GroupCommitter committer = new GroupCommitter("test.xml", 10, TimeUnit.MILLISECONDS);
+        TestResource failing = new TestResource() {
+            @Override
+            public void commit() {
+                throw new OutOfMemoryError("test");
+            }
+        };
+        committer.wrap(failing).commit();
+        try {
+            committer.awaitCommitted();
+            fail("The failed write was not reported");
+        } catch (ConfigurationPersistenceException expected) {
+            assertTrue(expected.getCause() instanceof OutOfMemoryError);
+        }
+        assertEquals(1, committer.getFailedCommitCount());
+
+        // The flusher survived the failure
+        TestResource next = new TestResource();
+        committer.wrap(next).commit();
+        committer.awaitCommitted();
+        assertTrue(next.committed);
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        GroupCommitter committer = new GroupCommitter("test.xml", 1, TimeUnit.HOURS);
+        for (int i = 0; i < 3; i++) {
+            committer.wrap(new TestResource()).commit();
+        }
+        committer.flush();
+        committer.wrap(new TestResource()).commit();
+        committer.flush();
+
+        assertEquals(2, committer.getBatchCount());
+        assertEquals(4, committer.getCommitCount());
+        assertEquals(0, committer.getFailedCommitCount());
+        assertEquals(1, committer.getLastBatchSize());
+        assertEquals(3, committer.getMaxBatchSize());
+        assertTrue(committer.getMaxCommitLatency(TimeUnit.NANOSECONDS) >= committer.getAverageCommitLatency(TimeUnit.NANOSECONDS));
+        assertTrue(committer.getAverageCommitLatency(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        GroupCommitter committer = new GroupCommitter("test.xml", 1, TimeUnit.HOURS);
+        TestResource pending = new TestResource();
+        committer.wrap(pending).commit();
+
+        // Writes what is pending without waiting for the window to elapse
+        committer.shutdown();
+        assertTrue(pending.committed);
+
+        // Later commits are written straight away
+        TestResource later = new TestResource();
+        committer.wrap(later).commit();
+        assertTrue(later.committed);
+        committer.awaitCommitted();
+    }
+
+    private static class TestResource implements ConfigurationPersister.PersistenceResource {
+        private volatile boolean committed;
+        private volatile boolean rolledBack;
+
+        @Override
+        public void commit() {
+            committed = true;
+        }
+
+        @Override
+        public void rollback() {
+            rolledBack = true;
+        }
+    }
+}
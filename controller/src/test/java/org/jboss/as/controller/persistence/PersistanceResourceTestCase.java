@@ -972,7 +972,7 @@ public class PersistanceResourceTestCase {
 
         @Override
         public PersistenceResource create(ModelNode model) throws ConfigurationPersistenceException {
-            return new FilePersistenceResource(model, fileName, this);
+            return new FilePersistenceResource(model, null, fileName, this);
         }
     }
 
@@ -986,7 +986,7 @@ public class PersistanceResourceTestCase {
 
         @Override
         PersistenceResource create(ModelNode model) throws ConfigurationPersistenceException {
-            return new ConfigurationFilePersistenceResource(model, configurationFile, this);
+            return new ConfigurationFilePersistenceResource(model, null, configurationFile, this);
         }
     }
 }
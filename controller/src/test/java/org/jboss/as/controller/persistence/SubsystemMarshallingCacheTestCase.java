@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLElementWriter;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the reuse of subsystem XML when marshalling a configuration via
+ * {@link AbstractConfigurationPersister#marshallAsXml(ModelNode, Set, java.io.OutputStream)}.
+ */
+public class SubsystemMarshallingCacheTestCase {
+
+    private static final String NAMESPACE = "urn:test:1.0";
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private AbstractConfigurationPersister persister;
+    private ModelNode model;
+
+    @Before
+    public void setup() {
+        XMLElementWriter<ModelMarshallingContext> rootWriter = (writer, context) -> {
+            writer.writeStartDocument();
+            writer.writeStartElement("server");
+            ModelNode subsystems = context.getModelNode().get(SUBSYSTEM);
+            for (String name : subsystems.keys()) {
+                context.getSubsystemWriter(name).writeContent(writer, new SubsystemMarshallingContext(subsystems.get(name), writer));
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+        };
+        persister = new AbstractConfigurationPersister(rootWriter) {
+            @Override
+            public PersistenceResource store(ModelNode model, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<ModelNode> load() throws ConfigurationPersistenceException {
+                throw new UnsupportedOperationException();
+            }
+        };
+        XMLElementWriter<SubsystemMarshallingContext> subsystemWriter = (writer, context) -> {
+            invocations.incrementAndGet();
+            context.startSubsystemElement(NAMESPACE, false);
+            writer.writeAttribute("value", context.getModelNode().get("value").asString());
+            writer.writeEndElement();
+        };
+        persister.registerSubsystemWriter("a", subsystemWriter);
+        persister.registerSubsystemWriter("b", subsystemWriter);
+
+        model = new ModelNode();
+        model.get(SUBSYSTEM, "a", "value").set("1");
+        model.get(SUBSYSTEM, "b", "value").set("2");
+    }
+
+    @Test
+    public void testUnaffectedSubsystemsAreReused() throws Exception {
+        String first = marshal(null);
+        assertEquals(2, invocations.get());
+        assertEquals(first, marshal(Collections.emptySet()));
+        assertEquals(2, invocations.get());
+
+        model.get(SUBSYSTEM, "b", "value").set("3");
+        String second = marshal(Collections.singleton(PathAddress.pathAddress(PathElement.pathElement(SUBSYSTEM, "b"))));
+        assertEquals(3, invocations.get());
+        assertEquals(first.replace("value=\"2\"", "value=\"3\""), second);
+
+        ByteArrayOutputStream uncached = new ByteArrayOutputStream();
+        persister.marshallAsXml(model, uncached);
+        assertEquals(second, new String(uncached.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testAffectedParentDiscardsAllReuse() throws Exception {
+        marshal(null);
+        model.get(SUBSYSTEM, "a", "value").set("3");
+        // Adding or removing a resource that holds subsystems moves the subsystems, so nothing is reused
+        String result = marshal(Collections.singleton(PathAddress.EMPTY_ADDRESS));
+        assertEquals(4, invocations.get());
+        assertEquals(true, result.contains("value=\"3\""));
+        assertEquals(true, result.contains("value=\"2\""));
+    }
+
+    @Test
+    public void testRolledBackChangeIsNotReused() throws Exception {
+        final String first = marshal(null);
+        final Set<PathAddress> affected = Collections.singleton(PathAddress.pathAddress(PathElement.pathElement(SUBSYSTEM, "b")));
+        final ModelNode changed = model.clone();
+        changed.get(SUBSYSTEM, "b", "value").set("3");
+        new FilePersistenceResource(changed, affected, new File("unused.xml"), persister).rollback();
+
+        // The next write only affects "a", but must not pick up the rolled back change to "b"
+        model.get(SUBSYSTEM, "a", "value").set("4");
+        final String second = marshal(Collections.singleton(PathAddress.pathAddress(PathElement.pathElement(SUBSYSTEM, "a"))));
+        assertEquals(first.replace("value=\"1\"", "value=\"4\""), second);
+    }
+
+    private String marshal(Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        persister.marshallAsXml(model, affectedAddresses, output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
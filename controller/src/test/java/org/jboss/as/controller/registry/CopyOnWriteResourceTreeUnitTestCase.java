@@ -0,0 +1,134 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2018, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link CopyOnWriteResourceTree}.
+ */
+public class CopyOnWriteResourceTreeUnitTestCase {
+
+    private static final PathElement SUBSYSTEM_A = PathElement.pathElement("subsystem", "a");
+    private static final PathElement SUBSYSTEM_B = PathElement.pathElement("subsystem", "b");
+    private static final PathElement CHILD_1 = PathElement.pathElement("child", "1");
+    private static final PathElement CHILD_2 = PathElement.pathElement("child", "2");
+
+    private Resource source;
+
+    @Before
+    public void setup() {
+        source = Resource.Factory.create();
+        source.getModel().get("name").set("root");
+        for (PathElement subsystem : Arrays.asList(SUBSYSTEM_A, SUBSYSTEM_B)) {
+            Resource resource = Resource.Factory.create();
+            resource.getModel().get("name").set(subsystem.getValue());
+            for (PathElement child : Arrays.asList(CHILD_1, CHILD_2)) {
+                Resource childResource = Resource.Factory.create();
+                childResource.getModel().get("name").set(child.getValue());
+                resource.registerChild(child, childResource);
+            }
+            source.registerChild(subsystem, resource);
+        }
+    }
+
+    @Test
+    public void testUpdateCopiesOnlyPath() {
+        CopyOnWriteResourceTree tree = CopyOnWriteResourceTree.copyOf(source);
+        Resource child = tree.readResourceForUpdate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD_1));
+        child.getModel().get("name").set("changed");
+
+        assertEquals("1", source.navigate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD_1)).getModel().get("name").asString());
+        assertEquals("changed", tree.getRoot().navigate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD_1)).getModel().get("name").asString());
+
+        assertNotSame(source.getChild(SUBSYSTEM_A), tree.getRoot().getChild(SUBSYSTEM_A));
+        assertSame(source.getChild(SUBSYSTEM_A).getChild(CHILD_2), tree.getRoot().getChild(SUBSYSTEM_A).getChild(CHILD_2));
+        assertSame(source.getChild(SUBSYSTEM_B), tree.getRoot().getChild(SUBSYSTEM_B));
+    }
+
+    @Test
+    public void testUpdatedResourceIsStable() {
+        CopyOnWriteResourceTree tree = CopyOnWriteResourceTree.copyOf(source);
+        Resource child = tree.readResourceForUpdate(PathAddress.pathAddress(SUBSYSTEM_A, CHILD_1));
+        Resource subsystem = tree.readResourceForUpdate(PathAddress.pathAddress(SUBSYSTEM_A));
+        Resource root = tree.readResourceForUpdate(PathAddress.EMPTY_ADDRESS);
+
+        assertSame(tree.getRoot(), root);
+        assertSame(subsystem, root.getChild(SUBSYSTEM_A));
+        assertSame(child, subsystem.getChild(CHILD_1));
+        assertNotSame(source.getChild(SUBSYSTEM_A).getChild(CHILD_2), subsystem.getChild(CHILD_2));
+        assertNotSame(source.getChild(SUBSYSTEM_B), root.getChild(SUBSYSTEM_B));
+    }
+
+    @Test
+    public void testRegisterAndRemoveChild() {
+        CopyOnWriteResourceTree tree = CopyOnWriteResourceTree.copyOf(source);
+        Resource added = Resource.Factory.create();
+        tree.registerChild(PathAddress.pathAddress(SUBSYSTEM_B, PathElement.pathElement("child", "3")), -1, added);
+        tree.removeChild(PathAddress.pathAddress(SUBSYSTEM_B, CHILD_1));
+
+        assertEquals(new ArrayList<>(Arrays.asList("1", "2")), new ArrayList<>(source.getChild(SUBSYSTEM_B).getChildrenNames("child")));
+        assertEquals(new ArrayList<>(Arrays.asList("2", "3")), new ArrayList<>(tree.getRoot().getChild(SUBSYSTEM_B).getChildrenNames("child")));
+        assertSame(added, tree.readResourceForUpdate(PathAddress.pathAddress(SUBSYSTEM_B, PathElement.pathElement("child", "3"))));
+        assertSame(source.getChild(SUBSYSTEM_A), tree.getRoot().getChild(SUBSYSTEM_A));
+    }
+
+    @Test
+    public void testReplacementRetainsOrder() {
+        CopyOnWriteResourceTree tree = CopyOnWriteResourceTree.copyOf(source);
+        tree.readResourceForUpdate(PathAddress.pathAddress(SUBSYSTEM_A));
+
+        assertEquals(new ArrayList<>(Arrays.asList("a", "b")), new ArrayList<>(tree.getRoot().getChildrenNames("subsystem")));
+    }
+
+    @Test
+    public void testCustomResourceIsCloned() {
+        PathElement customElement = PathElement.pathElement("custom", "c");
+        Resource custom = new BasicResource() {
+        };
+        custom.registerChild(CHILD_1, Resource.Factory.create());
+        source.getChild(SUBSYSTEM_A).registerChild(customElement, custom);
+        CopyOnWriteResourceTree tree = CopyOnWriteResourceTree.copyOf(source);
+
+        Resource child = tree.readResourceForUpdate(PathAddress.pathAddress(SUBSYSTEM_A, customElement, CHILD_1));
+        child.getModel().get("name").set("changed");
+
+        Resource copy = tree.getRoot().getChild(SUBSYSTEM_A).getChild(customElement);
+        assertNotSame(custom, copy);
+        assertSame(child, copy.getChild(CHILD_1));
+        assertFalse(custom.getChild(CHILD_1).getModel().isDefined());
+        assertTrue(tree.getRoot().getChild(SUBSYSTEM_A).hasChild(customElement));
+    }
+}
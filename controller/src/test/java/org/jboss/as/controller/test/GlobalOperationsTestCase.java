@@ -33,6 +33,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NOT
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATIONS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_ATTRIBUTE_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_CHILDREN_NAMES_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_CHILDREN_RESOURCES_OPERATION;
@@ -42,10 +43,14 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REA
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_DESCRIPTION_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE_DEPTH;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUEST_PROPERTIES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESOURCE_ADDED_NOTIFICATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESOURCE_REMOVED_NOTIFICATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RUNTIME_ONLY;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STREAM;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WRITE_ATTRIBUTE_OPERATION;
@@ -57,11 +62,17 @@ import static org.junit.Assert.fail;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import org.jboss.as.controller.ModelController;
 import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.as.controller.client.OperationResponse;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 import org.jboss.dmr.Property;
@@ -193,6 +204,86 @@ public class GlobalOperationsTestCase extends AbstractGlobalOperationsTestCase {
         assertTrue(result.get("metric2").isDefined());
     }
 
+    @Test
+    public void testStreamedReadResource() throws Exception {
+        ModelNode operation = createOperation(READ_RESOURCE_OPERATION, "profile", "profileA");
+        operation.get(RECURSIVE).set(true);
+        ModelNode result = executeForResult(operation);
+        assertEquals(toJSON(result), readStreamed(operation));
+
+        operation.get(RECURSIVE_DEPTH).set(1);
+        result = executeForResult(operation);
+        assertEquals(toJSON(result), readStreamed(operation));
+
+        // The values of the metrics differ for each read
+        operation.remove(RECURSIVE_DEPTH);
+        operation.get(INCLUDE_RUNTIME).set(true);
+        result = toJSON(executeForResult(operation));
+        ModelNode streamed = readStreamed(operation);
+        for (String metric : Arrays.asList("metric1", "metric2")) {
+            assertTrue(result.get("subsystem", "subsystem1", metric).isDefined());
+            assertTrue(streamed.get("subsystem", "subsystem1", metric).isDefined());
+            result.get("subsystem", "subsystem1", metric).set(0);
+            streamed.get("subsystem", "subsystem1", metric).set(0);
+        }
+        assertEquals(result, streamed);
+
+        operation = createOperation(READ_RESOURCE_OPERATION, "profile", "*", "subsystem", "*");
+        operation.get(RECURSIVE).set(true);
+        List<ModelNode> expected = toJSON(executeForResult(operation)).asList();
+        List<ModelNode> targets = readStreamed(operation).asList();
+        assertEquals(expected.size(), targets.size());
+        assertTrue(targets.containsAll(expected));
+
+        executeForFailure(createOperation(READ_RESOURCE_OPERATION, "profile", "profileA", "subsystem", "subsystem3"));
+        operation = createOperation(READ_RESOURCE_OPERATION, "profile", "profileA", "subsystem", "subsystem3");
+        operation.get(STREAM).set(true);
+        executeForFailure(operation);
+    }
+
+    @Test
+    public void testStreamedReadResourceFiles() throws Exception {
+        Path tempDir = Files.createTempDirectory("server-temp");
+        System.setProperty("jboss.server.temp.dir", tempDir.toString());
+        try {
+            ModelNode operation = createOperation(READ_RESOURCE_OPERATION, "profile", "profileA");
+            operation.get(RECURSIVE).set(true);
+            operation.get(INCLUDE_RUNTIME).set(true);
+            operation.get(STREAM).set(true);
+            try (OperationResponse response = getController().execute(OperationBuilder.create(operation).build(), null, ModelController.OperationTransactionControl.COMMIT)) {
+                ModelNode responseNode = response.getResponseNode();
+                assertEquals(responseNode.toString(), SUCCESS, responseNode.get(OUTCOME).asString());
+                // The files are gone once the operation has completed, but the response can still be read
+                try (Stream<Path> files = Files.list(tempDir)) {
+                    assertEquals(0, files.count());
+                }
+                OperationResponse.StreamEntry entry = response.getInputStream(responseNode.get(RESULT).asString());
+                ModelNode streamed = ModelNode.fromJSONStream(entry.getStream());
+                assertTrue(streamed.get("subsystem", "subsystem1", "metric1").isDefined());
+            }
+        } finally {
+            System.clearProperty("jboss.server.temp.dir");
+            Files.deleteIfExists(tempDir);
+        }
+    }
+
+    private ModelNode readStreamed(ModelNode operation) throws Exception {
+        ModelNode streamed = operation.clone();
+        streamed.get(STREAM).set(true);
+        try (OperationResponse response = getController().execute(OperationBuilder.create(streamed).build(), null, ModelController.OperationTransactionControl.COMMIT)) {
+            ModelNode responseNode = response.getResponseNode();
+            assertEquals(responseNode.toString(), SUCCESS, responseNode.get(OUTCOME).asString());
+            OperationResponse.StreamEntry entry = response.getInputStream(responseNode.get(RESULT).asString());
+            assertNotNull(entry);
+            assertEquals("application/json", entry.getMimeType());
+            return ModelNode.fromJSONStream(entry.getStream());
+        }
+    }
+
+    private static ModelNode toJSON(ModelNode node) {
+        return ModelNode.fromJSONString(node.toJSONString(true));
+    }
+
     @Test
     public void testNonRecursiveReadSubModelOperationSimple() throws Exception {
         ModelNode operation = createOperation(READ_RESOURCE_OPERATION, "profile", "profileA", "subsystem", "subsystem1");
@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2017 Red Hat, inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jboss.as.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.jboss.as.repository.logging.DeploymentRepositoryLogger;
+
+/**
+ * Store of deduplicated content chunks, used by {@link ContentRepositoryImpl} to store content in chunked mode.
+ * <p>
+ * Content is split into chunks at boundaries chosen by a rolling hash of the content itself, so an insertion or
+ * deletion only changes the chunks around it and the rest of the content still maps to chunks that are already
+ * stored. Each chunk is stored once under its SHA-1, and each piece of content is described by a manifest listing
+ * the hash and length of its chunks in order.
+ */
+class ChunkStore {
+
+    static final String CHUNKS = "chunks";
+    static final String MANIFEST = "manifest";
+
+    private static final int MIN_CHUNK_SIZE = 16 * 1024;
+    static final int MAX_CHUNK_SIZE = 256 * 1024;
+    // 16 bits of the hash, for chunks of 64KB on average. The high bits are used as they depend on the most bytes
+    private static final int BOUNDARY_MASK = 0xFFFF0000;
+    static final int HASH_LENGTH = 20;
+    private static final int[] GEAR = new int[256];
+
+    static {
+        // The seed is fixed, as chunk boundaries must not change between restarts
+        Random random = new Random(0x5eed);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextInt();
+        }
+    }
+
+    private final Path root;
+    // Adding content holds the read lock until its manifest is in place, so removing unreferenced chunks
+    // never sees a chunk that is about to be referenced
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    ChunkStore(final Path repoRoot) {
+        this.root = repoRoot.resolve(CHUNKS);
+    }
+
+    /**
+     * Callback for placing the manifest of content stored by {@link #store(InputStream, MessageDigest, ManifestHandler)}.
+     */
+    interface ManifestHandler {
+        /**
+         * Called once all chunks of the content have been stored.
+         *
+         * @param hash the hash of the whole content
+         * @param manifest temporary file holding the manifest, to be moved to its permanent location.
+         *                 It is deleted once this method returns
+         * @throws IOException if the manifest cannot be moved
+         */
+        void manifestWritten(byte[] hash, Path manifest) throws IOException;
+    }
+
+    /**
+     * Splits the content read from the stream into chunks and stores any not already stored.
+     *
+     * @param stream the content
+     * @param messageDigest the digest used to compute the hash of the whole content
+     * @param handler callback for placing the manifest of the content
+     * @return the hash of the whole content
+     * @throws IOException if the content cannot be read or stored
+     */
+    byte[] store(final InputStream stream, final MessageDigest messageDigest, final ManifestHandler handler) throws IOException {
+        final MessageDigest chunkDigest = createMessageDigest();
+        lock.readLock().lock();
+        try {
+            Files.createDirectories(root);
+            final Path tmp = Files.createTempFile(root, MANIFEST, ".tmp");
+            try {
+                try (DataOutputStream manifest = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    split(stream, messageDigest, (chunk, length) -> storeChunk(chunk, length, chunkDigest, manifest));
+                }
+                final byte[] contentHash = messageDigest.digest();
+                handler.manifestWritten(contentHash, tmp);
+                return contentHash;
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Callback receiving the chunks of content split by {@link #split(InputStream, MessageDigest, ChunkHandler)}.
+     */
+    interface ChunkHandler {
+        /**
+         * Called for each chunk in content order.
+         *
+         * @param chunk buffer holding the chunk. It is reused for the next chunk once this method returns
+         * @param length the length of the chunk
+         * @throws IOException if the chunk cannot be handled
+         */
+        void chunk(byte[] chunk, int length) throws IOException;
+    }
+
+    /**
+     * Splits the content read from the stream into chunks.
+     *
+     * @param stream the content
+     * @param messageDigest the digest to update with the whole content. May be {@code null}
+     * @param handler callback receiving the chunks
+     * @throws IOException if the content cannot be read or a chunk cannot be handled
+     */
+    static void split(final InputStream stream, final MessageDigest messageDigest, final ChunkHandler handler) throws IOException {
+        final byte[] chunk = new byte[MAX_CHUNK_SIZE];
+        final byte[] bytes = new byte[8192];
+        int length = 0;
+        int hash = 0;
+        int read;
+        while ((read = stream.read(bytes)) > -1) {
+            if (messageDigest != null) {
+                messageDigest.update(bytes, 0, read);
+            }
+            for (int i = 0; i < read; i++) {
+                chunk[length++] = bytes[i];
+                hash = (hash << 1) + GEAR[bytes[i] & 0xff];
+                if ((length >= MIN_CHUNK_SIZE && (hash & BOUNDARY_MASK) == 0) || length == MAX_CHUNK_SIZE) {
+                    handler.chunk(chunk, length);
+                    length = 0;
+                    hash = 0;
+                }
+            }
+        }
+        if (length > 0) {
+            handler.chunk(chunk, length);
+        }
+    }
+
+    private void storeChunk(final byte[] chunk, final int length, final MessageDigest chunkDigest, final DataOutputStream manifest) throws IOException {
+        chunkDigest.reset();
+        chunkDigest.update(chunk, 0, length);
+        final byte[] hash = chunkDigest.digest();
+        final Path chunkFile = getChunkFile(HashUtil.bytesToHexString(hash));
+        if (!Files.exists(chunkFile)) {
+            Files.createDirectories(chunkFile.getParent());
+            final Path tmp = Files.createTempFile(chunkFile.getParent(), CHUNKS, ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    out.write(chunk, 0, length);
+                }
+                Files.move(tmp, chunkFile);
+            } catch (FileAlreadyExistsException ex) {
+                // Stored concurrently by another addition
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        writeManifestEntry(manifest, hash, length);
+    }
+
+    static void writeManifestEntry(final DataOutputStream manifest, final byte[] hash, final int length) throws IOException {
+        manifest.write(hash);
+        manifest.writeInt(length);
+    }
+
+    /**
+     * Reassembles the content described by a manifest.
+     *
+     * @param manifest the manifest of the content
+     * @param target the file to write the content to. If it already exists it is left as it is
+     * @throws IOException if a chunk is missing or the content cannot be written
+     */
+    void reassemble(final Path manifest, final Path target) throws IOException {
+        lock.readLock().lock();
+        try {
+            final Path tmp = Files.createTempFile(target.getParent(), MANIFEST, ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    for (Chunk chunk : readManifest(manifest)) {
+                        final Path chunkFile = getChunkFile(chunk.hash);
+                        if (Files.size(chunkFile) != chunk.length) {
+                            throw new IOException(chunkFile.toString());
+                        }
+                        Files.copy(chunkFile, out);
+                    }
+                }
+                Files.move(tmp, target);
+            } catch (FileAlreadyExistsException ex) {
+                // Reassembled concurrently
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes the chunks not listed in any of the given manifests.
+     *
+     * @param manifests the manifests of all the content in the repository
+     * @return the number of chunks deleted
+     * @throws IOException if the manifests or the chunks cannot be read
+     */
+    int removeUnreferencedChunks(final Collection<Path> manifests) throws IOException {
+        if (!Files.exists(root)) {
+            return 0;
+        }
+        lock.writeLock().lock();
+        try {
+            final Set<String> referenced = new HashSet<>();
+            for (Path manifest : manifests) {
+                if (Files.exists(manifest)) {
+                    for (Chunk chunk : readManifest(manifest)) {
+                        referenced.add(chunk.hash);
+                    }
+                }
+            }
+            int removed = 0;
+            try (Stream<Path> dirs = Files.list(root)) {
+                for (Path dir : (Iterable<Path>) dirs::iterator) {
+                    if (!Files.isDirectory(dir)) {
+                        continue;
+                    }
+                    try (Stream<Path> chunks = Files.list(dir)) {
+                        for (Path chunk : (Iterable<Path>) chunks::iterator) {
+                            if (!referenced.contains(dir.getFileName().toString() + chunk.getFileName().toString())) {
+                                Files.deleteIfExists(chunk);
+                                removed++;
+                            }
+                        }
+                    }
+                    try (Stream<Path> chunks = Files.list(dir)) {
+                        if (!chunks.findAny().isPresent()) {
+                            Files.deleteIfExists(dir);
+                        }
+                    }
+                }
+            }
+            DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Removed %d unreferenced chunks from %s", removed, root);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Path getChunkFile(final String hexHash) {
+        return root.resolve(hexHash.substring(0, 2)).resolve(hexHash.substring(2));
+    }
+
+    static List<Chunk> readManifest(final Path manifest) throws IOException {
+        final List<Chunk> chunks = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest)))) {
+            final byte[] hash = new byte[HASH_LENGTH];
+            for (;;) {
+                try {
+                    in.readFully(hash);
+                } catch (EOFException eof) {
+                    break;
+                }
+                chunks.add(new Chunk(HashUtil.bytesToHexString(hash), in.readInt()));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Gets whether the file is the manifest kept beside the content in its directory, rather than part of the content.
+     */
+    static boolean isContentManifest(final File file) {
+        return MANIFEST.equals(file.getName()) && new File(file.getParentFile(), ContentRepositoryImpl.CONTENT).exists();
+    }
+
+    static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw DeploymentRepositoryLogger.ROOT_LOGGER.cannotObtainSha1(e, MessageDigest.class.getSimpleName());
+        }
+    }
+
+    static final class Chunk {
+        final String hash;
+        final int length;
+
+        Chunk(final String hash, final int length) {
+            this.hash = hash;
+            this.length = length;
+        }
+    }
+}
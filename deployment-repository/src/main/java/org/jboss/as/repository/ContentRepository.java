@@ -112,6 +112,20 @@ public interface ContentRepository {
      */
     boolean syncContent(ContentReference reference);
 
+    /**
+     * Gets a directory holding the content with the given hash as a whole {@code content} file, for content that
+     * is not stored that way in its directory in the repository. Callers of {@link #getContent(byte[])} do not say
+     * when they are done with the content, which may stay mounted for as long as a deployment of it is, so the
+     * directory is only removed along with the content, or when the repository is next created.
+     *
+     * @param hash the hash. Cannot be {@code null}
+     *
+     * @return the directory, or {@code null} if the content is stored as a whole in its directory in the repository
+     */
+    default File getReassembledContentRoot(byte[] hash) {
+        return null;
+    }
+
     /**
      * Remove the given content from the repository.
      *
@@ -176,13 +190,19 @@ public interface ContentRepository {
          */
         @Deprecated
         private static final String UNSUPPORTED_PROPERTY = "org.wildfly.unsupported.content.repository.obsolescence";
+        private static final String CHUNKED_PROPERTY = "org.wildfly.content.repository.chunked";
+        /**
+         * Whether content added to the repository is stored as deduplicated chunks rather than as a whole file.
+         * Disabled unless the {@code org.wildfly.content.repository.chunked} system property is {@code true}.
+         */
+        private static final boolean CHUNKED_CONTENT = getSecurityManager() == null ? Boolean.getBoolean(CHUNKED_PROPERTY) : doPrivileged((PrivilegedAction<Boolean>) () -> Boolean.getBoolean(CHUNKED_PROPERTY));
 
         public static void addService(final ServiceTarget serviceTarget, final File repoRoot) {
             addService(serviceTarget, repoRoot, repoRoot);
         }
 
         public static void addService(final ServiceTarget serviceTarget, final File repoRoot, final File tmpRoot) {
-            addService(serviceTarget, new ContentRepositoryImpl(repoRoot, tmpRoot, OBSOLETE_CONTENT_TIMEOUT, LOCK_TIMEOUT));
+            addService(serviceTarget, new ContentRepositoryImpl(repoRoot, tmpRoot, OBSOLETE_CONTENT_TIMEOUT, LOCK_TIMEOUT, CHUNKED_CONTENT));
         }
 
         public static void addService(final ServiceTarget serviceTarget, final ContentRepository contentRepository) {
@@ -202,7 +222,11 @@ public interface ContentRepository {
         }
 
         static ContentRepository create(final File repoRoot, final File tmpRoot, long timeout, long lock) {
-            return new ContentRepositoryImpl(repoRoot, tmpRoot, timeout, lock);
+            return create(repoRoot, tmpRoot, timeout, lock, CHUNKED_CONTENT);
+        }
+
+        static ContentRepository create(final File repoRoot, final File tmpRoot, long timeout, long lock, boolean chunked) {
+            return new ContentRepositoryImpl(repoRoot, tmpRoot, timeout, lock, chunked);
         }
     }
 }
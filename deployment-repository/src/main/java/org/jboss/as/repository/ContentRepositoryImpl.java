@@ -30,11 +30,11 @@ import static org.jboss.as.repository.PathUtil.getFileExtension;
 import static org.jboss.as.repository.PathUtil.isArchive;
 import static org.jboss.as.repository.PathUtil.resolveSecurely;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
@@ -53,6 +53,7 @@ import org.jboss.vfs.VirtualFile;
 import static org.jboss.as.repository.PathUtil.unzip;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -67,17 +68,36 @@ import org.wildfly.common.Assert;
 public class ContentRepositoryImpl implements ContentRepository {
 
     protected static final String CONTENT = "content";
+    private static final String REASSEMBLED = "reassembled-content";
     private final File repoRoot;
     private final File tmpRoot;
-    protected final MessageDigest messageDigest;
+    // Digests are not thread safe, so each thread gets its own rather than serializing all hashing behind a single one
+    private static final ThreadLocal<MessageDigest> MESSAGE_DIGEST = ThreadLocal.withInitial(ContentRepositoryImpl::createMessageDigest);
     private final Map<String, Set<ContentReference>> contentHashReferences = new HashMap<>();
     private final Map<String, ReentrantLock> lockedContents = new HashMap<>();
     private final Map<String, Long> obsoleteContents = new HashMap<>();
     private final long obsolescenceTimeout;
     private final long lockTimeout;
+    private final boolean chunked;
+    private final ChunkStore chunkStore;
     private volatile boolean readWrite = false;
 
     protected ContentRepositoryImpl(final File repoRoot, final File tmpRoot, long obsolescenceTimeout, long lockTimeout) {
+        this(repoRoot, tmpRoot, obsolescenceTimeout, lockTimeout, false);
+    }
+
+    /**
+     * Creates a repository, optionally storing content as deduplicated chunks.
+     *
+     * @param repoRoot the root of the repository
+     * @param tmpRoot the directory for temporary files
+     * @param obsolescenceTimeout time after which content marked as obsolete is removed
+     * @param lockTimeout timeout to lock content for reading or removal
+     * @param chunked {@code true} if content added to the repository should be stored as chunks, each distinct chunk
+     *                being stored only once. Content stored as chunks is reassembled into a temporary file when read,
+     *                and only kept whole, outside the repository, while it is in use as a {@link VirtualFile}
+     */
+    protected ContentRepositoryImpl(final File repoRoot, final File tmpRoot, long obsolescenceTimeout, long lockTimeout, boolean chunked) {
         Assert.checkNotNullParam("repoRoot", repoRoot);
         Assert.checkNotNullParam("tmpRoot", tmpRoot);
         checkDirectory(repoRoot);
@@ -86,13 +106,34 @@ public class ContentRepositoryImpl implements ContentRepository {
         this.tmpRoot = tmpRoot;
         this.obsolescenceTimeout = obsolescenceTimeout;
         this.lockTimeout = lockTimeout;
+        this.chunked = chunked;
+        // Always available, so content stored as chunks remains readable if chunked mode is turned off
+        this.chunkStore = new ChunkStore(repoRoot.toPath());
+        // Reassembled content left over from a previous run is no longer in use
+        deleteSilentlyRecursively(getReassembledRoot());
+        // Fail fast if SHA-1 is not available
+        getMessageDigest();
+    }
+
+    private static MessageDigest createMessageDigest() {
         try {
-            this.messageDigest = MessageDigest.getInstance("SHA-1");
+            return MessageDigest.getInstance("SHA-1");
         } catch (NoSuchAlgorithmException e) {
             throw DeploymentRepositoryLogger.ROOT_LOGGER.cannotObtainSha1(e, MessageDigest.class.getSimpleName());
         }
     }
 
+    /**
+     * Gets a SHA-1 digest for the exclusive use of the calling thread.
+     *
+     * @return the digest, reset and ready for use
+     */
+    protected MessageDigest getMessageDigest() {
+        final MessageDigest messageDigest = MESSAGE_DIGEST.get();
+        messageDigest.reset();
+        return messageDigest;
+    }
+
     private void checkDirectory(final File directory) {
         if (directory.exists()) {
             if (!directory.isDirectory()) {
@@ -117,30 +158,28 @@ public class ContentRepositoryImpl implements ContentRepository {
 
     @Override
     public byte[] addContent(InputStream stream) throws IOException {
+        if (stream != null && chunked) {
+            return addChunkedContent(stream);
+        }
         byte[] sha1Bytes;
         Path tmp = File.createTempFile(CONTENT, ".tmp", repoRoot).toPath();
         if (stream != null) {
+            final MessageDigest messageDigest = getMessageDigest();
+            // The content is hashed as it is written to the temp file, so it is only read once
             try (OutputStream fos = Files.newOutputStream(tmp)) {
-                synchronized (messageDigest) {
-                    messageDigest.reset();
-                    DigestOutputStream dos = new DigestOutputStream(fos, messageDigest);
-                    BufferedInputStream bis = new BufferedInputStream(stream);
-                    byte[] bytes = new byte[8192];
-                    int read;
-                    while ((read = bis.read(bytes)) > -1) {
-                        dos.write(bytes, 0, read);
-                    }
-                    fos.flush();
+                DigestOutputStream dos = new DigestOutputStream(fos, messageDigest);
+                byte[] bytes = new byte[8192];
+                int read;
+                while ((read = stream.read(bytes)) > -1) {
+                    dos.write(bytes, 0, read);
                 }
-                sha1Bytes = messageDigest.digest();
+                fos.flush();
             }
+            sha1Bytes = messageDigest.digest();
         } else {//create a directory instead
             Files.delete(tmp);
             Files.createDirectory(tmp);
-            synchronized (messageDigest) {
-                messageDigest.reset();
-                sha1Bytes = HashUtil.hashPath(messageDigest, tmp);
-            }
+            sha1Bytes = HashUtil.hashPath(getMessageDigest(), tmp);
         }
         final Path realFile = getDeploymentContentFile(sha1Bytes, true);
         if (hasContent(sha1Bytes)) {
@@ -159,6 +198,22 @@ public class ContentRepositoryImpl implements ContentRepository {
         return sha1Bytes;
     }
 
+    private byte[] addChunkedContent(InputStream stream) throws IOException {
+        return chunkStore.store(stream, getMessageDigest(), (hash, manifest) -> {
+            final Path realFile = getDeploymentContentFile(hash, true);
+            if (hasContent(hash)) {
+                DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Content was already present in repository at location %s", realFile.toAbsolutePath().toString());
+            } else {
+                try {
+                    Files.move(manifest, realFile.resolveSibling(ChunkStore.MANIFEST));
+                } catch (FileAlreadyExistsException ex) {
+                    // Content is stored by its hash, so a concurrent addition of the same content has already stored it
+                }
+                DeploymentRepositoryLogger.ROOT_LOGGER.contentAdded(realFile.toAbsolutePath().toString());
+            }
+        });
+    }
+
     @Override
     public void addContentReference(ContentReference reference) {
         if(!this.readWrite) {
@@ -177,6 +232,10 @@ public class ContentRepositoryImpl implements ContentRepository {
     @Override
     public VirtualFile getContent(byte[] hash) {
         Assert.checkNotNullParam("hash", hash);
+        final File reassembledRoot = getReassembledContentRoot(hash);
+        if (reassembledRoot != null) {
+            return VFS.getChild(new File(reassembledRoot, CONTENT).toURI());
+        }
         return VFS.getChild(getDeploymentContentFile(hash, true).toUri());
     }
 
@@ -187,7 +246,58 @@ public class ContentRepositoryImpl implements ContentRepository {
 
     @Override
     public boolean hasContent(byte[] hash) {
-        return Files.exists(getDeploymentContentFile(hash));
+        final Path contentFile = getDeploymentContentFile(hash);
+        return Files.exists(contentFile) || Files.exists(contentFile.resolveSibling(ChunkStore.MANIFEST));
+    }
+
+    /**
+     * Gets a copy of content stored as chunks, reassembled outside the repository on first use. The copy is shared by
+     * every reference to the content and {@link VirtualFile}s of it carry no notice of when they are no longer used,
+     * while a deployment may keep the copy mounted until it is undeployed. Deleting the copy any earlier could pull
+     * it from under such a deployment, so it is only deleted in {@link #removeContent(ContentReference)}, once no
+     * reference to the content is left, and when the repository is created again on the next start.
+     */
+    @Override
+    public File getReassembledContentRoot(byte[] hash) {
+        Assert.checkNotNullParam("hash", hash);
+        final Path contentFile = getDeploymentContentFile(hash);
+        final Path manifest = contentFile.resolveSibling(ChunkStore.MANIFEST);
+        if (Files.exists(contentFile) || !Files.exists(manifest)) {
+            return null;
+        }
+        final Path target = getReassembledRoot().resolve(HashUtil.bytesToHexString(hash)).resolve(CONTENT);
+        if (!Files.exists(target)) {
+            reassemble(manifest, target);
+        }
+        return target.getParent().toFile();
+    }
+
+    /**
+     * Gets the content file for the given hash. Content stored as chunks is reassembled into the given temporary
+     * directory, which the caller deletes once done with the content, so no whole copy of it is left in the repository.
+     */
+    private Path getReadableContentFile(byte[] deploymentHash, Path tmpDir) {
+        final Path contentFile = getDeploymentContentFile(deploymentHash);
+        final Path manifest = contentFile.resolveSibling(ChunkStore.MANIFEST);
+        if (Files.exists(contentFile) || !Files.exists(manifest)) {
+            return contentFile;
+        }
+        final Path target = tmpDir.resolve(CONTENT);
+        reassemble(manifest, target);
+        return target;
+    }
+
+    private void reassemble(Path manifest, Path target) {
+        try {
+            Files.createDirectories(target.getParent());
+            chunkStore.reassemble(manifest, target);
+        } catch (IOException ioex) {
+            throw DeploymentRepositoryLogger.ROOT_LOGGER.cannotReassembleContent(ioex, target.toAbsolutePath().toString());
+        }
+    }
+
+    private Path getReassembledRoot() {
+        return tmpRoot.toPath().resolve(REASSEMBLED);
     }
 
     protected Path getRepoRoot() {
@@ -239,6 +349,9 @@ public class ContentRepositoryImpl implements ContentRepository {
         Path localTmp = permanentFile.resolveSibling("tmp");
         try {
             Files.move(tmpFile, permanentFile);
+        } catch (FileAlreadyExistsException ex) {
+            // Content is stored by its hash, so a concurrent addition of the same content has already stored it
+            DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Content was already present in repository at location %s", permanentFile.toAbsolutePath().toString());
         } catch (IOException ioex) {
             // AS7-3574. Try to avoid writing the permanent file bit by bit in we crash in the middle.
             // Copy tmpFile to another tmpfile in the same dir as the permanent file (and thus same filesystem)
@@ -300,6 +413,10 @@ public class ContentRepositoryImpl implements ContentRepository {
                 }
             }
             deleteRecursively(contentPath);
+            if (HashUtil.isEachHexHashInTable(reference.getHexHash())) {
+                Files.deleteIfExists(contentPath.resolveSibling(ChunkStore.MANIFEST));
+                deleteRecursively(getReassembledRoot().resolve(reference.getHexHash()));
+            }
         } catch (IOException ex) {
             DeploymentRepositoryLogger.ROOT_LOGGER.contentDeletionError(ex, contentPath.toString());
         } catch (InterruptedException ex) {
@@ -358,10 +475,23 @@ public class ContentRepositoryImpl implements ContentRepository {
                     obsoleteContents.remove(fsContent.getHexHash()); //Remove existing references from obsoleteContents
                 }
             }
+            removeUnreferencedChunks();
         }
         return cleanedContents;
     }
 
+    private void removeUnreferencedChunks() {
+        final List<Path> manifests = new ArrayList<>();
+        for (ContentReference fsContent : listLocalContents()) {
+            manifests.add(Paths.get(fsContent.getContentIdentifier()).resolve(ChunkStore.MANIFEST));
+        }
+        try {
+            chunkStore.removeUnreferencedChunks(manifests);
+        } catch (IOException ex) {
+            DeploymentRepositoryLogger.ROOT_LOGGER.contentDeletionError(ex, repoRoot.toPath().resolve(ChunkStore.CHUNKS).toString());
+        }
+    }
+
     /**
      * Mark content as obsolete. If content was already marked for obsolescenceTimeout ms then it is removed.
      *
@@ -387,7 +517,7 @@ public class ContentRepositoryImpl implements ContentRepository {
         File[] rootHashes = repoRoot.listFiles();
         if (rootHashes != null) {
             for (File rootHash : rootHashes) {
-                if (rootHash.isDirectory()) {
+                if (rootHash.isDirectory() && !ChunkStore.CHUNKS.equals(rootHash.getName())) {
                     File[] complementaryHashes = rootHash.listFiles();
                     if (complementaryHashes == null || complementaryHashes.length == 0) {
                         ContentReference reference = new ContentReference(rootHash.getAbsolutePath(), rootHash.getName());
@@ -409,7 +539,19 @@ public class ContentRepositoryImpl implements ContentRepository {
 
     @Override
     public byte[] explodeContent(byte[] deploymentHash) throws ExplodedContentException {
-        Path contentPath = getDeploymentContentFile(deploymentHash);
+        Path tmpDir = null;
+        try {
+            tmpDir = Files.createTempDirectory(tmpRoot.toPath(), HashUtil.bytesToHexString(deploymentHash));
+            return explodeContent(getReadableContentFile(deploymentHash, tmpDir));
+        } catch (IOException ex) {
+            DeploymentRepositoryLogger.ROOT_LOGGER.warn(ex);
+            throw DeploymentRepositoryLogger.ROOT_LOGGER.errorAccessingDeployment(ex);
+        } finally {
+            deleteSilentlyRecursively(tmpDir);
+        }
+    }
+
+    private byte[] explodeContent(Path contentPath) throws ExplodedContentException {
         if (!Files.exists(contentPath)) {
             throw DeploymentRepositoryLogger.ROOT_LOGGER.archiveNotFound(contentPath.toString());
         }
@@ -420,7 +562,7 @@ public class ContentRepositoryImpl implements ContentRepository {
             Path tmp = createTempDirectory(repoRoot.toPath(), CONTENT);
             Path contentDir = Files.createDirectory(tmp.resolve(CONTENT));
             unzip(contentPath, contentDir);
-            byte[] sha1Bytes = HashUtil.hashPath(messageDigest, contentDir);
+            byte[] sha1Bytes = HashUtil.hashPath(getMessageDigest(), contentDir);
             final Path realFile = getDeploymentContentFile(sha1Bytes, true);
             if (hasContent(sha1Bytes)) {
                 // we've already got this content
@@ -463,7 +605,7 @@ public class ContentRepositoryImpl implements ContentRepository {
                     deleteRecursively(targetPath);
                 }
                 unzip(sourcePath, targetPath);
-                byte[] sha1Bytes = HashUtil.hashPath(messageDigest, contentDir);
+                byte[] sha1Bytes = HashUtil.hashPath(getMessageDigest(), contentDir);
                 final Path realFile = getDeploymentContentFile(sha1Bytes, true);
                 if (hasContent(sha1Bytes)) {
                     // we've already got this content
@@ -534,7 +676,7 @@ public class ContentRepositoryImpl implements ContentRepository {
                 ReentrantLock lock = lockedContents.get(hashHex);
                 if (lock.isHeldByCurrentThread()) {
                     lock.unlock();
-                    if (!Files.exists(getDeploymentContentFile(hash))) {
+                    if (!hasContent(hash)) {
                         lockedContents.remove(hashHex);
                     }
                 }
@@ -549,8 +691,8 @@ public class ContentRepositoryImpl implements ContentRepository {
             if(!lock(deploymentHash)) {
                 throw DeploymentRepositoryLogger.ROOT_LOGGER.errorLockingDeployment();
             }
-            Path src = resolveSecurely(getDeploymentContentFile(deploymentHash), path);
             tmpDir = Files.createTempDirectory(tmpRoot.toPath(), HashUtil.bytesToHexString(deploymentHash));
+            Path src = resolveSecurely(getReadableContentFile(deploymentHash, tmpDir), path);
             Path file = PathUtil.readFile(src, tmpDir);
             Path tmp = Files.createTempFile(tmpRoot.toPath(), CONTENT, getFileExtension(src));
             Files.copy(file, tmp, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
@@ -575,7 +717,7 @@ public class ContentRepositoryImpl implements ContentRepository {
                 throw DeploymentRepositoryLogger.ROOT_LOGGER.errorLockingDeployment();
             }
             tmpDir = Files.createTempDirectory(tmpRoot.toPath(), HashUtil.bytesToHexString(deploymentHash));
-            final Path rootPath = resolveSecurely(getDeploymentContentFile(deploymentHash), path);
+            final Path rootPath = resolveSecurely(getReadableContentFile(deploymentHash, tmpDir), path);
             List<ContentRepositoryElement> result = PathUtil.listFiles(rootPath, tmpDir, filter);
             return result;
         } catch (InterruptedException ex) {
@@ -629,7 +771,7 @@ public class ContentRepositoryImpl implements ContentRepository {
                         }
                     }
                 }
-                byte[] sha1Bytes = HashUtil.hashPath(messageDigest, contentDir);
+                byte[] sha1Bytes = HashUtil.hashPath(getMessageDigest(), contentDir);
                 final Path realFile = getDeploymentContentFile(sha1Bytes, true);
                 if (hasContent(sha1Bytes)) {
                     // we've already got this content
@@ -666,7 +808,7 @@ public class ContentRepositoryImpl implements ContentRepository {
                     Path targetFile = resolveSecurely(contentDir, path);
                     deleteFileWithEmptyAncestorDirectories(targetFile);
                 }
-                byte[] sha1Bytes = HashUtil.hashPath(messageDigest, contentDir);
+                byte[] sha1Bytes = HashUtil.hashPath(getMessageDigest(), contentDir);
                 final Path realFile = getDeploymentContentFile(sha1Bytes, true);
                 if (hasContent(sha1Bytes)) {
                     // we've already got this content
@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.repository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the deployment content a host has transferred from the domain controller.
+ */
+public final class ContentTransferMetrics {
+
+    private final LongAdder transfers = new LongAdder();
+    private final LongAdder bytesTransferred = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder transferNanos = new LongAdder();
+
+    /**
+     * Records a completed transfer.
+     *
+     * @param transferred the number of bytes of content sent by the domain controller
+     * @param saved the number of bytes of content copied from content already present on this host
+     * @param nanos the time taken by the transfer
+     */
+    public void recordTransfer(final long transferred, final long saved, final long nanos) {
+        transfers.increment();
+        bytesTransferred.add(transferred);
+        bytesSaved.add(saved);
+        transferNanos.add(nanos);
+    }
+
+    /**
+     * Gets the number of transfers.
+     *
+     * @return the number of transfers
+     */
+    public long getTransferCount() {
+        return transfers.sum();
+    }
+
+    /**
+     * Gets the number of bytes of content sent by the domain controller.
+     *
+     * @return the number of bytes transferred
+     */
+    public long getBytesTransferred() {
+        return bytesTransferred.sum();
+    }
+
+    /**
+     * Gets the number of bytes of content that did not need to be transferred as they were already present on
+     * this host.
+     *
+     * @return the number of bytes saved
+     */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /**
+     * Gets the total time spent transferring content.
+     *
+     * @param unit the unit in which to return the time
+     * @return the transfer time
+     */
+    public long getTransferTime(final TimeUnit unit) {
+        return unit.convert(transferNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the average rate at which content has been transferred, in bytes per second.
+     *
+     * @return the transfer rate, or {@code 0} if nothing has been transferred
+     */
+    public long getBytesPerSecond() {
+        final long nanos = transferNanos.sum();
+        return nanos == 0 ? 0 : (long) (bytesTransferred.sum() * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+    }
+}
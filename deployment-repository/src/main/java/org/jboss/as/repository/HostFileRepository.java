@@ -47,4 +47,13 @@ public interface HostFileRepository extends DeploymentFileRepository {
      * @return The file at that path, or null if it is not found
      */
     File getConfigurationFile(final String relativePath);
+
+    /**
+     * Gets the metrics of the deployment content this repository has transferred from the domain controller.
+     *
+     * @return the metrics, or {@code null} if this repository does not transfer content
+     */
+    default ContentTransferMetrics getContentTransferMetrics() {
+        return null;
+    }
 }
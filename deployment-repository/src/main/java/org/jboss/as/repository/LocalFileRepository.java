@@ -23,6 +23,7 @@
 package org.jboss.as.repository;
 
 import java.io.File;
+import java.util.Arrays;
 
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
@@ -39,11 +40,26 @@ public class LocalFileRepository extends LocalDeploymentFileRepository implement
 
     private final File repositoryRoot;
     private final File configurationRoot;
+    private final ContentRepository contentRepository;
 
     public LocalFileRepository(final File repositoryRoot, final File deploymentRoot, final File configurationRoot) {
+        this(repositoryRoot, deploymentRoot, configurationRoot, null);
+    }
+
+    /**
+     * Creates a file repository whose deployment files are stored by the given content repository, so the files of
+     * content stored as chunks are read from the copy the content repository reassembles.
+     *
+     * @param repositoryRoot the root of the repository
+     * @param deploymentRoot the root of the deployment content
+     * @param configurationRoot the root of the configuration files
+     * @param contentRepository the content repository storing the deployment content. May be {@code null}
+     */
+    public LocalFileRepository(final File repositoryRoot, final File deploymentRoot, final File configurationRoot, final ContentRepository contentRepository) {
         super(deploymentRoot);
         this.repositoryRoot = repositoryRoot;
         this.configurationRoot = configurationRoot;
+        this.contentRepository = contentRepository;
     }
 
     /** {@inheritDoc} */
@@ -61,7 +77,8 @@ public class LocalFileRepository extends LocalDeploymentFileRepository implement
     /** {@inheritDoc} */
     @Override
     public File[] getDeploymentFiles(ContentReference reference) {
-        return getDeploymentRoot(reference).listFiles();
+        final File[] files = getDeploymentRoot(reference).listFiles();
+        return files == null ? null : Arrays.stream(files).filter(file -> !ChunkStore.isContentManifest(file)).toArray(File[]::new);
     }
 
     /** {@inheritDoc} */
@@ -70,6 +87,12 @@ public class LocalFileRepository extends LocalDeploymentFileRepository implement
         if (reference == null || reference.getHexHash().isEmpty()) {
             return deploymentRoot;
         }
+        if (contentRepository != null && HashUtil.isEachHexHashInTable(reference.getHexHash())) {
+            final File reassembledRoot = contentRepository.getReassembledContentRoot(reference.getHash());
+            if (reassembledRoot != null) {
+                return reassembledRoot;
+            }
+        }
         File first = new File(deploymentRoot, reference.getHexHash().substring(0,2));
         return new File(first, reference.getHexHash().substring(2));
     }
@@ -0,0 +1,387 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import org.jboss.as.protocol.StreamUtils;
+import org.jboss.as.protocol.mgmt.ActiveOperation;
+import org.jboss.as.protocol.mgmt.FlushableDataOutput;
+import org.jboss.as.protocol.mgmt.ManagementRequestContext;
+import org.jboss.as.protocol.mgmt.ManagementResponseHeader;
+import org.jboss.as.repository.logging.DeploymentRepositoryLogger;
+
+/**
+ * Protocol code for getting deployment content from master->slave HC as a delta against the content the slave
+ * already has.
+ * <p>
+ * The content is split into chunks the same way {@link ContentRepositoryImpl} splits content in chunked mode. The
+ * slave advertises the chunks listed in the manifests of its local content, and the master only sends the chunks
+ * that are not among them; the slave copies the others from its local content. The slave keeps the manifest of the
+ * content it receives, so a later version of the same deployment only needs the chunks that changed.
+ * <p>
+ * Content that is not a single file, such as exploded content, is not sent; the slave is told to get it with a
+ * {@link RemoteFileRequestAndHandler} instead.
+ */
+public class RemoteContentDeltaRequestAndHandler {
+
+    // Sent in place of the number of chunks
+    private static final int NOT_FOUND = -1;
+    private static final int NOT_A_FILE = -2;
+    // Locks on the manifests being created, so several slaves requesting the same content only split it once
+    private static final ConcurrentMap<Path, Object> MANIFEST_LOCKS = new ConcurrentHashMap<>();
+
+    private final Executor asyncExecutor;
+
+    public RemoteContentDeltaRequestAndHandler() {
+        this(null);
+    }
+
+    public RemoteContentDeltaRequestAndHandler(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Indexes the chunks of the content in the local repository the requested content will be written to.
+     *
+     * @param localPath the local directory for the requested content, as returned by
+     *                  {@link DeploymentFileRepository#getDeploymentRoot(ContentReference)}
+     * @return the index of the local chunks
+     */
+    public LocalChunks indexLocalChunks(final File localPath) {
+        return LocalChunks.index(localPath.getParentFile().getParentFile().toPath());
+    }
+
+    public void sendRequest(final DataOutput output, final String hexHash, final LocalChunks localChunks) throws IOException {
+        output.writeUTF(hexHash);
+        output.writeInt(localChunks.getHashes().size());
+        for (String hash : localChunks.getHashes()) {
+            output.write(HashUtil.hexStringToByteArray(hash));
+        }
+    }
+
+    /**
+     * Reads the chunks sent by the master and writes the content they make up, along with its manifest, to the
+     * local path.
+     *
+     * @param input the response
+     * @param hexHash the hash of the requested content
+     * @param localPath the local directory for the requested content
+     * @param localChunks the index passed to {@link #sendRequest(DataOutput, String, LocalChunks)}
+     * @param metrics the metrics to record the transfer in
+     * @return the local path, or {@code null} if the content is not a single file and must be requested with a
+     *         {@link RemoteFileRequestAndHandler}
+     * @throws IOException if the content cannot be read or written, or does not match the requested hash
+     */
+    public File handleResponse(final DataInput input, final String hexHash, final File localPath, final LocalChunks localChunks,
+                               final ContentTransferMetrics metrics) throws IOException {
+        final long start = System.nanoTime();
+        final int numChunks = input.readInt();
+        DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Received %d chunks for %s", numChunks, localPath);
+        if (numChunks == NOT_FOUND) { // Not found on DC
+            return localPath;
+        } else if (numChunks == NOT_A_FILE) {
+            return null;
+        }
+        final MessageDigest contentDigest = ChunkStore.createMessageDigest();
+        final byte[] chunk = new byte[ChunkStore.MAX_CHUNK_SIZE];
+        final byte[] hash = new byte[ChunkStore.HASH_LENGTH];
+        long transferred = 0;
+        long saved = 0;
+        Files.createDirectories(localChunks.repoRoot);
+        final Path content = Files.createTempFile(localChunks.repoRoot, ContentRepositoryImpl.CONTENT, ".tmp");
+        final Path manifest = Files.createTempFile(localChunks.repoRoot, ChunkStore.MANIFEST, ".tmp");
+        try {
+            try (OutputStream contentOut = new BufferedOutputStream(Files.newOutputStream(content));
+                 DataOutputStream manifestOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(manifest)))) {
+                for (int i = 0; i < numChunks; i++) {
+                    input.readFully(hash);
+                    final int length = input.readInt();
+                    if (input.readBoolean()) {
+                        input.readFully(chunk, 0, length);
+                        transferred += length;
+                    } else {
+                        localChunks.read(HashUtil.bytesToHexString(hash), chunk, length);
+                        saved += length;
+                    }
+                    contentDigest.update(chunk, 0, length);
+                    contentOut.write(chunk, 0, length);
+                    ChunkStore.writeManifestEntry(manifestOut, hash, length);
+                }
+            }
+            final String actualHash = HashUtil.bytesToHexString(contentDigest.digest());
+            if (!actualHash.equalsIgnoreCase(hexHash)) {
+                throw DeploymentRepositoryLogger.ROOT_LOGGER.transferredContentHashMismatch(hexHash, actualHash);
+            }
+            final Path hashDir = localPath.toPath();
+            Files.createDirectories(hashDir);
+            Files.move(content, hashDir.resolve(ContentRepositoryImpl.CONTENT), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(manifest, hashDir.resolve(ChunkStore.MANIFEST), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(content);
+            Files.deleteIfExists(manifest);
+        }
+        DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Received %d bytes for %s, reused %d local bytes", Long.valueOf(transferred), localPath, Long.valueOf(saved));
+        metrics.recordTransfer(transferred, saved, System.nanoTime() - start);
+        return localPath;
+    }
+
+    public void handleRequest(final DataInput input, final HostFileRepository localFileRepository,
+                              final ActiveOperation.ResultHandler<Void> resultHandler,
+                              final ManagementRequestContext<Void> context) throws IOException {
+        final String hexHash = input.readUTF();
+        final int numKnown = input.readInt();
+        final Set<String> known = new HashSet<>();
+        final byte[] hash = new byte[ChunkStore.HASH_LENGTH];
+        for (int i = 0; i < numKnown; i++) {
+            input.readFully(hash);
+            known.add(HashUtil.bytesToHexString(hash));
+        }
+
+        ManagementRequestContext.AsyncTask<Void> task = new ManagementRequestContext.AsyncTask<Void>() {
+            @Override
+            public void execute(ManagementRequestContext<Void> context) throws IOException {
+                final File localPath = HashUtil.isEachHexHashInTable(hexHash)
+                        ? localFileRepository.getDeploymentRoot(new ContentReference(hexHash, hexHash))
+                        : null;
+                FlushableDataOutput output = context.writeMessage(ManagementResponseHeader.create(context.getRequestHeader()));
+                try {
+                    writeResponse(localPath, known, output);
+                    output.close();
+                    resultHandler.done(null); // call stack (AsyncTaskRunner created by ManagementRequestContext) handles failures
+                } finally {
+                    StreamUtils.safeClose(output);
+                }
+            }
+        };
+
+        if (asyncExecutor == null) {
+            context.executeAsync(task);
+        } else {
+            context.executeAsync(task, asyncExecutor);
+        }
+    }
+
+    void writeResponse(final File localPath, final Set<String> known, final DataOutput output) throws IOException {
+        final Path content = localPath == null ? null : localPath.toPath().resolve(ContentRepositoryImpl.CONTENT);
+        if (content == null || !Files.exists(content)) {
+            output.writeInt(NOT_FOUND);
+            return;
+        }
+        if (!Files.isRegularFile(content)) {
+            output.writeInt(NOT_A_FILE);
+            return;
+        }
+        final List<ChunkStore.Chunk> chunks = getManifest(localPath.toPath(), content);
+        output.writeInt(chunks.size());
+        final byte[] buffer = new byte[ChunkStore.MAX_CHUNK_SIZE];
+        int sentChunks = 0;
+        long sent = 0;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(content))) {
+            for (ChunkStore.Chunk chunk : chunks) {
+                output.write(HashUtil.hexStringToByteArray(chunk.hash));
+                output.writeInt(chunk.length);
+                final boolean send = !known.contains(chunk.hash);
+                output.writeBoolean(send);
+                if (send) {
+                    in.readFully(buffer, 0, chunk.length);
+                    output.write(buffer, 0, chunk.length);
+                    sentChunks++;
+                    sent += chunk.length;
+                } else {
+                    skipFully(in, chunk.length);
+                }
+            }
+        }
+        DeploymentRepositoryLogger.ROOT_LOGGER.debugf("Sent %d of %d chunks (%d bytes) of %s", sentChunks, chunks.size(), sent, content);
+    }
+
+    private static void skipFully(final DataInputStream in, final int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            final int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * Gets the chunks of the content, splitting it and keeping its manifest alongside it if it was not added in
+     * chunked mode.
+     */
+    private static List<ChunkStore.Chunk> getManifest(final Path hashDir, final Path content) throws IOException {
+        final Path manifest = hashDir.resolve(ChunkStore.MANIFEST);
+        final Object lock = MANIFEST_LOCKS.computeIfAbsent(manifest, path -> new Object());
+        try {
+            synchronized (lock) {
+                createManifest(manifest, content);
+            }
+        } finally {
+            MANIFEST_LOCKS.remove(manifest, lock);
+        }
+        return ChunkStore.readManifest(manifest);
+    }
+
+    private static void createManifest(final Path manifest, final Path content) throws IOException {
+        if (Files.exists(manifest)) {
+            return;
+        }
+        final MessageDigest chunkDigest = ChunkStore.createMessageDigest();
+        final Path tmp = Files.createTempFile(manifest.getParent().getParent().getParent(), ChunkStore.MANIFEST, ".tmp");
+        try {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(content));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                ChunkStore.split(in, null, (chunk, length) -> {
+                    chunkDigest.reset();
+                    chunkDigest.update(chunk, 0, length);
+                    ChunkStore.writeManifestEntry(out, chunkDigest.digest(), length);
+                });
+            }
+            Files.move(tmp, manifest);
+        } catch (FileAlreadyExistsException ex) {
+            // Created concurrently, once the lock on it had been released
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Index of the chunks of the content in a slave's local repository, built from the manifests of that content.
+     * Content received before its manifest was kept, or with a {@link RemoteFileRequestAndHandler}, is not indexed.
+     */
+    public static final class LocalChunks {
+        private final Path repoRoot;
+        private final Map<String, ChunkLocation> chunks = new HashMap<>();
+
+        private LocalChunks(final Path repoRoot) {
+            this.repoRoot = repoRoot;
+        }
+
+        private static LocalChunks index(final Path repoRoot) {
+            final LocalChunks localChunks = new LocalChunks(repoRoot);
+            if (Files.isDirectory(repoRoot)) {
+                try (DirectoryStream<Path> rootHashes = Files.newDirectoryStream(repoRoot, Files::isDirectory)) {
+                    for (Path rootHash : rootHashes) {
+                        if (ChunkStore.CHUNKS.equals(rootHash.getFileName().toString())) {
+                            continue;
+                        }
+                        try (DirectoryStream<Path> hashDirs = Files.newDirectoryStream(rootHash, Files::isDirectory)) {
+                            for (Path hashDir : hashDirs) {
+                                localChunks.indexManifest(hashDir);
+                            }
+                        }
+                    }
+                } catch (IOException ex) {
+                    DeploymentRepositoryLogger.ROOT_LOGGER.debugf(ex, "Cannot index the local content in %s", repoRoot);
+                }
+            }
+            return localChunks;
+        }
+
+        private void indexManifest(final Path hashDir) {
+            final Path manifest = hashDir.resolve(ChunkStore.MANIFEST);
+            if (!Files.exists(manifest)) {
+                return;
+            }
+            try {
+                final Path content = hashDir.resolve(ContentRepositoryImpl.CONTENT);
+                final boolean hasContent = Files.isRegularFile(content);
+                long offset = 0;
+                for (ChunkStore.Chunk chunk : ChunkStore.readManifest(manifest)) {
+                    if (hasContent) {
+                        chunks.putIfAbsent(chunk.hash, new ChunkLocation(content, offset));
+                    } else {
+                        // Stored in chunked mode
+                        final Path chunkFile = repoRoot.resolve(ChunkStore.CHUNKS).resolve(chunk.hash.substring(0, 2)).resolve(chunk.hash.substring(2));
+                        if (Files.exists(chunkFile)) {
+                            chunks.putIfAbsent(chunk.hash, new ChunkLocation(chunkFile, 0));
+                        }
+                    }
+                    offset += chunk.length;
+                }
+            } catch (IOException ex) {
+                DeploymentRepositoryLogger.ROOT_LOGGER.debugf(ex, "Cannot read the manifest %s", manifest);
+            }
+        }
+
+        Set<String> getHashes() {
+            return chunks.keySet();
+        }
+
+        private void read(final String hash, final byte[] buffer, final int length) throws IOException {
+            final ChunkLocation location = chunks.get(hash);
+            if (location == null) {
+                throw new FileNotFoundException(hash);
+            }
+            try (FileChannel channel = FileChannel.open(location.file, StandardOpenOption.READ)) {
+                final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, length);
+                long position = location.offset;
+                while (bytes.hasRemaining()) {
+                    final int read = channel.read(bytes, position);
+                    if (read < 0) {
+                        throw new EOFException(location.file.toString());
+                    }
+                    position += read;
+                }
+            }
+        }
+    }
+
+    private static final class ChunkLocation {
+        private final Path file;
+        private final long offset;
+
+        private ChunkLocation(final Path file, final long offset) {
+            this.file = file;
+            this.offset = offset;
+        }
+    }
+}
@@ -171,6 +171,7 @@ public abstract class RemoteFileRequestAndHandler {
     private List<File> getChildFiles(final File base) {
         final List<File> childFiles = new ArrayList<>();
         getChildFiles(base, childFiles);
+        childFiles.removeIf(child -> base.equals(child.getParentFile()) && ChunkStore.isContentManifest(child));
         return childFiles;
     }
 
@@ -40,15 +40,22 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
 import java.security.AccessController;
+import java.security.MessageDigest;
 import java.security.PrivilegedAction;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import org.hamcrest.CoreMatchers;
@@ -125,6 +132,103 @@ public class ContentRepositoryTest {
         }
     }
 
+    /**
+     * Test of concurrent calls to the addContent method, of class ContentRepository.
+     */
+    @Test
+    public void testAddContentConcurrently() throws Exception {
+        final int threads = 8;
+        final byte[][] contents = new byte[threads][];
+        final byte[][] expected = new byte[threads][];
+        for (int i = 0; i < threads; i++) {
+            // Half the threads add the same content as another thread
+            contents[i] = new byte[1024 * 1024];
+            Arrays.fill(contents[i], (byte) (i % (threads / 2)));
+            expected[i] = MessageDigest.getInstance("SHA-1").digest(contents[i]);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                final byte[] content = contents[i];
+                results.add(executor.submit(() -> repository.addContent(new ByteArrayInputStream(content))));
+            }
+            for (int i = 0; i < threads; i++) {
+                byte[] hash = results.get(i).get();
+                assertThat(HashUtil.bytesToHexString(hash), is(HashUtil.bytesToHexString(expected[i])));
+                assertTrue(repository.hasContent(hash));
+                assertThat(Files.size(repository.getContent(hash).getPhysicalFile().toPath()), is((long) contents[i].length));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test of storing content as chunks, with the chunks shared between contents and unreferenced chunks removed
+     * when cleaning.
+     */
+    @Test
+    public void testChunkedContent() throws Exception {
+        ContentRepository chunkedRepository = ContentRepository.Factory.create(rootDir, tmpRootDir, 0L, ContentRepository.LOCK_TIMEOUT, true);
+        chunkedRepository.readWrite();
+        byte[] original = new byte[2 * 1024 * 1024];
+        new Random(42).nextBytes(original);
+        byte[] modified = original.clone();
+        Arrays.fill(modified, 1024 * 1024, 1024 * 1024 + 100, (byte) 0);
+        Path chunks = rootDir.toPath().resolve(ChunkStore.CHUNKS);
+
+        byte[] originalHash = chunkedRepository.addContent(new ByteArrayInputStream(original));
+        long originalChunks = countFiles(chunks);
+        byte[] modifiedHash = chunkedRepository.addContent(new ByteArrayInputStream(modified));
+        long allChunks = countFiles(chunks);
+        assertThat(HashUtil.bytesToHexString(originalHash), is(HashUtil.bytesToHexString(MessageDigest.getInstance("SHA-1").digest(original))));
+        assertThat(HashUtil.bytesToHexString(modifiedHash), is(HashUtil.bytesToHexString(MessageDigest.getInstance("SHA-1").digest(modified))));
+        // Only the chunks around the modification differ
+        assertTrue(originalChunks > 1);
+        assertTrue(allChunks - originalChunks < originalChunks / 2);
+
+        Path originalFile = getContentFile(originalHash);
+        Path modifiedFile = getContentFile(modifiedHash);
+        assertFalse(Files.exists(originalFile));
+        assertFalse(Files.exists(modifiedFile));
+        assertTrue(chunkedRepository.hasContent(originalHash));
+        Path reassembledFile = chunkedRepository.getContent(originalHash).getPhysicalFile().toPath();
+        assertTrue(Arrays.equals(original, Files.readAllBytes(reassembledFile)));
+        // No whole copy of the content is kept in the repository
+        assertFalse(Files.exists(originalFile));
+        assertFalse(reassembledFile.startsWith(rootDir.toPath()));
+        try (InputStream in = chunkedRepository.readContent(originalHash, "");
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            StreamUtils.copyStream(in, out);
+            assertTrue(Arrays.equals(original, out.toByteArray()));
+        }
+        assertFalse(Files.exists(originalFile));
+
+        chunkedRepository.addContentReference(new ContentReference("modified", modifiedHash));
+        chunkedRepository.cleanObsoleteContent(); // To mark content for deletion
+        Thread.sleep(10);
+        chunkedRepository.cleanObsoleteContent();
+        assertFalse(chunkedRepository.hasContent(originalHash));
+        assertFalse(Files.exists(reassembledFile));
+        assertTrue(countFiles(chunks) < allChunks);
+        assertTrue(chunkedRepository.syncContent(new ContentReference("modified", modifiedHash)));
+        assertFalse(Files.exists(modifiedFile));
+        assertTrue(Arrays.equals(modified, Files.readAllBytes(chunkedRepository.getContent(modifiedHash).getPhysicalFile().toPath())));
+        assertFalse(Files.exists(modifiedFile));
+    }
+
+    private Path getContentFile(byte[] hash) {
+        String hexHash = HashUtil.bytesToHexString(hash);
+        return rootDir.toPath().resolve(hexHash.substring(0, 2)).resolve(hexHash.substring(2)).resolve("content");
+    }
+
+    private static long countFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
     /**
      * Test of explodeContent method, of class ContentRepository.
      */
@@ -0,0 +1,182 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.repository;
+
+import static org.jboss.as.repository.PathUtil.deleteRecursively;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link RemoteContentDeltaRequestAndHandler}, passing the master's response directly to the slave.
+ */
+public class RemoteContentDeltaRequestAndHandlerTest {
+
+    private final File masterRoot = new File("target", "master-content");
+    private final File slaveRoot = new File("target", "slave-content");
+    private final File tmpRootDir = new File("target", "delta-tmp");
+    private final RemoteContentDeltaRequestAndHandler handler = new RemoteContentDeltaRequestAndHandler();
+    private final ContentTransferMetrics metrics = new ContentTransferMetrics();
+    private ContentRepository masterRepository;
+    private LocalFileRepository masterFileRepository;
+    private LocalFileRepository slaveFileRepository;
+
+    @Before
+    public void createRepositories() throws IOException {
+        for (File dir : new File[]{masterRoot, slaveRoot, tmpRootDir}) {
+            if (dir.exists()) {
+                deleteRecursively(dir.toPath());
+            }
+            dir.mkdirs();
+        }
+        masterRepository = ContentRepository.Factory.create(masterRoot, tmpRootDir, 0L);
+        masterRepository.readWrite();
+        masterFileRepository = new LocalFileRepository(masterRoot, masterRoot, masterRoot, masterRepository);
+        slaveFileRepository = new LocalFileRepository(slaveRoot, slaveRoot, slaveRoot);
+    }
+
+    @After
+    public void destroyRepositories() throws IOException {
+        deleteRecursively(masterRoot.toPath());
+        deleteRecursively(slaveRoot.toPath());
+        deleteRecursively(tmpRootDir.toPath());
+    }
+
+    @Test
+    public void testOnlyChangedChunksAreTransferred() throws Exception {
+        final byte[] content = new byte[1024 * 1024];
+        new Random(42).nextBytes(content);
+        final File first = transfer(masterRepository.addContent(new ByteArrayInputStream(content)));
+        assertArrayEquals(content, Files.readAllBytes(new File(first, ContentRepositoryImpl.CONTENT).toPath()));
+        assertTrue(new File(first, ChunkStore.MANIFEST).exists());
+        assertEquals(content.length, metrics.getBytesTransferred());
+        assertEquals(0, metrics.getBytesSaved());
+
+        // A new version of the content with a few bytes inserted in the middle
+        final byte[] updated = new byte[content.length + 3];
+        System.arraycopy(content, 0, updated, 0, content.length / 2);
+        System.arraycopy(content, content.length / 2, updated, content.length / 2 + 3, content.length / 2);
+        final File second = transfer(masterRepository.addContent(new ByteArrayInputStream(updated)));
+        assertArrayEquals(updated, Files.readAllBytes(new File(second, ContentRepositoryImpl.CONTENT).toPath()));
+        assertEquals(2, metrics.getTransferCount());
+        final long transferred = metrics.getBytesTransferred() - content.length;
+        assertTrue(transferred > 0);
+        assertTrue(transferred < updated.length / 2);
+        assertEquals(updated.length, transferred + metrics.getBytesSaved());
+    }
+
+    @Test
+    public void testMissingContent() throws Exception {
+        final byte[] hash = new byte[20];
+        final File localPath = transfer(hash);
+        assertFalse(localPath.exists());
+        assertEquals(0, metrics.getTransferCount());
+    }
+
+    @Test
+    public void testExplodedContentIsNotSent() throws Exception {
+        final File content = new File(masterRoot, "01" + File.separator + "23" + File.separator + ContentRepositoryImpl.CONTENT);
+        assertTrue(content.mkdirs());
+        assertNull(transfer(HashUtil.hexStringToByteArray("0123")));
+    }
+
+    @Test
+    public void testManifestIsNotADeploymentFile() throws Exception {
+        final byte[] content = new byte[64 * 1024];
+        new Random(42).nextBytes(content);
+        final byte[] hash = masterRepository.addContent(new ByteArrayInputStream(content));
+        transfer(hash);
+        final String hexHash = HashUtil.bytesToHexString(hash);
+        final ContentReference reference = new ContentReference(hexHash, hexHash);
+        for (LocalFileRepository repository : new LocalFileRepository[]{masterFileRepository, slaveFileRepository}) {
+            assertTrue(new File(repository.getDeploymentRoot(reference), ChunkStore.MANIFEST).exists());
+            final File[] files = repository.getDeploymentFiles(reference);
+            assertEquals(1, files.length);
+            assertEquals(ContentRepositoryImpl.CONTENT, files[0].getName());
+        }
+    }
+
+    @Test
+    public void testConcurrentRequestsForTheSameContent() throws Exception {
+        final byte[] content = new byte[1024 * 1024];
+        new Random(42).nextBytes(content);
+        final byte[] hash = masterRepository.addContent(new ByteArrayInputStream(content));
+        final String hexHash = HashUtil.bytesToHexString(hash);
+        final File masterPath = masterFileRepository.getDeploymentRoot(new ContentReference(hexHash, hexHash));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<byte[]>> responses = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                responses.add(executor.submit(() -> {
+                    final ByteArrayOutputStream response = new ByteArrayOutputStream();
+                    try (DataOutputStream output = new DataOutputStream(response)) {
+                        handler.writeResponse(masterPath, Collections.emptySet(), output);
+                    }
+                    return response.toByteArray();
+                }));
+            }
+            final byte[] expected = responses.get(0).get();
+            for (Future<byte[]> response : responses) {
+                assertArrayEquals(expected, response.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(new File(masterPath, ChunkStore.MANIFEST).exists());
+    }
+
+    private File transfer(final byte[] hash) throws IOException {
+        final String hexHash = HashUtil.bytesToHexString(hash);
+        final ContentReference reference = new ContentReference(hexHash, hexHash);
+        final File localPath = slaveFileRepository.getDeploymentRoot(reference);
+        final RemoteContentDeltaRequestAndHandler.LocalChunks localChunks = handler.indexLocalChunks(localPath);
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(response)) {
+            handler.writeResponse(masterFileRepository.getDeploymentRoot(reference), localChunks.getHashes(), output);
+        }
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(response.toByteArray()))) {
+            return handler.handleResponse(input, hexHash, localPath, localChunks, metrics);
+        }
+    }
+}
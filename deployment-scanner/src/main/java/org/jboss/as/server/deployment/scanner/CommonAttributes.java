@@ -38,6 +38,9 @@ interface CommonAttributes {
     String SCANNER = "scanner";
     String SCAN_ENABLED = "scan-enabled";
     String SCAN_INTERVAL = "scan-interval";
+    String SCAN_MODE = "scan-mode";
+    String POLL = "poll";
+    String WATCH = "watch";
     String RUNTIME_FAILURE_CAUSES_ROLLBACK = "runtime-failure-causes-rollback";
 
 }
@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.scanner;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.jboss.as.server.deployment.scanner.FileSystemDeploymentService.DEPLOYED;
+import static org.jboss.as.server.deployment.scanner.FileSystemDeploymentService.DEPLOYING;
+import static org.jboss.as.server.deployment.scanner.FileSystemDeploymentService.FAILED_DEPLOY;
+import static org.jboss.as.server.deployment.scanner.FileSystemDeploymentService.PENDING;
+import static org.jboss.as.server.deployment.scanner.FileSystemDeploymentService.UNDEPLOYED;
+import static org.jboss.as.server.deployment.scanner.FileSystemDeploymentService.UNDEPLOYING;
+import static org.jboss.as.server.deployment.scanner.logging.DeploymentScannerLogger.ROOT_LOGGER;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Watches a deployment directory and all of its sub-directories for changes, notifying a listener whenever
+ * something other than a marker file maintained by the scanner itself is created, modified or deleted.
+ * <p>
+ * Events are delivered from a single thread running {@link #run()}; the listener is expected to coalesce them
+ * into a scan of the directory.
+ */
+class DeploymentDirectoryWatcher implements Runnable, Closeable {
+
+    private final Path root;
+    private final Runnable changeListener;
+    private final WatchService watchService;
+    /** Only accessed by the thread running {@link #run()} once construction has completed */
+    private final Map<WatchKey, Path> directories = new HashMap<WatchKey, Path>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a watcher, registering the given directory and its current sub-directories.
+     *
+     * @param root the deployment directory
+     * @param changeListener listener to notify of changes
+     * @throws IOException if the file system does not support watching the directory
+     */
+    DeploymentDirectoryWatcher(final File root, final Runnable changeListener) throws IOException {
+        this.root = root.toPath();
+        this.changeListener = changeListener;
+        this.watchService = this.root.getFileSystem().newWatchService();
+        try {
+            registerAll(this.root);
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!closed) {
+            final WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            boolean changed = false;
+            final Path dir = directories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                final WatchEvent.Kind<?> kind = event.kind();
+                if (kind == OVERFLOW) {
+                    // Events were lost, so sub-directories created in the meantime may not be registered
+                    ROOT_LOGGER.tracef("Change events for %s were lost; rescanning", root);
+                    register(root);
+                    changed = true;
+                } else if (dir != null) {
+                    final Path path = dir.resolve((Path) event.context());
+                    if (kind == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                        register(path);
+                    }
+                    changed |= isRelevant(path.getFileName().toString(), kind);
+                }
+            }
+            if (!key.reset()) {
+                directories.remove(key);
+            }
+            if (changed && !closed) {
+                changeListener.run();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            ROOT_LOGGER.tracef(e, "Failed to close watch service for %s", root);
+        }
+    }
+
+    private void register(final Path dir) {
+        try {
+            registerAll(dir);
+        } catch (IOException | RuntimeException e) {
+            // Most likely the directory has already been removed again; the scan triggered by the event
+            // will deal with whatever is actually present
+            ROOT_LOGGER.debugf(e, "Failed to watch %s for changes", dir);
+        }
+    }
+
+    private void registerAll(final Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                directories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Gets whether an event requires a scan. Creating or updating the markers the scanner writes to record the
+     * progress and outcome of a deployment must not, or every scan that deploys something would trigger another
+     * one. Deleting a {@code .deployed}, {@code .failed} or {@code .undeployed} marker is a user action though.
+     */
+    static boolean isRelevant(final String fileName, final WatchEvent.Kind<?> kind) {
+        if (fileName.endsWith(DEPLOYING) || fileName.endsWith(UNDEPLOYING) || fileName.endsWith(PENDING)) {
+            return false;
+        }
+        return kind == ENTRY_DELETE
+                || !(fileName.endsWith(DEPLOYED) || fileName.endsWith(FAILED_DEPLOY) || fileName.endsWith(UNDEPLOYED));
+    }
+}
@@ -28,6 +28,7 @@ import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.controller.operations.validation.StringAllowedValuesValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.services.path.PathInfoHandler;
@@ -92,6 +93,13 @@ public class DeploymentScannerDefinition extends SimpleResourceDefinition {
                     .setAllowExpression(true)
                     .setDefaultValue(new ModelNode().set(0))
                     .build();
+    protected static final SimpleAttributeDefinition SCAN_MODE =
+            new SimpleAttributeDefinitionBuilder(CommonAttributes.SCAN_MODE, ModelType.STRING, true)
+                    .setXmlName(CommonAttributes.SCAN_MODE)
+                    .setAllowExpression(true)
+                    .setValidator(new StringAllowedValuesValidator(CommonAttributes.POLL, CommonAttributes.WATCH))
+                    .setDefaultValue(new ModelNode().set(CommonAttributes.POLL))
+                    .build();
     protected static final SimpleAttributeDefinition AUTO_DEPLOY_ZIPPED =
             new SimpleAttributeDefinitionBuilder(CommonAttributes.AUTO_DEPLOY_ZIPPED, ModelType.BOOLEAN, true)
                     .setXmlName(CommonAttributes.AUTO_DEPLOY_ZIPPED)
@@ -126,7 +134,7 @@ public class DeploymentScannerDefinition extends SimpleResourceDefinition {
                     .setDefaultValue(new ModelNode().set(false))
                     .build();
 
-    protected static final SimpleAttributeDefinition[] ALL_ATTRIBUTES = {PATH,RELATIVE_TO,SCAN_ENABLED,SCAN_INTERVAL,AUTO_DEPLOY_EXPLODED,AUTO_DEPLOY_XML,AUTO_DEPLOY_ZIPPED,DEPLOYMENT_TIMEOUT,RUNTIME_FAILURE_CAUSES_ROLLBACK};
+    protected static final SimpleAttributeDefinition[] ALL_ATTRIBUTES = {PATH,RELATIVE_TO,SCAN_ENABLED,SCAN_INTERVAL,SCAN_MODE,AUTO_DEPLOY_EXPLODED,AUTO_DEPLOY_XML,AUTO_DEPLOY_ZIPPED,DEPLOYMENT_TIMEOUT,RUNTIME_FAILURE_CAUSES_ROLLBACK};
 
     @Override
     public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
@@ -136,6 +144,7 @@ public class DeploymentScannerDefinition extends SimpleResourceDefinition {
         UpdateScannerWriteAttributeHandler commonHandler = new UpdateScannerWriteAttributeHandler();
         resourceRegistration.registerReadWriteAttribute(SCAN_ENABLED, null, commonHandler);
         resourceRegistration.registerReadWriteAttribute(SCAN_INTERVAL, null, commonHandler);
+        resourceRegistration.registerReadWriteAttribute(SCAN_MODE, null, commonHandler);
         resourceRegistration.registerReadWriteAttribute(AUTO_DEPLOY_ZIPPED, null, commonHandler);
         resourceRegistration.registerReadWriteAttribute(AUTO_DEPLOY_EXPLODED, null, commonHandler);
         resourceRegistration.registerReadWriteAttribute(AUTO_DEPLOY_XML, null, commonHandler);
@@ -65,6 +65,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
     private final PathAddress resourceAddress;
     private final long interval;
     private TimeUnit unit = TimeUnit.MILLISECONDS;
+    private final boolean watch;
     private final boolean enabled;
     private final boolean autoDeployZipped;
     private final boolean autoDeployExploded;
@@ -116,6 +117,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
      * @param path              the path
      * @param scanInterval      the scan interval
      * @param unit              the unit of {@code scanInterval}
+     * @param watch             whether the deployment directory should be watched for changes rather than periodically scanned
      * @param autoDeployZip     whether zipped content should be auto-deployed
      * @param autoDeployExploded whether exploded content should be auto-deployed
      * @param autoDeployXml     whether xml content should be auto-deployed
@@ -127,10 +129,10 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
      * @return the controller for the deployment scanner service
      */
     public static ServiceController<DeploymentScanner> addService(final OperationContext context, final PathAddress resourceAddress, final String relativeTo, final String path,
-                                                                  final int scanInterval, TimeUnit unit, final boolean autoDeployZip,
+                                                                  final int scanInterval, TimeUnit unit, final boolean watch, final boolean autoDeployZip,
                                                                   final boolean autoDeployExploded, final boolean autoDeployXml, final boolean scanEnabled, final long deploymentTimeout, boolean rollbackOnRuntimeFailure,
                                                                   final FileSystemDeploymentService bootTimeService, final ScheduledExecutorService scheduledExecutorService) {
-        final DeploymentScannerService service = new DeploymentScannerService(resourceAddress, relativeTo, path, scanInterval, unit, autoDeployZip,
+        final DeploymentScannerService service = new DeploymentScannerService(resourceAddress, relativeTo, path, scanInterval, unit, watch, autoDeployZip,
                 autoDeployExploded, autoDeployXml, scanEnabled, deploymentTimeout, rollbackOnRuntimeFailure, bootTimeService);
         final ServiceName serviceName = getServiceName(resourceAddress.getLastElement().getValue());
 
@@ -147,7 +149,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
                 .install();
     }
 
-    private DeploymentScannerService(PathAddress resourceAddress, final String relativeTo, final String path, final int interval, final TimeUnit unit, final boolean autoDeployZipped,
+    private DeploymentScannerService(PathAddress resourceAddress, final String relativeTo, final String path, final int interval, final TimeUnit unit, final boolean watch, final boolean autoDeployZipped,
                                      final boolean autoDeployExploded, final boolean autoDeployXml, final boolean enabled, final long deploymentTimeout,
                                      final boolean rollbackOnRuntimeFailure, final FileSystemDeploymentService bootTimeService) {
         this.resourceAddress = resourceAddress;
@@ -155,6 +157,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
         this.path = path;
         this.interval = interval;
         this.unit = unit;
+        this.watch = watch;
         this.autoDeployZipped = autoDeployZipped;
         this.autoDeployExploded = autoDeployExploded;
         this.autoDeployXml = autoDeployXml;
@@ -193,6 +196,7 @@ public class DeploymentScannerService implements Service<DeploymentScanner> {
                         relativePath, factory, scheduledExecutorValue.getValue(), controlledProcessStateServiceValue.getValue());
 
                 scanner.setScanInterval(unit.toMillis(interval));
+                scanner.setWatchForChanges(watch);
                 scanner.setAutoDeployExplodedContent(autoDeployExploded);
                 scanner.setAutoDeployZippedContent(autoDeployZipped);
                 scanner.setAutoDeployXMLContent(autoDeployXml);
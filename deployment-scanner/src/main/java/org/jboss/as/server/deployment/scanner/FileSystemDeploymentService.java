@@ -69,6 +69,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
@@ -124,14 +125,22 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
      */
     static final long DEFAULT_DEPLOYMENT_TIMEOUT = 600;
 
+    /**
+     * Period, in ms, over which change notifications for a watched deployment directory are coalesced into one scan
+     */
+    static final long WATCH_SCAN_DELAY = 500;
+
     private File deploymentDir;
     private long scanInterval = 0;
     private volatile boolean scanEnabled = false;
+    private volatile boolean watchForChanges = false;
     private volatile boolean firstScan = true;
     private volatile boolean deployedContentEstablished = false;
     private ScheduledFuture<?> scanTask;
     private ScheduledFuture<?> rescanIncompleteTask;
     private ScheduledFuture<?> rescanUndeployTask;
+    private DeploymentDirectoryWatcher watcher;
+    private final AtomicBoolean watchScanPending = new AtomicBoolean();
     private final Lock scanLock = new ReentrantLock();
 
     private final Map<String, DeploymentMarker> deployed = new HashMap<String, DeploymentMarker>();
@@ -263,6 +272,15 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
 
     private final DeploymentScanRunnable scanRunnable = new DeploymentScanRunnable();
 
+    private final Runnable watchScanRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // Clear the flag first so changes made while we scan trigger another scan
+            watchScanPending.set(false);
+            scanRunnable.run();
+        }
+    };
+
     FileSystemDeploymentService(final PathAddress resourceAddress, final String relativeTo, final File deploymentDir, final File relativeToDir,
                                 final DeploymentOperations.Factory deploymentOperationsFactory,
                                 final ScheduledExecutorService scheduledExecutor,
@@ -371,6 +389,20 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
         startScan();
     }
 
+    @Override
+    public boolean isWatchForChanges() {
+        return watchForChanges;
+    }
+
+    @Override
+    public synchronized void setWatchForChanges(boolean watch) {
+        if (watch != this.watchForChanges) {
+            cancelScan();
+            this.watchForChanges = watch;
+            startScan();
+        }
+    }
+
     @Override
     public void setDeploymentTimeout(long deploymentTimeout) {
         this.deploymentTimeout = deploymentTimeout;
@@ -633,7 +665,7 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
             // Deal with any incomplete or non-scannable auto-deploy content
             ScanStatus status = handleAutoDeployFailures(scanContext);
             if (status != ScanStatus.PROCEED) {
-                if (status == ScanStatus.RETRY && scanInterval > 1000) {
+                if (status == ScanStatus.RETRY && (scanInterval > 1000 || watchForChanges)) {
                     // schedule a non-repeating task to try again more quickly
                     scheduleRescan = true;
                 }
@@ -1247,7 +1279,10 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
 
     private synchronized void startScan() {
         if (scanEnabled) {
-            if (scanInterval > 0) {
+            if (watchForChanges && startWatcher()) {
+                // Scan once to pick up anything that changed while we were not watching
+                scanTask = scheduledExecutor.schedule(scanRunnable, 0, TimeUnit.MILLISECONDS);
+            } else if (scanInterval > 0) {
                 scanTask = scheduledExecutor.scheduleWithFixedDelay(scanRunnable, 0, scanInterval, TimeUnit.MILLISECONDS);
             } else {
                 scanTask = scheduledExecutor.schedule(scanRunnable, scanInterval, TimeUnit.MILLISECONDS);
@@ -1271,6 +1306,50 @@ class FileSystemDeploymentService implements DeploymentScanner, NotificationHand
             scanTask.cancel(true);
             scanTask = null;
         }
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Starts watching the deployment directory for changes. Invoke with the object monitor held.
+     *
+     * @return {@code false} if the directory cannot be watched and needs to be scanned periodically instead
+     */
+    private boolean startWatcher() {
+        final DeploymentDirectoryWatcher watcher;
+        try {
+            watcher = new DeploymentDirectoryWatcher(deploymentDir, new Runnable() {
+                @Override
+                public void run() {
+                    scheduleWatchScan();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            ROOT_LOGGER.cannotWatchDeploymentDirectory(e, deploymentDir.getAbsolutePath());
+            return false;
+        }
+        final Thread thread = new Thread(watcher, "DeploymentScanner-watcher - " + deploymentDir.getName());
+        thread.setDaemon(true);
+        thread.start();
+        this.watcher = watcher;
+        return true;
+    }
+
+    /**
+     * Schedules a scan in response to a change in the watched deployment directory, unless one is already
+     * pending, so a burst of changes (e.g. copying an exploded deployment) results in a single scan.
+     */
+    private void scheduleWatchScan() {
+        if (scanEnabled && watchScanPending.compareAndSet(false, true)) {
+            try {
+                scheduledExecutor.schedule(watchScanRunnable, WATCH_SCAN_DELAY, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // The executor is being shut down along with the scanner
+                watchScanPending.set(false);
+            }
+        }
     }
 
     private ModelNode getCompositeUpdate(final List<ModelNode> updates) {
@@ -54,6 +54,25 @@ public interface DeploymentScanner {
      */
     void setScanInterval(long scanInterval);
 
+    /**
+     * Gets whether the scanner reacts to file system change notifications for the deployment directory
+     * instead of periodically scanning it.
+     *
+     * @return true if the deployment directory is watched for changes
+     */
+    default boolean isWatchForChanges() {
+        return false;
+    }
+
+    /**
+     * Sets whether the scanner reacts to file system change notifications for the deployment directory
+     * instead of periodically scanning it. The scan interval is not used while the directory is watched.
+     *
+     * @param watch true if the deployment directory should be watched for changes
+     */
+    default void setWatchForChanges(boolean watch) {
+    }
+
     /**
      * Start the scanner, if not already started, using a default {@link DeploymentOperations}.
      *
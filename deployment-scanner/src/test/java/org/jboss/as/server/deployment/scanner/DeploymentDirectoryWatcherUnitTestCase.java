@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.scanner;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link DeploymentDirectoryWatcher}.
+ */
+public class DeploymentDirectoryWatcherUnitTestCase {
+
+    private static AutoDeployTestSupport testSupport;
+
+    @BeforeClass
+    public static void createTestSupport() throws Exception {
+        testSupport = new AutoDeployTestSupport(DeploymentDirectoryWatcherUnitTestCase.class.getSimpleName());
+    }
+
+    @AfterClass
+    public static void cleanup() throws Exception {
+        if (testSupport != null) {
+            testSupport.cleanupFiles();
+        }
+    }
+
+    @Test
+    public void testChangesAreReported() throws Exception {
+        final File dir = new File(testSupport.getTempDir(), "watched");
+        assertTrue(dir.mkdirs());
+        final Semaphore changes = new Semaphore(0);
+        try (DeploymentDirectoryWatcher watcher = new DeploymentDirectoryWatcher(dir, changes::release)) {
+            final Thread thread = new Thread(watcher);
+            thread.setDaemon(true);
+            thread.start();
+
+            Files.write(new File(dir, "foo.war").toPath(), new byte[]{1});
+            assertTrue(changes.tryAcquire(30, TimeUnit.SECONDS));
+            // Let any further events for the write arrive before looking for the next change
+            Thread.sleep(500);
+            changes.drainPermits();
+
+            // A new sub-directory is watched too
+            final File sub = new File(dir, "sub");
+            assertTrue(sub.mkdir());
+            assertTrue(changes.tryAcquire(30, TimeUnit.SECONDS));
+            Files.write(new File(sub, "bar.war").toPath(), new byte[]{1});
+            assertTrue(changes.tryAcquire(30, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testScannerMarkersAreIgnored() {
+        assertTrue(DeploymentDirectoryWatcher.isRelevant("foo.war", ENTRY_MODIFY));
+        assertTrue(DeploymentDirectoryWatcher.isRelevant("foo.war" + FileSystemDeploymentService.DO_DEPLOY, ENTRY_CREATE));
+        assertTrue(DeploymentDirectoryWatcher.isRelevant("foo.war" + FileSystemDeploymentService.SKIP_DEPLOY, ENTRY_DELETE));
+        assertFalse(DeploymentDirectoryWatcher.isRelevant("foo.war" + FileSystemDeploymentService.DEPLOYING, ENTRY_CREATE));
+        assertFalse(DeploymentDirectoryWatcher.isRelevant("foo.war" + FileSystemDeploymentService.UNDEPLOYING, ENTRY_DELETE));
+        assertFalse(DeploymentDirectoryWatcher.isRelevant("foo.war" + FileSystemDeploymentService.PENDING, ENTRY_CREATE));
+        assertFalse(DeploymentDirectoryWatcher.isRelevant("foo.war" + FileSystemDeploymentService.DEPLOYED, ENTRY_CREATE));
+        assertFalse(DeploymentDirectoryWatcher.isRelevant("foo.war" + FileSystemDeploymentService.FAILED_DEPLOY, ENTRY_MODIFY));
+        // Removing .deployed is how a user undeploys
+        assertTrue(DeploymentDirectoryWatcher.isRelevant("foo.war" + FileSystemDeploymentService.DEPLOYED, ENTRY_DELETE));
+    }
+}
@@ -38,5 +38,11 @@ public class DeploymentScannerParsingTestCase extends AbstractSubsystemBaseTest
     protected String getSubsystemXml() throws IOException {
         return SUBSYSTEM_XML;
     }
+
+    @Override
+    protected void compareXml(String configId, String original, String marshalled) throws Exception {
+        // The subsystem is marshalled in the current version of the schema
+        super.compareXml(configId, original, marshalled, true);
+    }
 }
 
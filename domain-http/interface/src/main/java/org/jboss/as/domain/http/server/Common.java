@@ -27,6 +27,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import io.undertow.io.IoCallback;
@@ -49,6 +50,7 @@ public class Common {
     public static final ResponseCodeHandler INTERNAL_SERVER_ERROR = new ResponseCodeHandler(500);
     public static final ResponseCodeHandler SERVICE_UNAVAIABLE = new ResponseCodeHandler(503);
 
+    static final String APPLICATION_DMR = "application/dmr";
     static final String APPLICATION_DMR_ENCODED = "application/dmr-encoded";
     static final String APPLICATION_JSON = "application/json";
     static final String TEXT_PLAIN = "text/plain";
@@ -67,6 +69,27 @@ public class Common {
         sendError(exchange, encode, msg, errorCode);
     }
 
+    static void sendError(HttpServerExchange exchange, OperationParameter operationParameter, ModelNode msg) {
+        if (operationParameter.isBinary()) {
+            try {
+                ByteArrayOutputStream bout = new ByteArrayOutputStream();
+                msg.writeExternal(bout);
+                byte[] bytes = bout.toByteArray();
+
+                exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, APPLICATION_DMR);
+                exchange.getResponseHeaders().put(Headers.CONTENT_LENGTH, String.valueOf(bytes.length));
+                exchange.setStatusCode(getErrorResponseCode(msg.asString()));
+
+                exchange.getResponseSender().send(ByteBuffer.wrap(bytes), IoCallback.END_EXCHANGE);
+            } catch (IOException e) {
+                // fallback, should not happen
+                sendError(exchange, false, msg);
+            }
+        } else {
+            sendError(exchange, operationParameter.isEncode(), msg);
+        }
+    }
+
     static void sendError(HttpServerExchange exchange, boolean encode, ModelNode msg, int errorCode) {
         if(encode) {
 
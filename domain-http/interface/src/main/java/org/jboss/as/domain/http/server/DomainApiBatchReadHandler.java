@@ -0,0 +1,284 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ACCESS_MECHANISM;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CALLER_TYPE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DOMAIN_UUID;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_HEADERS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_ONLY;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_OPERATION_DESCRIPTION_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.USER;
+import static org.jboss.as.domain.http.server.DomainUtil.readPostRequest;
+import static org.jboss.as.domain.http.server.DomainUtil.writeResponse;
+import static org.jboss.as.domain.http.server.logging.HttpServerLogger.ROOT_LOGGER;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.security.PrivilegedAction;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.Headers;
+import org.jboss.as.controller.AccessAuditContext;
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.core.security.AccessMechanism;
+import org.jboss.as.domain.http.server.security.ElytronIdentityHandler;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.wildfly.security.auth.server.SecurityIdentity;
+
+/**
+ * Executes a list of independent read-only operations and responds with the list of their responses, in the same
+ * order as the operations.
+ * <p/>
+ * The operations are executed concurrently on the management executor. Unlike the steps of a {@code composite}
+ * operation each one succeeds or fails on its own. An operation that is not registered as read-only is rejected
+ * without being executed, and one that turns out to modify anything anyway is rolled back.
+ */
+class DomainApiBatchReadHandler implements HttpHandler {
+
+    /**
+     * The number of operations of a batch that are executed at the same time
+     */
+    private static final int MAX_CONCURRENT_OPERATIONS = Runtime.getRuntime().availableProcessors();
+
+    private final ModelController modelController;
+    private final Executor executor;
+
+    DomainApiBatchReadHandler(final ModelController modelController, final Executor executor) {
+        this.modelController = modelController;
+        this.executor = executor;
+    }
+
+    @Override
+    public void handleRequest(final HttpServerExchange exchange) {
+        final HeaderMap requestHeaders = exchange.getRequestHeaders();
+        final boolean encode = Common.APPLICATION_DMR_ENCODED.equals(requestHeaders.getFirst(Headers.ACCEPT))
+                || Common.APPLICATION_DMR_ENCODED.equals(requestHeaders.getFirst(Headers.CONTENT_TYPE));
+        final boolean binary = Common.APPLICATION_DMR.equals(requestHeaders.getFirst(Headers.ACCEPT))
+                || Common.APPLICATION_DMR.equals(requestHeaders.getFirst(Headers.CONTENT_TYPE));
+        final OperationParameter operationParameter = new OperationParameter.Builder(false).encode(encode).binary(binary).build();
+
+        final ModelNode dmr;
+        try {
+            dmr = readPostRequest(exchange, encode, binary);
+        } catch (Exception e) {
+            ROOT_LOGGER.debugf("Unable to construct ModelNode '%s'", e.getMessage());
+            Common.sendError(exchange, false, e.toString());
+            return;
+        }
+        if (dmr.getType() != ModelType.LIST) {
+            Common.sendError(exchange, encode, new ModelNode(ROOT_LOGGER.batchReadNotAList()), 400);
+            return;
+        }
+
+        final SecurityIdentity securityIdentity = exchange.getAttachment(ElytronIdentityHandler.IDENTITY_KEY);
+        final SocketAddress peerSocketAddress = exchange.getConnection().getPeerAddress();
+        final InetAddress remoteAddress = peerSocketAddress instanceof InetSocketAddress ? ((InetSocketAddress) peerSocketAddress).getAddress() : null;
+        final ModelNode response;
+        try {
+            response = execute(dmr.asList(), securityIdentity, remoteAddress);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Common.sendError(exchange, encode, e.toString());
+            return;
+        } catch (ExecutionException e) {
+            ROOT_LOGGER.modelRequestError(e.getCause());
+            Common.sendError(exchange, encode, e.getCause().toString());
+            return;
+        }
+        writeResponse(exchange, 200, response, operationParameter);
+    }
+
+    /**
+     * Executes the operations of a batch, and gets the list of their responses.
+     *
+     * @param securityIdentity the identity of the caller, which the operations are executed as
+     * @param remoteAddress the address of the caller, or {@code null} if it is not known
+     * @throws InterruptedException if interrupted while waiting for the other workers to complete
+     * @throws ExecutionException if one of the other workers failed, rather than one of the operations
+     */
+    ModelNode execute(final List<ModelNode> operations, final SecurityIdentity securityIdentity, final InetAddress remoteAddress)
+            throws InterruptedException, ExecutionException {
+        final ModelNode[] responses = new ModelNode[operations.size()];
+        final Map<String, Boolean> readOnly = new ConcurrentHashMap<>();
+        final AtomicInteger next = new AtomicInteger();
+        final Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < responses.length; i = next.getAndIncrement()) {
+                responses[i] = execute(operations.get(i), readOnly);
+            }
+        };
+
+        // A helper only counts once it has started. One that only starts after this thread has run out of
+        // operations finds nothing left to do, so this thread never waits for helpers that are still queued
+        // behind other tasks on the executor, or behind this very request. The helpers run as the caller, as this
+        // thread does.
+        final Phaser running = new Phaser(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Runnable helper = () -> {
+            if (running.register() < 0) {
+                return;
+            }
+            try {
+                AccessAuditContext.doAs(securityIdentity, remoteAddress, (PrivilegedAction<Void>) () -> {
+                    worker.run();
+                    return null;
+                });
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                running.arriveAndDeregister();
+            }
+        };
+
+        // This thread is one of the workers, so the whole batch still completes if the executor is saturated
+        for (int i = 1; i < Math.min(responses.length, MAX_CONCURRENT_OPERATIONS); i++) {
+            try {
+                executor.execute(helper);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        worker.run();
+        running.awaitAdvanceInterruptibly(running.arriveAndDeregister());
+        if (failure.get() != null) {
+            throw new ExecutionException(failure.get());
+        }
+
+        final ModelNode response = new ModelNode().setEmptyList();
+        for (ModelNode operationResponse : responses) {
+            response.add(operationResponse);
+        }
+        return response;
+    }
+
+    private ModelNode execute(final ModelNode operation, final Map<String, Boolean> readOnly) {
+        try {
+            setHeaders(operation);
+            if (!isReadOnly(operation, readOnly)) {
+                final ModelNode response = new ModelNode();
+                response.get(OUTCOME).set(FAILED);
+                response.get(FAILURE_DESCRIPTION).set(ROOT_LOGGER.batchReadOperationNotReadOnly(operation.get(OP).asString()));
+                return response;
+            }
+            // Any streams attached to the response are not sent, so they are closed straight away
+            try (OperationResponse response = modelController.execute(new OperationBuilder(operation).build(),
+                    OperationMessageHandler.logging, new ReadOnlyTransactionControl(operation))) {
+                return response.getResponseNode();
+            }
+        } catch (Throwable t) {
+            ROOT_LOGGER.modelRequestError(t);
+            final ModelNode response = new ModelNode();
+            response.get(OUTCOME).set(FAILED);
+            response.get(FAILURE_DESCRIPTION).set(t.toString());
+            return response;
+        }
+    }
+
+    private static void setHeaders(final ModelNode operation) {
+        ModelNode headers = operation.get(OPERATION_HEADERS);
+        headers.get(ACCESS_MECHANISM).set(AccessMechanism.HTTP.toString());
+        headers.get(CALLER_TYPE).set(USER);
+        // Don't allow a domain-uuid operation header from a user call
+        if (headers.hasDefined(DOMAIN_UUID)) {
+            headers.remove(DOMAIN_UUID);
+        }
+    }
+
+    /**
+     * Gets whether the operation is registered as read-only, as described for the resource it targets.
+     *
+     * @param readOnly what has already been found out for the operations of the batch, by address and name
+     */
+    private boolean isReadOnly(final ModelNode operation, final Map<String, Boolean> readOnly) {
+        final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+        final String name = operation.get(OP).asString();
+        final String key = address.toCLIStyleString() + ':' + name;
+        Boolean result = readOnly.get(key);
+        if (result == null) {
+            final ModelNode describe = Util.createEmptyOperation(READ_OPERATION_DESCRIPTION_OPERATION, address);
+            describe.get(NAME).set(name);
+            setHeaders(describe);
+            final ModelNode response = modelController.execute(describe, OperationMessageHandler.logging,
+                    ModelController.OperationTransactionControl.COMMIT, null);
+            result = SUCCESS.equals(response.get(OUTCOME).asString()) && response.get(RESULT, READ_ONLY).asBoolean(false);
+            readOnly.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Rolls back an operation that has modified the model, the resource registrations or the runtime, even though it is
+     * registered as read-only.
+     */
+    private static final class ReadOnlyTransactionControl implements ModelController.OperationTransactionControl {
+
+        private final ModelNode operation;
+
+        private ReadOnlyTransactionControl(final ModelNode operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public void operationPrepared(ModelController.OperationTransaction transaction, ModelNode result) {
+            // Without the context there is no telling what the operation did
+            operationPrepared(transaction, result, null);
+        }
+
+        @Override
+        public void operationPrepared(ModelController.OperationTransaction transaction, ModelNode result, OperationContext context) {
+            if (context == null || context.isModelAffected() || context.isResourceRegistryAffected() || context.isRuntimeAffected()) {
+                result.get(FAILURE_DESCRIPTION).set(ROOT_LOGGER.batchReadOperationNotReadOnly(operation.get(OP).asString()));
+                transaction.rollback();
+            } else {
+                transaction.commit();
+            }
+        }
+    }
+}
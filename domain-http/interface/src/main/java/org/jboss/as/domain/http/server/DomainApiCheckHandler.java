@@ -25,7 +25,10 @@ import static org.jboss.as.domain.http.server.cors.CorsUtil.matchOrigin;
 import static org.jboss.as.domain.http.server.logging.HttpServerLogger.ROOT_LOGGER;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.server.handlers.encoding.ContentEncodingRepository;
+import io.undertow.server.handlers.encoding.DeflateEncodingProvider;
 import io.undertow.server.handlers.encoding.EncodingHandler;
+import io.undertow.server.handlers.encoding.GzipEncodingProvider;
 import io.undertow.util.HeaderMap;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
@@ -33,7 +36,7 @@ import io.undertow.util.Methods;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.concurrent.Executor;
 
 import org.jboss.as.controller.ControlledProcessState;
 import org.jboss.as.controller.ControlledProcessStateService;
@@ -49,19 +52,23 @@ class DomainApiCheckHandler implements HttpHandler {
     static final String PATH = "/management";
     static final String GENERIC_CONTENT_REQUEST = PATH + "-upload";
     private static final String ADD_CONTENT_REQUEST = PATH + "/add-content";
+    private static final String BATCH_READ_REQUEST = PATH + "/batch-read";
 
     private final ControlledProcessStateService controlledProcessStateService;
     private final HttpHandler domainApiHandler;
     private final HttpHandler addContentHandler;
     private final HttpHandler genericOperationHandler;
+    private final HttpHandler batchReadHandler;
     private final Collection<String> allowedOrigins = new ArrayList<String>();
 
 
-    DomainApiCheckHandler(final ModelController modelController, final ControlledProcessStateService controlledProcessStateService, final Collection<String> allowedOrigins) {
+    DomainApiCheckHandler(final ModelController modelController, final ControlledProcessStateService controlledProcessStateService,
+                          final Collection<String> allowedOrigins, final Executor executor) {
         this.controlledProcessStateService = controlledProcessStateService;
-        domainApiHandler = new EncodingHandler.Builder().build(Collections.<String,Object>emptyMap()).wrap(new DomainApiHandler(modelController));
+        domainApiHandler = new EncodingHandler(new DomainApiHandler(modelController), createContentEncodingRepository());
         addContentHandler = new DomainApiUploadHandler(modelController);
-        genericOperationHandler = new EncodingHandler.Builder().build(Collections.<String,Object>emptyMap()).wrap(new DomainApiGenericOperationHandler(modelController));
+        genericOperationHandler = new EncodingHandler(new DomainApiGenericOperationHandler(modelController), createContentEncodingRepository());
+        batchReadHandler = new EncodingHandler(new DomainApiBatchReadHandler(modelController, executor), createContentEncodingRepository());
         if (allowedOrigins != null) {
             for (String allowedOrigin : allowedOrigins) {
                 this.allowedOrigins.add(CorsUtil.sanitizeDefaultPort(allowedOrigin));
@@ -69,6 +76,15 @@ class DomainApiCheckHandler implements HttpHandler {
         }
     }
 
+    /**
+     * Compress responses if the client accepts that, preferring gzip.
+     */
+    private static ContentEncodingRepository createContentEncodingRepository() {
+        return new ContentEncodingRepository()
+                .addEncodingHandler("gzip", new GzipEncodingProvider(), 50)
+                .addEncodingHandler("deflate", new DeflateEncodingProvider(), 10);
+    }
+
     @Override
     public void handleRequest(HttpServerExchange exchange) throws Exception {
         if (!commonChecks(exchange)) {
@@ -88,6 +104,10 @@ class DomainApiCheckHandler implements HttpHandler {
             if (!checkPostContentType(exchange)) {
                 return;
             }
+            if (BATCH_READ_REQUEST.equals(exchange.getRequestPath())) {
+                batchReadHandler.handleRequest(exchange);
+                return;
+            }
         }
 
         domainApiHandler.handleRequest(exchange);
@@ -96,12 +116,13 @@ class DomainApiCheckHandler implements HttpHandler {
     private boolean checkPostContentType(HttpServerExchange exchange) throws Exception {
         HeaderMap headers = exchange.getRequestHeaders();
         String contentType = extractContentType(headers.getFirst(Headers.CONTENT_TYPE));
-        if (!(Common.APPLICATION_JSON.equals(contentType) || Common.APPLICATION_DMR_ENCODED.equals(contentType))) {
+        if (!(Common.APPLICATION_JSON.equals(contentType) || Common.APPLICATION_DMR_ENCODED.equals(contentType)
+                || Common.APPLICATION_DMR.equals(contentType))) {
             // RFC 2616: 14.11 Content-Encoding
             // If the content-coding of an entity in a request message is not
             // acceptable to the origin server, the server SHOULD respond with a
             // status code of 415 (Unsupported Media Type).
-            ROOT_LOGGER.debug("Request rejected due to unsupported media type - should be one of (application/json,application/dmr-encoded).");
+            ROOT_LOGGER.debug("Request rejected due to unsupported media type - should be one of (application/json,application/dmr-encoded,application/dmr).");
             Common.UNSUPPORTED_MEDIA_TYPE.handleRequest(exchange);
             return false;
         }
@@ -114,7 +114,12 @@ class DomainApiGenericOperationHandler implements HttpHandler {
         final ModelNode operation;
         try {
             String type = op.getHeaders().getFirst(Headers.CONTENT_TYPE);
-            if (Common.APPLICATION_DMR_ENCODED.equals(type)) {
+            if (Common.APPLICATION_DMR.equals(type)) {
+                try (InputStream stream = convertToStream(op)) {
+                    operation = ModelNode.fromStream(stream);
+                }
+                operationParameterBuilder.binary(true);
+            } else if (Common.APPLICATION_DMR_ENCODED.equals(type)) {
                 try (InputStream stream = convertToStream(op)) {
                     operation = ModelNode.fromBase64(stream);
                 }
@@ -124,7 +129,7 @@ class DomainApiGenericOperationHandler implements HttpHandler {
                     operation = ModelNode.fromJSONStream(stream);
                 }
             } else {
-                ROOT_LOGGER.debug("Content-type must be application/dmr-encoded or application/json");
+                ROOT_LOGGER.debug("Content-type must be application/dmr, application/dmr-encoded or application/json");
                 Common.UNAUTHORIZED.handleRequest(exchange);
                 return;
             }
@@ -166,7 +171,7 @@ class DomainApiGenericOperationHandler implements HttpHandler {
             void doSendResponse(final OperationResponse operationResponse) {
                 ModelNode response = operationResponse.getResponseNode();
                 if (response.hasDefined(OUTCOME) && FAILED.equals(response.get(OUTCOME).asString())) {
-                    Common.sendError(exchange, opParam.isEncode(), response);
+                    Common.sendError(exchange, opParam, response);
                     return;
                 }
                 writeResponse(exchange, 200, response, opParam);
@@ -36,15 +36,15 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REA
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_OPERATION_NAMES_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_DESCRIPTION_OPERATION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STREAM;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SYNC_REMOVED_FOR_READD;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.USER;
 import static org.jboss.as.domain.http.server.DomainUtil.getStreamIndex;
+import static org.jboss.as.domain.http.server.DomainUtil.readPostRequest;
 import static org.jboss.as.domain.http.server.DomainUtil.writeResponse;
 import static org.jboss.as.domain.http.server.DomainUtil.writeStreamResponse;
 import static org.jboss.as.domain.http.server.logging.HttpServerLogger.ROOT_LOGGER;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
@@ -74,8 +74,6 @@ import org.jboss.as.core.security.AccessMechanism;
 import org.jboss.as.domain.http.server.logging.HttpServerLogger;
 import org.jboss.as.protocol.StreamUtils;
 import org.jboss.dmr.ModelNode;
-import org.xnio.IoUtils;
-import org.xnio.streams.ChannelInputStream;
 
 /**
  *
@@ -136,8 +134,10 @@ class DomainApiHandler implements HttpHandler {
         final boolean get = exchange.getRequestMethod().equals(Methods.GET);
         final boolean encode = Common.APPLICATION_DMR_ENCODED.equals(requestHeaders.getFirst(Headers.ACCEPT))
                 || Common.APPLICATION_DMR_ENCODED.equals(requestHeaders.getFirst(Headers.CONTENT_TYPE));
-        final OperationParameter.Builder operationParameterBuilder = new OperationParameter.Builder(get).encode(encode);
-        final int streamIndex = getStreamIndex(exchange, requestHeaders);
+        final boolean binary = Common.APPLICATION_DMR.equals(requestHeaders.getFirst(Headers.ACCEPT))
+                || Common.APPLICATION_DMR.equals(requestHeaders.getFirst(Headers.CONTENT_TYPE));
+        final OperationParameter.Builder operationParameterBuilder = new OperationParameter.Builder(get).encode(encode).binary(binary);
+        final int requestedStreamIndex = getStreamIndex(exchange, requestHeaders);
 
         try {
             if (get) {
@@ -146,7 +146,7 @@ class DomainApiHandler implements HttpHandler {
                 dmr = convertGetRequest(exchange, operation);
                 cachable = operation.getMaxAge() > 0;
             } else {
-                dmr = convertPostRequest(exchange, encode);
+                dmr = readPostRequest(exchange, encode, binary);
                 cachable = false;
             }
             //operationParameterBuilder.pretty(dmr.hasDefined("json.pretty") && dmr.get("json.pretty").asBoolean());
@@ -162,6 +162,8 @@ class DomainApiHandler implements HttpHandler {
             Common.sendError(exchange, false, e.toString());
             return;
         }
+        // A streamed read-resource has its response in the attached stream, so send that unless told otherwise
+        final int streamIndex = requestedStreamIndex < 0 && isStreamedReadResource(dmr) ? 0 : requestedStreamIndex;
 
         final ResponseCallback callback = new ResponseCallback() {
             @Override
@@ -170,7 +172,7 @@ class DomainApiHandler implements HttpHandler {
                 try {
                     ModelNode responseNode = response.getResponseNode();
                     if (responseNode.hasDefined(OUTCOME) && FAILED.equals(responseNode.get(OUTCOME).asString())) {
-                        Common.sendError(exchange, encode, responseNode);
+                        Common.sendError(exchange, operationParameterBuilder.build(), responseNode);
                         return;
                     }
                     if (streamIndex < 0) {
@@ -286,15 +288,6 @@ class DomainApiHandler implements HttpHandler {
         return dmr;
     }
 
-    private ModelNode convertPostRequest(HttpServerExchange exchange, boolean encode) throws IOException {
-        InputStream in = new ChannelInputStream(exchange.getRequestChannel());
-        try {
-            return encode ? ModelNode.fromBase64(in) : ModelNode.fromJSONStream(in);
-        } finally {
-            IoUtils.safeClose(in);
-        }
-    }
-
     private ArrayList<String> decodePath(String path) {
         if (path == null)
             throw new IllegalArgumentException();
@@ -326,6 +319,11 @@ class DomainApiHandler implements HttpHandler {
         }
     }
 
+    private boolean isStreamedReadResource(final ModelNode operation) {
+        return READ_RESOURCE_OPERATION.equals(operation.get(OP).asString())
+                && operation.hasDefined(STREAM) && operation.get(STREAM).asBoolean(false);
+    }
+
     /**
      * Determine whether the prepared response should be sent, before the operation completed. This is needed in order
      * that operations like :reload() can be executed without causing communication failures.
@@ -28,9 +28,11 @@ import static io.undertow.util.Headers.HOST;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
 
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Deque;
@@ -51,6 +53,7 @@ import io.undertow.util.HttpString;
 import org.jboss.as.controller.client.OperationResponse;
 import org.jboss.dmr.ModelNode;
 import org.xnio.IoUtils;
+import org.xnio.streams.ChannelInputStream;
 
 
 /**
@@ -73,8 +76,12 @@ public class DomainUtil {
         exchange.setStatusCode(status);
 
         final HeaderMap responseHeaders = exchange.getResponseHeaders();
-        final String contentType = operationParameter.isEncode() ? Common.APPLICATION_DMR_ENCODED : Common.APPLICATION_JSON;
-        responseHeaders.put(Headers.CONTENT_TYPE, contentType + "; charset=" + Common.UTF_8);
+        if (operationParameter.isBinary()) {
+            responseHeaders.put(Headers.CONTENT_TYPE, Common.APPLICATION_DMR);
+        } else {
+            final String contentType = operationParameter.isEncode() ? Common.APPLICATION_DMR_ENCODED : Common.APPLICATION_JSON;
+            responseHeaders.put(Headers.CONTENT_TYPE, contentType + "; charset=" + Common.UTF_8);
+        }
 
         writeCacheHeaders(exchange, status, operationParameter);
 
@@ -83,10 +90,13 @@ public class DomainUtil {
             // is not send as part of the response but expressed with the HTTP status code.
             response = response.get(RESULT);
         }
-        try {
-            byte[] data = getResponseBytes(response, operationParameter);
-            responseHeaders.put(Headers.CONTENT_LENGTH, data.length);
-            exchange.getResponseSender().send(ByteBuffer.wrap(data));
+        // Write the response straight to the exchange rather than rendering all of it up front. Without a
+        // known length it is sent chunked, or compressed if the client accepts that
+        if (!exchange.isBlocking()) {
+            exchange.startBlocking();
+        }
+        try (OutputStream out = new BufferedOutputStream(exchange.getOutputStream())) {
+            writeResponse(out, response, operationParameter);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -169,16 +179,27 @@ public class DomainUtil {
         return "application/octet-stream";
     }
 
-    private static byte[] getResponseBytes(final ModelNode modelNode, final OperationParameter operationParameter) throws IOException {
-        if (operationParameter.isEncode()) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            BufferedOutputStream out = new BufferedOutputStream(baos);
+    private static void writeResponse(final OutputStream out, final ModelNode modelNode, final OperationParameter operationParameter) throws IOException {
+        if (operationParameter.isBinary()) {
+            modelNode.writeExternal(out);
+        } else if (operationParameter.isEncode()) {
             modelNode.writeBase64(out);
-            out.flush();
-            return baos.toByteArray();
         } else {
-            String json = modelNode.toJSONString(!operationParameter.isPretty());
-            return json.getBytes(StandardCharsets.UTF_8);
+            final PrintWriter print = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            modelNode.writeJSONString(print, !operationParameter.isPretty());
+            print.flush();
+        }
+    }
+
+    static ModelNode readPostRequest(final HttpServerExchange exchange, final boolean encode, final boolean binary) throws IOException {
+        InputStream in = new ChannelInputStream(exchange.getRequestChannel());
+        try {
+            if (binary) {
+                return ModelNode.fromStream(in);
+            }
+            return encode ? ModelNode.fromBase64(in) : ModelNode.fromJSONStream(in);
+        } finally {
+            IoUtils.safeClose(in);
         }
     }
 
@@ -361,7 +361,7 @@ public class ManagementHttpServer {
                 InExecutorHandler.wrap(
                     builder.executor,
                     associateIdentity(new DomainApiCheckHandler(builder.modelController, builder.controlledProcessStateService,
-                        builder.allowedOrigins), builder)
+                        builder.allowedOrigins, builder.executor), builder)
                 )));
 
         final Function<HttpServerExchange, Boolean> readyFunction = createReadyFunction(builder);
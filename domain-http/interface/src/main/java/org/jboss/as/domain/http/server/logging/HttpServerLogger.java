@@ -101,4 +101,10 @@ public interface HttpServerLogger extends BasicLogger {
     @Message(id = 15, value = "No SecurityRealm or SSLContext has been provided.")
     IllegalStateException noRealmOrSSLContext();
 
+    @Message(id = 16, value = "A batch of read operations must be a list of operations")
+    String batchReadNotAList();
+
+    @Message(id = 17, value = "Operation %s is not read-only and cannot be executed as part of a batch of read operations")
+    String batchReadOperationNotReadOnly(String operation);
+
 }
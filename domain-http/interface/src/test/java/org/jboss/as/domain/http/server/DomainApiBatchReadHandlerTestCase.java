@@ -0,0 +1,167 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_ATTRIBUTE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_ONLY;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_OPERATION_DESCRIPTION_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WRITE_ATTRIBUTE_OPERATION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.as.controller.ModelController;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationAttachments;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.as.controller.client.OperationResponse;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.controller.registry.NotificationHandlerRegistration;
+import org.jboss.dmr.ModelNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that {@link DomainApiBatchReadHandler} executes the read-only operations of a batch concurrently, responds in
+ * the order of the operations, and rejects the operations that are not read-only without executing them.
+ */
+public class DomainApiBatchReadHandlerTestCase {
+
+    private ExecutorService executor;
+    private final BatchModelController controller = new BatchModelController();
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testResponsesInOperationOrder() throws Exception {
+        final List<ModelNode> operations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final ModelNode operation = Util.createEmptyOperation(READ_ATTRIBUTE_OPERATION, PathAddress.pathAddress("child", String.valueOf(i)));
+            operation.get(NAME).set("attr");
+            operations.add(operation);
+        }
+
+        final List<ModelNode> responses = new DomainApiBatchReadHandler(controller, executor).execute(operations, null, null).asList();
+        assertEquals(operations.size(), responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals(responses.get(i).toString(), SUCCESS, responses.get(i).get(OUTCOME).asString());
+            assertEquals(String.valueOf(i), responses.get(i).get(RESULT).asString());
+        }
+        if (Runtime.getRuntime().availableProcessors() > 1) {
+            // This thread has had help from the executor
+            assertTrue(controller.threads.toString(), controller.threads.size() > 1);
+        }
+    }
+
+    @Test
+    public void testOperationNotReadOnly() throws Exception {
+        final ModelNode read = Util.createEmptyOperation(READ_ATTRIBUTE_OPERATION, PathAddress.pathAddress("child", "one"));
+        read.get(NAME).set("attr");
+        final ModelNode write = Util.getWriteAttributeOperation(PathAddress.pathAddress("child", "two"), "attr", 2);
+        final List<ModelNode> operations = new ArrayList<>();
+        operations.add(read);
+        operations.add(write);
+
+        final List<ModelNode> responses = new DomainApiBatchReadHandler(controller, executor).execute(operations, null, null).asList();
+        assertEquals(SUCCESS, responses.get(0).get(OUTCOME).asString());
+        assertEquals(FAILED, responses.get(1).get(OUTCOME).asString());
+        assertFalse(controller.written.get());
+    }
+
+    /**
+     * Describes the write-attribute operation as the only one that is not read-only, and responds to any other with the
+     * value of the resource address.
+     */
+    private static class BatchModelController implements ModelController {
+
+        private final Set<String> threads = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean written = new AtomicBoolean();
+
+        @Override
+        public ModelNode execute(ModelNode operation, OperationMessageHandler handler, OperationTransactionControl control, OperationAttachments attachments) {
+            final ModelNode response = new ModelNode();
+            if (READ_OPERATION_DESCRIPTION_OPERATION.equals(operation.get(OP).asString())) {
+                response.get(OUTCOME).set(SUCCESS);
+                response.get(RESULT, READ_ONLY).set(!WRITE_ATTRIBUTE_OPERATION.equals(operation.get(NAME).asString()));
+            } else {
+                if (WRITE_ATTRIBUTE_OPERATION.equals(operation.get(OP).asString())) {
+                    written.set(true);
+                }
+                threads.add(Thread.currentThread().getName());
+                try {
+                    // Give the other workers the chance to pick up operations
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                response.get(OUTCOME).set(SUCCESS);
+                response.get(RESULT).set(PathAddress.pathAddress(operation.get(OP_ADDR)).getLastElement().getValue());
+            }
+            return response;
+        }
+
+        @Override
+        public OperationResponse execute(Operation operation, OperationMessageHandler handler, OperationTransactionControl control) {
+            return OperationResponse.Factory.createSimple(execute(operation.getOperation(), handler, control, operation));
+        }
+
+        @Override
+        public ModelControllerClient createClient(Executor executor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NotificationHandlerRegistration getNotificationRegistry() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -130,6 +130,7 @@ public class CoreManagementResourceDefinition extends SimpleResourceDefinition {
         super.registerOperations(resourceRegistration);
         if(bootErrorCollector != null) {
             resourceRegistration.registerOperationHandler(BootErrorCollector.ListBootErrorsHandler.DEFINITION, bootErrorCollector.getReadBootErrorsHandler());
+            resourceRegistration.registerOperationHandler(BootErrorCollector.ReadSubsystemBootTimesHandler.DEFINITION, bootErrorCollector.getReadSubsystemBootTimesHandler());
         }
     }
 
@@ -0,0 +1,82 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.management.access;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.access.management.DelegatingConfigurableAuthorizer;
+import org.jboss.as.controller.access.permission.AuthorizationDecisionCache;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Handlers for reading the statistics of the {@link AuthorizationDecisionCache} of the current authorizer.
+ */
+abstract class AccessAuthorizationDecisionCacheHandler implements OperationStepHandler {
+
+    static AccessAuthorizationDecisionCacheHandler getHitsHandler(DelegatingConfigurableAuthorizer authorizer) {
+        return new Hits(authorizer);
+    }
+
+    static AccessAuthorizationDecisionCacheHandler getMissesHandler(DelegatingConfigurableAuthorizer authorizer) {
+        return new Misses(authorizer);
+    }
+
+    private final DelegatingConfigurableAuthorizer authorizer;
+
+    AccessAuthorizationDecisionCacheHandler(DelegatingConfigurableAuthorizer authorizer) {
+        this.authorizer = authorizer;
+    }
+
+    @Override
+    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+        AuthorizationDecisionCache cache = authorizer.getDecisionCache();
+        context.getResult().set(cache == null ? 0L : getCount(cache));
+    }
+
+    abstract long getCount(AuthorizationDecisionCache cache);
+
+    private static class Hits extends AccessAuthorizationDecisionCacheHandler {
+
+        private Hits(DelegatingConfigurableAuthorizer authorizer) {
+            super(authorizer);
+        }
+
+        @Override
+        long getCount(AuthorizationDecisionCache cache) {
+            return cache.getHitCount();
+        }
+    }
+
+    private static class Misses extends AccessAuthorizationDecisionCacheHandler {
+
+        private Misses(DelegatingConfigurableAuthorizer authorizer) {
+            super(authorizer);
+        }
+
+        @Override
+        long getCount(AuthorizationDecisionCache cache) {
+            return cache.getMissCount();
+        }
+    }
+}
@@ -98,6 +98,16 @@ public class AccessAuthorizationResourceDefinition extends SimpleResourceDefinit
             .setRuntimeServiceNotRequired()
             .build();
 
+    static final SimpleAttributeDefinition DECISION_CACHE_HITS = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.DECISION_CACHE_HITS, ModelType.LONG)
+            .setStorageRuntime()
+            .setUndefinedMetricValue(new ModelNode(0L))
+            .build();
+
+    static final SimpleAttributeDefinition DECISION_CACHE_MISSES = new SimpleAttributeDefinitionBuilder(ModelDescriptionConstants.DECISION_CACHE_MISSES, ModelType.LONG)
+            .setStorageRuntime()
+            .setUndefinedMetricValue(new ModelNode(0L))
+            .build();
+
     public static final List<AttributeDefinition> CONFIG_ATTRIBUTES = Arrays.<AttributeDefinition>asList(PROVIDER, PERMISSION_COMBINATION_POLICY);
 
     public static AccessAuthorizationResourceDefinition forDomain(DelegatingConfigurableAuthorizer configurableAuthorizer) {
@@ -136,6 +146,9 @@ public class AccessAuthorizationResourceDefinition extends SimpleResourceDefinit
                 AccessAuthorizationRolesHandler.getStandardRolesHandler(authorizerConfiguration));
         resourceRegistration.registerReadOnlyAttribute(ALL_ROLE_NAMES,
                 AccessAuthorizationRolesHandler.getAllRolesHandler(authorizerConfiguration));
+
+        resourceRegistration.registerMetric(DECISION_CACHE_HITS, AccessAuthorizationDecisionCacheHandler.getHitsHandler(configurableAuthorizer));
+        resourceRegistration.registerMetric(DECISION_CACHE_MISSES, AccessAuthorizationDecisionCacheHandler.getMissesHandler(configurableAuthorizer));
     }
 
     @Override
@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.jboss.as.controller.AbstractRemoveStepHandler;
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
 import org.jboss.as.controller.AbstractWriteAttributeHandler;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ModelOnlyWriteAttributeHandler;
@@ -75,6 +76,20 @@ public class AuditLogLoggerResourceDefinition extends SimpleResourceDefinition {
 
     static final List<SimpleAttributeDefinition> ATTRIBUTE_DEFINITIONS = Arrays.asList(LOG_BOOT, LOG_READ_ONLY, ENABLED);
 
+    public static final SimpleAttributeDefinition QUEUED_RECORDS = new SimpleAttributeDefinitionBuilder("queued-records", ModelType.INT)
+            .setRequired(true)
+            .setStorageRuntime()
+            .setRuntimeServiceNotRequired()
+            .build();
+
+    public static final SimpleAttributeDefinition DROPPED_RECORDS = new SimpleAttributeDefinitionBuilder("dropped-records", ModelType.LONG)
+            .setRequired(true)
+            .setStorageRuntime()
+            .setRuntimeServiceNotRequired()
+            .build();
+
+    private static final AttributeDefinition[] RUNTIME_ATTRIBUTES = new AttributeDefinition[] {QUEUED_RECORDS, DROPPED_RECORDS};
+
     private final ManagedAuditLogger auditLogger;
 
     private AuditLogLoggerResourceDefinition(final PathElement pathElement, final ManagedAuditLogger auditLogger) {
@@ -100,6 +115,12 @@ public class AuditLogLoggerResourceDefinition extends SimpleResourceDefinition {
 
         resourceRegistration.registerReadWriteAttribute(LOG_READ_ONLY, null, new AuditLogReadOnlyWriteAttributeHandler(auditLogger));
         resourceRegistration.registerReadWriteAttribute(ENABLED, null, new AuditLogEnabledWriteAttributeHandler(auditLogger));
+
+        if (auditLogger != null) {
+            for (AttributeDefinition def : RUNTIME_ATTRIBUTES) {
+                resourceRegistration.registerReadOnlyAttribute(def, new LoggerRuntimeAttributeHandler(auditLogger));
+            }
+        }
     }
 
     @Override
@@ -240,6 +261,29 @@ public class AuditLogLoggerResourceDefinition extends SimpleResourceDefinition {
         }
     }
 
+    private static class LoggerRuntimeAttributeHandler extends AbstractRuntimeOnlyHandler {
+        private final ManagedAuditLogger auditLogger;
+
+        LoggerRuntimeAttributeHandler(ManagedAuditLogger auditLogger) {
+            this.auditLogger = auditLogger;
+        }
+
+        @Override
+        protected boolean requiresRuntime(OperationContext context) {
+            return true;
+        }
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            String attr = operation.require(ModelDescriptionConstants.NAME).asString();
+            if (attr.equals(QUEUED_RECORDS.getName())) {
+                context.getResult().set(auditLogger.getQueuedRecordCount());
+            } else if (attr.equals(DROPPED_RECORDS.getName())) {
+                context.getResult().set(auditLogger.getDroppedRecordCount());
+            }
+        }
+    }
+
     private static class AuditLogReadOnlyWriteAttributeHandler extends AbstractWriteAttributeHandler<Boolean> {
 
         private final ManagedAuditLogger auditLogger;
@@ -107,6 +107,7 @@ public class ConfigurationPersisterFactory {
                 persister.registerAdditionalRootElement(new QName(namespace.getUriString(), "domain"), domainXml);
             }
         }
+        persister.allowBootOperationCache(environment.getDomainDataDir());
         extensionRegistry.setWriterRegistry(persister);
         return persister;
     }
@@ -180,6 +180,28 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
         };
     }
 
+    @Override
+    public void awaitCommitted() throws ConfigurationPersistenceException {
+        try {
+            hostPersister.awaitCommitted();
+        } finally {
+            if (domainPersister != null) {
+                domainPersister.awaitCommitted();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        try {
+            hostPersister.shutdown();
+        } finally {
+            if (domainPersister != null) {
+                domainPersister.shutdown();
+            }
+        }
+    }
+
     @Override
     public void marshallAsXml(ModelNode model, OutputStream output) throws ConfigurationPersistenceException {
         throw new UnsupportedOperationException();
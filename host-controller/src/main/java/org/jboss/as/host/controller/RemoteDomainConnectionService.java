@@ -105,7 +105,9 @@ import org.jboss.as.protocol.mgmt.ManagementRequestContext;
 import org.jboss.as.remoting.management.ManagementRemotingServices;
 import org.jboss.as.repository.ContentReference;
 import org.jboss.as.repository.ContentRepository;
+import org.jboss.as.repository.ContentTransferMetrics;
 import org.jboss.as.repository.HostFileRepository;
+import org.jboss.as.repository.RemoteContentDeltaRequestAndHandler;
 import org.jboss.as.repository.RemoteFileRequestAndHandler.CannotCreateLocalDirectoryException;
 import org.jboss.as.repository.RemoteFileRequestAndHandler.DidNotReadEntireFileException;
 import org.jboss.as.version.ProductConfig;
@@ -142,6 +144,7 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private static final int CONNECTION_TIMEOUT_DEFAULT = 30000;
     private static final String CONNECTION_TIMEOUT_PROPERTY = "jboss.host.domain.connection.timeout";
     private static final int CONNECTION_TIMEOUT = getSystemProperty(CONNECTION_TIMEOUT_PROPERTY, CONNECTION_TIMEOUT_DEFAULT);
+    private static final RemoteContentDeltaRequestAndHandler CONTENT_DELTA = new RemoteContentDeltaRequestAndHandler();
 
     //private static final ModelNode APPLY_EXTENSIONS = new ModelNode();
     private static final ModelNode APPLY_DOMAIN_MODEL = new ModelNode();
@@ -753,8 +756,38 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         }
     }
 
+    private class GetContentDeltaRequest extends AbstractManagementRequest<File, Void> {
+        private final String hexHash;
+        private final File localPath;
+        private final RemoteContentDeltaRequestAndHandler.LocalChunks localChunks;
+
+        private GetContentDeltaRequest(final String hexHash, final HostFileRepository localFileRepository) {
+            this.hexHash = hexHash;
+            this.localPath = localFileRepository.getDeploymentRoot(new ContentReference(hexHash, HashUtil.hexStringToByteArray(hexHash)));
+            this.localChunks = CONTENT_DELTA.indexLocalChunks(localPath);
+        }
+
+        @Override
+        public byte getOperationType() {
+            return DomainControllerProtocol.GET_CONTENT_DELTA_REQUEST;
+        }
+
+        @Override
+        protected void sendRequest(ActiveOperation.ResultHandler<File> resultHandler, ManagementRequestContext<Void> context, FlushableDataOutput output) throws IOException {
+            output.write(DomainControllerProtocol.PARAM_HOST_ID);
+            output.writeUTF(localHostInfo.getLocalHostName());
+            CONTENT_DELTA.sendRequest(output, hexHash, localChunks);
+        }
+
+        @Override
+        public void handleRequest(DataInput input, ActiveOperation.ResultHandler<File> resultHandler, ManagementRequestContext<Void> context) throws IOException {
+            resultHandler.done(CONTENT_DELTA.handleResponse(input, hexHash, localPath, localChunks, remoteFileRepository.getContentTransferMetrics()));
+        }
+    }
+
     static class RemoteFileRepository implements HostFileRepository {
         private final HostFileRepository localFileRepository;
+        private final ContentTransferMetrics contentTransferMetrics = new ContentTransferMetrics();
         private volatile RemoteFileRepositoryExecutor remoteFileRepositoryExecutor;
 
         RemoteFileRepository(final HostFileRepository localFileRepository) {
@@ -773,8 +806,9 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
 
         @Override
         public final File[] getDeploymentFiles(ContentReference reference) {
-            final File root = getDeploymentRoot(reference);
-            return root.listFiles();
+            // Fetches the content if it is not there yet; the local repository then lists it without its manifest
+            getDeploymentRoot(reference);
+            return localFileRepository.getDeploymentFiles(reference);
         }
 
         @Override
@@ -798,6 +832,11 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
         public void deleteDeployment(ContentReference reference) {
             localFileRepository.deleteDeployment(reference);
         }
+
+        @Override
+        public ContentTransferMetrics getContentTransferMetrics() {
+            return contentTransferMetrics;
+        }
     }
 
     interface RemoteFileRepositoryExecutor {
@@ -807,8 +846,19 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
     private final RemoteFileRepositoryExecutor remoteFileRepositoryExecutor = new RemoteFileRepositoryExecutor() {
         public File getFile(final String relativePath, final byte repoId, HostFileRepository localFileRepository) {
             if(connection.isConnected()) {
+                if (repoId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT) {
+                    final File file = getContentDelta(relativePath, localFileRepository);
+                    if (file != null) {
+                        return file;
+                    }
+                }
                 try {
-                    return handler.executeRequest(new GetFileRequest(repoId, relativePath, localFileRepository), null).getResult().get();
+                    final long start = System.nanoTime();
+                    final File file = handler.executeRequest(new GetFileRequest(repoId, relativePath, localFileRepository), null).getResult().get();
+                    if (repoId == DomainControllerProtocol.PARAM_ROOT_ID_DEPLOYMENT) {
+                        remoteFileRepository.getContentTransferMetrics().recordTransfer(sizeOf(file), 0, System.nanoTime() - start);
+                    }
+                    return file;
                 } catch (Exception e) {
                     throw HostControllerLogger.ROOT_LOGGER.failedToGetFileFromRemoteRepository(e);
                 }
@@ -823,6 +873,35 @@ public class RemoteDomainConnectionService implements MasterDomainControllerClie
                 return file;
             }
         }
+
+        /**
+         * Gets deployment content as a delta against the content already on this host.
+         *
+         * @return the local content, or {@code null} if it has to be got as whole files
+         */
+        private File getContentDelta(final String hexHash, final HostFileRepository localFileRepository) {
+            try {
+                return handler.executeRequest(new GetContentDeltaRequest(hexHash, localFileRepository), null).getResult().get();
+            } catch (Exception e) {
+                // e.g. a domain controller that predates delta transfers, or local content removed while it was being reused
+                ROOT_LOGGER.debugf(e, "Could not get content %s as a delta", hexHash);
+                return null;
+            }
+        }
+
+        private long sizeOf(final File file) {
+            if (file.isDirectory()) {
+                long size = 0;
+                final File[] children = file.listFiles();
+                if (children != null) {
+                    for (File child : children) {
+                        size += sizeOf(child);
+                    }
+                }
+                return size;
+            }
+            return file.length();
+        }
     };
 
     private void setupHandler() {
@@ -37,6 +37,7 @@ public interface DomainControllerProtocol extends ModelControllerProtocol {
     byte FETCH_DOMAIN_CONFIGURATION_REQUEST = 0x57;
     byte COMPLETE_HOST_CONTROLLER_REGISTRATION = 0x58;
     byte REQUEST_SUBSYSTEM_VERSIONS = 0x59;
+    byte GET_CONTENT_DELTA_REQUEST = 0x5A;
 
     byte PARAM_HOST_ID = 0x20;
     byte PARAM_OK = 0x21;
@@ -41,6 +41,7 @@ import org.jboss.as.protocol.mgmt.ManagementResponseHeader;
 import org.jboss.as.protocol.mgmt.RequestProcessingException;
 import org.jboss.as.repository.ContentReference;
 import org.jboss.as.repository.HostFileRepository;
+import org.jboss.as.repository.RemoteContentDeltaRequestAndHandler;
 import org.jboss.as.repository.RemoteFileRequestAndHandler.RootFileReader;
 
 /**
@@ -68,6 +69,9 @@ class MasterDomainControllerOperationHandlerImpl implements ManagementRequestHan
             } case DomainControllerProtocol.GET_FILE_REQUEST: {
                 handlers.registerActiveOperation(header.getBatchId(), null);
                 return new GetFileOperation();
+            } case DomainControllerProtocol.GET_CONTENT_DELTA_REQUEST: {
+                handlers.registerActiveOperation(header.getBatchId(), null);
+                return new GetContentDeltaOperation();
             } case DomainControllerProtocol.SERVER_INSTABILITY_REQUEST: {
                 handlers.registerActiveOperation(header.getBatchId(), null);
                 return new ServerUnstableHandler();
@@ -126,6 +130,17 @@ class MasterDomainControllerOperationHandlerImpl implements ManagementRequestHan
         }
     }
 
+    private class GetContentDeltaOperation extends AbstractHostRequestHandler {
+
+        private final RemoteContentDeltaRequestAndHandler remoteSupport = new RemoteContentDeltaRequestAndHandler(asyncExecutor);
+
+        @Override
+        void handleRequest(String hostId, DataInput input, ActiveOperation.ResultHandler<Void> resultHandler, ManagementRequestContext<Void> context) throws IOException {
+            DomainControllerLogger.ROOT_LOGGER.tracef("Handling GetContentDeltaOperation with id %d from %s", context.getOperationId(), hostId);
+            remoteSupport.handleRequest(input, domainController.getLocalFileRepository(), resultHandler, context);
+        }
+    }
+
     abstract static class AbstractHostRequestHandler implements ManagementRequestHandler<Void, Void> {
 
         abstract void handleRequest(final String hostId, DataInput input, ActiveOperation.ResultHandler<Void> resultHandler, ManagementRequestContext<Void> context) throws IOException;
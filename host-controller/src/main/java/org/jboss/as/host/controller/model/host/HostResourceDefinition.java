@@ -89,6 +89,7 @@ import org.jboss.as.host.controller.discovery.DiscoveryOptionsResourceDefinition
 import org.jboss.as.host.controller.discovery.StaticDiscoveryResourceDefinition;
 import org.jboss.as.host.controller.ignored.IgnoredDomainResourceRegistry;
 import org.jboss.as.host.controller.model.jvm.JvmResourceDefinition;
+import org.jboss.as.host.controller.operations.ContentTransferMetricsHandler;
 import org.jboss.as.host.controller.operations.DomainControllerWriteAttributeHandler;
 import org.jboss.as.host.controller.operations.HostShutdownHandler;
 import org.jboss.as.host.controller.operations.HostSpecifiedInterfaceAddHandler;
@@ -332,6 +333,10 @@ public class HostResourceDefinition extends SimpleResourceDefinition {
         hostRegistration.registerReadOnlyAttribute(HostResourceDefinition.HOST_STATE, new ProcessStateAttributeHandler(processState));
         hostRegistration.registerReadOnlyAttribute(ServerRootResourceDefinition.RUNNING_MODE, new RunningModeReadHandler(runningModeControl));
         hostRegistration.registerReadOnlyAttribute(ServerRootResourceDefinition.SUSPEND_STATE, SuspendStateReadHandler.INSTANCE);
+        final ContentTransferMetricsHandler contentTransferMetricsHandler = new ContentTransferMetricsHandler(remoteFileRepository);
+        for (SimpleAttributeDefinition metric : ContentTransferMetricsHandler.METRICS) {
+            hostRegistration.registerMetric(metric, contentTransferMetricsHandler);
+        }
     }
 
 
@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.host.controller.operations;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.repository.ContentTransferMetrics;
+import org.jboss.as.repository.HostFileRepository;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Reads the metrics of the deployment content this host has transferred from the domain controller.
+ */
+public class ContentTransferMetricsHandler implements OperationStepHandler {
+
+    public static final SimpleAttributeDefinition TRANSFERS = createMetric("deployment-content-transfers");
+    public static final SimpleAttributeDefinition BYTES_TRANSFERRED = createMetric("deployment-content-bytes-transferred");
+    public static final SimpleAttributeDefinition BYTES_SAVED = createMetric("deployment-content-bytes-saved");
+    public static final SimpleAttributeDefinition TRANSFER_RATE = createMetric("deployment-content-transfer-rate");
+
+    public static final SimpleAttributeDefinition[] METRICS = {TRANSFERS, BYTES_TRANSFERRED, BYTES_SAVED, TRANSFER_RATE};
+
+    private final HostFileRepository remoteFileRepository;
+
+    public ContentTransferMetricsHandler(final HostFileRepository remoteFileRepository) {
+        this.remoteFileRepository = remoteFileRepository;
+    }
+
+    private static SimpleAttributeDefinition createMetric(final String name) {
+        return new SimpleAttributeDefinitionBuilder(name, ModelType.LONG)
+                .setUndefinedMetricValue(new ModelNode(0L))
+                .setStorageRuntime()
+                .setRuntimeServiceNotRequired()
+                .build();
+    }
+
+    @Override
+    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final ContentTransferMetrics metrics = remoteFileRepository == null ? null : remoteFileRepository.getContentTransferMetrics();
+        if (metrics == null) {
+            return;
+        }
+        final String attributeName = operation.require(NAME).asString();
+        if (TRANSFERS.getName().equals(attributeName)) {
+            context.getResult().set(metrics.getTransferCount());
+        } else if (BYTES_TRANSFERRED.getName().equals(attributeName)) {
+            context.getResult().set(metrics.getBytesTransferred());
+        } else if (BYTES_SAVED.getName().equals(attributeName)) {
+            context.getResult().set(metrics.getBytesSaved());
+        } else if (TRANSFER_RATE.getName().equals(attributeName)) {
+            context.getResult().set(metrics.getBytesPerSecond());
+        }
+    }
+}
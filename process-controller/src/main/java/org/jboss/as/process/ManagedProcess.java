@@ -27,12 +27,12 @@ import static java.lang.Thread.holdsLock;
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -40,6 +40,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.jboss.as.process.logging.ProcessLogger;
 import org.jboss.as.process.protocol.StreamUtils;
@@ -72,10 +73,13 @@ final class ManagedProcess {
     private OutputStream stdin;
     private volatile State state = State.DOWN;
     private volatile Thread joinThread;
+    private volatile ProcessOutputPump.Registration pumpRegistration;
     private Process process;
     private boolean shutdown;
     private boolean stopRequested = false;
     private final AtomicInteger respawnCount = new AtomicInteger(0);
+    private final LongAdder stdoutBytes = new LongAdder();
+    private final LongAdder stderrBytes = new LongAdder();
 
     public String getAuthKey() {
         return authKey;
@@ -136,6 +140,24 @@ final class ManagedProcess {
         return processName;
     }
 
+    /**
+     * Gets the number of bytes the current or last run of this process wrote to its stdout.
+     *
+     * @return the number of bytes
+     */
+    public long getStdoutBytes() {
+        return stdoutBytes.sum();
+    }
+
+    /**
+     * Gets the number of bytes the current or last run of this process wrote to its stderr.
+     *
+     * @return the number of bytes
+     */
+    public long getStderrBytes() {
+        return stderrBytes.sum();
+    }
+
     public void start() {
         synchronized (lock) {
             if (state != State.DOWN) {
@@ -210,18 +232,27 @@ final class ManagedProcess {
         }
         final long startTime = System.currentTimeMillis();
         final OutputStream stdin = process.getOutputStream();
-        final InputStream stderr = process.getErrorStream();
-        final InputStream stdout = process.getInputStream();
-        final Thread stderrThread = new Thread(new ReadTask(stderr, processController.getStderr()));
-        stderrThread.setName(String.format("stderr for %s", processName));
-        stderrThread.start();
-        final Thread stdoutThread = new Thread(new ReadTask(stdout, processController.getStdout()));
-        stdoutThread.setName(String.format("stdout for %s", processName));
-        stdoutThread.start();
-
-        joinThread = new Thread(new JoinTask(startTime));
-        joinThread.setName(String.format("reaper for %s", processName));
-        joinThread.start();
+        stdoutBytes.reset();
+        stderrBytes.reset();
+        if (ProcessOutputPump.ENABLED) {
+            joinThread = null;
+            pumpRegistration = ProcessOutputPump.getInstance().register(processName, process, processController.getStdout(),
+                    processController.getStderr(), stdoutBytes, stderrBytes, new JoinTask(startTime));
+        } else {
+            final InputStream stderr = process.getErrorStream();
+            final InputStream stdout = process.getInputStream();
+            final Thread stderrThread = new Thread(new ReadTask(stderr, processController.getStderr(), stderrBytes));
+            stderrThread.setName(String.format("stderr for %s", processName));
+            stderrThread.start();
+            final Thread stdoutThread = new Thread(new ReadTask(stdout, processController.getStdout(), stdoutBytes));
+            stdoutThread.setName(String.format("stdout for %s", processName));
+            stdoutThread.start();
+
+            pumpRegistration = null;
+            joinThread = new Thread(new JoinTask(startTime, stdoutThread, stderrThread));
+            joinThread.setName(String.format("reaper for %s", processName));
+            joinThread.start();
+        }
         boolean ok = false;
         try {
             // WFLY-2697 All writing is in Base64
@@ -262,23 +293,24 @@ final class ManagedProcess {
     public void destroy() {
         synchronized (lock) {
             Thread jt = joinThread;
+            ProcessOutputPump.Registration pr = pumpRegistration;
             if(state != State.STOPPING) {
                 stop(); // Try to stop before destroying the process
             }
 
             final long timeout = 5000;
-            if (state != State.DOWN && jt != null) {
+            if (state != State.DOWN && (jt != null || pr != null)) {
                 try {
                     // Give stop() a small amount of time to work,
                     // in case the user asked for a destroy when a normal stop
                     // was sufficient. But the base assumption is the destroy
                     // is needed
-                    jt.join(timeout);
+                    awaitExit(jt, pr, timeout);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                 }
             }
-            if (state != State.DOWN || jt == null || jt.isAlive()) { // Cover all bases just to be robust
+            if (state != State.DOWN || !isExited(jt, pr)) { // Cover all bases just to be robust
                 log.destroyingProcess(processName, timeout);
                 process.destroyForcibly();
             }
@@ -288,24 +320,25 @@ final class ManagedProcess {
     public void kill() {
         synchronized (lock) {
             Thread jt = joinThread;
+            ProcessOutputPump.Registration pr = pumpRegistration;
             if(state != State.STOPPING) {
                 stop(); // Try to stop before killing the process
             }
 
             final long timeout = 5000;
-            if (state != State.DOWN && jt != null) {
+            if (state != State.DOWN && (jt != null || pr != null)) {
                 try {
                     // Give stop() a small amount of time to work,
                     // in case the user asked for a kill when a normal stop
                     // was sufficient. But the base assumption is the kill
                     // is needed
-                    jt.join(timeout);
+                    awaitExit(jt, pr, timeout);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                 }
             }
 
-            if (state != State.DOWN || jt == null || jt.isAlive()) { // Cover all bases just to be robust
+            if (state != State.DOWN || !isExited(jt, pr)) { // Cover all bases just to be robust
                 log.attemptingToKillProcess(processName, timeout);
                 if (!ProcessUtils.killProcess(processName, id)) {
                     // Fallback to destroy if kill is not available
@@ -350,6 +383,21 @@ final class ManagedProcess {
         }
     }
 
+    private static void awaitExit(Thread joinThread, ProcessOutputPump.Registration pumpRegistration, long timeout) throws InterruptedException {
+        if (pumpRegistration != null) {
+            pumpRegistration.awaitExit(timeout);
+        } else {
+            joinThread.join(timeout);
+        }
+    }
+
+    private static boolean isExited(Thread joinThread, ProcessOutputPump.Registration pumpRegistration) {
+        if (pumpRegistration != null) {
+            return pumpRegistration.isExited();
+        }
+        return joinThread != null && !joinThread.isAlive();
+    }
+
     private static Base64OutputStream getBase64OutputStream(OutputStream toWrap) {
         // We'll call close on Base64OutputStream at the end of each message
         // to serve as a delimiter. Don't let that close the underlying stream.
@@ -364,9 +412,16 @@ final class ManagedProcess {
 
     private final class JoinTask implements Runnable {
         private final long startTime;
-
-        public JoinTask(final long startTime) {
+        private final Thread[] readThreads;
+
+        /**
+         * @param startTime the time the process was started
+         * @param readThreads the threads copying the output of the process, if it is not copied by the
+         *                    {@link ProcessOutputPump}, which only runs this task once the output has been copied
+         */
+        public JoinTask(final long startTime, final Thread... readThreads) {
             this.startTime = startTime;
+            this.readThreads = readThreads;
         }
 
         public void run() {
@@ -382,6 +437,15 @@ final class ManagedProcess {
             } catch (InterruptedException e) {
                 // ignore
             }
+            for (Thread readThread : readThreads) {
+                for (;;) try {
+                    readThread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+            log.processOutput(processName, stdoutBytes.sum(), stderrBytes.sum());
             boolean respawn = false;
             boolean slowRespawn = false;
             boolean unlimitedRespawn = false;
@@ -447,50 +511,23 @@ final class ManagedProcess {
     private final class ReadTask implements Runnable {
         private final InputStream source;
         private final PrintStream target;
+        private final LongAdder bytes;
 
-        private ReadTask(final InputStream source, final PrintStream target) {
+        private ReadTask(final InputStream source, final PrintStream target, final LongAdder bytes) {
             this.source = source;
             this.target = target;
+            this.bytes = bytes;
         }
 
         public void run() {
             final InputStream source = this.source;
             final String processName = ManagedProcess.this.processName;
             try {
-                final BufferedReader reader = new BufferedReader(new InputStreamReader(new BufferedInputStream(source), StandardCharsets.UTF_8));
-                final OutputStreamWriter writer = new OutputStreamWriter(target, StandardCharsets.UTF_8);
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(new CountingInputStream(new BufferedInputStream(source), bytes), StandardCharsets.UTF_8));
+                final ProcessOutputWriter writer = new ProcessOutputWriter(processName, target);
                 String s;
-                String prevEscape = "";
                 while ((s = reader.readLine()) != null) {
-                    // Has ANSI?
-                    int i = s.lastIndexOf('\033');
-                    int j = i != -1 ? s.indexOf('m', i) : 0;
-
-                    synchronized (target) {
-                        writer.write('[');
-                        writer.write(processName);
-                        writer.write("] ");
-                        writer.write(prevEscape);
-                        writer.write(s);
-
-                        // Reset if there was ANSI
-                        if (j != 0 || prevEscape != "") {
-                            writer.write("\033[0m");
-                        }
-                        writer.write('\n');
-                        writer.flush();
-                    }
-
-
-                    // Remember escape code for the next line
-                    if (j != 0) {
-                        String escape = s.substring(i, j + 1);
-                        if (!"\033[0m".equals(escape)) {
-                            prevEscape = escape;
-                        } else {
-                            prevEscape = "";
-                        }
-                    }
+                    writer.writeLine(s);
                 }
                 source.close();
             } catch (IOException e) {
@@ -500,4 +537,31 @@ final class ManagedProcess {
             }
         }
     }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final LongAdder bytes;
+
+        private CountingInputStream(final InputStream in, final LongAdder bytes) {
+            super(in);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                bytes.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                bytes.add(read);
+            }
+            return read;
+        }
+    }
 }
@@ -0,0 +1,363 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.process;
+
+import static java.security.AccessController.doPrivileged;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivilegedAction;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jboss.as.process.logging.ProcessLogger;
+import org.jboss.as.process.protocol.StreamUtils;
+import org.jboss.threads.JBossThreadFactory;
+import org.jboss.threads.JBossThreadPoolExecutor;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Copies the stdout and stderr of all managed processes to the process controller on one shared thread, instead of
+ * on two threads per process, and watches for the processes to exit on that thread too, instead of on a third thread
+ * per process waiting for it.
+ * <p/>
+ * The pump thread only reads what a process has already written, so it never blocks on a process. It goes through the
+ * processes as long as any of them has written something, and otherwise waits a little longer each time, up to
+ * {@value #MAX_IDLE_MILLIS} ms, before going through them again. While no process is registered it waits until one
+ * is. Once a process has exited, the rest of its output is copied and then the exit is handled on a thread of a shared
+ * pool, as handling the exit may wait for the process to be respawned. If pumping the output of a process fails, that process is dropped from the pump and the rest of its
+ * output is copied, and its exit handled, on threads of that pool, so the other processes are not affected.
+ * <p/>
+ * Output is pumped this way if the {@value #SHARED_OUTPUT_PUMP} system property is set to {@code true}.
+ */
+final class ProcessOutputPump {
+
+    /**
+     * System property that turns on copying the output of the managed processes on a shared thread
+     */
+    static final String SHARED_OUTPUT_PUMP = "jboss.as.process.shared-output-pump";
+
+    static final boolean ENABLED = Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(SHARED_OUTPUT_PUMP, "false"));
+
+    private static final int MAX_IDLE_MILLIS = 50;
+
+    private static final ThreadFactory THREAD_FACTORY = doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+        public JBossThreadFactory run() {
+            return new JBossThreadFactory(new ThreadGroup("process-output-pump"), Boolean.TRUE, null, "%G - %t", null, null);
+        }
+    });
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final ExecutorService exitExecutor;
+    private final Thread thread;
+    private final byte[] buffer = new byte[8192];
+
+    ProcessOutputPump() {
+        exitExecutor = new JBossThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), THREAD_FACTORY);
+        thread = THREAD_FACTORY.newThread(this::run);
+        thread.start();
+    }
+
+    /**
+     * Gets the pump shared by all managed processes.
+     *
+     * @return the pump
+     */
+    static ProcessOutputPump getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Starts copying the output of a process, and watching for it to exit.
+     *
+     * @param processName the name of the process
+     * @param process the process
+     * @param stdout the stream to copy the stdout of the process to
+     * @param stderr the stream to copy the stderr of the process to
+     * @param stdoutBytes the counter of the bytes the process wrote to its stdout
+     * @param stderrBytes the counter of the bytes the process wrote to its stderr
+     * @param exitTask the task that handles the exit of the process
+     * @return the registration of the process
+     */
+    Registration register(final String processName, final Process process, final PrintStream stdout, final PrintStream stderr,
+                          final LongAdder stdoutBytes, final LongAdder stderrBytes, final Runnable exitTask) {
+        final Registration registration = new Registration(processName, process,
+                new Output(processName, process.getInputStream(), stdout, stdoutBytes),
+                new Output(processName, process.getErrorStream(), stderr, stderrBytes), exitTask);
+        registrations.add(registration);
+        LockSupport.unpark(thread);
+        return registration;
+    }
+
+    private void run() {
+        long idleNanos = 0;
+        for (;;) {
+            boolean progress = false;
+            for (Registration registration : registrations) {
+                try {
+                    // Read the exit status first, so whatever the process wrote before it exited is pumped now or later
+                    final boolean alive = registration.process.isAlive();
+                    progress |= registration.stdout.pump(buffer);
+                    progress |= registration.stderr.pump(buffer);
+                    if (!alive) {
+                        registrations.remove(registration);
+                        // The exit is only handled once all the output has been copied
+                        exitExecutor.execute(() -> {
+                            try {
+                                registration.drain();
+                            } finally {
+                                registration.exited();
+                            }
+                        });
+                    }
+                } catch (RuntimeException e) {
+                    ProcessLogger.ROOT_LOGGER.outputPumpFailed(registration.processName, e);
+                    registrations.remove(registration);
+                    registration.reap(exitExecutor);
+                }
+            }
+            if (progress) {
+                idleNanos = 0;
+            } else if (registrations.isEmpty()) {
+                // Nothing to do until a process is registered, which unparks this thread
+                idleNanos = 0;
+                LockSupport.park(this);
+            } else {
+                idleNanos = Math.min(Math.max(2 * idleNanos, TimeUnit.MILLISECONDS.toNanos(1)), TimeUnit.MILLISECONDS.toNanos(MAX_IDLE_MILLIS));
+                // Woken up early when a process is registered
+                LockSupport.parkNanos(this, idleNanos);
+            }
+        }
+    }
+
+    /**
+     * A process whose output is pumped.
+     */
+    static final class Registration {
+        private final String processName;
+        private final Process process;
+        private final Output stdout;
+        private final Output stderr;
+        private final Runnable exitTask;
+        private final CountDownLatch drained = new CountDownLatch(2);
+        private final CountDownLatch exited = new CountDownLatch(1);
+
+        private Registration(final String processName, final Process process, final Output stdout, final Output stderr, final Runnable exitTask) {
+            this.processName = processName;
+            this.process = process;
+            this.stdout = stdout;
+            this.stderr = stderr;
+            this.exitTask = exitTask;
+        }
+
+        /**
+         * Waits for the exit of the process to have been handled.
+         *
+         * @param timeout the maximum time to wait, in milliseconds
+         * @return {@code true} if the exit has been handled, {@code false} if the time ran out
+         * @throws InterruptedException if the current thread is interrupted while waiting
+         */
+        boolean awaitExit(final long timeout) throws InterruptedException {
+            return exited.await(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Gets whether the exit of the process has been handled.
+         *
+         * @return {@code true} if the exit has been handled
+         */
+        boolean isExited() {
+            return exited.getCount() == 0;
+        }
+
+        /**
+         * Waits for all output of the process to have been copied.
+         *
+         * @param timeout the maximum time to wait, in milliseconds
+         * @return {@code true} if all output has been copied, {@code false} if the time ran out
+         * @throws InterruptedException if the current thread is interrupted while waiting
+         */
+        boolean awaitOutput(final long timeout) throws InterruptedException {
+            return drained.await(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        private void drain() {
+            drain(stdout);
+            drain(stderr);
+            ProcessLogger.ROOT_LOGGER.tracef("Process '%s' wrote %d bytes to stdout and %d bytes to stderr",
+                    processName, stdout.bytes.sum(), stderr.bytes.sum());
+        }
+
+        private void drain(final Output output) {
+            try {
+                output.drain(new byte[8192]);
+            } catch (RuntimeException e) {
+                ProcessLogger.ROOT_LOGGER.outputPumpFailed(processName, e);
+            } finally {
+                drained.countDown();
+            }
+        }
+
+        private void exited() {
+            try {
+                exitTask.run();
+            } finally {
+                exited.countDown();
+            }
+        }
+
+        /**
+         * Copies the rest of the output and handles the exit of a process that may still be running, on threads of
+         * the given executor, each stream on its own so that the process never blocks writing to the other. The exit
+         * is only handled once both streams have been copied.
+         */
+        private void reap(final ExecutorService executor) {
+            executor.execute(() -> drain(stdout));
+            executor.execute(() -> drain(stderr));
+            executor.execute(() -> {
+                for (;;) try {
+                    process.waitFor();
+                    drained.await();
+                    break;
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                exited();
+            });
+        }
+    }
+
+    /**
+     * A stdout or stderr of a process, and the line of it copied so far.
+     */
+    private static final class Output {
+        private final String processName;
+        private final InputStream source;
+        private final ProcessOutputWriter writer;
+        private final LongAdder bytes;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private boolean skipLineFeed;
+        private boolean closed;
+
+        private Output(final String processName, final InputStream source, final PrintStream target, final LongAdder bytes) {
+            this.processName = processName;
+            this.source = source;
+            this.bytes = bytes;
+            writer = new ProcessOutputWriter(processName, target);
+        }
+
+        /**
+         * Copies what can be read without blocking.
+         *
+         * @return {@code true} if anything was copied
+         */
+        boolean pump(final byte[] buffer) {
+            if (closed) {
+                return false;
+            }
+            try {
+                final int available = source.available();
+                if (available <= 0) {
+                    return false;
+                }
+                final int read = source.read(buffer, 0, Math.min(available, buffer.length));
+                if (read == -1) {
+                    close();
+                    return false;
+                }
+                write(buffer, read);
+                return true;
+            } catch (IOException e) {
+                ProcessLogger.ROOT_LOGGER.streamProcessingFailed(processName, e);
+                close();
+                return false;
+            }
+        }
+
+        /**
+         * Copies everything up to the end of the stream.
+         */
+        void drain(final byte[] buffer) {
+            if (closed) {
+                return;
+            }
+            try {
+                int read;
+                while ((read = source.read(buffer)) != -1) {
+                    write(buffer, read);
+                }
+                if (line.size() > 0) {
+                    writeLine();
+                }
+            } catch (IOException e) {
+                ProcessLogger.ROOT_LOGGER.streamProcessingFailed(processName, e);
+            } finally {
+                close();
+            }
+        }
+
+        private void write(final byte[] buffer, final int length) throws IOException {
+            bytes.add(length);
+            for (int i = 0; i < length; i++) {
+                final byte b = buffer[i];
+                // A line ends with \n, \r or \r\n, like for BufferedReader.readLine()
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (b == '\n') {
+                        continue;
+                    }
+                }
+                if (b == '\n' || b == '\r') {
+                    skipLineFeed = b == '\r';
+                    writeLine();
+                } else {
+                    line.write(b);
+                }
+            }
+        }
+
+        private void writeLine() throws IOException {
+            writer.writeLine(new String(line.toByteArray(), StandardCharsets.UTF_8));
+            line.reset();
+        }
+
+        private void close() {
+            closed = true;
+            StreamUtils.safeClose(source);
+        }
+    }
+
+    private static final class Holder {
+        static final ProcessOutputPump INSTANCE = new ProcessOutputPump();
+    }
+}
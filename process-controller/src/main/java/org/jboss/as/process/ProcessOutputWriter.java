@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.process;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the lines a managed process writes to its stdout or stderr to the corresponding stream of the process
+ * controller, prefixed with the name of the process. An ANSI escape sequence left open at the end of a line is
+ * reset there and opened again at the start of the next line, so the lines of different processes do not color
+ * each other.
+ */
+final class ProcessOutputWriter {
+
+    private final String processName;
+    private final PrintStream target;
+    private final OutputStreamWriter writer;
+    private String prevEscape = "";
+
+    ProcessOutputWriter(final String processName, final PrintStream target) {
+        this.processName = processName;
+        this.target = target;
+        writer = new OutputStreamWriter(target, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a line.
+     *
+     * @param s the line, without its line terminator
+     * @throws IOException if the line cannot be written
+     */
+    void writeLine(final String s) throws IOException {
+        // Has ANSI?
+        int i = s.lastIndexOf('\033');
+        int j = i != -1 ? s.indexOf('m', i) : 0;
+
+        synchronized (target) {
+            writer.write('[');
+            writer.write(processName);
+            writer.write("] ");
+            writer.write(prevEscape);
+            writer.write(s);
+
+            // Reset if there was ANSI
+            if (j != 0 || prevEscape != "") {
+                writer.write("\033[0m");
+            }
+            writer.write('\n');
+            writer.flush();
+        }
+
+        // Remember escape code for the next line
+        if (j != 0) {
+            String escape = s.substring(i, j + 1);
+            if (!"\033[0m".equals(escape)) {
+                prevEscape = escape;
+            } else {
+                prevEscape = "";
+            }
+        }
+    }
+}
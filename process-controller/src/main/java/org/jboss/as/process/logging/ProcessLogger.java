@@ -22,6 +22,7 @@
 
 package org.jboss.as.process.logging;
 
+import static org.jboss.logging.Logger.Level.DEBUG;
 import static org.jboss.logging.Logger.Level.ERROR;
 import static org.jboss.logging.Logger.Level.INFO;
 import static org.jboss.logging.Logger.Level.WARN;
@@ -819,4 +820,19 @@ public interface ProcessLogger extends BasicLogger {
     @Message(id = 67, value = "Process '%s' did not complete normal stop within %d ms; attempting to destroy process " +
             "using java.lang.Process.destroyForcibly()")
     void destroyingProcess(String process, long timeout);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 68, value = "Failed to pump the output of process '%s'; copying the rest of it on threads of its own")
+    void outputPumpFailed(String process, @Cause Throwable cause);
+
+    /**
+     * Logs a debug message indicating how much output the process wrote before it finished.
+     *
+     * @param processName the process name.
+     * @param stdoutBytes the number of bytes copied from its stdout.
+     * @param stderrBytes the number of bytes copied from its stderr.
+     */
+    @LogMessage(level = DEBUG)
+    @Message(id = 69, value = "Process '%s' wrote %d bytes to stdout and %d bytes to stderr")
+    void processOutput(String processName, long stdoutBytes, long stderrBytes);
 }
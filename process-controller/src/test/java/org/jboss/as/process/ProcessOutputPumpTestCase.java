@@ -0,0 +1,174 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.process;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link ProcessOutputPump}.
+ */
+public class ProcessOutputPumpTestCase {
+
+    @Test
+    public void testOutputIsCopiedAndExitIsHandled() throws Exception {
+        final ProcessOutputPump pump = new ProcessOutputPump();
+        final PipedOutputStream processStdout = new PipedOutputStream();
+        final TestProcess process = new TestProcess(new PipedInputStream(processStdout, 1024),
+                new ByteArrayInputStream("error\r\n".getBytes(StandardCharsets.UTF_8)));
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        final LongAdder stdoutBytes = new LongAdder();
+        final LongAdder stderrBytes = new LongAdder();
+        final CountDownLatch exitHandled = new CountDownLatch(1);
+        final AtomicLong bytesAtExit = new AtomicLong();
+
+        final ProcessOutputPump.Registration registration = pump.register("test", process, new PrintStream(stdout, true),
+                new PrintStream(stderr, true), stdoutBytes, stderrBytes, () -> {
+                    bytesAtExit.set(stdoutBytes.sum() + stderrBytes.sum());
+                    exitHandled.countDown();
+                });
+
+        // Lines are copied while the process runs, even if written in parts
+        processStdout.write("first ".getBytes(StandardCharsets.UTF_8));
+        processStdout.flush();
+        processStdout.write("line\nsecond line\n\u00e9t\u00e9\rlast".getBytes(StandardCharsets.UTF_8));
+        processStdout.flush();
+        assertFalse(exitHandled.await(100, TimeUnit.MILLISECONDS));
+
+        process.alive = false;
+        processStdout.close();
+        assertTrue(exitHandled.await(10, TimeUnit.SECONDS));
+        assertTrue(registration.awaitExit(10000));
+        assertTrue(registration.isExited());
+        assertTrue(registration.awaitOutput(10000));
+
+        assertEquals("[test] first line\n[test] second line\n[test] \u00e9t\u00e9\n[test] last\n", new String(stdout.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals("[test] error\n", new String(stderr.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(33, stdoutBytes.sum());
+        assertEquals(7, stderrBytes.sum());
+        // The exit is only handled once all the output has been copied
+        assertEquals(40, bytesAtExit.get());
+    }
+
+    @Test
+    public void testFailingProcessIsDropped() throws Exception {
+        final ProcessOutputPump pump = new ProcessOutputPump();
+        final InputStream failing = new InputStream() {
+            @Override
+            public int available() {
+                throw new IllegalStateException("test");
+            }
+
+            @Override
+            public int read() {
+                return -1;
+            }
+        };
+        final CountDownLatch failedExitHandled = new CountDownLatch(1);
+        final ProcessOutputPump.Registration failed = pump.register("failing", new TestProcess(failing, new ByteArrayInputStream(new byte[0])),
+                new PrintStream(new ByteArrayOutputStream(), true), new PrintStream(new ByteArrayOutputStream(), true),
+                new LongAdder(), new LongAdder(), failedExitHandled::countDown);
+
+        final PipedOutputStream processStdout = new PipedOutputStream();
+        final TestProcess process = new TestProcess(new PipedInputStream(processStdout, 1024), new ByteArrayInputStream(new byte[0]));
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        final ProcessOutputPump.Registration registration = pump.register("test", process, new PrintStream(stdout, true),
+                new PrintStream(new ByteArrayOutputStream(), true), new LongAdder(), new LongAdder(), () -> { });
+
+        // The failing process is handled as if it had exited, while the other one is still pumped
+        assertTrue(failedExitHandled.await(10, TimeUnit.SECONDS));
+        assertTrue(failed.awaitOutput(10000));
+        processStdout.write("line\n".getBytes(StandardCharsets.UTF_8));
+        processStdout.flush();
+        process.alive = false;
+        processStdout.close();
+        assertTrue(registration.awaitOutput(10000));
+        assertEquals("[test] line\n", new String(stdout.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static final class TestProcess extends Process {
+        private final InputStream stdout;
+        private final InputStream stderr;
+        volatile boolean alive = true;
+
+        private TestProcess(final InputStream stdout, final InputStream stderr) {
+            this.stdout = stdout;
+            this.stderr = stderr;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return stdout;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return stderr;
+        }
+
+        @Override
+        public int waitFor() {
+            return 0;
+        }
+
+        @Override
+        public int exitValue() {
+            if (alive) {
+                throw new IllegalThreadStateException();
+            }
+            return 0;
+        }
+
+        @Override
+        public void destroy() {
+            alive = false;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adjusts the number of requests that can be active at a time to the observed latency of requests, in the manner of
+ * a gradient based concurrency limit. While the latency of recent requests stays close to its long term average the
+ * limit is raised, and once requests start to take longer because they are competing for resources inside the server
+ * it is lowered again.
+ * <p/>
+ * Samples are collected in windows. The thread that adds the sample that completes a window recalculates the limit,
+ * and publishes the latency distribution of the window.
+ */
+final class AdaptiveRequestLimit {
+
+    static final int INITIAL_LIMIT = 20;
+    static final int MIN_LIMIT = 10;
+    static final long DEFAULT_WINDOW = TimeUnit.SECONDS.toNanos(1);
+    static final int MIN_WINDOW_SAMPLES = 10;
+
+    /**
+     * The number of windows the long term average latency is taken over
+     */
+    private static final int LONG_WINDOW = 600;
+
+    /**
+     * How much higher than its long term average the latency of a window may be before the limit is lowered
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * How much of the newly calculated limit is applied after each window
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * Latencies are recorded in microseconds, in buckets of eight linear sub-buckets per power of two
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long windowNanos;
+    private final AtomicReference<Window> window;
+
+    private volatile int maxLimit;
+    private volatile int limit;
+
+    /**
+     * The distribution of the latencies of the last completed window, or {@code null} if no window has completed
+     */
+    private volatile long[] latencies;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double longTermLatency;
+
+    /**
+     * @param maxLimit the upper bound of the limit, or a value of less than 1 for none
+     * @param windowNanos the minimum length of a window in nanoseconds
+     * @param now the current {@link System#nanoTime()}
+     */
+    AdaptiveRequestLimit(final int maxLimit, final long windowNanos, final long now) {
+        this.windowNanos = windowNanos;
+        this.window = new AtomicReference<>(new Window(now));
+        this.maxLimit = maxLimit > 0 ? maxLimit : Integer.MAX_VALUE;
+        this.estimatedLimit = Math.min(INITIAL_LIMIT, this.maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return the number of requests that can currently be active at a time
+     */
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the upper bound of the limit
+     *
+     * @param maxLimit the upper bound, or a value of less than 1 for none
+     */
+    synchronized void setMaxLimit(final int maxLimit) {
+        this.maxLimit = maxLimit > 0 ? maxLimit : Integer.MAX_VALUE;
+        estimatedLimit = clamp(estimatedLimit);
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Records the latency of a request that has completed.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @param latency the time in nanoseconds the request was active
+     * @param activeRequests the number of requests that were active when it completed
+     * @return {@code true} if the sample completed a window, and the limit has been raised as a result
+     */
+    boolean addSample(final long now, final long latency, final int activeRequests) {
+        final Window current = window.get();
+        current.count.increment();
+        current.totalLatency.add(latency);
+        current.maxActiveRequests.accumulate(activeRequests);
+        current.histogram.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(latency)));
+        if (now - current.start >= windowNanos && current.count.sum() >= MIN_WINDOW_SAMPLES
+                && window.compareAndSet(current, new Window(now))) {
+            return completeWindow(current);
+        }
+        return false;
+    }
+
+    /**
+     * Gets a percentile of the latency of the requests in the last completed window.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in microseconds, or -1 if no window has been completed yet
+     */
+    long getLatency(final double percentile) {
+        final long[] latencies = this.latencies;
+        if (latencies == null) {
+            return -1;
+        }
+        // the total is kept in the last element
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * latencies[BUCKETS]));
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += latencies[i];
+            if (count >= rank) {
+                return highestValue(i);
+            }
+        }
+        return highestValue(BUCKETS - 1);
+    }
+
+    private synchronized boolean completeWindow(final Window window) {
+        final long count = window.count.sum();
+        final long[] latencies = new long[BUCKETS + 1];
+        for (int i = 0; i < BUCKETS; i++) {
+            latencies[i] = window.histogram.get(i);
+        }
+        latencies[BUCKETS] = count;
+        this.latencies = latencies;
+
+        final double latency = (double) window.totalLatency.sum() / count;
+        if (longTermLatency == 0) {
+            longTermLatency = latency;
+        } else {
+            longTermLatency += (latency - longTermLatency) / LONG_WINDOW;
+            if (longTermLatency > 2 * latency) {
+                // the load has dropped off, let the long term average catch up rather than raising the limit for ages
+                longTermLatency *= 0.95;
+            }
+        }
+
+        final int previous = limit;
+        if (window.maxActiveRequests.get() < previous / 2) {
+            // the server was not busy enough for the latency to say anything about the limit
+            return false;
+        }
+        final double gradient = latency > 0 ? Math.max(0.5, Math.min(1.0, TOLERANCE * longTermLatency / latency)) : 1.0;
+        final double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = clamp(estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING);
+        limit = (int) estimatedLimit;
+        return limit > previous;
+    }
+
+    private double clamp(final double limit) {
+        final int maxLimit = this.maxLimit;
+        return Math.max(Math.min(MIN_LIMIT, maxLimit), Math.min(maxLimit, limit));
+    }
+
+    static int bucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValue(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private static final class Window {
+        private final long start;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalLatency = new LongAdder();
+        private final LongAccumulator maxActiveRequests = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        private Window(final long start) {
+            this.start = start;
+        }
+    }
+}
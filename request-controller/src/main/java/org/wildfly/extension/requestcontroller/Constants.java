@@ -31,4 +31,14 @@ interface Constants {
     String MAX_REQUESTS = "max-requests";
     String ACTIVE_REQUESTS = "active-requests";
     String TRACK_INDIVIDUAL_ENDPOINTS = "track-individual-endpoints";
+    String ENTRY_POINT = "entry-point";
+    String WEIGHT = "weight";
+    String QUEUED_REQUESTS = "queued-requests";
+    String AVERAGE_QUEUE_TIME = "average-queue-time";
+    String MAX_QUEUE_TIME = "max-queue-time";
+    String ADAPTIVE_LIMIT = "adaptive-limit";
+    String REQUEST_LIMIT = "request-limit";
+    String REQUEST_LATENCY_P50 = "request-latency-p50";
+    String REQUEST_LATENCY_P90 = "request-latency-p90";
+    String REQUEST_LATENCY_P99 = "request-latency-p99";
 }
@@ -21,7 +21,12 @@
  */
 package org.wildfly.extension.requestcontroller;
 
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import org.jboss.as.server.logging.ServerLogger;
 import org.jboss.as.server.suspend.ServerActivityCallback;
@@ -43,6 +48,8 @@ import java.util.concurrent.Executor;
 public class ControlPoint {
 
     private static final AtomicIntegerFieldUpdater<ControlPoint> activeRequestCountUpdater = AtomicIntegerFieldUpdater.newUpdater(ControlPoint.class, "activeRequestCount");
+    private static final AtomicIntegerFieldUpdater<ControlPoint> queuedUpdater = AtomicIntegerFieldUpdater.newUpdater(ControlPoint.class, "queued");
+    private static final AtomicIntegerFieldUpdater<ControlPoint> queuedTaskCountUpdater = AtomicIntegerFieldUpdater.newUpdater(ControlPoint.class, "queuedTaskCount");
     private static final AtomicReferenceFieldUpdater<ControlPoint, ServerActivityCallback> listenerUpdater = AtomicReferenceFieldUpdater.newUpdater(ControlPoint.class, ServerActivityCallback.class, "listener");
 
     private final RequestController controller;
@@ -64,6 +71,39 @@ public class ControlPoint {
     @SuppressWarnings("unused")
     private volatile ServerActivityCallback listener = null;
 
+    /**
+     * Tasks that are waiting for the request controller to allow them to run
+     */
+    private final Queue<RequestController.QueuedTask> queuedTasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 1 if this entry point is in the request controller's queue of control points with queued tasks
+     */
+    @SuppressWarnings("unused")
+    private volatile int queued = 0;
+
+    /**
+     * The number of tasks in {@link #queuedTasks}, which is expensive to count
+     */
+    @SuppressWarnings("unused")
+    private volatile int queuedTaskCount = 0;
+
+    /**
+     * The number of queued tasks this control point may run in a row before the other control points with
+     * queued tasks get their turn
+     */
+    private volatile int weight;
+
+    /**
+     * The number of tasks run in the current turn. Only accessed by the thread that has taken this control point
+     * from the request controller's queue.
+     */
+    private int tasksRunInTurn = 0;
+
+    private final LongAdder queuedTasksRun = new LongAdder();
+    private final LongAdder totalQueueTime = new LongAdder();
+    private final LongAccumulator maxQueueTime = new LongAccumulator(Math::max, 0);
+
     /**
      * The number of services that are using this entry point.
      * This is a deployment time measurement, not a runtime one
@@ -71,10 +111,15 @@ public class ControlPoint {
     private int referenceCount = 0;
 
     ControlPoint(RequestController controller, String deployment, String entryPoint, boolean trackIndividualControlPoints) {
+        this(controller, deployment, entryPoint, trackIndividualControlPoints, 1);
+    }
+
+    ControlPoint(RequestController controller, String deployment, String entryPoint, boolean trackIndividualControlPoints, int weight) {
         this.controller = controller;
         this.deployment = deployment;
         this.entryPoint = entryPoint;
         this.trackIndividualControlPoints = trackIndividualControlPoints;
+        this.weight = weight;
     }
 
     public String getEntryPoint() {
@@ -172,7 +217,19 @@ public class ControlPoint {
      */
     public void requestComplete() {
         decreaseRequestCount();
-        controller.requestComplete();
+        controller.requestComplete(RequestController.NO_REQUEST_START);
+    }
+
+    /**
+     * Method that should be invoked once (and only once), instead of {@link #requestComplete()}, to signify that a
+     * request has finished. The time the request began is passed along, so its latency can be taken into account by
+     * the adaptive request limit whichever thread the request completes on.
+     *
+     * @param startTime the {@link System#nanoTime()} taken when {@link #beginRequest()} returned {@code RUN}
+     */
+    public void requestComplete(long startTime) {
+        decreaseRequestCount();
+        controller.requestComplete(startTime);
     }
 
     private void decreaseRequestCount() {
@@ -236,6 +293,107 @@ public class ControlPoint {
         return activeRequestCountUpdater.get(this);
     }
 
+    /**
+     * @return The number of tasks queued by this control point that are waiting to run
+     */
+    public int getQueuedTaskCount() {
+        return queuedTaskCount;
+    }
+
+    /**
+     * @return The number of queued tasks of this control point that have been run
+     */
+    public long getQueuedTasksRun() {
+        return queuedTasksRun.sum();
+    }
+
+    /**
+     * @return The total time in nanoseconds that the queued tasks that have been run spent waiting
+     */
+    public long getTotalQueueTime() {
+        return totalQueueTime.sum();
+    }
+
+    /**
+     * @return The longest time in nanoseconds that a queued task that has been run spent waiting
+     */
+    public long getMaxQueueTime() {
+        return maxQueueTime.get();
+    }
+
+    void queuedTaskRun(long queueTime) {
+        queuedTasksRun.increment();
+        totalQueueTime.add(queueTime);
+        maxQueueTime.accumulate(queueTime);
+    }
+
+    int getWeight() {
+        return weight;
+    }
+
+    void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Records that a task of this control point has been taken in its current turn.
+     *
+     * @return {@code true} if it may run another task before the other control points get their turn
+     */
+    boolean continueTurn() {
+        if (++tasksRunInTurn < weight) {
+            return true;
+        }
+        tasksRunInTurn = 0;
+        return false;
+    }
+
+    void endTurn() {
+        tasksRunInTurn = 0;
+    }
+
+    void addQueuedTask(RequestController.QueuedTask task) {
+        queuedTasks.add(task);
+        queuedTaskCountUpdater.incrementAndGet(this);
+    }
+
+    RequestController.QueuedTask pollQueuedTask() {
+        RequestController.QueuedTask task = queuedTasks.poll();
+        if (task != null) {
+            queuedTaskCountUpdater.decrementAndGet(this);
+        }
+        return task;
+    }
+
+    boolean removeQueuedTask(RequestController.QueuedTask task) {
+        if (queuedTasks.remove(task)) {
+            queuedTaskCountUpdater.decrementAndGet(this);
+            return true;
+        }
+        return false;
+    }
+
+    Iterator<RequestController.QueuedTask> getQueuedTasks() {
+        return queuedTasks.iterator();
+    }
+
+    boolean hasQueuedTasks() {
+        return !queuedTasks.isEmpty();
+    }
+
+    /**
+     * Marks this control point as being in the request controller's queue of control points with queued tasks.
+     *
+     * @return {@code true} if it was not already marked, in which case the caller must add it to the queue
+     */
+    boolean markQueued() {
+        return queuedUpdater.compareAndSet(this, 0, 1);
+    }
+
+    void clearQueued() {
+        queued = 0;
+    }
+
     synchronized int increaseReferenceCount() {
         return ++referenceCount;
     }
@@ -0,0 +1,211 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AbstractRemoveStepHandler;
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.PersistentResourceDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * The configuration of an entry point, such as the weight its queued requests get when the max request limit has
+ * been hit. It applies to the control points of all deployments with that entry point.
+ */
+class EntryPointDefinition extends PersistentResourceDefinition {
+
+    static final PathElement PATH = PathElement.pathElement(Constants.ENTRY_POINT);
+
+    static final SimpleAttributeDefinition WEIGHT = SimpleAttributeDefinitionBuilder.create(Constants.WEIGHT, ModelType.INT, true)
+            .setAllowExpression(true)
+            .setDefaultValue(new ModelNode(1))
+            .setValidator(new IntRangeValidator(1, true, true))
+            .build();
+
+    static final SimpleAttributeDefinition QUEUED_REQUESTS = SimpleAttributeDefinitionBuilder.create(Constants.QUEUED_REQUESTS, ModelType.INT, true)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition AVERAGE_QUEUE_TIME = SimpleAttributeDefinitionBuilder.create(Constants.AVERAGE_QUEUE_TIME, ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition MAX_QUEUE_TIME = SimpleAttributeDefinitionBuilder.create(Constants.MAX_QUEUE_TIME, ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setStorageRuntime()
+            .build();
+
+    static final EntryPointDefinition INSTANCE = new EntryPointDefinition(true);
+
+    private final boolean registerRuntimeOnly;
+
+    EntryPointDefinition(boolean registerRuntimeOnly) {
+        super(PATH, RequestControllerExtension.getResolver(Constants.ENTRY_POINT), new EntryPointAdd(), new EntryPointRemove());
+        this.registerRuntimeOnly = registerRuntimeOnly;
+    }
+
+    @Override
+    public Collection<AttributeDefinition> getAttributes() {
+        return Collections.singletonList(WEIGHT);
+    }
+
+    @Override
+    public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
+        resourceRegistration.registerReadWriteAttribute(WEIGHT, null, new WeightWriteHandler());
+        if (registerRuntimeOnly) {
+            QueueMetricsHandler handler = new QueueMetricsHandler();
+            resourceRegistration.registerMetric(QUEUED_REQUESTS, handler);
+            resourceRegistration.registerMetric(AVERAGE_QUEUE_TIME, handler);
+            resourceRegistration.registerMetric(MAX_QUEUE_TIME, handler);
+        }
+    }
+
+    private static RequestController getRequestController(OperationContext context) {
+        ServiceController<?> serviceController = context.getServiceRegistry(false).getService(RequestController.SERVICE_NAME);
+        return serviceController == null ? null : (RequestController) serviceController.getService().getValue();
+    }
+
+    private static void applyWeight(OperationContext context, ModelNode model) throws OperationFailedException {
+        RequestController requestController = getRequestController(context);
+        if (requestController != null) {
+            requestController.setEntryPointWeight(context.getCurrentAddressValue(), WEIGHT.resolveModelAttribute(context, model).asInt());
+        }
+    }
+
+    private static void resetWeight(OperationContext context) {
+        RequestController requestController = getRequestController(context);
+        if (requestController != null) {
+            requestController.setEntryPointWeight(context.getCurrentAddressValue(), -1);
+        }
+    }
+
+    private static class EntryPointAdd extends AbstractAddStepHandler {
+
+        EntryPointAdd() {
+            super(WEIGHT);
+        }
+
+        @Override
+        protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+            applyWeight(context, model);
+        }
+
+        @Override
+        protected void rollbackRuntime(OperationContext context, ModelNode operation, Resource resource) {
+            resetWeight(context);
+        }
+    }
+
+    private static class EntryPointRemove extends AbstractRemoveStepHandler {
+
+        @Override
+        protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+            resetWeight(context);
+        }
+
+        @Override
+        protected void recoverServices(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+            applyWeight(context, model);
+        }
+    }
+
+    private static class WeightWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+        WeightWriteHandler() {
+            super(WEIGHT);
+        }
+
+        @Override
+        protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                               ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> handbackHolder) throws OperationFailedException {
+            applyWeight(context, context.readResource(PathAddress.EMPTY_ADDRESS).getModel());
+            return false;
+        }
+
+        @Override
+        protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                             ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+            final ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+            restored.get(attributeName).set(valueToRestore);
+            applyWeight(context, restored);
+        }
+    }
+
+    /**
+     * Reads the queue metrics of the control points of all deployments with the entry point
+     */
+    private static class QueueMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+        @Override
+        protected boolean requiresRuntime(OperationContext context) {
+            return true;
+        }
+
+        @Override
+        protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+            RequestController requestController = getRequestController(context);
+            if (requestController == null) {
+                return;
+            }
+            int queued = 0;
+            long run = 0;
+            long totalTime = 0;
+            long maxTime = 0;
+            for (ControlPoint controlPoint : requestController.getControlPoints(context.getCurrentAddressValue())) {
+                queued += controlPoint.getQueuedTaskCount();
+                run += controlPoint.getQueuedTasksRun();
+                totalTime += controlPoint.getTotalQueueTime();
+                maxTime = Math.max(maxTime, controlPoint.getMaxQueueTime());
+            }
+            final String attributeName = operation.require(NAME).asString();
+            if (Constants.QUEUED_REQUESTS.equals(attributeName)) {
+                context.getResult().set(queued);
+            } else if (Constants.AVERAGE_QUEUE_TIME.equals(attributeName)) {
+                context.getResult().set(run == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(totalTime / run));
+            } else if (Constants.MAX_QUEUE_TIME.equals(attributeName)) {
+                context.getResult().set(TimeUnit.NANOSECONDS.toMillis(maxTime));
+            }
+        }
+    }
+}
@@ -37,11 +37,8 @@ import org.jboss.msc.service.ServiceController;
  */
 class MaxRequestsWriteHandler extends AbstractWriteAttributeHandler<Void> {
 
-    private final AttributeDefinition attributeDefinition;
-
-    MaxRequestsWriteHandler(final AttributeDefinition attributeDefinition) {
-        super(attributeDefinition);
-        this.attributeDefinition = attributeDefinition;
+    MaxRequestsWriteHandler(final AttributeDefinition... attributeDefinitions) {
+        super(attributeDefinitions);
     }
 
     @Override
@@ -67,12 +64,13 @@ class MaxRequestsWriteHandler extends AbstractWriteAttributeHandler<Void> {
             return;
         }
         RequestController requestController = (RequestController) serviceController.getService().getValue();
-        final ModelNode modelNode = this.attributeDefinition.resolveModelAttribute(context, model);
+        final ModelNode modelNode = RequestControllerRootDefinition.MAX_REQUESTS.resolveModelAttribute(context, model);
         if(!modelNode.isDefined()) {
             requestController.setMaxRequestCount(-1);
         } else {
             requestController.setMaxRequestCount(modelNode.asInt());
         }
+        requestController.setAdaptiveRequestLimit(RequestControllerRootDefinition.ADAPTIVE_LIMIT.resolveModelAttribute(context, model).asBoolean());
     }
 
 }
@@ -34,14 +34,14 @@ import org.jboss.msc.value.InjectedValue;
 import org.wildfly.extension.requestcontroller.logging.RequestControllerLogger;
 
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
@@ -63,15 +63,43 @@ public class RequestController implements Service<RequestController>, ServerActi
     public static final ServiceName SERVICE_NAME = RequestControllerRootDefinition.REQUEST_CONTROLLER_CAPABILITY.getCapabilityServiceName();
 
     private static final AtomicIntegerFieldUpdater<RequestController> activeRequestCountUpdater = AtomicIntegerFieldUpdater.newUpdater(RequestController.class, "activeRequestCount");
+    private static final AtomicIntegerFieldUpdater<RequestController> queuedTaskCountUpdater = AtomicIntegerFieldUpdater.newUpdater(RequestController.class, "queuedTaskCount");
     private static final AtomicReferenceFieldUpdater<RequestController, ServerActivityCallback> listenerUpdater = AtomicReferenceFieldUpdater.newUpdater(RequestController.class, ServerActivityCallback.class, "listener");
 
+    /**
+     * Passed to {@link #requestComplete(long)} for a request whose start time is not known, and so is not sampled
+     */
+    static final long NO_REQUEST_START = Long.MIN_VALUE;
+
     private volatile int maxRequestCount = -1;
 
+    /**
+     * The number of requests that can be active at a time, which is either the configured max request count or
+     * the current limit of the adaptive request limit
+     */
+    private volatile int requestLimit = -1;
+
+    /**
+     * The adaptive request limit, or {@code null} if the limit is fixed
+     */
+    private volatile AdaptiveRequestLimit adaptiveRequestLimit;
+
     private volatile int activeRequestCount = 0;
 
+    /**
+     * The number of tasks waiting in the queues of the control points. This allows completing requests to skip
+     * looking for a queued task in the common case that there is none.
+     */
+    private volatile int queuedTaskCount = 0;
+
     private volatile boolean paused = false;
 
-    private final Map<ControlPointIdentifier, ControlPoint> entryPoints = new HashMap<>();
+    private final ConcurrentMap<ControlPointIdentifier, ControlPoint> entryPoints = new ConcurrentHashMap<>();
+
+    /**
+     * The configured weights of entry points, applied to the control points of all deployments with that entry point
+     */
+    private final ConcurrentMap<String, Integer> entryPointWeights = new ConcurrentHashMap<>();
 
     private final InjectedValue<SuspendController> shutdownControllerInjectedValue = new InjectedValue<>();
 
@@ -91,7 +119,11 @@ public class RequestController implements Service<RequestController>, ServerActi
 
     private Timer timer;
 
-    private final Deque<QueuedTask> taskQueue = new LinkedBlockingDeque<>();
+    /**
+     * The control points that have queued tasks. Each in turn is given the chance to run as many tasks as its
+     * weight, so tasks queued by one control point cannot hold up those of another.
+     */
+    private final ConcurrentLinkedDeque<ControlPoint> queuedControlPoints = new ConcurrentLinkedDeque<>();
 
     /**
      * Pause the controller. All existing requests will have a chance to finish, and once all requests are
@@ -122,9 +154,7 @@ public class RequestController implements Service<RequestController>, ServerActi
         if (listener != null) {
             listenerUpdater.compareAndSet(this, listener, null);
         }
-        while (!taskQueue.isEmpty() && (activeRequestCount < maxRequestCount || maxRequestCount < 0)) {
-            runQueuedTask(false);
-        }
+        runQueuedTasks();
     }
 
     /**
@@ -200,7 +230,7 @@ public class RequestController implements Service<RequestController>, ServerActi
         }
     }
 
-    public synchronized RequestControllerState getState() {
+    public RequestControllerState getState() {
         final List<RequestControllerState.EntryPointState> eps = new ArrayList<>();
         for (ControlPoint controlPoint : entryPoints.values()) {
             eps.add(new RequestControllerState.EntryPointState(controlPoint.getDeployment(), controlPoint.getEntryPoint(), controlPoint.isPaused(), controlPoint.getActiveRequestCount()));
@@ -209,15 +239,23 @@ public class RequestController implements Service<RequestController>, ServerActi
     }
 
     RunResult beginRequest(boolean force) {
-        int maxRequests = maxRequestCount;
-        int active = activeRequestCountUpdater.get(this);
+        int maxRequests = requestLimit;
         boolean success = false;
-        while ((maxRequests <= 0 || active < maxRequests) && (!paused || force)) {
-            if (activeRequestCountUpdater.compareAndSet(this, active, active + 1)) {
+        if (maxRequests <= 0) {
+            // there is no limit to check the count against, so it can be incremented without a compare and set loop
+            if (!paused || force) {
+                activeRequestCountUpdater.incrementAndGet(this);
                 success = true;
-                break;
             }
-            active = activeRequestCountUpdater.get(this);
+        } else {
+            int active = activeRequestCountUpdater.get(this);
+            while (active < maxRequests && (!paused || force)) {
+                if (activeRequestCountUpdater.compareAndSet(this, active, active + 1)) {
+                    success = true;
+                    break;
+                }
+                active = activeRequestCountUpdater.get(this);
+            }
         }
         if (success) {
             //re-check the paused state
@@ -225,7 +263,7 @@ public class RequestController implements Service<RequestController>, ServerActi
             //if this happens we just call requestComplete(), as the listener can only be invoked once it does not
             //matter if it has already been invoked
             if(!force && paused) {
-                requestComplete();
+                requestComplete(NO_REQUEST_START);
                 return RunResult.REJECTED;
             }
             return RunResult.RUN;
@@ -234,8 +272,42 @@ public class RequestController implements Service<RequestController>, ServerActi
         }
     }
 
-    void requestComplete() {
-        runQueuedTask(true);
+    /**
+     * @param startTime the {@link System#nanoTime()} at which the request began, or {@link #NO_REQUEST_START} if it
+     *                  is not known
+     */
+    void requestComplete(final long startTime) {
+        final AdaptiveRequestLimit adaptiveRequestLimit = this.adaptiveRequestLimit;
+        final boolean limitRaised = adaptiveRequestLimit != null && startTime != NO_REQUEST_START
+                && addLatencySample(adaptiveRequestLimit, startTime);
+        if (queuedTaskCount == 0) {
+            decrementRequestCount();
+            // a task may have been queued while we were completing, make sure it gets the chance to run
+            if (queuedTaskCount != 0) {
+                runQueuedTask(false);
+            }
+        } else {
+            runQueuedTask(true);
+        }
+        if (limitRaised) {
+            runQueuedTasks();
+        }
+    }
+
+    /**
+     * Adds the latency of a completed request to the adaptive request limit, and applies the limit if it has changed.
+     *
+     * @return {@code true} if the limit has been raised
+     */
+    private boolean addLatencySample(final AdaptiveRequestLimit adaptiveRequestLimit, final long startTime) {
+        final long now = System.nanoTime();
+        final long latency = now - startTime;
+        final int previous = adaptiveRequestLimit.getLimit();
+        final boolean raised = adaptiveRequestLimit.addSample(now, latency, activeRequestCount);
+        if (adaptiveRequestLimit.getLimit() != previous && this.adaptiveRequestLimit == adaptiveRequestLimit) {
+            requestLimit = adaptiveRequestLimit.getLimit();
+        }
+        return raised;
     }
 
     private void decrementRequestCount() {
@@ -264,15 +336,15 @@ public class RequestController implements Service<RequestController>, ServerActi
      * @param entryPointName The entry point name
      * @return The entry point, or null if the request controller is disabled
      */
-    public synchronized ControlPoint getControlPoint(final String deploymentName, final String entryPointName) {
+    public ControlPoint getControlPoint(final String deploymentName, final String entryPointName) {
         ControlPointIdentifier id = new ControlPointIdentifier(deploymentName, entryPointName);
-        ControlPoint ep = entryPoints.get(id);
-        if (ep == null) {
-            ep = new ControlPoint(this, deploymentName, entryPointName, trackIndividualControlPoints);
-            entryPoints.put(id, ep);
-        }
-        ep.increaseReferenceCount();
-        return ep;
+        return entryPoints.compute(id, (key, ep) -> {
+            if (ep == null) {
+                ep = new ControlPoint(this, deploymentName, entryPointName, trackIndividualControlPoints, getEntryPointWeight(entryPointName));
+            }
+            ep.increaseReferenceCount();
+            return ep;
+        });
     }
 
     /**
@@ -280,10 +352,52 @@ public class RequestController implements Service<RequestController>, ServerActi
      *
      * @param controlPoint The entry point
      */
-    public synchronized void removeControlPoint(ControlPoint controlPoint) {
-        if (controlPoint.decreaseReferenceCount() == 0) {
-            ControlPointIdentifier id = new ControlPointIdentifier(controlPoint.getDeployment(), controlPoint.getEntryPoint());
-            entryPoints.remove(id);
+    public void removeControlPoint(ControlPoint controlPoint) {
+        ControlPointIdentifier id = new ControlPointIdentifier(controlPoint.getDeployment(), controlPoint.getEntryPoint());
+        // A control point that has already been removed and replaced under the same id is no longer counted
+        entryPoints.computeIfPresent(id, (key, ep) -> ep == controlPoint && controlPoint.decreaseReferenceCount() == 0 ? null : ep);
+    }
+
+    /**
+     * Gets the control points of all deployments for the given entry point
+     *
+     * @param entryPoint The entry point name
+     * @return The control points
+     */
+    List<ControlPoint> getControlPoints(final String entryPoint) {
+        final List<ControlPoint> eps = new ArrayList<>();
+        for (ControlPoint ep : entryPoints.values()) {
+            if (ep.getEntryPoint().equals(entryPoint)) {
+                eps.add(ep);
+            }
+        }
+        return eps;
+    }
+
+    /**
+     * @param entryPoint The entry point name
+     * @return The number of queued tasks of the entry point that can run in a row when the max request limit has been hit
+     */
+    public int getEntryPointWeight(final String entryPoint) {
+        return entryPointWeights.getOrDefault(entryPoint, 1);
+    }
+
+    /**
+     * Sets the number of queued tasks of the control points for an entry point that can run in a row when the
+     * max request limit has been hit, before queued tasks of other control points get the chance to run.
+     *
+     * @param entryPoint The entry point name
+     * @param weight The weight, or a value of less than 1 to restore the default of 1
+     */
+    public void setEntryPointWeight(final String entryPoint, final int weight) {
+        if (weight < 1) {
+            entryPointWeights.remove(entryPoint);
+        } else {
+            entryPointWeights.put(entryPoint, weight);
+        }
+        final int effective = getEntryPointWeight(entryPoint);
+        for (ControlPoint ep : getControlPoints(entryPoint)) {
+            ep.setWeight(effective);
         }
     }
 
@@ -302,10 +416,75 @@ public class RequestController implements Service<RequestController>, ServerActi
      *
      * @param maxRequestCount The max request count
      */
-    public void setMaxRequestCount(int maxRequestCount) {
+    public synchronized void setMaxRequestCount(int maxRequestCount) {
         this.maxRequestCount = maxRequestCount;
-        while (!taskQueue.isEmpty() && (activeRequestCount < maxRequestCount || maxRequestCount < 0)) {
-            if(!runQueuedTask(false)) {
+        final AdaptiveRequestLimit adaptiveRequestLimit = this.adaptiveRequestLimit;
+        if (adaptiveRequestLimit == null) {
+            requestLimit = maxRequestCount;
+        } else {
+            adaptiveRequestLimit.setMaxLimit(maxRequestCount);
+            requestLimit = adaptiveRequestLimit.getLimit();
+        }
+        runQueuedTasks();
+    }
+
+    /**
+     * @return <code>true</code> If the number of requests that can be active at a time is adjusted to the latency of requests
+     */
+    public boolean isAdaptiveRequestLimit() {
+        return adaptiveRequestLimit != null;
+    }
+
+    /**
+     * Sets whether the number of requests that can be active at a time is adjusted to the latency of requests.
+     * <p/>
+     * The adaptive limit starts low and grows while the latency of requests stays close to its long term average,
+     * and is lowered again once requests take longer. The max request count, if set, is the upper bound of the limit.
+     *
+     * @param adaptive If the limit should be adaptive
+     */
+    public synchronized void setAdaptiveRequestLimit(boolean adaptive) {
+        if (adaptive == (adaptiveRequestLimit != null)) {
+            return;
+        }
+        if (adaptive) {
+            final AdaptiveRequestLimit adaptiveRequestLimit = new AdaptiveRequestLimit(maxRequestCount, AdaptiveRequestLimit.DEFAULT_WINDOW, System.nanoTime());
+            this.adaptiveRequestLimit = adaptiveRequestLimit;
+            requestLimit = adaptiveRequestLimit.getLimit();
+        } else {
+            adaptiveRequestLimit = null;
+            requestLimit = maxRequestCount;
+        }
+        runQueuedTasks();
+    }
+
+    /**
+     * @return The number of requests that can currently be active at a time, or -1 if there is no limit
+     */
+    public int getRequestLimit() {
+        final int requestLimit = this.requestLimit;
+        return requestLimit > 0 ? requestLimit : -1;
+    }
+
+    /**
+     * Gets a percentile of the latency of recently completed requests. Latency is only measured while the request
+     * limit is adaptive.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The latency in microseconds, or -1 if it is not known
+     */
+    public long getRequestLatency(double percentile) {
+        final AdaptiveRequestLimit adaptiveRequestLimit = this.adaptiveRequestLimit;
+        return adaptiveRequestLimit == null ? -1 : adaptiveRequestLimit.getLatency(percentile);
+    }
+
+    /**
+     * Runs queued tasks for as long as the request limit allows
+     */
+    private void runQueuedTasks() {
+        int requestLimit;
+        while (queuedTaskCount != 0 && (activeRequestCount < (requestLimit = this.requestLimit) || requestLimit <= 0)) {
+            if (!runQueuedTask(false)) {
                 break;
             }
         }
@@ -329,11 +508,9 @@ public class RequestController implements Service<RequestController>, ServerActi
         shutdownControllerInjectedValue.getValue().unRegisterActivity(this);
         timer.cancel();
         timer = null;
-        while (!taskQueue.isEmpty()) {
-            QueuedTask t = taskQueue.poll();
-            if(t != null) {
-                t.run();
-            }
+        QueuedTask t;
+        while ((t = pollQueuedTask()) != null) {
+            t.run();
         }
     }
 
@@ -358,7 +535,12 @@ public class RequestController implements Service<RequestController>, ServerActi
             }
         }
         QueuedTask queuedTask = new QueuedTask(taskExecutor, task, timeoutTask, controlPoint, forceRun);
-        taskQueue.add(queuedTask);
+        controlPoint.addQueuedTask(queuedTask);
+        if (controlPoint.markQueued()) {
+            queuedControlPoints.addLast(controlPoint);
+        }
+        // only count the task once it can be found, see requestComplete()
+        queuedTaskCountUpdater.incrementAndGet(this);
         runQueuedTask(false);
         if(queuedTask.isQueued()) {
             if(timeout > 0) {
@@ -380,7 +562,7 @@ public class RequestController implements Service<RequestController>, ServerActi
         }
         QueuedTask task = null;
         if (!paused) {
-            task = taskQueue.poll();
+            task = pollQueuedTask();
         } else {
             //the container is suspended, but we still need to run any force queued tasks
             task = findForcedTask();
@@ -396,21 +578,51 @@ public class RequestController implements Service<RequestController>, ServerActi
         }
     }
 
-    private QueuedTask findForcedTask() {
-        QueuedTask task = null;
-        List<QueuedTask> storage = new ArrayList<>();
-        while (task == null && !taskQueue.isEmpty()) {
-            QueuedTask tmp = taskQueue.poll();
-            if(tmp.forceRun) {
-                task = tmp;
+    /**
+     * Takes the next task from the control point whose turn it is to run a task.
+     *
+     * @return the task, or {@code null} if there are no queued tasks
+     */
+    private QueuedTask pollQueuedTask() {
+        ControlPoint controlPoint;
+        while ((controlPoint = queuedControlPoints.poll()) != null) {
+            final QueuedTask task = controlPoint.pollQueuedTask();
+            if (controlPoint.hasQueuedTasks()) {
+                if (task != null && controlPoint.continueTurn()) {
+                    queuedControlPoints.addFirst(controlPoint);
+                } else {
+                    // back of the line, the other control points get their turn first
+                    queuedControlPoints.addLast(controlPoint);
+                }
             } else {
-                storage.add(tmp);
+                controlPoint.endTurn();
+                controlPoint.clearQueued();
+                // a task may have been added after we looked and before the mark was cleared
+                if (controlPoint.hasQueuedTasks() && controlPoint.markQueued()) {
+                    queuedControlPoints.addLast(controlPoint);
+                }
+            }
+            if (task != null) {
+                queuedTaskCountUpdater.decrementAndGet(this);
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private QueuedTask findForcedTask() {
+        //the order is not guaranteed, but the container is suspending anyway
+        for (ControlPoint controlPoint : queuedControlPoints) {
+            final Iterator<QueuedTask> it = controlPoint.getQueuedTasks();
+            while (it.hasNext()) {
+                final QueuedTask task = it.next();
+                if (task.forceRun && controlPoint.removeQueuedTask(task)) {
+                    queuedTaskCountUpdater.decrementAndGet(this);
+                    return task;
+                }
             }
         }
-        //this screws the order somewhat, but the container is suspending anyway, and the order
-        //was never guarenteed. if we push them back onto the front we will need to just go through them again
-        taskQueue.addAll(storage);
-        return task;
+        return null;
     }
 
     private static final class ControlPointIdentifier {
@@ -448,13 +660,14 @@ public class RequestController implements Service<RequestController>, ServerActi
     }
 
 
-    private static final class QueuedTask extends TimerTask {
+    static final class QueuedTask extends TimerTask {
 
         private final Executor executor;
         private final Runnable task;
         private final Runnable cancelTask;
         private final ControlPoint controlPoint;
         private final boolean forceRun;
+        private final long queuedTime = System.nanoTime();
 
         //0 == queued
         //1 == run
@@ -486,14 +699,16 @@ public class RequestController implements Service<RequestController>, ServerActi
         public boolean runRequest() {
             if(state.compareAndSet(0, 1)) {
                 cancel();
+                controlPoint.queuedTaskRun(System.nanoTime() - queuedTime);
                 executor.execute(new Runnable() {
                     @Override
                     public void run() {
+                        final long startTime = System.nanoTime();
                         try {
                             controlPoint.beginExistingRequest();
                             task.run();
                         } finally {
-                            controlPoint.requestComplete();
+                            controlPoint.requestComplete(startTime);
                         }
                     }
                 });
@@ -36,6 +36,7 @@ import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.capability.RuntimeCapability;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
@@ -59,9 +60,34 @@ class RequestControllerRootDefinition extends PersistentResourceDefinition {
             .setRestartAllServices()
             .build();
 
+    public static final SimpleAttributeDefinition ADAPTIVE_LIMIT = SimpleAttributeDefinitionBuilder.create(Constants.ADAPTIVE_LIMIT, ModelType.BOOLEAN, true)
+            .setAllowExpression(true)
+            .setDefaultValue(new ModelNode(false))
+            .build();
+
     public static final SimpleAttributeDefinition ACTIVE_REQUESTS = SimpleAttributeDefinitionBuilder.create(Constants.ACTIVE_REQUESTS, ModelType.INT, true)
             .setStorageRuntime()
             .build();
+
+    static final SimpleAttributeDefinition REQUEST_LIMIT = SimpleAttributeDefinitionBuilder.create(Constants.REQUEST_LIMIT, ModelType.INT, true)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition REQUEST_LATENCY_P50 = SimpleAttributeDefinitionBuilder.create(Constants.REQUEST_LATENCY_P50, ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition REQUEST_LATENCY_P90 = SimpleAttributeDefinitionBuilder.create(Constants.REQUEST_LATENCY_P90, ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+            .setStorageRuntime()
+            .build();
+
+    static final SimpleAttributeDefinition REQUEST_LATENCY_P99 = SimpleAttributeDefinitionBuilder.create(Constants.REQUEST_LATENCY_P99, ModelType.LONG, true)
+            .setMeasurementUnit(MeasurementUnit.MICROSECONDS)
+            .setStorageRuntime()
+            .build();
+
     public static final RequestControllerRootDefinition INSTANCE = new RequestControllerRootDefinition(true);
 
     static final RuntimeCapability<Void> REQUEST_CONTROLLER_CAPABILITY =
@@ -85,24 +111,31 @@ class RequestControllerRootDefinition extends PersistentResourceDefinition {
 
     private static Collection<AttributeDefinition> getAttributeDefinitions(boolean registerRuntimeOnly) {
         if(registerRuntimeOnly) {
-            return Arrays.asList(new AttributeDefinition[]{MAX_REQUESTS, TRACK_INDIVIDUAL_ENDPOINTS, ACTIVE_REQUESTS});
+            return Arrays.asList(new AttributeDefinition[]{MAX_REQUESTS, TRACK_INDIVIDUAL_ENDPOINTS, ADAPTIVE_LIMIT, ACTIVE_REQUESTS,
+                    REQUEST_LIMIT, REQUEST_LATENCY_P50, REQUEST_LATENCY_P90, REQUEST_LATENCY_P99});
         } else {
-            return Arrays.asList(new AttributeDefinition[]{MAX_REQUESTS, TRACK_INDIVIDUAL_ENDPOINTS});
+            return Arrays.asList(new AttributeDefinition[]{MAX_REQUESTS, TRACK_INDIVIDUAL_ENDPOINTS, ADAPTIVE_LIMIT});
         }
     }
 
     @Override
     protected List<? extends PersistentResourceDefinition> getChildren() {
-        return Collections.emptyList();
+        return Collections.singletonList(new EntryPointDefinition(registerRuntimeOnly));
     }
 
     @Override
     public void registerAttributes(ManagementResourceRegistration resourceRegistration) {
-        MaxRequestsWriteHandler handler = new MaxRequestsWriteHandler(MAX_REQUESTS);
+        MaxRequestsWriteHandler handler = new MaxRequestsWriteHandler(MAX_REQUESTS, ADAPTIVE_LIMIT);
         resourceRegistration.registerReadWriteAttribute(MAX_REQUESTS, null, handler);
+        resourceRegistration.registerReadWriteAttribute(ADAPTIVE_LIMIT, null, handler);
         resourceRegistration.registerReadWriteAttribute(TRACK_INDIVIDUAL_ENDPOINTS, null, new ReloadRequiredWriteAttributeHandler(TRACK_INDIVIDUAL_ENDPOINTS));
         if(registerRuntimeOnly) {
             resourceRegistration.registerMetric(ACTIVE_REQUESTS, new ActiveRequestsReadHandler());
+            RequestLimitReadHandler limitHandler = new RequestLimitReadHandler();
+            resourceRegistration.registerMetric(REQUEST_LIMIT, limitHandler);
+            resourceRegistration.registerMetric(REQUEST_LATENCY_P50, limitHandler);
+            resourceRegistration.registerMetric(REQUEST_LATENCY_P90, limitHandler);
+            resourceRegistration.registerMetric(REQUEST_LATENCY_P99, limitHandler);
         }
     }
 
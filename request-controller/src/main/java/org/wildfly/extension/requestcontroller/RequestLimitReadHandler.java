@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the current request limit and the latency percentiles it is based on
+ */
+class RequestLimitReadHandler extends AbstractRuntimeOnlyHandler {
+
+    @Override
+    protected boolean requiresRuntime(OperationContext context) {
+        return true;
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        ServiceController<?> service = context.getServiceRegistry(false).getService(RequestController.SERVICE_NAME);
+        if (service == null) {
+            context.getResult().set(-1);
+            return;
+        }
+        RequestController requestController = (RequestController) service.getService().getValue();
+        final String attributeName = operation.require(NAME).asString();
+        if (Constants.REQUEST_LIMIT.equals(attributeName)) {
+            context.getResult().set(requestController.getRequestLimit());
+        } else if (Constants.REQUEST_LATENCY_P50.equals(attributeName)) {
+            context.getResult().set(requestController.getRequestLatency(50));
+        } else if (Constants.REQUEST_LATENCY_P90.equals(attributeName)) {
+            context.getResult().set(requestController.getRequestLatency(90));
+        } else if (Constants.REQUEST_LATENCY_P99.equals(attributeName)) {
+            context.getResult().set(requestController.getRequestLatency(99));
+        }
+    }
+}
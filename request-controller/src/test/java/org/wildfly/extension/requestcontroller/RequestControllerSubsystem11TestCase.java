@@ -0,0 +1,64 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import java.io.IOException;
+
+import org.jboss.as.subsystem.test.KernelServices;
+import org.jboss.msc.service.ServiceController;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the 1.1 schema of the subsystem, which adds entry point weights and the adaptive request limit.
+ */
+public class RequestControllerSubsystem11TestCase extends RequestControllerSubsystemTestCase {
+
+    @Override
+    protected String getSubsystemXml() throws IOException {
+        return readResource("request-controller-1.1.xml");
+    }
+
+    @Override
+    protected void compareXml(String configId, String original, String marshalled) throws Exception {
+        super.compareXml(configId, original, marshalled, false);
+    }
+
+    @Test
+    public void testEntryPointsAndAdaptiveLimit() throws Exception {
+        KernelServices mainServices = createKernelServicesBuilder(createAdditionalInitialization())
+                .setSubsystemXml(getSubsystemXml())
+                .build();
+        if (!mainServices.isSuccessfulBoot()) {
+            Assert.fail(mainServices.getBootError().toString());
+        }
+        ServiceController<RequestController> workerServiceController = (ServiceController<RequestController>) mainServices.getContainer().getService(RequestController.SERVICE_NAME);
+        workerServiceController.setMode(ServiceController.Mode.ACTIVE);
+        workerServiceController.awaitValue();
+        RequestController controller = workerServiceController.getService().getValue();
+        Assert.assertTrue(controller.isAdaptiveRequestLimit());
+        Assert.assertEquals(AdaptiveRequestLimit.INITIAL_LIMIT, controller.getRequestLimit());
+        Assert.assertEquals(4, controller.getEntryPointWeight("ejb"));
+        Assert.assertEquals(1, controller.getEntryPointWeight("undertow"));
+    }
+}
@@ -57,6 +57,12 @@ public class RequestControllerSubsystemTestCase extends AbstractSubsystemBaseTes
         return readResource("request-controller-1.0.xml");
     }
 
+    @Override
+    protected void compareXml(String configId, String original, String marshalled) throws Exception {
+        // The subsystem is marshalled in the current version of the schema
+        super.compareXml(configId, original, marshalled, true);
+    }
+
     @Test
     public void testRuntime() throws Exception {
         KernelServicesBuilder builder = createKernelServicesBuilder(createAdditionalInitialization())
@@ -0,0 +1,262 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.requestcontroller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of the request admission and queueing of {@link RequestController}, without the subsystem.
+ */
+public class RequestControllerUnitTestCase {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void testMaxRequestsUnderContention() throws Exception {
+        final int maxRequests = 4;
+        final int threads = 16;
+        final RequestController controller = new RequestController(true);
+        controller.setMaxRequestCount(maxRequests);
+        final ControlPoint controlPoint = controller.getControlPoint("deployment", "entry-point");
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 10000; j++) {
+                        if (controlPoint.beginRequest() == RunResult.RUN) {
+                            try {
+                                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                                running.decrementAndGet();
+                            } finally {
+                                controlPoint.requestComplete();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertTrue(maxRunning.get() <= maxRequests);
+        Assert.assertEquals(0, controller.getActiveRequestCount());
+        Assert.assertEquals(0, controlPoint.getActiveRequestCount());
+    }
+
+    @Test
+    public void testQueuedTasksRunInTurn() throws Exception {
+        final RequestController controller = new RequestController(true);
+        controller.setMaxRequestCount(1);
+        final ControlPoint batch = controller.getControlPoint("deployment", "batch");
+        final ControlPoint web = controller.getControlPoint("deployment", "web");
+        Assert.assertEquals(RunResult.RUN, web.beginRequest());
+
+        final List<String> order = new ArrayList<>();
+        batch.queueTask(() -> order.add("batch-1"), DIRECT, -1, null, false);
+        batch.queueTask(() -> order.add("batch-2"), DIRECT, -1, null, false);
+        batch.queueTask(() -> order.add("batch-3"), DIRECT, -1, null, false);
+        web.queueTask(() -> order.add("web-1"), DIRECT, -1, null, false);
+        Assert.assertTrue(order.isEmpty());
+
+        web.requestComplete();
+        Assert.assertEquals(Arrays.asList("batch-1", "web-1", "batch-2", "batch-3"), order);
+        Assert.assertEquals(0, controller.getActiveRequestCount());
+    }
+
+    @Test
+    public void testQueuedTasksRunByWeight() throws Exception {
+        final RequestController controller = new RequestController(true);
+        controller.setMaxRequestCount(1);
+        controller.setEntryPointWeight("web", 2);
+        final ControlPoint other = controller.getControlPoint("deployment", "other");
+        final ControlPoint batch = controller.getControlPoint("deployment", "batch");
+        final ControlPoint web = controller.getControlPoint("deployment", "web");
+        Assert.assertEquals(RunResult.RUN, other.beginRequest());
+
+        final List<String> order = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            final String name = "batch-" + i;
+            batch.queueTask(() -> order.add(name), DIRECT, -1, null, false);
+        }
+        for (int i = 1; i <= 3; i++) {
+            final String name = "web-" + i;
+            web.queueTask(() -> order.add(name), DIRECT, -1, null, false);
+        }
+        Assert.assertEquals(3, batch.getQueuedTaskCount());
+        Assert.assertEquals(3, web.getQueuedTaskCount());
+
+        other.requestComplete();
+        Assert.assertEquals(Arrays.asList("batch-1", "web-1", "web-2", "batch-2", "web-3", "batch-3"), order);
+        Assert.assertEquals(0, batch.getQueuedTaskCount());
+        Assert.assertEquals(3, web.getQueuedTasksRun());
+        Assert.assertTrue(web.getMaxQueueTime() > 0);
+        Assert.assertTrue(web.getTotalQueueTime() >= web.getMaxQueueTime());
+    }
+
+    @Test
+    public void testAdaptiveLimitFollowsLatency() {
+        final AdaptiveRequestLimit limit = new AdaptiveRequestLimit(-1, 1000, 0);
+        Assert.assertEquals(AdaptiveRequestLimit.INITIAL_LIMIT, limit.getLimit());
+        Assert.assertEquals(-1, limit.getLatency(50));
+
+        long now = addWindows(limit, 0, 50, TimeUnit.MILLISECONDS.toNanos(1), true);
+        final int raised = limit.getLimit();
+        Assert.assertTrue(raised > AdaptiveRequestLimit.INITIAL_LIMIT);
+
+        // an idle server says nothing about the limit
+        now = addWindows(limit, now, 10, TimeUnit.MILLISECONDS.toNanos(1), false);
+        Assert.assertEquals(raised, limit.getLimit());
+
+        // requests start to queue up inside the server
+        addWindows(limit, now, 20, TimeUnit.MILLISECONDS.toNanos(4), true);
+        Assert.assertTrue(limit.getLimit() < raised);
+        Assert.assertTrue(limit.getLimit() >= AdaptiveRequestLimit.MIN_LIMIT);
+    }
+
+    @Test
+    public void testAdaptiveLimitIsBounded() {
+        final AdaptiveRequestLimit limit = new AdaptiveRequestLimit(25, 1000, 0);
+        addWindows(limit, 0, 100, TimeUnit.MILLISECONDS.toNanos(1), true);
+        Assert.assertEquals(25, limit.getLimit());
+        limit.setMaxLimit(5);
+        Assert.assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    public void testLatencyPercentiles() {
+        final AdaptiveRequestLimit limit = new AdaptiveRequestLimit(-1, 1000, 0);
+        for (int i = 1; i <= 100; i++) {
+            limit.addSample(i * 10, TimeUnit.MICROSECONDS.toNanos(i), 1);
+        }
+        final long median = limit.getLatency(50);
+        Assert.assertTrue(median >= 50 && median <= 50 * 1.125);
+        final long p99 = limit.getLatency(99);
+        Assert.assertTrue(p99 >= 99 && p99 <= 99 * 1.125);
+        Assert.assertEquals(7, AdaptiveRequestLimit.highestValue(AdaptiveRequestLimit.bucket(7)));
+        Assert.assertEquals(17, AdaptiveRequestLimit.highestValue(AdaptiveRequestLimit.bucket(16)));
+    }
+
+    @Test
+    public void testAdaptiveRequestLimit() throws Exception {
+        final RequestController controller = new RequestController(false);
+        Assert.assertEquals(-1, controller.getRequestLimit());
+        controller.setAdaptiveRequestLimit(true);
+        Assert.assertEquals(AdaptiveRequestLimit.INITIAL_LIMIT, controller.getRequestLimit());
+        controller.setMaxRequestCount(5);
+        Assert.assertEquals(5, controller.getRequestLimit());
+        Assert.assertEquals(5, controller.getMaxRequestCount());
+
+        final ControlPoint controlPoint = controller.getControlPoint("deployment", "entry-point");
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(RunResult.RUN, controlPoint.beginRequest());
+        }
+        Assert.assertEquals(RunResult.REJECTED, controlPoint.beginRequest());
+        for (int i = 0; i < 5; i++) {
+            controlPoint.requestComplete();
+        }
+
+        controller.setAdaptiveRequestLimit(false);
+        Assert.assertEquals(5, controller.getRequestLimit());
+        Assert.assertEquals(-1, controller.getRequestLatency(50));
+    }
+
+    @Test
+    public void testLatencyOfRequestsCompletedOnAnotherThread() throws Exception {
+        final RequestController controller = new RequestController(false);
+        controller.setAdaptiveRequestLimit(true);
+        final ControlPoint controlPoint = controller.getControlPoint("deployment", "entry-point");
+        final long startTime = System.nanoTime();
+        // let the first window of samples reach its minimum length
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(AdaptiveRequestLimit.DEFAULT_WINDOW));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < AdaptiveRequestLimit.MIN_WINDOW_SAMPLES; i++) {
+                Assert.assertEquals(RunResult.RUN, controlPoint.beginRequest());
+                executor.submit(() -> controlPoint.requestComplete(startTime)).get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertTrue(controller.getRequestLatency(50) >= TimeUnit.NANOSECONDS.toMicros(AdaptiveRequestLimit.DEFAULT_WINDOW));
+        Assert.assertEquals(0, controller.getActiveRequestCount());
+    }
+
+    /**
+     * Adds windows of samples with the given latency, with the server either as busy as the limit allows or idle
+     */
+    private static long addWindows(AdaptiveRequestLimit limit, long now, int windows, long latency, boolean busy) {
+        for (int i = 0; i < windows; i++) {
+            now += 1000;
+            for (int j = 0; j < AdaptiveRequestLimit.MIN_WINDOW_SAMPLES; j++) {
+                limit.addSample(now + j, latency, busy ? limit.getLimit() : 1);
+            }
+        }
+        return now + AdaptiveRequestLimit.MIN_WINDOW_SAMPLES;
+    }
+
+    @Test
+    public void testControlPointsAreReferenceCounted() {
+        final RequestController controller = new RequestController(false);
+        final ControlPoint controlPoint = controller.getControlPoint("deployment", "entry-point");
+        Assert.assertSame(controlPoint, controller.getControlPoint("deployment", "entry-point"));
+        controller.removeControlPoint(controlPoint);
+        Assert.assertEquals(1, controller.getState().getEntryPoints().size());
+        controller.removeControlPoint(controlPoint);
+        Assert.assertTrue(controller.getState().getEntryPoints().isEmpty());
+        Assert.assertNotSame(controlPoint, controller.getControlPoint("deployment", "entry-point"));
+    }
+
+    @Test
+    public void testRemovingStaleControlPointKeepsReplacement() {
+        final RequestController controller = new RequestController(false);
+        final ControlPoint stale = controller.getControlPoint("deployment", "entry-point");
+        controller.removeControlPoint(stale);
+        final ControlPoint current = controller.getControlPoint("deployment", "entry-point");
+        Assert.assertNotSame(stale, current);
+        controller.removeControlPoint(stale);
+        Assert.assertEquals(1, controller.getState().getEntryPoints().size());
+        controller.removeControlPoint(current);
+        Assert.assertTrue(controller.getState().getEntryPoints().isEmpty());
+    }
+}
@@ -214,6 +214,7 @@ public interface Bootstrap {
                                 persister.registerAdditionalRootElement(new QName(namespace.getUriString(), "server"), parser);
                             }
                         }
+                        persister.allowBootOperationCache(serverEnvironment.getServerDataDir());
                         extensionRegistry.setWriterRegistry(persister);
                         return persister;
                     }
@@ -93,6 +93,7 @@ import org.jboss.as.server.deployment.DeploymentUnitProcessor;
 import org.jboss.as.server.deployment.Phase;
 import org.jboss.as.server.deployment.ServiceLoaderProcessor;
 import org.jboss.as.server.deployment.SubDeploymentProcessor;
+import org.jboss.as.server.deployment.annotation.AnnotationIndexCache;
 import org.jboss.as.server.deployment.annotation.AnnotationIndexProcessor;
 import org.jboss.as.server.deployment.annotation.CleanupAnnotationIndexProcessor;
 import org.jboss.as.server.deployment.annotation.CompositeIndexProcessor;
@@ -386,6 +387,7 @@ public final class ServerService extends AbstractControllerService {
                 ok = boot(bootOps, failOnRuntime);
                 if (ok) {
                     finishBoot(suspend);
+                    AnnotationIndexCache.removeUnusedEntries(serverEnvironment.getServerDataDir(), injectedContentRepository.getValue());
                 }
             } finally {
                 DeployerChainAddHandler.INSTANCE.clearDeployerMap();
@@ -189,8 +189,10 @@ public class DeploymentHandlerUtil {
         // TODO: overlay service
         final ServiceName contentsServiceName = deploymentUnitServiceName.append("contents");
         boolean isExplodedContent = false;
+        byte[] contentHash = null;
         if (contents[0].hash != null) {
             if (contents[0].isArchive) {
+                contentHash = contents[0].hash;
                 contentService = ContentServitor.addService(serviceTarget, contentsServiceName, contents[0].hash);
             } else {
                 isExplodedContent = true;
@@ -206,7 +208,7 @@ public class DeploymentHandlerUtil {
 
         final RootDeploymentUnitService service = new RootDeploymentUnitService(deploymentUnitName, managementName, null,
                 registration, mutableRegistration, deploymentResource, context.getCapabilityServiceSupport(), vaultReader, overlays,
-                isExplodedContent);
+                isExplodedContent, contentHash);
         final ServiceController<DeploymentUnit> deploymentUnitController = serviceTarget.addService(deploymentUnitServiceName, service)
                 .addDependency(Services.JBOSS_DEPLOYMENT_CHAINS, DeployerChains.class, service.getDeployerChainsInjector())
                 .addDependency(DeploymentMountProvider.SERVICE_NAME, DeploymentMountProvider.class, service.getServerDeploymentRepositoryInjector())
@@ -0,0 +1,220 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.as.server.ServerEnvironment;
+import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.DeploymentUnit;
+import org.jboss.as.server.deployment.DeploymentUtils;
+import org.jboss.as.server.deployment.module.ResourceRoot;
+import org.jboss.as.server.deploymentoverlay.DeploymentOverlayIndex;
+import org.jboss.as.repository.ContentRepository;
+import org.jboss.as.repository.PathUtil;
+import org.jboss.as.server.logging.ServerLogger;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.vfs.VirtualFile;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Keeps the annotation index computed for a resource root of a managed deployment on disk, under the server data
+ * directory, so it does not have to be computed again when the same content is deployed again or the server restarts.
+ * <p/>
+ * The cached indexes of a deployment are kept in a directory named after the hash of the deployment content in the
+ * content repository, so different content never shares them. Within that directory each index is keyed by the path
+ * of the resource root within the deployment, the paths excluded from indexing and the deployment overlays that
+ * apply to the deployment. Unmanaged and exploded deployments can change without their hash changing, so their
+ * indexes are not cached. The directories of content that is no longer in the content repository are removed at
+ * boot, see {@link #removeUnusedEntries(File, ContentRepository)}.
+ * <p/>
+ * The cache is disabled unless the {@value #INDEX_CACHE} system property is set to {@code true}.
+ */
+public final class AnnotationIndexCache {
+
+    /**
+     * System property that turns on the caching of the annotation indexes of managed deployments
+     */
+    static final String INDEX_CACHE = "jboss.as.deployment.annotation-index-cache";
+
+    private static final String CACHE_DIR = "annotation-index";
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{40}");
+
+    private static final boolean ENABLED = Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(INDEX_CACHE, "false"));
+
+    private final Path file;
+
+    AnnotationIndexCache(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Gets the cache entry for a resource root.
+     *
+     * @param deploymentUnit the deployment unit the resource root belongs to
+     * @param resourceRoot the resource root
+     * @param indexIgnorePaths the paths excluded from indexing, or {@code null}
+     * @return the cache entry, or {@code null} if the index of the resource root cannot be cached
+     */
+    static AnnotationIndexCache forResourceRoot(final DeploymentUnit deploymentUnit, final ResourceRoot resourceRoot, final Set<String> indexIgnorePaths) {
+        if (!ENABLED || deploymentUnit == null) {
+            return null;
+        }
+        final DeploymentUnit top = DeploymentUtils.getTopDeploymentUnit(deploymentUnit);
+        final byte[] contentHash = top.getAttachment(Attachments.DEPLOYMENT_CONTENT_HASH);
+        final ResourceRoot deploymentRoot = top.getAttachment(Attachments.DEPLOYMENT_ROOT);
+        final PathManager pathManager = top.getAttachment(Attachments.PATH_MANAGER);
+        if (contentHash == null || deploymentRoot == null || pathManager == null) {
+            return null;
+        }
+
+        final StringBuilder key = new StringBuilder();
+        final VirtualFile root = resourceRoot.getRoot();
+        if (!root.equals(deploymentRoot.getRoot())) {
+            try {
+                key.append(root.getPathNameRelativeTo(deploymentRoot.getRoot()));
+            } catch (IllegalArgumentException e) {
+                // The resource root is not part of the deployment content
+                return null;
+            }
+        }
+        key.append('\n');
+        if (indexIgnorePaths != null) {
+            for (String path : new TreeSet<>(indexIgnorePaths)) {
+                key.append(path).append(';');
+            }
+        }
+        key.append('\n');
+        final DeploymentOverlayIndex overlays = top.getAttachment(Attachments.DEPLOYMENT_OVERLAY_INDEX);
+        if (overlays != null) {
+            for (Map.Entry<String, byte[]> overlay : new TreeMap<>(overlays.getOverlays(top.getName())).entrySet()) {
+                key.append(overlay.getKey()).append('=').append(HashUtil.bytesToHexString(overlay.getValue())).append(';');
+            }
+        }
+
+        final Path dataDir = Paths.get(pathManager.getPathEntry(ServerEnvironment.SERVER_DATA_DIR).resolvePath());
+        return new AnnotationIndexCache(dataDir.resolve(CACHE_DIR).resolve(HashUtil.bytesToHexString(contentHash))
+                .resolve(digest(key.toString()) + ".idx"));
+    }
+
+    /**
+     * Reads the cached index.
+     *
+     * @return the index, or {@code null} if there is none or it cannot be read
+     */
+    Index read() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return new IndexReader(in).read();
+        } catch (Exception e) {
+            ServerLogger.DEPLOYMENT_LOGGER.cannotLoadAnnotationIndex(file.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Caches an index. A failure is logged and otherwise ignored, as the index is just computed again next time.
+     *
+     * @param index the index
+     */
+    void write(final Index index) {
+        final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                new IndexWriter(out).write(index);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            ServerLogger.DEPLOYMENT_LOGGER.cannotWriteCachedAnnotationIndex(file, e);
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {
+                // nothing more to do
+            }
+        }
+    }
+
+    /**
+     * Removes the cached indexes of content that is no longer in the content repository, or all of them if the
+     * cache is disabled.
+     *
+     * @param dataDir the server data directory
+     * @param contentRepository the content repository
+     */
+    public static void removeUnusedEntries(final File dataDir, final ContentRepository contentRepository) {
+        removeUnusedEntries(dataDir.toPath().resolve(CACHE_DIR), hash -> ENABLED && contentRepository.hasContent(hash));
+    }
+
+    static void removeUnusedEntries(final Path cacheDir, final Predicate<byte[]> used) {
+        if (!Files.isDirectory(cacheDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(cacheDir)) {
+            for (Path entry : entries) {
+                final String name = entry.getFileName().toString();
+                if (!CONTENT_HASH.matcher(name).matches() || !used.test(HashUtil.hexStringToByteArray(name))) {
+                    ServerLogger.DEPLOYMENT_LOGGER.debugf("Removing the cached annotation indexes %s", entry);
+                    PathUtil.deleteRecursively(entry);
+                }
+            }
+        } catch (IOException e) {
+            ServerLogger.DEPLOYMENT_LOGGER.cannotRemoveCachedAnnotationIndexes(cacheDir, e);
+        }
+    }
+
+    private static String digest(final String key) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return HashUtil.bytesToHexString(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
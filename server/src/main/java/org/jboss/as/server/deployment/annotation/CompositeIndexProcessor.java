@@ -27,12 +27,15 @@ import java.io.InputStream;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jboss.as.server.deployment.Attachments;
 import org.jboss.as.server.deployment.DeploymentPhaseContext;
@@ -79,36 +82,46 @@ public class CompositeIndexProcessor implements DeploymentUnitProcessor {
         for(AdditionalModuleSpecification i : top.getAttachmentList(Attachments.ADDITIONAL_MODULES)) {
             additionalModuleSpecificationMap.put(i.getModuleIdentifier(), i);
         }
-        Map<ModuleIdentifier, CompositeIndex> additionalAnnotationIndexes = new HashMap<ModuleIdentifier, CompositeIndex>();
+        final Map<ModuleIdentifier, CompositeIndex> additionalAnnotationIndexes = new ConcurrentHashMap<ModuleIdentifier, CompositeIndex>();
         final List<ModuleIdentifier> additionalModuleIndexes = deploymentUnit.getAttachmentList(Attachments.ADDITIONAL_ANNOTATION_INDEXES);
-        final List<Index> indexes = new ArrayList<Index>();
+        // Index the additional modules in parallel, keeping the order of their indexes
+        final List<Callable<List<Index>>> tasks = new ArrayList<Callable<List<Index>>>(additionalModuleIndexes.size());
         for (final ModuleIdentifier moduleIdentifier : additionalModuleIndexes) {
-            AdditionalModuleSpecification additional = additionalModuleSpecificationMap.get(moduleIdentifier);
+            final AdditionalModuleSpecification additional = additionalModuleSpecificationMap.get(moduleIdentifier);
             if(additional != null) {
-                for(ResourceRoot resource : additional.getResourceRoots()) {
-                    ResourceRootIndexer.indexResourceRoot(resource);
-                    Index indexAttachment = resource.getAttachment(Attachments.ANNOTATION_INDEX);
-                    if(indexAttachment != null) {
-                        indexes.add(indexAttachment);
+                tasks.add(() -> {
+                    final List<Index> moduleIndexes = new ArrayList<Index>();
+                    for(ResourceRoot resource : additional.getResourceRoots()) {
+                        ResourceRootIndexer.indexResourceRoot(resource, deploymentUnit);
+                        Index indexAttachment = resource.getAttachment(Attachments.ANNOTATION_INDEX);
+                        if(indexAttachment != null) {
+                            moduleIndexes.add(indexAttachment);
+                        }
                     }
-                }
+                    return moduleIndexes;
+                });
             } else {
-                try {
+                tasks.add(() -> {
                     Module module = moduleLoader.loadModule(moduleIdentifier);
                     final CompositeIndex additionalIndex = ModuleIndexBuilder.buildCompositeIndex(module);
                     if (additionalIndex != null) {
-                        indexes.addAll(additionalIndex.indexes);
                         additionalAnnotationIndexes.put(moduleIdentifier, additionalIndex);
+                        return new ArrayList<Index>(additionalIndex.indexes);
                     } else {
-                        final Index index = calculateModuleIndex(module);
-                        indexes.add(index);
+                        return Collections.singletonList(calculateModuleIndex(module));
                     }
-                } catch (ModuleLoadException e) {
-                    throw new DeploymentUnitProcessingException(e);
-                } catch (IOException e) {
-                    throw new DeploymentUnitProcessingException(e);
-                }
+                });
+            }
+        }
+        final List<Index> indexes = new ArrayList<Index>();
+        try {
+            for (List<Index> moduleIndexes : ParallelIndexer.invokeAll(tasks)) {
+                indexes.addAll(moduleIndexes);
             }
+        } catch (DeploymentUnitProcessingException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DeploymentUnitProcessingException(e);
         }
         deploymentUnit.putAttachment(Attachments.ADDITIONAL_ANNOTATION_INDEXES_BY_MODULE, additionalAnnotationIndexes);
 
@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+
+/**
+ * Runs indexing work on a fork-join pool shared by all deployments, and merges the indexes of parts of a resource
+ * root into one.
+ * <p/>
+ * A task may itself invoke more tasks, e.g. indexing the resource roots of a deployment in parallel and the classes
+ * of each large resource root in parallel, as a pool thread waiting for its subtasks runs other tasks meanwhile.
+ */
+final class ParallelIndexer {
+
+    private ParallelIndexer() {
+    }
+
+    /**
+     * Gets the pool the indexing tasks run in.
+     *
+     * @return the pool
+     */
+    static ForkJoinPool getPool() {
+        return PoolHolder.POOL;
+    }
+
+    /**
+     * Runs tasks in parallel, and waits for all of them to complete.
+     *
+     * @param tasks the tasks
+     * @param <T> the type of the results of the tasks
+     * @return the results of the tasks, in the same order as the tasks
+     * @throws Exception the exception thrown by the first of the tasks that failed, if any of them did
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<T> invokeAll(final List<? extends Callable<T>> tasks) throws Exception {
+        final int size = tasks.size();
+        final Object[] results = new Object[size];
+        final Throwable[] failures = new Throwable[size];
+        final List<ForkJoinTask<?>> forkJoinTasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final int index = i;
+            final Callable<T> task = tasks.get(i);
+            // Failures are kept as they are, rather than have the fork-join task wrap them
+            forkJoinTasks.add(ForkJoinTask.adapt(() -> {
+                try {
+                    results[index] = task.call();
+                } catch (Throwable t) {
+                    failures[index] = t;
+                }
+            }));
+        }
+
+        final ForkJoinPool pool = getPool();
+        final Thread currentThread = Thread.currentThread();
+        if (currentThread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) currentThread).getPool() == pool) {
+            ForkJoinTask.invokeAll(forkJoinTasks);
+        } else {
+            for (ForkJoinTask<?> task : forkJoinTasks) {
+                pool.execute(task);
+            }
+            for (ForkJoinTask<?> task : forkJoinTasks) {
+                task.join();
+            }
+        }
+
+        for (Throwable failure : failures) {
+            if (failure instanceof Exception) {
+                throw (Exception) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+        }
+        return (List<T>) Arrays.asList(results);
+    }
+
+    /**
+     * Merges the indexes of disjoint sets of classes into one index.
+     *
+     * @param indexes the indexes
+     * @return the merged index
+     */
+    static Index merge(final List<Index> indexes) {
+        if (indexes.size() == 1) {
+            return indexes.get(0);
+        }
+        final Map<DotName, List<AnnotationInstance>> annotations = new HashMap<>();
+        final Map<DotName, List<ClassInfo>> subclasses = new HashMap<>();
+        final Map<DotName, List<ClassInfo>> implementors = new HashMap<>();
+        final Map<DotName, ClassInfo> classes = new HashMap<>();
+        for (Index index : indexes) {
+            for (ClassInfo classInfo : index.getKnownClasses()) {
+                if (classes.putIfAbsent(classInfo.name(), classInfo) != null) {
+                    continue;
+                }
+                for (Map.Entry<DotName, List<AnnotationInstance>> entry : classInfo.annotations().entrySet()) {
+                    annotations.computeIfAbsent(entry.getKey(), name -> new ArrayList<>()).addAll(entry.getValue());
+                }
+                if (classInfo.superName() != null) {
+                    subclasses.computeIfAbsent(classInfo.superName(), name -> new ArrayList<>()).add(classInfo);
+                }
+                for (DotName interfaceName : classInfo.interfaceNames()) {
+                    implementors.computeIfAbsent(interfaceName, name -> new ArrayList<>()).add(classInfo);
+                }
+            }
+        }
+        return Index.create(annotations, subclasses, implementors, classes);
+    }
+
+    private static final class PoolHolder {
+        // The worker threads are daemon threads, so the pool never needs shutting down
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -23,12 +23,15 @@
 package org.jboss.as.server.deployment.annotation;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.jboss.as.server.logging.ServerLogger;
 import org.jboss.as.server.deployment.Attachments;
+import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.as.server.deployment.module.ResourceRoot;
 import org.jboss.as.server.moduleservice.ModuleIndexBuilder;
@@ -46,10 +49,28 @@ import org.jboss.vfs.util.SuffixMatchFilter;
  */
 public class ResourceRootIndexer {
 
+    /**
+     * The smallest number of classes indexed by one task. Indexing a class takes so little time that splitting the
+     * classes of a resource root into smaller tasks costs more than it gains.
+     */
+    private static final int MIN_CHUNK_SIZE = 512;
+
     /**
      * Creates and attaches the annotation index to a resource root, if it has not already been attached
      */
     public static void indexResourceRoot(final ResourceRoot resourceRoot) throws DeploymentUnitProcessingException {
+        indexResourceRoot(resourceRoot, null);
+    }
+
+    /**
+     * Creates and attaches the annotation index to a resource root, if it has not already been attached. If the
+     * resource root is part of a managed deployment the index may be read from, or stored in, the
+     * {@link AnnotationIndexCache persistent index cache}.
+     *
+     * @param resourceRoot the resource root
+     * @param deploymentUnit the deployment unit the resource root belongs to, or {@code null} if unknown
+     */
+    public static void indexResourceRoot(final ResourceRoot resourceRoot, final DeploymentUnit deploymentUnit) throws DeploymentUnitProcessingException {
         if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null) {
             return;
         }
@@ -80,8 +101,17 @@ public class ResourceRootIndexer {
             indexIgnorePaths = null;
         }
 
+        final AnnotationIndexCache cache = AnnotationIndexCache.forResourceRoot(deploymentUnit, resourceRoot, indexIgnorePaths);
+        if (cache != null) {
+            final Index index = cache.read();
+            if (index != null) {
+                resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
+                ServerLogger.DEPLOYMENT_LOGGER.tracef("Read cached index for archive %s", resourceRoot.getRoot());
+                return;
+            }
+        }
+
         final VirtualFile virtualFile = resourceRoot.getRoot();
-        final Indexer indexer = new Indexer();
         try {
             final VisitorAttributes visitorAttributes = new VisitorAttributes();
             visitorAttributes.setLeavesOnly(true);
@@ -92,22 +122,88 @@ public class ResourceRootIndexer {
             });
 
             final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
-            for (VirtualFile classFile : classChildren) {
-                InputStream inputStream = null;
-                try {
-                    inputStream = classFile.openStream();
-                    indexer.index(inputStream);
-                } catch (Exception e) {
-                    ServerLogger.DEPLOYMENT_LOGGER.cannotIndexClass(classFile.getPathNameRelativeTo(virtualFile), virtualFile.getPathName(), e);
-                } finally {
-                    VFSUtils.safeClose(inputStream);
-                }
+            final Index index = indexClasses(classChildren, virtualFile, getChunkSize(classChildren.size()));
+            if (cache != null) {
+                cache.write(index);
             }
-            final Index index = indexer.complete();
             resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
             ServerLogger.DEPLOYMENT_LOGGER.tracef("Generated index for archive %s", virtualFile);
         } catch (Throwable t) {
             throw ServerLogger.ROOT_LOGGER.deploymentIndexingFailed(t);
         }
     }
+
+    /**
+     * Creates and attaches the annotation indexes of several resource roots, in parallel.
+     *
+     * @param resourceRoots the resource roots
+     * @param deploymentUnit the deployment unit the resource roots belong to, or {@code null} if unknown
+     */
+    public static void indexResourceRoots(final List<ResourceRoot> resourceRoots, final DeploymentUnit deploymentUnit) throws DeploymentUnitProcessingException {
+        if (resourceRoots.size() < 2) {
+            for (ResourceRoot resourceRoot : resourceRoots) {
+                indexResourceRoot(resourceRoot, deploymentUnit);
+            }
+            return;
+        }
+        final List<Callable<Void>> tasks = new ArrayList<>(resourceRoots.size());
+        for (ResourceRoot resourceRoot : resourceRoots) {
+            tasks.add(() -> {
+                indexResourceRoot(resourceRoot, deploymentUnit);
+                return null;
+            });
+        }
+        try {
+            ParallelIndexer.invokeAll(tasks);
+        } catch (DeploymentUnitProcessingException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw ServerLogger.ROOT_LOGGER.deploymentIndexingFailed(e);
+        }
+    }
+
+    /**
+     * Gets the number of classes to index in each task, so each pool thread gets a few tasks to balance the load.
+     * Resource roots with fewer classes than {@link #MIN_CHUNK_SIZE} are indexed by the calling thread.
+     */
+    private static int getChunkSize(final int classCount) {
+        final int tasks = ParallelIndexer.getPool().getParallelism() * 4;
+        return Math.max(MIN_CHUNK_SIZE, (classCount + tasks - 1) / tasks);
+    }
+
+    /**
+     * Indexes class files, splitting them into chunks that are indexed in parallel if there is more than one.
+     *
+     * @param classFiles the class files
+     * @param root the resource root the class files are in
+     * @param chunkSize the number of class files to index in each task
+     * @return the index of the class files
+     */
+    static Index indexClasses(final List<VirtualFile> classFiles, final VirtualFile root, final int chunkSize) throws Exception {
+        if (classFiles.size() <= chunkSize) {
+            return indexChunk(classFiles, root);
+        }
+        final List<Callable<Index>> tasks = new ArrayList<>();
+        for (int i = 0; i < classFiles.size(); i += chunkSize) {
+            final List<VirtualFile> chunk = classFiles.subList(i, Math.min(classFiles.size(), i + chunkSize));
+            tasks.add(() -> indexChunk(chunk, root));
+        }
+        return ParallelIndexer.merge(ParallelIndexer.invokeAll(tasks));
+    }
+
+    private static Index indexChunk(final List<VirtualFile> classFiles, final VirtualFile root) {
+        final Indexer indexer = new Indexer();
+        for (VirtualFile classFile : classFiles) {
+            InputStream inputStream = null;
+            try {
+                inputStream = classFile.openStream();
+                indexer.index(inputStream);
+            } catch (Exception e) {
+                ServerLogger.DEPLOYMENT_LOGGER.cannotIndexClass(classFile.getPathNameRelativeTo(root), root.getPathName(), e);
+            } finally {
+                VFSUtils.safeClose(inputStream);
+            }
+        }
+        return indexer.complete();
+    }
 }
@@ -277,7 +277,7 @@ public final class ManifestClassPathProcessor implements DeploymentUnitProcessor
             final MountHandle mountHandle = new MountHandle(closable);
             final ResourceRoot resourceRoot = new ResourceRoot(file, mountHandle);
             ModuleRootMarker.mark(resourceRoot);
-            ResourceRootIndexer.indexResourceRoot(resourceRoot);
+            ResourceRootIndexer.indexResourceRoot(resourceRoot, deploymentUnit);
             return resourceRoot;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -20,18 +20,21 @@
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
 
+
 package org.jboss.as.server.deployment.reflect;
 
 import org.jboss.invocation.proxy.MethodIdentifier;
 
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Map;
@@ -45,18 +48,23 @@ import static java.lang.reflect.Modifier.STATIC;
  * A short-lived index of all the declared fields and methods of a class.
  * <p/>
  * The ClassReflectionIndex is only available during the deployment.
+ * <p/>
+ * A deployment indexes many classes of which only a few members are ever looked up, so the index just keeps the
+ * declared fields and methods sorted by name, and the declared constructors, and searches them. A lookup compares the
+ * parameter types of the few members of the given name only.
  *
  * @param <?> the type being indexed
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public final class ClassReflectionIndex {
+    private static final Comparator<Field> FIELD_NAME_ORDER = Comparator.comparing(Field::getName);
+    private static final Comparator<Method> METHOD_NAME_ORDER = Comparator.comparing(Method::getName);
+
     private final DeploymentReflectionIndex deploymentReflectionIndex;
     private final Class<?> indexedClass;
-    private final Map<String, Field> fields;
-    private final Map<ParamList, Constructor<?>> constructors;
-    private final Map<ParamNameList, Constructor<?>> constructorsByTypeName;
-    private final Map<String, Map<ParamList, Map<Class<?>, Method>>> methods;
-    private final Map<String, Map<ParamNameList, Map<String, Method>>> methodsByTypeName;
+    private final Field[] fields;
+    private final Method[] methods;
+    private final Constructor<?>[] constructors;
 
     /**
      * Identity map of all methods defined by this class and its superclasses (including default methods)
@@ -64,103 +72,25 @@ public final class ClassReflectionIndex {
      */
     private volatile Set<Method> classMethods;
 
-    @SuppressWarnings({"unchecked"})
     ClassReflectionIndex(final Class<?> indexedClass, final DeploymentReflectionIndex deploymentReflectionIndex) {
         this.deploymentReflectionIndex = deploymentReflectionIndex;
         this.indexedClass = indexedClass;
         // -- fields --
-        final Field[] declaredFields = indexedClass.getDeclaredFields();
-        final Map<String, Field> fields = new HashMap<String, Field>();
-        for (Field field : declaredFields) {
-            field.setAccessible(true);
-            fields.put(field.getName(), field);
-        }
+        final Field[] fields = indexedClass.getDeclaredFields();
+        AccessibleObject.setAccessible(fields, true);
+        Arrays.sort(fields, FIELD_NAME_ORDER);
         this.fields = fields;
         // -- methods --
-        final Method[] declaredMethods = indexedClass.getDeclaredMethods();
-        final Map<String, Map<ParamList, Map<Class<?>, Method>>> methods = new HashMap<String, Map<ParamList, Map<Class<?>, Method>>>();
-        final Map<String, Map<ParamNameList, Map<String, Method>>> methodsByTypeName = new HashMap<String, Map<ParamNameList, Map<String, Method>>>();
-        for (Method method : declaredMethods) {
-            method.setAccessible(true);
-            addMethod(methods, method);
-            addMethodByTypeName(methodsByTypeName, method);
-        }
-
+        final Method[] methods = indexedClass.getDeclaredMethods();
+        AccessibleObject.setAccessible(methods, true);
+        Arrays.sort(methods, METHOD_NAME_ORDER);
         this.methods = methods;
-        this.methodsByTypeName = methodsByTypeName;
         // -- constructors --
-        final Constructor<?>[] declaredConstructors = (Constructor<?>[]) indexedClass.getDeclaredConstructors();
-        final Map<ParamNameList, Constructor<?>> constructorsByTypeName = new HashMap<ParamNameList, Constructor<?>>();
-        final Map<ParamList, Constructor<?>> constructors = new HashMap<ParamList, Constructor<?>>();
-        for (Constructor<?> constructor : declaredConstructors) {
-            constructor.setAccessible(true);
-            Class<?>[] parameterTypes = constructor.getParameterTypes();
-            constructors.put(createParamList(parameterTypes), constructor);
-            constructorsByTypeName.put(createParamNameList(parameterTypes), constructor);
-        }
-        this.constructorsByTypeName = constructorsByTypeName;
+        final Constructor<?>[] constructors = indexedClass.getDeclaredConstructors();
+        AccessibleObject.setAccessible(constructors, true);
         this.constructors = constructors;
     }
 
-    private static final ParamList EMPTY = new ParamList(new Class<?>[0]);
-    private static final ParamNameList EMPTY_NAMES = new ParamNameList(new String[0]);
-
-    private static void addMethod(Map<String, Map<ParamList, Map<Class<?>, Method>>> methods, Method method) {
-        final String name = method.getName();
-        Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
-        if (nameMap == null) {
-            methods.put(name, nameMap = new HashMap<ParamList, Map<Class<?>, Method>>());
-        }
-        final Class<?>[] types = method.getParameterTypes();
-        final ParamList list = createParamList(types);
-        Map<Class<?>, Method> paramsMap = nameMap.get(list);
-        if (paramsMap == null) {
-            nameMap.put(list, paramsMap = new HashMap<Class<?>, Method>());
-        }
-        //don't allow superclass / interface methods to overwrite existing methods
-        if (!paramsMap.containsKey(method.getReturnType())) {
-            paramsMap.put(method.getReturnType(), method);
-        }
-    }
-
-    private static void addMethodByTypeName(Map<String, Map<ParamNameList, Map<String, Method>>> methodsByTypeName, Method method) {
-        final String name = method.getName();
-        Map<ParamNameList, Map<String, Method>> nameMap = methodsByTypeName.get(name);
-        if (nameMap == null) {
-            methodsByTypeName.put(name, nameMap = new HashMap<ParamNameList, Map<String, Method>>());
-        }
-        final Class<?>[] types = method.getParameterTypes();
-        final ParamNameList list = createParamNameList(types);
-        Map<String, Method> paramsMap = nameMap.get(list);
-        if (paramsMap == null) {
-            nameMap.put(list, paramsMap = new HashMap<String, Method>());
-        }
-
-        //don't allow superclass / interface methods to overwrite existing methods
-        if (!paramsMap.containsKey(method.getReturnType().getName())) {
-            paramsMap.put(method.getReturnType().getName(), method);
-        }
-    }
-
-    private static ParamNameList createParamNameList(final Class<?>[] types) {
-        if (types == null || types.length == 0) {
-            return EMPTY_NAMES;
-        }
-        String[] strings = new String[types.length];
-        for (int i = 0; i < types.length; i++) {
-            strings[i] = types[i].getName();
-        }
-        return new ParamNameList(strings);
-    }
-
-    private static ParamNameList createParamNameList(final String[] typeNames) {
-        return typeNames == null || typeNames.length == 0 ? EMPTY_NAMES : new ParamNameList(typeNames);
-    }
-
-    private static ParamList createParamList(final Class<?>[] types) {
-        return types == null || types.length == 0 ? EMPTY : new ParamList(types);
-    }
-
     /**
      * Get the class indexed by this object.
      *
@@ -177,7 +107,20 @@ public final class ClassReflectionIndex {
      * @return the field, or {@code null} if no field of that name exists
      */
     public Field getField(String name) {
-        return fields.get(name);
+        int low = 0;
+        int high = fields.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = fields[mid].getName().compareTo(name);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return fields[mid];
+            }
+        }
+        return null;
     }
 
     /**
@@ -186,7 +129,7 @@ public final class ClassReflectionIndex {
      * @return The (possibly empty) collection of all declared fields on this object
      */
     public Collection<Field> getFields() {
-        return Collections.unmodifiableCollection(fields.values());
+        return Collections.unmodifiableList(Arrays.asList(fields));
     }
 
     /**
@@ -198,15 +141,13 @@ public final class ClassReflectionIndex {
      * @return the method, or {@code null} if no method of that description exists
      */
     public Method getMethod(Class<?> returnType, String name, Class<?>... paramTypes) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
-        if (nameMap == null) {
-            return null;
-        }
-        final Map<Class<?>, Method> paramsMap = nameMap.get(createParamList(paramTypes));
-        if (paramsMap == null) {
-            return null;
+        for (int i = firstMethod(name); i < methods.length && methods[i].getName().equals(name); i++) {
+            final Method method = methods[i];
+            if (method.getReturnType() == returnType && parametersMatch(method, paramTypes)) {
+                return method;
+            }
         }
-        return paramsMap.get(returnType);
+        return null;
     }
 
     /**
@@ -228,15 +169,13 @@ public final class ClassReflectionIndex {
      * @return the method, or {@code null} if no method of that description exists
      */
     public Method getMethod(String returnType, String name, String... paramTypeNames) {
-        final Map<ParamNameList, Map<String, Method>> nameMap = methodsByTypeName.get(name);
-        if (nameMap == null) {
-            return null;
-        }
-        final Map<String, Method> paramsMap = nameMap.get(createParamNameList(paramTypeNames));
-        if (paramsMap == null) {
-            return null;
+        for (int i = firstMethod(name); i < methods.length && methods[i].getName().equals(name); i++) {
+            final Method method = methods[i];
+            if (method.getReturnType().getName().equals(returnType) && parametersMatch(method, paramTypeNames)) {
+                return method;
+            }
         }
-        return paramsMap.get(returnType);
+        return null;
     }
 
     /**
@@ -246,15 +185,7 @@ public final class ClassReflectionIndex {
      * @return the method, or {@code null} if no method of that description exists
      */
     public Method getMethod(MethodIdentifier methodIdentifier) {
-        final Map<ParamNameList, Map<String, Method>> nameMap = methodsByTypeName.get(methodIdentifier.getName());
-        if (nameMap == null) {
-            return null;
-        }
-        final Map<String, Method> paramsMap = nameMap.get(createParamNameList(methodIdentifier.getParameterTypes()));
-        if (paramsMap == null) {
-            return null;
-        }
-        return paramsMap.get(methodIdentifier.getReturnType());
+        return getMethod(methodIdentifier.getReturnType(), methodIdentifier.getName(), methodIdentifier.getParameterTypes());
     }
 
     /**
@@ -265,15 +196,17 @@ public final class ClassReflectionIndex {
      * @return the (possibly empty) collection of methods matching the description
      */
     public Collection<Method> getMethods(String name, Class<?>... paramTypes) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
-        if (nameMap == null) {
-            return Collections.emptySet();
-        }
-        final Map<Class<?>, Method> paramsMap = nameMap.get(createParamList(paramTypes));
-        if (paramsMap == null) {
-            return Collections.emptySet();
+        Collection<Method> result = Collections.emptySet();
+        for (int i = firstMethod(name); i < methods.length && methods[i].getName().equals(name); i++) {
+            final Method method = methods[i];
+            if (parametersMatch(method, paramTypes)) {
+                if (result.isEmpty()) {
+                    result = new ArrayList<Method>(2);
+                }
+                result.add(method);
+            }
         }
-        return Collections.unmodifiableCollection(paramsMap.values());
+        return Collections.unmodifiableCollection(result);
     }
 
     /**
@@ -284,15 +217,17 @@ public final class ClassReflectionIndex {
      * @return the (possibly empty) collection of methods matching the description
      */
     public Collection<Method> getMethods(String name, String... paramTypeNames) {
-        final Map<ParamNameList, Map<String, Method>> nameMap = methodsByTypeName.get(name);
-        if (nameMap == null) {
-            return Collections.emptySet();
-        }
-        final Map<String, Method> paramsMap = nameMap.get(createParamNameList(paramTypeNames));
-        if (paramsMap == null) {
-            return Collections.emptySet();
+        Collection<Method> result = Collections.emptySet();
+        for (int i = firstMethod(name); i < methods.length && methods[i].getName().equals(name); i++) {
+            final Method method = methods[i];
+            if (parametersMatch(method, paramTypeNames)) {
+                if (result.isEmpty()) {
+                    result = new ArrayList<Method>(2);
+                }
+                result.add(method);
+            }
         }
-        return Collections.unmodifiableCollection(paramsMap.values());
+        return Collections.unmodifiableCollection(result);
     }
 
     /**
@@ -302,13 +237,9 @@ public final class ClassReflectionIndex {
      * @return the (possibly empty) collection of methods with the given name
      */
     public Collection<Method> getAllMethods(String name) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
-        if (nameMap == null) {
-            return Collections.emptySet();
-        }
         final Collection<Method> methods = new ArrayList<Method>();
-        for (Map<Class<?>, Method> map : nameMap.values()) {
-            methods.addAll(map.values());
+        for (int i = firstMethod(name); i < this.methods.length && this.methods[i].getName().equals(name); i++) {
+            methods.add(this.methods[i]);
         }
         return methods;
     }
@@ -321,16 +252,10 @@ public final class ClassReflectionIndex {
      * @return the (possibly empty) collection of methods with the given name and parameter count
      */
     public Collection<Method> getAllMethods(String name, int paramCount) {
-        final Map<ParamList, Map<Class<?>, Method>> nameMap = methods.get(name);
-        if (nameMap == null) {
-            return Collections.emptySet();
-        }
         final Collection<Method> methods = new ArrayList<Method>();
-        for (Map<Class<?>, Method> map : nameMap.values()) {
-            for (Method method : map.values()) {
-                if (method.getParameterTypes().length == paramCount) {
-                    methods.add(method);
-                }
+        for (int i = firstMethod(name); i < this.methods.length && this.methods[i].getName().equals(name); i++) {
+            if (this.methods[i].getParameterCount() == paramCount) {
+                methods.add(this.methods[i]);
             }
         }
         return methods;
@@ -342,14 +267,7 @@ public final class ClassReflectionIndex {
      * @return the (possibly empty) collection of all declared methods
      */
     public Collection<Method> getMethods() {
-        final Collection<Method> methods = new ArrayList<Method>();
-        for (Map.Entry<String, Map<ParamList, Map<Class<?>, Method>>> entry : this.methods.entrySet()) {
-            final Map<ParamList, Map<Class<?>, Method>> nameMap = entry.getValue();
-            for (Map<Class<?>, Method> map : nameMap.values()) {
-                methods.addAll(map.values());
-            }
-        }
-        return methods;
+        return new ArrayList<Method>(Arrays.asList(methods));
     }
 
     /**
@@ -358,7 +276,7 @@ public final class ClassReflectionIndex {
      * @return the constructors
      */
     public Collection<Constructor<?>> getConstructors() {
-        return Collections.unmodifiableCollection(constructors.values());
+        return Collections.unmodifiableList(Arrays.asList(constructors));
     }
 
     /**
@@ -368,7 +286,12 @@ public final class ClassReflectionIndex {
      * @return the constructor, or {@code null} of no such constructor exists
      */
     public Constructor<?> getConstructor(Class<?>... paramTypes) {
-        return constructors.get(createParamList(paramTypes));
+        for (Constructor<?> constructor : constructors) {
+            if (parametersMatch(constructor, paramTypes)) {
+                return constructor;
+            }
+        }
+        return null;
     }
 
     /**
@@ -378,7 +301,12 @@ public final class ClassReflectionIndex {
      * @return the constructor, or {@code null} of no such constructor exists
      */
     public Constructor<?> getConstructor(String... paramTypeNames) {
-        return constructorsByTypeName.get(createParamNameList(paramTypeNames));
+        for (Constructor<?> constructor : constructors) {
+            if (parametersMatch(constructor, paramTypeNames)) {
+                return constructor;
+            }
+        }
+        return null;
     }
 
     public Set<Method> getClassMethods() {
@@ -433,56 +361,45 @@ public final class ClassReflectionIndex {
         return Collections.newSetFromMap(new IdentityHashMap<Method, Boolean>());
     }
 
-
-    private static final class ParamList {
-        private final Class<?>[] types;
-        private final int hashCode;
-
-        ParamList(final Class<?>[] types) {
-            this.types = types;
-            hashCode = Arrays.hashCode(types);
-        }
-
-        Class<?>[] getTypes() {
-            return types;
-        }
-
-        public boolean equals(Object other) {
-            return other instanceof ParamList && equals((ParamList) other);
-        }
-
-        public boolean equals(ParamList other) {
-            return this == other || other != null && Arrays.equals(types, other.types);
-        }
-
-        public int hashCode() {
-            return hashCode;
+    /**
+     * Finds the first of the methods with a given name.
+     *
+     * @param name the method name
+     * @return the index of the first method with the name, or of the first method after it if there is none
+     */
+    private int firstMethod(final String name) {
+        int low = 0;
+        int high = methods.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (methods[mid].getName().compareTo(name) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
         }
+        return low;
     }
 
-    private static final class ParamNameList {
-        private final String[] types;
-        private final int hashCode;
-
-        ParamNameList(final String[] types) {
-            this.types = types;
-            hashCode = Arrays.hashCode(types);
-        }
-
-        String[] getTypes() {
-            return types;
-        }
-
-        public boolean equals(Object other) {
-            return other instanceof ParamNameList && equals((ParamNameList) other);
-        }
+    private static boolean parametersMatch(final Executable executable, final Class<?>[] types) {
+        final int count = types == null ? 0 : types.length;
+        // Checking the count first avoids copying the parameter types of most of the candidates
+        return executable.getParameterCount() == count && (count == 0 || Arrays.equals(executable.getParameterTypes(), types));
+    }
 
-        public boolean equals(ParamNameList other) {
-            return this == other || other != null && Arrays.equals(types, other.types);
+    private static boolean parametersMatch(final Executable executable, final String[] typeNames) {
+        final int count = typeNames == null ? 0 : typeNames.length;
+        if (executable.getParameterCount() != count) {
+            return false;
         }
-
-        public int hashCode() {
-            return hashCode;
+        if (count > 0) {
+            final Class<?>[] types = executable.getParameterTypes();
+            for (int i = 0; i < count; i++) {
+                if (!types[i].getName().equals(typeNames[i])) {
+                    return false;
+                }
+            }
         }
+        return true;
     }
 }
@@ -24,19 +24,22 @@ package org.jboss.as.server.deployment.reflect;
 
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jboss.as.server.logging.ServerLogger;
 import org.jboss.as.server.security.ServerPermission;
 
 /**
  * A reflection index for a deployment.
+ * <p/>
+ * The index can be used by any number of threads at once. Looking up a class that has already been indexed takes no
+ * lock, and indexing a class does not hold up lookups of other classes.
  *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public final class DeploymentReflectionIndex {
-    private final Map<Class<?>, ClassReflectionIndex> classes = new HashMap<Class<?>, ClassReflectionIndex>();
+    private final ConcurrentMap<Class<?>, ClassReflectionIndex> classes = new ConcurrentHashMap<Class<?>, ClassReflectionIndex>();
 
     DeploymentReflectionIndex() {
     }
@@ -61,19 +64,22 @@ public final class DeploymentReflectionIndex {
      * @return the index
      */
     @SuppressWarnings({"unchecked"})
-    public synchronized ClassReflectionIndex getClassIndex(Class clazz) {
+    public ClassReflectionIndex getClassIndex(Class clazz) {
+        ClassReflectionIndex index = classes.get(clazz);
+        if (index != null) {
+            return index;
+        }
         try {
-            ClassReflectionIndex index = classes.get(clazz);
-            if (index == null) {
-                final SecurityManager sm = System.getSecurityManager();
-                if (sm == null) {
-                    index = new ClassReflectionIndex(clazz, this);
-                } else {
-                    index = AccessController.doPrivileged((PrivilegedAction<ClassReflectionIndex>) () -> new ClassReflectionIndex(clazz, this));
-                }
-                classes.put(clazz, index);
+            // The index is built outside of the map, so a class being indexed does not block other lookups. Two
+            // threads may index the same class at the same time; both then use the index that got into the map
+            final SecurityManager sm = System.getSecurityManager();
+            if (sm == null) {
+                index = new ClassReflectionIndex(clazz, this);
+            } else {
+                index = AccessController.doPrivileged((PrivilegedAction<ClassReflectionIndex>) () -> new ClassReflectionIndex(clazz, this));
             }
-            return index;
+            final ClassReflectionIndex existing = classes.putIfAbsent(clazz, index);
+            return existing == null ? index : existing;
         } catch (Throwable e) {
             throw ServerLogger.ROOT_LOGGER.errorGettingReflectiveInformation(clazz, clazz.getClassLoader(), e);
         }
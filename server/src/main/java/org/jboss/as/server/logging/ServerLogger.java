@@ -1277,6 +1277,14 @@ public interface ServerLogger extends BasicLogger {
     @Message(id = 266, value = "Server home is set to '%s', but server real home is '%s' - unpredictable results may occur.")
     void serverHomeMismatch(Path passed, Path real);
 
+    @LogMessage(level = WARN)
+    @Message(id = 267, value = "Could not write the cached annotation index %s")
+    void cannotWriteCachedAnnotationIndex(Path path, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 268, value = "Could not remove the unused cached annotation indexes in %s")
+    void cannotRemoveCachedAnnotationIndexes(Path path, @Cause Throwable cause);
+
     ////////////////////////////////////////////////
     //Messages without IDs
 
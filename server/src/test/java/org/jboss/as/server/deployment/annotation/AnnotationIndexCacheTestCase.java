@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.jboss.as.controller.HashUtil;
+
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link AnnotationIndexCache}.
+ */
+public class AnnotationIndexCacheTestCase {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("annotation-index-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.walk(dir).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+    }
+
+    @Test
+    public void testIndexIsReadBack() throws IOException {
+        final AnnotationIndexCache cache = new AnnotationIndexCache(dir.resolve("content").resolve("root.idx"));
+        assertNull(cache.read());
+
+        final Indexer indexer = new Indexer();
+        try (InputStream in = getClass().getResourceAsStream(getClass().getSimpleName() + ".class")) {
+            indexer.index(in);
+        }
+        cache.write(indexer.complete());
+
+        final Index index = cache.read();
+        assertNotNull(index);
+        assertEquals(1, index.getKnownClasses().size());
+        assertNotNull(index.getClassByName(DotName.createSimple(getClass().getName())));
+        assertEquals(1, index.getAnnotations(DotName.createSimple(Test.class.getName())).size());
+    }
+
+    @Test
+    public void testUnusedEntriesAreRemoved() throws IOException {
+        final String used = "0123456789abcdef0123456789abcdef01234567";
+        final String removed = "89abcdef0123456789abcdef0123456789abcdef";
+        for (String hash : Arrays.asList(used, removed)) {
+            Files.createDirectories(dir.resolve(hash));
+            Files.write(dir.resolve(hash).resolve("root.idx"), new byte[1]);
+        }
+        Files.createDirectories(dir.resolve("unknown"));
+
+        AnnotationIndexCache.removeUnusedEntries(dir, hash -> HashUtil.bytesToHexString(hash).equals(used));
+
+        assertTrue(Files.isRegularFile(dir.resolve(used).resolve("root.idx")));
+        assertFalse(Files.exists(dir.resolve(removed)));
+        assertFalse(Files.exists(dir.resolve("unknown")));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.jboss.vfs.util.SuffixMatchFilter;
+import org.junit.Test;
+
+/**
+ * Tests that indexing the classes of a resource root in parallel gives the same index as indexing them sequentially.
+ */
+public class ResourceRootIndexerTestCase {
+
+    private static final DotName DEPRECATED = DotName.createSimple(Deprecated.class.getName());
+    private static final DotName OBJECT = DotName.createSimple(Object.class.getName());
+    private static final DotName CALLABLE = DotName.createSimple("java.util.concurrent.Callable");
+
+    @Test
+    public void testParallelIndexMatchesSequentialIndex() throws Exception {
+        // The thousands of classes of the server module stand in for a large jar
+        final VirtualFile root = VFS.getChild(ResourceRootIndexer.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final List<VirtualFile> classFiles = root.getChildrenRecursively(new SuffixMatchFilter(".class"));
+        assertTrue(classFiles.size() > 100);
+
+        final Index sequential = ResourceRootIndexer.indexClasses(classFiles, root, classFiles.size());
+        final Index parallel = ResourceRootIndexer.indexClasses(classFiles, root, 7);
+
+        assertEquals(names(sequential.getKnownClasses()), names(parallel.getKnownClasses()));
+        assertEquals(names(sequential.getKnownSubclasses(OBJECT)), names(parallel.getKnownSubclasses(OBJECT)));
+        assertEquals(names(sequential.getKnownDirectImplementors(CALLABLE)), names(parallel.getKnownDirectImplementors(CALLABLE)));
+        assertEquals(sequential.getAnnotations(DEPRECATED).size(), parallel.getAnnotations(DEPRECATED).size());
+        for (ClassInfo classInfo : sequential.getKnownClasses()) {
+            assertEquals(classInfo.annotations().keySet(), parallel.getClassByName(classInfo.name()).annotations().keySet());
+        }
+    }
+
+    private static Set<DotName> names(final Iterable<ClassInfo> classes) {
+        final Set<DotName> names = new HashSet<>();
+        for (ClassInfo classInfo : classes) {
+            names.add(classInfo.name());
+        }
+        return names;
+    }
+}
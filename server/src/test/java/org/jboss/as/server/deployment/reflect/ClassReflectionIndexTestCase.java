@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.jboss.as.server.deployment.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.invocation.proxy.MethodIdentifier;
+import org.junit.Test;
+
+/**
+ * Tests that the lookups of {@link ClassReflectionIndex} find the declared members reflection reports.
+ */
+public class ClassReflectionIndexTestCase {
+
+    private static final List<Class<?>> CLASSES = Arrays.asList(String.class, Object.class, HashMap.class,
+            ConcurrentHashMap.class, StringBuilder.class, Thread.class, Integer.class, ClassReflectionIndex.class);
+
+    @Test
+    public void testLookupsMatchReflection() {
+        final DeploymentReflectionIndex index = DeploymentReflectionIndex.create();
+        for (Class<?> clazz : CLASSES) {
+            final ClassReflectionIndex classIndex = index.getClassIndex(clazz);
+
+            assertEquals(clazz.getDeclaredFields().length, classIndex.getFields().size());
+            for (Field field : clazz.getDeclaredFields()) {
+                assertEquals(field, classIndex.getField(field.getName()));
+            }
+
+            final Method[] declaredMethods = clazz.getDeclaredMethods();
+            assertEquals(declaredMethods.length, classIndex.getMethods().size());
+            for (Method method : declaredMethods) {
+                final Class<?>[] parameterTypes = method.getParameterTypes();
+                final String[] parameterTypeNames = MethodIdentifier.getIdentifierForMethod(method).getParameterTypes();
+                final Method found = classIndex.getMethod(method);
+                assertEquals(method, found);
+                assertSame(found, classIndex.getMethod(method.getReturnType(), method.getName(), parameterTypes));
+                assertSame(found, classIndex.getMethod(method.getReturnType().getName(), method.getName(), parameterTypeNames));
+                assertSame(found, classIndex.getMethod(MethodIdentifier.getIdentifierForMethod(method)));
+                assertTrue(classIndex.getMethods(method.getName(), parameterTypes).contains(found));
+                assertTrue(classIndex.getMethods(method.getName(), parameterTypeNames).contains(found));
+                assertTrue(classIndex.getAllMethods(method.getName()).contains(found));
+                assertTrue(classIndex.getAllMethods(method.getName(), parameterTypes.length).contains(found));
+                assertEquals(count(declaredMethods, method.getName()), classIndex.getAllMethods(method.getName()).size());
+            }
+
+            assertEquals(clazz.getDeclaredConstructors().length, classIndex.getConstructors().size());
+            for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+                assertEquals(constructor, classIndex.getConstructor(constructor.getParameterTypes()));
+                final String[] parameterTypeNames = new String[constructor.getParameterCount()];
+                for (int i = 0; i < parameterTypeNames.length; i++) {
+                    parameterTypeNames[i] = constructor.getParameterTypes()[i].getName();
+                }
+                assertEquals(constructor, classIndex.getConstructor(parameterTypeNames));
+            }
+        }
+    }
+
+    @Test
+    public void testMissingMembers() {
+        final ClassReflectionIndex classIndex = DeploymentReflectionIndex.create().getClassIndex(String.class);
+        assertNull(classIndex.getField("noSuchField"));
+        assertNull(classIndex.getMethod(int.class, "noSuchMethod"));
+        assertNull(classIndex.getMethod(long.class, "length"));
+        assertNull(classIndex.getMethod(int.class, "length", int.class));
+        assertNull(classIndex.getMethod("int", "length", "int"));
+        assertTrue(classIndex.getMethods("noSuchMethod", new Class<?>[0]).isEmpty());
+        assertTrue(classIndex.getAllMethods("noSuchMethod").isEmpty());
+        assertNull(classIndex.getConstructor(Thread.class));
+        assertNull(classIndex.getConstructor(Thread.class.getName()));
+        // Names sorting before and after all of the declared methods
+        assertTrue(classIndex.getAllMethods("").isEmpty());
+        assertTrue(classIndex.getAllMethods("~").isEmpty());
+    }
+
+    @Test
+    public void testBridgeMethodsAreKeptApart() {
+        // Integer.compareTo(Integer) has a bridge method compareTo(Object)
+        final ClassReflectionIndex classIndex = DeploymentReflectionIndex.create().getClassIndex(Integer.class);
+        final Collection<Method> methods = classIndex.getAllMethods("compareTo", 1);
+        assertEquals(2, methods.size());
+        final Set<Class<?>> parameterTypes = new HashSet<>();
+        for (Method method : methods) {
+            parameterTypes.add(method.getParameterTypes()[0]);
+        }
+        assertEquals(new HashSet<>(Arrays.asList(Integer.class, Object.class)), parameterTypes);
+    }
+
+    private static int count(final Method[] methods, final String name) {
+        int count = 0;
+        for (Method method : methods) {
+            if (method.getName().equals(name)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
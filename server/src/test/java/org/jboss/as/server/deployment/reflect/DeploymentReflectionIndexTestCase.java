@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2017, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link DeploymentReflectionIndex}.
+ */
+public class DeploymentReflectionIndexTestCase {
+
+    private static final int THREADS = 8;
+    private static final int LOOKUPS_PER_THREAD = 10000;
+
+    private static final List<Class<?>> CLASSES = Arrays.asList(String.class, Object.class, HashMap.class,
+            ConcurrentHashMap.class, ArrayList.class, Thread.class, Integer.class, DeploymentReflectionIndex.class);
+
+    @Test
+    public void testConcurrentLookupsShareOneIndexPerClass() throws Exception {
+        final DeploymentReflectionIndex index = DeploymentReflectionIndex.create();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Map<Class<?>, ClassReflectionIndex>>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                final int offset = i;
+                results.add(executor.submit(() -> {
+                    final Map<Class<?>, ClassReflectionIndex> seen = new HashMap<>();
+                    start.await();
+                    for (int j = 0; j < LOOKUPS_PER_THREAD; j++) {
+                        final Class<?> clazz = CLASSES.get((offset + j) % CLASSES.size());
+                        final ClassReflectionIndex classIndex = index.getClassIndex(clazz);
+                        final ClassReflectionIndex previous = seen.put(clazz, classIndex);
+                        if (previous != null) {
+                            assertSame(previous, classIndex);
+                        }
+                    }
+                    return seen;
+                }));
+            }
+            start.countDown();
+
+            for (Future<Map<Class<?>, ClassReflectionIndex>> result : results) {
+                for (Map.Entry<Class<?>, ClassReflectionIndex> entry : result.get(60, TimeUnit.SECONDS).entrySet()) {
+                    assertSame(index.getClassIndex(entry.getKey()), entry.getValue());
+                    assertSame(entry.getKey(), entry.getValue().getIndexedClass());
+                }
+            }
+            assertNotNull(index.getClassIndex(String.class).getMethod(int.class, "length"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -22,6 +22,8 @@
 package org.jboss.as.test.integration.management.util;
 
 import io.undertow.util.StatusCodes;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.net.URL;
 
 import org.apache.http.HttpResponse;
@@ -31,6 +33,7 @@ import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.HttpClients;
@@ -47,6 +50,7 @@ import org.jboss.dmr.ModelNode;
 public class HttpMgmtProxy {
 
     private static final String APPLICATION_JSON = "application/json";
+    private static final String APPLICATION_DMR = "application/dmr";
     private URL url;
     private HttpClient httpClient;
     private HttpContext httpContext = new BasicHttpContext();
@@ -95,6 +99,43 @@ public class HttpMgmtProxy {
         throw new Exception("Could not execute command: " + str);
     }
 
+    /**
+     * Sends the operation, and receives the response, in the binary DMR format rather than as JSON.
+     */
+    public ModelNode sendPostCommandBinary(ModelNode cmd) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cmd.writeExternal(out);
+        HttpPost post = new HttpPost(url.toURI());
+        ByteArrayEntity entity = new ByteArrayEntity(out.toByteArray());
+        entity.setContentType(APPLICATION_DMR);
+        post.setEntity(entity);
+
+        HttpResponse response = httpClient.execute(post, httpContext);
+        if (response.getStatusLine().getStatusCode() == StatusCodes.OK) {
+            try (InputStream in = response.getEntity().getContent()) {
+                return ModelNode.fromStream(in);
+            }
+        }
+        throw new Exception("Could not execute command: " + EntityUtils.toString(response.getEntity()));
+    }
+
+    /**
+     * Sends a list of read-only operations to be executed together, and receives the list of their responses.
+     */
+    public ModelNode sendBatchReadCommand(ModelNode cmds) throws Exception {
+        HttpPost post = new HttpPost(url.toURI().toString() + "/batch-read");
+        StringEntity entity = new StringEntity(cmds.toJSONString(true));
+        entity.setContentType(APPLICATION_JSON);
+        post.setEntity(entity);
+
+        HttpResponse response = httpClient.execute(post, httpContext);
+        String str = EntityUtils.toString(response.getEntity());
+        if (response.getStatusLine().getStatusCode() == StatusCodes.OK) {
+            return ModelNode.fromJSONString(str);
+        }
+        throw new Exception("Could not execute commands: " + str);
+    }
+
     public static ModelNode getOpNode(String address, String operation) {
         ModelNode op = new ModelNode();
 
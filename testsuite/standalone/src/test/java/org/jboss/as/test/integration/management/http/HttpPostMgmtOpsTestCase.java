@@ -104,6 +104,46 @@ public class HttpPostMgmtOpsTestCase {
 
     }
 
+    @Test
+    public void testReadResourceBinary() throws Exception {
+
+        ModelNode op = HttpMgmtProxy.getOpNode("subsystem=logging", "read-resource");
+        op.get("recursive").set(true);
+
+        ModelNode ret = httpMgmt.sendPostCommandBinary(op);
+        assertTrue("success".equals(ret.get("outcome").asString()));
+        ModelNode result = ret.get("result");
+        assertTrue(result.get("root-logger", "ROOT", "level").isDefined());
+        assertEquals(httpMgmt.sendPostCommand(op).get("result").keys(), result.keys());
+    }
+
+    @Test
+    public void testBatchRead() throws Exception {
+
+        ModelNode ops = new ModelNode();
+        ops.add(HttpMgmtProxy.getOpNode("subsystem=logging", "read-resource"));
+        ModelNode op = HttpMgmtProxy.getOpNode("subsystem=logging", "read-attribute");
+        op.get("name").set("add-logging-api-dependencies");
+        ops.add(op);
+        ops.add(HttpMgmtProxy.getOpNode("subsystem=logging/logger=does-not-exist", "read-resource"));
+        op = HttpMgmtProxy.getOpNode("subsystem=logging/logger=test_batch_read", "add");
+        op.get("level").set("TRACE");
+        ops.add(op);
+
+        List<ModelNode> ret = httpMgmt.sendBatchReadCommand(ops).asList();
+        assertEquals(4, ret.size());
+        assertTrue("success".equals(ret.get(0).get("outcome").asString()));
+        assertTrue(ret.get(0).get("result").has("root-logger"));
+        assertTrue("success".equals(ret.get(1).get("outcome").asString()));
+        assertEquals(ModelType.BOOLEAN, ret.get(1).get("result").getType());
+        assertTrue("failed".equals(ret.get(2).get("outcome").asString()));
+        // Operations that are not read-only are rejected
+        assertTrue("failed".equals(ret.get(3).get("outcome").asString()));
+        assertTrue(ret.get(3).get("failure-description").asString().contains("WFLYDMHTTP0017"));
+        ModelNode read = httpMgmt.sendPostCommand(HttpMgmtProxy.getOpNode("subsystem=logging/logger=test_batch_read", "read-resource"), true);
+        assertTrue("failed".equals(read.get("outcome").asString()));
+    }
+
     @Test
     public void testReadAttribute() throws Exception {
 